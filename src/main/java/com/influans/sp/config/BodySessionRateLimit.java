@@ -0,0 +1,15 @@
+package com.influans.sp.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler whose session id is carried by the request body: {@link RateLimitInterceptor} does not throttle
+ * it before the body is read, the handler calls {@link RateLimitInterceptor#acquire} with the session id instead.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BodySessionRateLimit {
+}
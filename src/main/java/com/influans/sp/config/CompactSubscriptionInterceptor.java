@@ -0,0 +1,44 @@
+package com.influans.sp.config;
+
+import com.influans.sp.websocket.CompactVoteBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Declares the vote handles of a session again once the broker registered a subscription to its compact destination,
+ * so that the new subscriber knows the handles assigned after it fetched the dictionary.
+ */
+@Component
+public class CompactSubscriptionInterceptor extends ChannelInterceptorAdapter implements ExecutorChannelInterceptor {
+
+    // the broadcaster needs the messaging template, which is created from the channels this interceptor is part of
+    @Autowired
+    @Lazy
+    private CompactVoteBroadcaster compactVoteBroadcaster;
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (ex != null || !(handler instanceof AbstractBrokerMessageHandler)
+                || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.SUBSCRIBE) {
+            return;
+        }
+        final String sessionId = compactVoteBroadcaster.getCompactSessionId(SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+        if (sessionId != null) {
+            compactVoteBroadcaster.resendHandles(sessionId);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.influans.sp.config;
+
+import com.influans.sp.entity.SessionEntity;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.service.SessionRoutingService;
+import com.influans.sp.utils.IdGenerator;
+import com.influans.sp.utils.ObjectIdGenerator;
+import com.influans.sp.utils.SnowflakeIdGenerator;
+import com.influans.sp.utils.StringUtils;
+import com.influans.sp.utils.TimeOrderedIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * ids.generator selects how session and story ids are generated:
+ * <ul>
+ * <li>objectId: mongo object ids, 24 characters (default, the ids generated before this option existed)</li>
+ * <li>timeOrdered: 17 characters, sorted by creation time, no configuration needed</li>
+ * <li>snowflake: 11 characters, 64 bits made of time, node (ids.node) and sequence</li>
+ * </ul>
+ * Snowflake nodes must be unique: without ids.node, the node is derived from the hash of cluster.node.self, and the
+ * application does not start if two nodes of cluster.nodes derive the same node.
+ * Time ordered ids are appended to the right of the _id index instead of being spread over it. Ids of different
+ * generators may coexist in a database, the generator can be changed at any time.
+ * <p/>
+ * Ids are assigned before the entities are converted, so they are known before the insert is sent, and by the
+ * services preparing bulk inserts.
+ */
+@Configuration
+public class IdGeneratorConfig {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdGeneratorConfig.class);
+    public static final String OBJECT_ID = "objectId";
+    public static final String TIME_ORDERED = "timeOrdered";
+    public static final String SNOWFLAKE = "snowflake";
+
+    @Value("${ids.generator:objectId}")
+    private String generator;
+
+    // node number of the snowflake ids, derived from cluster.node.self if negative
+    @Value("${ids.node:-1}")
+    private int node;
+
+    @Value("${cluster.node.self:}")
+    private String selfNode;
+
+    @Value("${cluster.nodes:}")
+    private String clusterNodes;
+
+    /**
+     * @return generator selected by ids.generator
+     * @should use the configured snowflake node
+     * @should derive the snowflake node from the current node
+     * @should fail if two nodes of the cluster derive the same snowflake node
+     * @should fail if the current node is not set in a cluster
+     */
+    @Bean
+    public IdGenerator idGenerator() {
+        if (TIME_ORDERED.equalsIgnoreCase(generator)) {
+            return new TimeOrderedIdGenerator();
+        }
+        if (SNOWFLAKE.equalsIgnoreCase(generator)) {
+            return new SnowflakeIdGenerator(snowflakeNode());
+        }
+        if (!OBJECT_ID.equalsIgnoreCase(generator)) {
+            LOGGER.warn("Unknown id generator {}, object ids are used", generator);
+        }
+        return new ObjectIdGenerator();
+    }
+
+    @Bean
+    public AbstractMongoEventListener<Object> idAssigningListener(IdGenerator idGenerator) {
+        return new AbstractMongoEventListener<Object>() {
+            @Override
+            public void onBeforeConvert(BeforeConvertEvent<Object> event) {
+                final Object source = event.getSource();
+                if (source instanceof SessionEntity && ((SessionEntity) source).getSessionId() == null) {
+                    ((SessionEntity) source).setSessionId(idGenerator.nextId());
+                } else if (source instanceof StoryEntity && ((StoryEntity) source).getStoryId() == null) {
+                    ((StoryEntity) source).setStoryId(idGenerator.nextId());
+                }
+            }
+        };
+    }
+
+    private int snowflakeNode() {
+        if (node >= 0) {
+            return node;
+        }
+        final String self = SessionRoutingService.normalizeNode(selfNode);
+        final List<String> nodes = StringUtils.isEmpty(clusterNodes, true) ? Collections.emptyList()
+                : Arrays.stream(clusterNodes.split(",")).map(SessionRoutingService::normalizeNode)
+                .filter(clusterNode -> !clusterNode.isEmpty()).distinct().collect(Collectors.toList());
+        if (!nodes.isEmpty()) {
+            if (self.isEmpty()) {
+                throw new IllegalStateException("snowflake ids need ids.node or cluster.node.self in a cluster");
+            }
+            final Map<Integer, String> derivedNodes = new HashMap<>();
+            for (String clusterNode : nodes) {
+                final String previous = derivedNodes.put(derivedNode(clusterNode), clusterNode);
+                if (previous != null) {
+                    throw new IllegalStateException("nodes " + previous + " and " + clusterNode
+                            + " derive the same snowflake node, set ids.node on each node");
+                }
+            }
+        }
+        if (!self.isEmpty()) {
+            return derivedNode(self);
+        }
+        final int randomNode = ThreadLocalRandom.current().nextInt(SnowflakeIdGenerator.MAX_NODE + 1);
+        LOGGER.warn("Neither ids.node nor cluster.node.self is set, snowflake ids use the random node {}", randomNode);
+        return randomNode;
+    }
+
+    private static int derivedNode(String clusterNode) {
+        return (clusterNode.hashCode() & Integer.MAX_VALUE) % (SnowflakeIdGenerator.MAX_NODE + 1);
+    }
+}
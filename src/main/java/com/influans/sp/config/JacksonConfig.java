@@ -0,0 +1,48 @@
+package com.influans.sp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.influans.sp.dto.DefaultResponse;
+import com.influans.sp.utils.JsonSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Exposes the mapper of {@link JsonSerializer} as the application ObjectMapper: Spring Boot then uses it for the MVC
+ * message converter instead of creating its own, and {@link WebSocketConfig} uses it for STOMP frames. The readers and
+ * writers of every class of the dto package are built at startup.
+ */
+@Configuration
+public class JacksonConfig {
+    private static final String DTO_PACKAGE = DefaultResponse.class.getPackage().getName();
+
+    @Value("${json.afterburner.enabled:false}")
+    private boolean afterburnerEnabled;
+
+    @Bean
+    @Primary
+    public ObjectMapper objectMapper() {
+        if (afterburnerEnabled) {
+            // generated accessors instead of reflection for getters, setters and constructors
+            JsonSerializer.registerModule(new AfterburnerModule());
+        }
+        JsonSerializer.warmUp(dtoClasses());
+        return JsonSerializer.getObjectMapper();
+    }
+
+    /**
+     * @return concrete classes of the dto package
+     * @should find every dto class
+     */
+    static Class<?>[] dtoClasses() {
+        final ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+        return scanner.findCandidateComponents(DTO_PACKAGE).stream()
+                .map(beanDefinition -> ClassUtils.resolveClassName(beanDefinition.getBeanClassName(), JacksonConfig.class.getClassLoader()))
+                .toArray(Class<?>[]::new);
+    }
+}
@@ -0,0 +1,103 @@
+package com.influans.sp.config;
+
+import com.influans.sp.service.RateLimiterService;
+import com.influans.sp.utils.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Throttles REST calls per session and per client IP. The endpoint family is the first segment of the path
+ * (votes, users, stories...), throttled calls are answered with 429 by the exception handler. Behind trusted proxies
+ * the client IP is read from X-Forwarded-For, handlers reading their session from the body are throttled by the
+ * handler itself (see {@link BodySessionRateLimit}).
+ */
+@Component
+public class RateLimitInterceptor extends HandlerInterceptorAdapter {
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+    private static final String ANY_PROXY = "*";
+
+    @Autowired
+    private RateLimiterService rateLimiterService;
+
+    @Value("${ratelimit.trustedProxies:}")
+    private String configuredTrustedProxies;
+
+    private final Set<String> trustedProxies = new HashSet<>();
+
+    @PostConstruct
+    public void init() {
+        if (!StringUtils.isEmpty(configuredTrustedProxies, true)) {
+            for (String proxy : configuredTrustedProxies.split(",")) {
+                trustedProxies.add(proxy.trim());
+            }
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // tokens have already been consumed by the initial dispatch of the async request
+            return true;
+        }
+        if (handler instanceof HandlerMethod && ((HandlerMethod) handler).getMethodAnnotation(BodySessionRateLimit.class) != null) {
+            return true;
+        }
+        acquire(request, SessionRoutingInterceptor.getSessionId(request));
+        return true;
+    }
+
+    /**
+     * @param request   current request
+     * @param sessionId session the request belongs to, may be null
+     * @throws com.influans.sp.exception.RateLimitException if the session or the client is throttled
+     */
+    public void acquire(HttpServletRequest request, String sessionId) {
+        rateLimiterService.acquire(getFamily(request.getRequestURI()),
+                StringUtils.isEmpty(sessionId) ? null : RateLimiterService.SESSION_KEY_PREFIX + sessionId,
+                "client:" + getClient(request));
+    }
+
+    static String getFamily(String uri) {
+        final int start = uri.startsWith("/") ? 1 : 0;
+        final int end = uri.indexOf('/', start);
+        return end < 0 ? uri.substring(start) : uri.substring(start, end);
+    }
+
+    /**
+     * @param request current request
+     * @return the first address of the X-Forwarded-For chain, read from the right, that is not a trusted proxy. The
+     * remote address if the request does not come from a trusted proxy
+     * @should ignore X-Forwarded-For if the remote address is not a trusted proxy
+     * @should skip trusted proxies of the X-Forwarded-For chain
+     */
+    public String getClient(HttpServletRequest request) {
+        String client = request.getRemoteAddr();
+        final String forwardedFor = request.getHeader(FORWARDED_FOR);
+        if (StringUtils.isEmpty(forwardedFor, true) || !isTrusted(client)) {
+            return client;
+        }
+        final String[] chain = forwardedFor.split(",");
+        for (int i = chain.length - 1; i >= 0; i--) {
+            client = chain[i].trim();
+            if (trustedProxies.contains(ANY_PROXY) || !trustedProxies.contains(client)) {
+                // with any proxy trusted, only the address added by the proxy in front of us can be relied on
+                return client;
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrusted(String address) {
+        return trustedProxies.contains(ANY_PROXY) || trustedProxies.contains(address);
+    }
+}
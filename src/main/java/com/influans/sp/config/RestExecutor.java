@@ -0,0 +1,112 @@
+package com.influans.sp.config;
+
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.utils.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs the service calls of the REST controllers outside of the servlet container threads, which are released as
+ * soon as the controller returns its {@link CompletableFuture}. The execution mode (rest.async.executor) is:
+ * <ul>
+ * <li>sync (default): service calls run on the container thread, as before</li>
+ * <li>pool: bounded thread pool, which should be at least as large as the connector thread pool. Calls wait in a
+ * bounded queue once every thread is busy and are rejected with 503 once the queue is full</li>
+ * <li>virtual: one virtual thread per call, falls back to pool on JDKs without virtual threads</li>
+ * </ul>
+ * The pool mode is switched to virtual when virtual threads are enabled for the whole application
+ * (see {@link ThreadingConfig}).
+ */
+@Component
+public class RestExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestExecutor.class);
+    public static final String SYNC = "sync";
+    public static final String POOL = "pool";
+    public static final String VIRTUAL = "virtual";
+
+    @Value("${rest.async.executor:sync}")
+    private String mode;
+
+    @Value("${rest.async.poolSize:200}")
+    private int poolSize;
+
+    @Value("${rest.async.queueCapacity:1000}")
+    private int queueCapacity;
+
+    @Autowired
+    private ThreadingConfig threadingConfig;
+
+    private Executor executor;
+    private ThreadPoolTaskExecutor threadPool;
+    private ExecutorService virtualThreads;
+
+    @PostConstruct
+    public void init() {
+        if (VIRTUAL.equals(mode) || (POOL.equals(mode) && threadingConfig.isVirtual())) {
+            virtualThreads = VirtualThreads.newPerTaskExecutor();
+            executor = virtualThreads;
+            if (virtualThreads == null) {
+                LOGGER.warn("Virtual threads are not available on java {}, REST service calls fall back to the pool", System.getProperty("java.version"));
+            }
+        }
+        if (executor == null && !SYNC.equals(mode)) {
+            threadPool = new ThreadPoolTaskExecutor();
+            threadPool.setCorePoolSize(poolSize);
+            threadPool.setMaxPoolSize(poolSize);
+            threadPool.setQueueCapacity(queueCapacity);
+            threadPool.setThreadNamePrefix("rest-");
+            threadPool.initialize();
+            executor = threadPool;
+        }
+        if (executor == null) {
+            executor = Runnable::run;
+        }
+        LOGGER.info("REST service calls executed in {} mode", virtualThreads != null ? VIRTUAL : threadPool != null ? POOL : SYNC);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (threadPool != null) {
+            threadPool.shutdown();
+        }
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+    }
+
+    /**
+     * @param supplier service call
+     * @param <T>      result type
+     * @return future completed with the result, or exceptionally with the exception thrown by the service
+     * @should complete with the supplier result
+     * @should complete exceptionally with the exception thrown by the supplier
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(supplier.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new BusinessException(CustomErrorCode.SERVICE_UNAVAILABLE, "server is overloaded, retry later"));
+        }
+        return future;
+    }
+}
@@ -1,8 +1,12 @@
 package com.influans.sp.config;
 
+import com.influans.sp.exception.BusinessException;
 import com.influans.sp.exception.CustomException;
+import com.influans.sp.exception.RateLimitException;
+import com.influans.sp.service.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +18,7 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.Date;
+import java.util.concurrent.CompletionException;
 
 import static com.influans.sp.dto.ErrorResponse.Attributes.*;
 
@@ -21,20 +26,40 @@ import static com.influans.sp.dto.ErrorResponse.Attributes.*;
 public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(RestResponseEntityExceptionHandler.class);
 
+    @Autowired
+    private MetricsService metricsService;
+
     @ExceptionHandler(value = {Exception.class})
     protected ResponseEntity<Object> handleConflict(Exception ex, WebRequest request, HttpServletRequest httpServletRequest) {
-        LOGGER.error("Error ", ex);
+        if (ex instanceof CompletionException && ex.getCause() instanceof Exception) {
+            // failures of async controllers may be wrapped by the future
+            ex = (Exception) ex.getCause();
+        }
         HttpStatus httpStatus = HttpStatus.INTERNAL_SERVER_ERROR;
 
         if (ex instanceof CustomException) {
             final CustomException exception = (CustomException) ex;
             httpStatus = HttpStatus.valueOf(exception.getCustomErrorCode().getStatusCode());
+            metricsService.incrementError(exception.getCustomErrorCode());
+        } else {
+            metricsService.incrementError(null);
+        }
+
+        if (ex instanceof BusinessException) {
+            // expected errors: no stack trace to log
+            LOGGER.debug("[{}] {}: {}", httpStatus.value(), httpServletRequest.getRequestURI(), ex.getMessage());
+        } else {
+            LOGGER.error("Error ", ex);
         }
 
         final ModelMap response = new ModelMap();
         response.addAttribute(DATE_TIME, new Date());
         response.addAttribute(EXCEPTION, ex.getMessage());
         response.addAttribute(URI, httpServletRequest.getRequestURI());
-        return handleExceptionInternal(ex, response, new HttpHeaders(), httpStatus, request);
+        final HttpHeaders headers = new HttpHeaders();
+        if (ex instanceof RateLimitException) {
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(((RateLimitException) ex).getRetryAfterSeconds()));
+        }
+        return handleExceptionInternal(ex, response, headers, httpStatus, request);
     }
 }
@@ -0,0 +1,62 @@
+package com.influans.sp.config;
+
+import com.influans.sp.service.SessionRoutingService;
+import com.influans.sp.utils.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+/**
+ * Redirects REST calls to the node owning the session (307 keeps the method and the body). The session is read from
+ * the sessionId path variable, the sessionId query parameter or the X-Session-Id header; calls that do not carry it
+ * are served locally.
+ */
+@Component
+public class SessionRoutingInterceptor extends HandlerInterceptorAdapter {
+    public static final String SESSION_HEADER = "X-Session-Id";
+    public static final String SESSION_PARAMETER = "sessionId";
+
+    @Autowired
+    private SessionRoutingService sessionRoutingService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!sessionRoutingService.isEnabled()) {
+            return true;
+        }
+        final String sessionId = getSessionId(request);
+        if (StringUtils.isEmpty(sessionId) || sessionRoutingService.isLocal(sessionId)) {
+            return true;
+        }
+
+        response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+        response.setHeader(HttpHeaders.LOCATION, ownerUrl(sessionRoutingService.getOwner(sessionId), request));
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    static String getSessionId(HttpServletRequest request) {
+        final Map<String, String> pathVariables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (pathVariables != null && pathVariables.containsKey(SESSION_PARAMETER)) {
+            return pathVariables.get(SESSION_PARAMETER);
+        }
+        final String sessionId = request.getParameter(SESSION_PARAMETER);
+        return sessionId != null ? sessionId : request.getHeader(SESSION_HEADER);
+    }
+
+    static String ownerUrl(String owner, HttpServletRequest request) {
+        final StringBuilder url = new StringBuilder(owner.endsWith("/") ? owner.substring(0, owner.length() - 1) : owner)
+                .append(request.getRequestURI());
+        if (request.getQueryString() != null) {
+            url.append('?').append(request.getQueryString());
+        }
+        return url.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package com.influans.sp.config;
+
+import com.influans.sp.service.RateLimiterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Throttles STOMP SEND frames (handled by @MessageMapping methods) per websocket connection. Throttled frames are
+ * dropped.
+ */
+@Component
+public class StompRateLimitInterceptor extends ChannelInterceptorAdapter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StompRateLimitInterceptor.class);
+    public static final String FAMILY = "stomp";
+
+    @Autowired
+    private RateLimiterService rateLimiterService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        final StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if (StompCommand.SEND.equals(accessor.getCommand())
+                && !rateLimiterService.tryAcquire(FAMILY, "client:" + accessor.getSessionId())) {
+            LOGGER.debug("[WS] throttled frame from {} to {}", accessor.getSessionId(), accessor.getDestination());
+            return null;
+        }
+        return message;
+    }
+}
@@ -0,0 +1,160 @@
+package com.influans.sp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.influans.sp.enums.WireFormat;
+import com.influans.sp.utils.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Lets STOMP clients opt into a binary encoding of the MESSAGE bodies with an accept-format header in their CONNECT
+ * frame (e.g. accept-format:cbor,smile,json). JSON stays the default. Binary frames cannot go through SockJS, so only
+ * the connections opened on the raw websocket endpoint may negotiate a binary format.
+ * <p/>
+ * Binary MESSAGE frames are sent with content-type application/octet-stream and a content-format header naming the
+ * encoding. The broker shares one payload between all the subscribers of a destination: the re-encoded body is cached
+ * per payload so that it is encoded once per format and not once per subscriber.
+ */
+@Component
+public class StompWireFormatInterceptor extends ChannelInterceptorAdapter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StompWireFormatInterceptor.class);
+    public static final String ACCEPT_FORMAT_HEADER = "accept-format";
+    public static final String CONTENT_FORMAT_HEADER = "content-format";
+    static final String BINARY_CAPABLE_ATTRIBUTE = "wireFormat.binaryCapable";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<WireFormat, ObjectMapper> binaryMappers = new EnumMap<>(WireFormat.class);
+    // payload identity -> encoded payload, one cache per binary format
+    private final Map<WireFormat, Cache<Object, byte[]>> encodedPayloads = new EnumMap<>(WireFormat.class);
+    // websocket session id -> negotiated binary format
+    private final Map<String, WireFormat> sessionFormats = new ConcurrentHashMap<>();
+
+    public StompWireFormatInterceptor() {
+        binaryMappers.put(WireFormat.CBOR, new ObjectMapper(new CBORFactory()));
+        binaryMappers.put(WireFormat.SMILE, new ObjectMapper(new SmileFactory()));
+        for (WireFormat wireFormat : binaryMappers.keySet()) {
+            encodedPayloads.put(wireFormat, CacheBuilder.newBuilder().weakKeys().maximumSize(1024).build());
+        }
+    }
+
+    /**
+     * @should negotiate the first supported binary format on binary capable connections
+     * @should keep json on sockjs connections
+     * @should encode messages sent to sessions having negotiated a binary format
+     * @should encode a shared payload only once
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        final SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        if (SimpMessageType.CONNECT.equals(accessor.getMessageType())) {
+            negotiate(StompHeaderAccessor.wrap(message));
+        } else if (SimpMessageType.DISCONNECT.equals(accessor.getMessageType())) {
+            sessionFormats.remove(accessor.getSessionId());
+        } else if (SimpMessageType.MESSAGE.equals(accessor.getMessageType()) && accessor.getSessionId() != null) {
+            final WireFormat wireFormat = sessionFormats.get(accessor.getSessionId());
+            if (wireFormat != null && message.getPayload() instanceof byte[]) {
+                return encode(message, wireFormat);
+            }
+        }
+        return message;
+    }
+
+    /**
+     * @param sessionId websocket session id
+     * @return format negotiated by the session
+     */
+    public WireFormat getWireFormat(String sessionId) {
+        return sessionFormats.getOrDefault(sessionId, WireFormat.JSON);
+    }
+
+    /**
+     * @return handshake interceptor of the endpoints accepting binary frames
+     */
+    public HandshakeInterceptor binaryCapableHandshakeInterceptor() {
+        return new HandshakeInterceptor() {
+            @Override
+            public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+                                           Map<String, Object> attributes) {
+                attributes.put(BINARY_CAPABLE_ATTRIBUTE, Boolean.TRUE);
+                return true;
+            }
+
+            @Override
+            public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+                                       Exception exception) {
+            }
+        };
+    }
+
+    /**
+     * @param json       json payload
+     * @param wireFormat target format
+     * @return payload encoded in the given format
+     * @throws IOException if the payload is not valid json
+     * @should encode json payloads in the given binary format
+     */
+    public byte[] transcode(byte[] json, WireFormat wireFormat) throws IOException {
+        final ObjectMapper binaryMapper = binaryMappers.get(wireFormat);
+        return binaryMapper == null ? json : binaryMapper.writeValueAsBytes(objectMapper.readTree(json));
+    }
+
+    private void negotiate(StompHeaderAccessor accessor) {
+        final String acceptFormat = accessor.getFirstNativeHeader(ACCEPT_FORMAT_HEADER);
+        final Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (StringUtils.isEmpty(acceptFormat) || attributes == null || !attributes.containsKey(BINARY_CAPABLE_ATTRIBUTE)) {
+            return;
+        }
+        for (String candidate : acceptFormat.split(",")) {
+            final WireFormat wireFormat = WireFormat.toEnum(candidate.trim());
+            if (wireFormat == WireFormat.JSON) {
+                return;
+            }
+            if (wireFormat != null) {
+                sessionFormats.put(accessor.getSessionId(), wireFormat);
+                return;
+            }
+        }
+    }
+
+    private Message<?> encode(Message<?> message, WireFormat wireFormat) {
+        final byte[] payload = (byte[]) message.getPayload();
+        final byte[] encoded;
+        try {
+            encoded = encodedPayloads.get(wireFormat).get(payload, () -> transcode(payload, wireFormat));
+        } catch (ExecutionException e) {
+            LOGGER.error("[WS] could not encode message in " + wireFormat.getValue(), e.getCause());
+            return message;
+        }
+        final SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        accessor.setNativeHeader(CONTENT_FORMAT_HEADER, wireFormat.getValue());
+        return MessageBuilder.createMessage(encoded, accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,81 @@
+package com.influans.sp.config;
+
+import com.influans.sp.utils.VirtualThreads;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.embedded.ConfigurableEmbeddedServletContainer;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * threads.virtual.enabled moves the blocking parts of the application to virtual threads: the embedded Tomcat
+ * connector, the REST service calls (see {@link RestExecutor}) and the STOMP inbound and outbound channels. On JDKs
+ * without virtual threads the property is ignored and the platform pools are kept.
+ * <p/>
+ * When the application is deployed as a war, the connector threads belong to the external container and only the
+ * service calls and the STOMP channels are affected.
+ */
+@Configuration
+public class ThreadingConfig implements EmbeddedServletContainerCustomizer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    @Value("${threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    private boolean virtual;
+    private ExecutorService connectorExecutor;
+
+    @PostConstruct
+    public void init() {
+        virtual = virtualThreadsEnabled && VirtualThreads.isSupported();
+        if (virtualThreadsEnabled && !virtual) {
+            LOGGER.warn("Virtual threads are not available on java {}, platform thread pools are used", System.getProperty("java.version"));
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // tomcat does not stop executors it did not create
+        if (connectorExecutor != null) {
+            connectorExecutor.shutdown();
+        }
+    }
+
+    /**
+     * @return true if virtual threads are enabled and supported by the running JDK
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * @return executor for a STOMP channel, null to keep the default pool
+     */
+    public ThreadPoolTaskExecutor newChannelExecutor() {
+        return virtual ? new VirtualThreadTaskExecutor(VirtualThreads.newPerTaskExecutor()) : null;
+    }
+
+    @Override
+    public void customize(ConfigurableEmbeddedServletContainer container) {
+        if (!virtual || !(container instanceof TomcatEmbeddedServletContainerFactory)) {
+            return;
+        }
+        ((TomcatEmbeddedServletContainerFactory) container).addConnectorCustomizers(connector -> {
+            final ProtocolHandler protocolHandler = connector.getProtocolHandler();
+            if (protocolHandler instanceof AbstractProtocol) {
+                connectorExecutor = VirtualThreads.newPerTaskExecutor();
+                ((AbstractProtocol<?>) protocolHandler).setExecutor(connectorExecutor);
+                LOGGER.info("Tomcat requests handled by virtual threads");
+            }
+        });
+    }
+}
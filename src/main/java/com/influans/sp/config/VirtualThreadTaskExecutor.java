@@ -0,0 +1,40 @@
+package com.influans.sp.config;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * The STOMP channel registrations of this Spring version only accept a {@link ThreadPoolTaskExecutor}: this one
+ * keeps the type but hands every task to a virtual thread, the underlying pool is never used.
+ */
+class VirtualThreadTaskExecutor extends ThreadPoolTaskExecutor {
+    private final ExecutorService virtualThreads;
+
+    VirtualThreadTaskExecutor(ExecutorService virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        virtualThreads.execute(task);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return virtualThreads.submit(task);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return virtualThreads.submit(task);
+    }
+
+    @Override
+    public void shutdown() {
+        virtualThreads.shutdown();
+        super.shutdown();
+    }
+}
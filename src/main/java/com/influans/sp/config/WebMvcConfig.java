@@ -0,0 +1,22 @@
+package com.influans.sp.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+@Configuration
+public class WebMvcConfig extends WebMvcConfigurerAdapter {
+
+    @Autowired
+    private SessionRoutingInterceptor sessionRoutingInterceptor;
+
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sessionRoutingInterceptor).excludePathPatterns("/cluster/**");
+        registry.addInterceptor(rateLimitInterceptor).excludePathPatterns("/cluster/**", "/metrics");
+    }
+}
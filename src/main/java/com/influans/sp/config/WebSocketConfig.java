@@ -1,12 +1,25 @@
 package com.influans.sp.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.influans.sp.utils.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.DefaultContentTypeResolver;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.socket.config.annotation.AbstractWebSocketMessageBrokerConfigurer;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 
+import java.util.List;
+
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig extends AbstractWebSocketMessageBrokerConfigurer {
@@ -17,12 +30,36 @@ public class WebSocketConfig extends AbstractWebSocketMessageBrokerConfigurer {
     @Value("${websocket.transport.endpoint}")
     private String endPoint;
 
+    @Value("${websocket.transport.binaryEndpoint:}")
+    private String binaryEndPoint;
+
     @Value("${websocket.application.destinationPrefix}")
     private String destinationPrefix;
 
+    @Autowired
+    private StompRateLimitInterceptor stompRateLimitInterceptor;
+    @Autowired
+    private CompactSubscriptionInterceptor compactSubscriptionInterceptor;
+
+    @Autowired
+    private StompWireFormatInterceptor stompWireFormatInterceptor;
+
+    @Autowired
+    private ThreadingConfig threadingConfig;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
-        registry.addEndpoint(endPoint).withSockJS();
+        // sessions are pinned to their owner node by the load balancer, a handshake is never redirected
+        registry.addEndpoint(endPoint)
+                .withSockJS();
+        if (!StringUtils.isEmpty(binaryEndPoint)) {
+            // raw websocket, without the SockJS fallbacks which only carry text frames
+            registry.addEndpoint(binaryEndPoint)
+                    .addInterceptors(stompWireFormatInterceptor.binaryCapableHandshakeInterceptor());
+        }
     }
 
     @Override
@@ -31,6 +68,40 @@ public class WebSocketConfig extends AbstractWebSocketMessageBrokerConfigurer {
         config.setApplicationDestinationPrefixes(destinationPrefix);
     }
 
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // same converters as the default ones, with the shared object mapper
+        final DefaultContentTypeResolver contentTypeResolver = new DefaultContentTypeResolver();
+        contentTypeResolver.setDefaultMimeType(MimeTypeUtils.APPLICATION_JSON);
+        final MappingJackson2MessageConverter jacksonConverter = new MappingJackson2MessageConverter();
+        jacksonConverter.setObjectMapper(objectMapper);
+        jacksonConverter.setContentTypeResolver(contentTypeResolver);
+
+        messageConverters.add(new StringMessageConverter());
+        messageConverters.add(new ByteArrayMessageConverter());
+        messageConverters.add(jacksonConverter);
+        return false;
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.setInterceptors(stompRateLimitInterceptor, stompWireFormatInterceptor, compactSubscriptionInterceptor);
+        configureExecutor(registration);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.setInterceptors(stompWireFormatInterceptor);
+        configureExecutor(registration);
+    }
+
+    private void configureExecutor(ChannelRegistration registration) {
+        final ThreadPoolTaskExecutor executor = threadingConfig.newChannelExecutor();
+        if (executor != null) {
+            registration.taskExecutor(executor);
+        }
+    }
+
     public String getTopicPrefix() {
         return topicPrefix;
     }
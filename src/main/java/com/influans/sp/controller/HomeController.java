@@ -1,10 +1,13 @@
 package com.influans.sp.controller;
 
+import com.influans.sp.dto.UserDto;
 import com.influans.sp.entity.SessionEntity;
 import com.influans.sp.entity.UserEntity;
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
 import com.influans.sp.repository.SessionRepository;
 import com.influans.sp.repository.UserRepository;
-import org.json.JSONObject;
+import com.influans.sp.utils.JsonSerializer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,12 +23,20 @@ public class HomeController {
     @Autowired
     private SessionRepository sessionRepository;
 
+    /**
+     * @param data json of the connected user
+     * @return connected user
+     * @should throw an error if the message is not a valid user
+     */
     @MessageMapping("/connect")
     @SendTo("/topic/connect")
     public ResponseEntity<UserEntity> connect(String data) throws Exception {
-        final JSONObject obj = new JSONObject(data);
-        final String username = (String) obj.get("username");
-        final String sessionId = (String) obj.get("sessionId");
+        final UserDto userDto = JsonSerializer.toObject(data, UserDto.class);
+        if (userDto == null) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "connect message should be a valid user");
+        }
+        final String username = userDto.getUsername();
+        final String sessionId = userDto.getSessionId();
         final SessionEntity sessionEntity = sessionRepository.findSessionBySessionId(sessionId);
         UserEntity user = null;
 
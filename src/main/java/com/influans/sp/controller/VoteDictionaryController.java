@@ -0,0 +1,26 @@
+package com.influans.sp.controller;
+
+import com.influans.sp.dto.VoteDictionaryDto;
+import com.influans.sp.websocket.CompactVoteBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+@Controller
+public class VoteDictionaryController {
+
+    @Autowired
+    private CompactVoteBroadcaster compactVoteBroadcaster;
+
+    /**
+     * Answered to the subscriber only, before it starts receiving the compact vote frames.
+     *
+     * @param sessionId session id
+     * @return deck and handles of the session
+     */
+    @SubscribeMapping("/sessions/{sessionId}/dictionary")
+    public VoteDictionaryDto dictionary(@DestinationVariable("sessionId") String sessionId) {
+        return compactVoteBroadcaster.getDictionary(sessionId);
+    }
+}
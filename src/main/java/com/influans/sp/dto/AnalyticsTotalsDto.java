@@ -0,0 +1,90 @@
+package com.influans.sp.dto;
+
+import com.influans.sp.entity.RollupCounters;
+
+/**
+ * Totals read from a session or sprint rollup
+ *
+ * @author hazem
+ */
+public abstract class AnalyticsTotalsDto {
+    private long endedStories;
+    private long rounds;
+    private long consensusStories;
+    private long estimatedStories;
+    private double points;
+    private Double averageSpread;
+    private Double averageRounds;
+
+    public AnalyticsTotalsDto() {
+    }
+
+    public AnalyticsTotalsDto(RollupCounters counters) {
+        if (counters == null) {
+            return;
+        }
+        this.endedStories = counters.getStories();
+        this.rounds = counters.getRounds();
+        this.consensusStories = counters.getConsensus();
+        this.estimatedStories = counters.getEstimated();
+        this.points = counters.getPoints();
+        this.averageSpread = counters.getEstimated() > 0 ? counters.getSpread() / counters.getEstimated() : null;
+        this.averageRounds = counters.getStories() > 0 ? (double) counters.getRounds() / counters.getStories() : null;
+    }
+
+    public long getEndedStories() {
+        return endedStories;
+    }
+
+    public void setEndedStories(long endedStories) {
+        this.endedStories = endedStories;
+    }
+
+    public long getRounds() {
+        return rounds;
+    }
+
+    public void setRounds(long rounds) {
+        this.rounds = rounds;
+    }
+
+    public long getConsensusStories() {
+        return consensusStories;
+    }
+
+    public void setConsensusStories(long consensusStories) {
+        this.consensusStories = consensusStories;
+    }
+
+    public long getEstimatedStories() {
+        return estimatedStories;
+    }
+
+    public void setEstimatedStories(long estimatedStories) {
+        this.estimatedStories = estimatedStories;
+    }
+
+    public double getPoints() {
+        return points;
+    }
+
+    public void setPoints(double points) {
+        this.points = points;
+    }
+
+    public Double getAverageSpread() {
+        return averageSpread;
+    }
+
+    public void setAverageSpread(Double averageSpread) {
+        this.averageSpread = averageSpread;
+    }
+
+    public Double getAverageRounds() {
+        return averageRounds;
+    }
+
+    public void setAverageRounds(Double averageRounds) {
+        this.averageRounds = averageRounds;
+    }
+}
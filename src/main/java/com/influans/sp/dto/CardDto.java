@@ -0,0 +1,46 @@
+package com.influans.sp.dto;
+
+import com.influans.sp.entity.CardEntity;
+
+/**
+ * Card of a custom deck, weight is null for cards without numeric value.
+ *
+ * @author hazem
+ */
+public class CardDto {
+    private String label;
+    private Double weight;
+
+    public CardDto() {
+    }
+
+    public CardDto(String label, Double weight) {
+        this.label = label;
+        this.weight = weight;
+    }
+
+    public CardDto(CardEntity cardEntity) {
+        this.label = cardEntity.getLabel();
+        this.weight = cardEntity.getWeight();
+    }
+
+    public CardEntity toEntity() {
+        return new CardEntity(label, weight);
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Double weight) {
+        this.weight = weight;
+    }
+}
@@ -0,0 +1,55 @@
+package com.influans.sp.dto;
+
+/**
+ * Progress of a backlog import, sent after each written chunk and returned once the upload is consumed.
+ *
+ * @author hazem
+ */
+public class ImportResultDto {
+    private String sessionId;
+    private int imported;
+    private int skipped;
+    private boolean done;
+
+    public ImportResultDto() {
+    }
+
+    public ImportResultDto(String sessionId, int imported, int skipped, boolean done) {
+        this.sessionId = sessionId;
+        this.imported = imported;
+        this.skipped = skipped;
+        this.done = done;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+}
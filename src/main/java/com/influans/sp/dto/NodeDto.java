@@ -0,0 +1,43 @@
+package com.influans.sp.dto;
+
+/**
+ * @author hazem
+ */
+public class NodeDto {
+    private String sessionId;
+    private String node;
+    private boolean local;
+
+    public NodeDto() {
+    }
+
+    public NodeDto(String sessionId, String node, boolean local) {
+        this.sessionId = sessionId;
+        this.node = node;
+        this.local = local;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    public boolean isLocal() {
+        return local;
+    }
+
+    public void setLocal(boolean local) {
+        this.local = local;
+    }
+}
@@ -0,0 +1,55 @@
+package com.influans.sp.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parallel estimation round: the stories open for votes and, once the round is ended, the votes of each story.
+ *
+ * @author hazem
+ */
+public class RoundDto {
+    private String sessionId;
+    private List<String> storyIds = new ArrayList<>();
+    // storyId -> votes, only set when the round is ended
+    private Map<String, List<VoteDto>> votes;
+
+    public RoundDto() {
+    }
+
+    public RoundDto(String sessionId, List<String> storyIds) {
+        this.sessionId = sessionId;
+        this.storyIds = storyIds;
+    }
+
+    public RoundDto(String sessionId, List<String> storyIds, Map<String, List<VoteDto>> votes) {
+        this(sessionId, storyIds);
+        this.votes = new LinkedHashMap<>(votes);
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public List<String> getStoryIds() {
+        return storyIds;
+    }
+
+    public void setStoryIds(List<String> storyIds) {
+        this.storyIds = storyIds;
+    }
+
+    public Map<String, List<VoteDto>> getVotes() {
+        return votes;
+    }
+
+    public void setVotes(Map<String, List<VoteDto>> votes) {
+        this.votes = votes;
+    }
+}
@@ -0,0 +1,48 @@
+package com.influans.sp.dto;
+
+import com.influans.sp.entity.SessionRollupEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author hazem
+ */
+public class SessionAnalyticsDto extends AnalyticsTotalsDto {
+    private String sessionId;
+    private String sprintName;
+    private List<StoryAnalyticsDto> stories = new ArrayList<>();
+
+    public SessionAnalyticsDto() {
+    }
+
+    public SessionAnalyticsDto(String sessionId, SessionRollupEntity sessionRollupEntity) {
+        super(sessionRollupEntity);
+        this.sessionId = sessionId;
+        this.sprintName = sessionRollupEntity != null ? sessionRollupEntity.getSprintName() : null;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getSprintName() {
+        return sprintName;
+    }
+
+    public void setSprintName(String sprintName) {
+        this.sprintName = sprintName;
+    }
+
+    public List<StoryAnalyticsDto> getStories() {
+        return stories;
+    }
+
+    public void setStories(List<StoryAnalyticsDto> stories) {
+        this.stories = stories;
+    }
+}
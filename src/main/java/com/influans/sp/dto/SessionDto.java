@@ -3,9 +3,11 @@ package com.influans.sp.dto;
 import com.influans.sp.entity.SessionEntity;
 import com.influans.sp.entity.StoryEntity;
 import com.influans.sp.enums.CardSetEnum;
+import com.influans.sp.utils.LexoRank;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * @author hazem
@@ -15,6 +17,7 @@ public class SessionDto {
     private String username;
     private String sprintName;
     private String cardSet;
+    private List<CardDto> cards;
     private List<String> stories = new ArrayList<>();
 
     public SessionDto() {
@@ -24,6 +27,9 @@ public class SessionDto {
         this.sessionId = sessionEntity.getSessionId();
         this.sprintName = sessionEntity.getSprintName();
         this.cardSet = sessionEntity.getCardSet() != null ? sessionEntity.getCardSet().getValue() : null;
+        if (sessionEntity.getCards() != null) {
+            this.cards = sessionEntity.getCards().stream().map(CardDto::new).collect(Collectors.toList());
+        }
     }
 
     public SessionEntity toEntity() {
@@ -31,14 +37,21 @@ public class SessionDto {
         sessionEntity.setSessionId(sessionId);
         sessionEntity.setSprintName(sprintName);
         sessionEntity.setCardSet(CardSetEnum.toEnum(cardSet));
+        if (cards != null && !cards.isEmpty()) {
+            sessionEntity.setCards(cards.stream().map(CardDto::toEntity).collect(Collectors.toList()));
+        }
         return sessionEntity;
     }
 
     public List<StoryEntity> toStories(String sessionId) {
         final List<StoryEntity> storyEntities = new ArrayList<>();
         int order = 1;
+        String rank = null;
         for (String story : stories) {
-            storyEntities.add(new StoryEntity(sessionId, story, order));
+            final StoryEntity storyEntity = new StoryEntity(sessionId, story, order);
+            rank = LexoRank.between(rank, null);
+            storyEntity.setRank(rank);
+            storyEntities.add(storyEntity);
             order++;
         }
         return storyEntities;
@@ -52,6 +65,14 @@ public class SessionDto {
         this.cardSet = cardSet;
     }
 
+    public List<CardDto> getCards() {
+        return cards;
+    }
+
+    public void setCards(List<CardDto> cards) {
+        this.cards = cards;
+    }
+
     public String getSessionId() {
         return sessionId;
     }
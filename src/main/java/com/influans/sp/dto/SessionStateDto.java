@@ -0,0 +1,62 @@
+package com.influans.sp.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conflated view of a session sent to spectators, with one vote histogram per story being estimated
+ *
+ * @author hazem
+ */
+public class SessionStateDto {
+    private String sessionId;
+    private List<StoryDto> stories;
+    private int voteCount;
+    // current story id -> vote value -> count, in the order of the open round
+    private Map<String, Map<String, Integer>> histograms;
+
+    public SessionStateDto() {
+    }
+
+    public SessionStateDto(String sessionId, List<StoryDto> stories, Map<String, Map<String, Integer>> histograms) {
+        this.sessionId = sessionId;
+        this.stories = stories;
+        this.histograms = histograms;
+        this.voteCount = histograms.values().stream()
+                .flatMap(histogram -> histogram.values().stream())
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public List<StoryDto> getStories() {
+        return stories;
+    }
+
+    public void setStories(List<StoryDto> stories) {
+        this.stories = stories;
+    }
+
+    public int getVoteCount() {
+        return voteCount;
+    }
+
+    public void setVoteCount(int voteCount) {
+        this.voteCount = voteCount;
+    }
+
+    public Map<String, Map<String, Integer>> getHistograms() {
+        return histograms;
+    }
+
+    public void setHistograms(Map<String, Map<String, Integer>> histograms) {
+        this.histograms = histograms;
+    }
+}
@@ -0,0 +1,36 @@
+package com.influans.sp.dto;
+
+import com.influans.sp.entity.SprintRollupEntity;
+
+/**
+ * @author hazem
+ */
+public class SprintAnalyticsDto extends AnalyticsTotalsDto {
+    private String sprintName;
+    private long sessions;
+
+    public SprintAnalyticsDto() {
+    }
+
+    public SprintAnalyticsDto(SprintRollupEntity sprintRollupEntity) {
+        super(sprintRollupEntity);
+        this.sprintName = sprintRollupEntity.getSprintName();
+        this.sessions = sprintRollupEntity.getSessions();
+    }
+
+    public String getSprintName() {
+        return sprintName;
+    }
+
+    public void setSprintName(String sprintName) {
+        this.sprintName = sprintName;
+    }
+
+    public long getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(long sessions) {
+        this.sessions = sessions;
+    }
+}
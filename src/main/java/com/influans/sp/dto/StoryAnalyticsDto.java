@@ -0,0 +1,95 @@
+package com.influans.sp.dto;
+
+import com.influans.sp.entity.StoryRollupEntity;
+
+/**
+ * @author hazem
+ */
+public class StoryAnalyticsDto {
+    private String storyId;
+    private int rounds;
+    private int votes;
+    private Double average;
+    private Double min;
+    private Double max;
+    private Double spread;
+    private Integer consensusRound;
+
+    public StoryAnalyticsDto() {
+    }
+
+    public StoryAnalyticsDto(StoryRollupEntity storyRollupEntity) {
+        this.storyId = storyRollupEntity.getStoryId();
+        this.rounds = storyRollupEntity.getRounds();
+        this.votes = storyRollupEntity.getVotes();
+        this.average = storyRollupEntity.getAverage();
+        this.min = storyRollupEntity.getMin();
+        this.max = storyRollupEntity.getMax();
+        this.spread = storyRollupEntity.isEstimated() ? storyRollupEntity.getSpread() : null;
+        this.consensusRound = storyRollupEntity.getConsensusRound();
+    }
+
+    public String getStoryId() {
+        return storyId;
+    }
+
+    public void setStoryId(String storyId) {
+        this.storyId = storyId;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public void setRounds(int rounds) {
+        this.rounds = rounds;
+    }
+
+    public int getVotes() {
+        return votes;
+    }
+
+    public void setVotes(int votes) {
+        this.votes = votes;
+    }
+
+    public Double getAverage() {
+        return average;
+    }
+
+    public void setAverage(Double average) {
+        this.average = average;
+    }
+
+    public Double getMin() {
+        return min;
+    }
+
+    public void setMin(Double min) {
+        this.min = min;
+    }
+
+    public Double getMax() {
+        return max;
+    }
+
+    public void setMax(Double max) {
+        this.max = max;
+    }
+
+    public Double getSpread() {
+        return spread;
+    }
+
+    public void setSpread(Double spread) {
+        this.spread = spread;
+    }
+
+    public Integer getConsensusRound() {
+        return consensusRound;
+    }
+
+    public void setConsensusRound(Integer consensusRound) {
+        this.consensusRound = consensusRound;
+    }
+}
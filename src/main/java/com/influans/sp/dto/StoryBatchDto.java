@@ -0,0 +1,37 @@
+package com.influans.sp.dto;
+
+import java.util.List;
+
+/**
+ * Several stories of the same session created, reordered or ended in a single call.
+ *
+ * @author hazem
+ */
+public class StoryBatchDto {
+    private String sessionId;
+    private List<StoryDto> stories;
+
+    public StoryBatchDto() {
+    }
+
+    public StoryBatchDto(String sessionId, List<StoryDto> stories) {
+        this.sessionId = sessionId;
+        this.stories = stories;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public List<StoryDto> getStories() {
+        return stories;
+    }
+
+    public void setStories(List<StoryDto> stories) {
+        this.stories = stories;
+    }
+}
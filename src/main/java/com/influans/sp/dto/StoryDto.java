@@ -11,6 +11,8 @@ public class StoryDto {
     private String storyName;
     private int order;
     private boolean ended;
+    private String rank;
+    private Long deadline;
 
     public StoryDto() {
     }
@@ -20,6 +22,24 @@ public class StoryDto {
         this.storyName = storyEntity.getStoryName();
         this.order = storyEntity.getOrder();
         this.ended = storyEntity.isEnded();
+        this.rank = storyEntity.getRank();
+        this.deadline = storyEntity.getDeadline();
+    }
+
+    public String getRank() {
+        return rank;
+    }
+
+    public void setRank(String rank) {
+        this.rank = rank;
+    }
+
+    public Long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Long deadline) {
+        this.deadline = deadline;
     }
 
     public boolean isEnded() {
@@ -0,0 +1,90 @@
+package com.influans.sp.dto;
+
+import com.influans.sp.entity.SessionEntity;
+import com.influans.sp.entity.StoryEntity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One exported story joined with its session and its votes (username -> value).
+ *
+ * @author hazem
+ */
+public class StoryExportDto {
+    private String sessionId;
+    private String sprintName;
+    private String storyId;
+    private String storyName;
+    private int order;
+    private boolean ended;
+    private Map<String, String> votes = new LinkedHashMap<>();
+
+    public StoryExportDto() {
+    }
+
+    public StoryExportDto(SessionEntity sessionEntity, StoryEntity storyEntity) {
+        this.sessionId = sessionEntity.getSessionId();
+        this.sprintName = sessionEntity.getSprintName();
+        this.storyId = storyEntity.getStoryId();
+        this.storyName = storyEntity.getStoryName();
+        this.order = storyEntity.getOrder();
+        this.ended = storyEntity.isEnded();
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getSprintName() {
+        return sprintName;
+    }
+
+    public void setSprintName(String sprintName) {
+        this.sprintName = sprintName;
+    }
+
+    public String getStoryId() {
+        return storyId;
+    }
+
+    public void setStoryId(String storyId) {
+        this.storyId = storyId;
+    }
+
+    public String getStoryName() {
+        return storyName;
+    }
+
+    public void setStoryName(String storyName) {
+        this.storyName = storyName;
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    public void setOrder(int order) {
+        this.order = order;
+    }
+
+    public boolean isEnded() {
+        return ended;
+    }
+
+    public void setEnded(boolean ended) {
+        this.ended = ended;
+    }
+
+    public Map<String, String> getVotes() {
+        return votes;
+    }
+
+    public void setVotes(Map<String, String> votes) {
+        this.votes = votes;
+    }
+}
@@ -0,0 +1,77 @@
+package com.influans.sp.dto;
+
+import com.influans.sp.entity.StoryEntity;
+
+/**
+ * Story matching a search, with the final estimation of the story if it is ended. The cursor of the last story of a
+ * page is passed to get the next page.
+ *
+ * @author hazem
+ */
+public class StorySearchResultDto {
+    private String storyId;
+    private String storyName;
+    private String sessionId;
+    private boolean ended;
+    private StoryAnalyticsDto estimation;
+    private String cursor;
+
+    public StorySearchResultDto() {
+    }
+
+    public StorySearchResultDto(StoryEntity storyEntity) {
+        this.storyId = storyEntity.getStoryId();
+        this.storyName = storyEntity.getStoryName();
+        this.sessionId = storyEntity.getSessionId();
+        this.ended = storyEntity.isEnded();
+        this.cursor = storyEntity.getCreationKey();
+    }
+
+    public String getStoryId() {
+        return storyId;
+    }
+
+    public void setStoryId(String storyId) {
+        this.storyId = storyId;
+    }
+
+    public String getStoryName() {
+        return storyName;
+    }
+
+    public void setStoryName(String storyName) {
+        this.storyName = storyName;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public boolean isEnded() {
+        return ended;
+    }
+
+    public void setEnded(boolean ended) {
+        this.ended = ended;
+    }
+
+    public StoryAnalyticsDto getEstimation() {
+        return estimation;
+    }
+
+    public void setEstimation(StoryAnalyticsDto estimation) {
+        this.estimation = estimation;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+}
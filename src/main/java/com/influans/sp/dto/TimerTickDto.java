@@ -0,0 +1,50 @@
+package com.influans.sp.dto;
+
+import java.util.Map;
+
+/**
+ * Countdowns of all the running timers of a session, sent as a single frame per broadcast interval
+ *
+ * @author hazem
+ */
+public class TimerTickDto {
+    private String sessionId;
+    private long serverTime;
+    private Map<String, Long> remaining;
+
+    public TimerTickDto() {
+    }
+
+    public TimerTickDto(String sessionId, long serverTime, Map<String, Long> remaining) {
+        this.sessionId = sessionId;
+        this.serverTime = serverTime;
+        this.remaining = remaining;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public long getServerTime() {
+        return serverTime;
+    }
+
+    public void setServerTime(long serverTime) {
+        this.serverTime = serverTime;
+    }
+
+    /**
+     * @return remaining seconds of each running timer, by story id
+     */
+    public Map<String, Long> getRemaining() {
+        return remaining;
+    }
+
+    public void setRemaining(Map<String, Long> remaining) {
+        this.remaining = remaining;
+    }
+}
@@ -0,0 +1,58 @@
+package com.influans.sp.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handles used by the compact vote frames of a session.
+ *
+ * @author hazem
+ */
+public class VoteDictionaryDto {
+    private String sessionId;
+    private List<String> cards;
+    private Map<String, Integer> users;
+    private Map<String, Integer> stories;
+
+    public VoteDictionaryDto() {
+    }
+
+    public VoteDictionaryDto(String sessionId, List<String> cards, Map<String, Integer> users, Map<String, Integer> stories) {
+        this.sessionId = sessionId;
+        this.cards = cards;
+        this.users = users;
+        this.stories = stories;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public List<String> getCards() {
+        return cards;
+    }
+
+    public void setCards(List<String> cards) {
+        this.cards = cards;
+    }
+
+    public Map<String, Integer> getUsers() {
+        return users;
+    }
+
+    public void setUsers(Map<String, Integer> users) {
+        this.users = users;
+    }
+
+    public Map<String, Integer> getStories() {
+        return stories;
+    }
+
+    public void setStories(Map<String, Integer> stories) {
+        this.stories = stories;
+    }
+}
@@ -0,0 +1,75 @@
+package com.influans.sp.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Votes of a story aggregated against the session deck.
+ *
+ * @author hazem
+ */
+public class VoteStatsDto {
+    private String storyId;
+    private int votes;
+    // card label -> number of votes, in deck order
+    private Map<String, Integer> counts = new LinkedHashMap<>();
+    private Double average;
+    private String min;
+    private String max;
+
+    public VoteStatsDto() {
+    }
+
+    public VoteStatsDto(String storyId, int votes) {
+        this.storyId = storyId;
+        this.votes = votes;
+    }
+
+    public String getStoryId() {
+        return storyId;
+    }
+
+    public void setStoryId(String storyId) {
+        this.storyId = storyId;
+    }
+
+    public int getVotes() {
+        return votes;
+    }
+
+    public void setVotes(int votes) {
+        this.votes = votes;
+    }
+
+    public Map<String, Integer> getCounts() {
+        return counts;
+    }
+
+    public void setCounts(Map<String, Integer> counts) {
+        this.counts = counts;
+    }
+
+    public Double getAverage() {
+        return average;
+    }
+
+    public void setAverage(Double average) {
+        this.average = average;
+    }
+
+    public String getMin() {
+        return min;
+    }
+
+    public void setMin(String min) {
+        this.min = min;
+    }
+
+    public String getMax() {
+        return max;
+    }
+
+    public void setMax(String max) {
+        this.max = max;
+    }
+}
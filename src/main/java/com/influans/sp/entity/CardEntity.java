@@ -0,0 +1,38 @@
+package com.influans.sp.entity;
+
+import com.influans.sp.entity.def.CardEntityDef;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Card of a custom deck, embedded in the session document.
+ */
+public class CardEntity {
+    @Field(CardEntityDef.LABEL)
+    private String label;
+    @Field(CardEntityDef.WEIGHT)
+    private Double weight;
+
+    public CardEntity() {
+    }
+
+    public CardEntity(String label, Double weight) {
+        this.label = label;
+        this.weight = weight;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Double weight) {
+        this.weight = weight;
+    }
+}
@@ -0,0 +1,93 @@
+package com.influans.sp.entity;
+
+import com.influans.sp.entity.def.ClusterEventEntityDef;
+import com.influans.sp.enums.WsTypes;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.List;
+
+/**
+ * Websocket notification relayed between application nodes. The payload is kept as serialized json so that the
+ * receiving node can broadcast it without knowing the original data type. The stories whose votes changed are listed
+ * apart, so that the receiving node invalidates their etags whatever the event type.
+ */
+@Document(collection = "cluster_event")
+public class ClusterEventEntity {
+    @Id
+    private String eventId;
+    @Field(ClusterEventEntityDef.ORIGIN)
+    private String origin;
+    @Field(ClusterEventEntityDef.TOPIC)
+    private String topic;
+    @Field(ClusterEventEntityDef.TYPE)
+    private WsTypes type;
+    @Field(ClusterEventEntityDef.PAYLOAD)
+    private String payload;
+    @Field(ClusterEventEntityDef.STORY_IDS)
+    private List<String> storyIds;
+
+    public ClusterEventEntity() {
+    }
+
+    public ClusterEventEntity(String origin, String topic, WsTypes type, String payload) {
+        this.origin = origin;
+        this.topic = topic;
+        this.type = type;
+        this.payload = payload;
+    }
+
+    public ClusterEventEntity(String origin, String topic, WsTypes type, String payload, List<String> storyIds) {
+        this(origin, topic, type, payload);
+        this.storyIds = storyIds;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public WsTypes getType() {
+        return type;
+    }
+
+    public void setType(WsTypes type) {
+        this.type = type;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public List<String> getStoryIds() {
+        return storyIds;
+    }
+
+    public void setStoryIds(List<String> storyIds) {
+        this.storyIds = storyIds;
+    }
+}
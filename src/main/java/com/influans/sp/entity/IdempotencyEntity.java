@@ -0,0 +1,70 @@
+package com.influans.sp.entity;
+
+import com.influans.sp.entity.def.IdempotencyEntityDef;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.Date;
+
+/**
+ * Response of a request sent with an Idempotency-Key, kept as serialized json along with the hash of the request
+ * body. Documents are removed by a TTL index on the creation date.
+ */
+@Document(collection = "idempotency")
+public class IdempotencyEntity {
+    @Id
+    private String key;
+    @Field(IdempotencyEntityDef.REQUEST_HASH)
+    private String requestHash;
+    @Field(IdempotencyEntityDef.PAYLOAD)
+    private String payload;
+    @Field(IdempotencyEntityDef.CREATED_AT)
+    private Date createdAt;
+
+    public IdempotencyEntity() {
+    }
+
+    public IdempotencyEntity(String key, String payload) {
+        this(key, null, payload);
+    }
+
+    public IdempotencyEntity(String key, String requestHash, String payload) {
+        this.key = key;
+        this.requestHash = requestHash;
+        this.payload = payload;
+        this.createdAt = new Date();
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+}
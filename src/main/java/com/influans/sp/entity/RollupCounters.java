@@ -0,0 +1,76 @@
+package com.influans.sp.entity;
+
+import com.influans.sp.entity.def.RollupEntityDef;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Counters shared by the session and sprint rollups. They are only modified with $inc, see
+ * {@link com.influans.sp.service.AnalyticsService}.
+ */
+public abstract class RollupCounters {
+    // ended stories
+    @Field(RollupEntityDef.STORIES)
+    private long stories;
+    // voting rounds, one per call to endStory
+    @Field(RollupEntityDef.ROUNDS)
+    private long rounds;
+    // stories which reached consensus
+    @Field(RollupEntityDef.CONSENSUS)
+    private long consensus;
+    // stories having at least one numeric vote
+    @Field(RollupEntityDef.ESTIMATED)
+    private long estimated;
+    @Field(RollupEntityDef.POINTS)
+    private double points;
+    // sum of the estimation spreads of the estimated stories
+    @Field(RollupEntityDef.SPREAD)
+    private double spread;
+
+    public long getStories() {
+        return stories;
+    }
+
+    public void setStories(long stories) {
+        this.stories = stories;
+    }
+
+    public long getRounds() {
+        return rounds;
+    }
+
+    public void setRounds(long rounds) {
+        this.rounds = rounds;
+    }
+
+    public long getConsensus() {
+        return consensus;
+    }
+
+    public void setConsensus(long consensus) {
+        this.consensus = consensus;
+    }
+
+    public long getEstimated() {
+        return estimated;
+    }
+
+    public void setEstimated(long estimated) {
+        this.estimated = estimated;
+    }
+
+    public double getPoints() {
+        return points;
+    }
+
+    public void setPoints(double points) {
+        this.points = points;
+    }
+
+    public double getSpread() {
+        return spread;
+    }
+
+    public void setSpread(double spread) {
+        this.spread = spread;
+    }
+}
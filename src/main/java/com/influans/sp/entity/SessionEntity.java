@@ -3,9 +3,11 @@ package com.influans.sp.entity;
 import com.influans.sp.entity.def.SessionEntityDef;
 import com.influans.sp.enums.CardSetEnum;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
+import java.util.Date;
 import java.util.List;
 
 @Document(collection = "session")
@@ -16,6 +18,14 @@ public class SessionEntity {
     private String sprintName;
     @Field(SessionEntityDef.CARD_SET)
     private CardSetEnum cardSet;
+    @Field(SessionEntityDef.CARDS)
+    private List<CardEntity> cards;
+    @Indexed
+    @Field(SessionEntityDef.CREATED_AT)
+    private Date createdAt;
+    // stories of the parallel estimation round in progress, null when no round is open
+    @Field(SessionEntityDef.OPEN_STORIES)
+    private List<String> openStories;
 
     public SessionEntity() {
     }
@@ -40,6 +50,14 @@ public class SessionEntity {
         this.cardSet = cardSet;
     }
 
+    public List<CardEntity> getCards() {
+        return cards;
+    }
+
+    public void setCards(List<CardEntity> cards) {
+        this.cards = cards;
+    }
+
     public String getSprintName() {
         return sprintName;
     }
@@ -47,4 +65,20 @@ public class SessionEntity {
     public void setSprintName(String sprintName) {
         this.sprintName = sprintName;
     }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public List<String> getOpenStories() {
+        return openStories;
+    }
+
+    public void setOpenStories(List<String> openStories) {
+        this.openStories = openStories;
+    }
 }
\ No newline at end of file
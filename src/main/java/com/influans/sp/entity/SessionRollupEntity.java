@@ -0,0 +1,30 @@
+package com.influans.sp.entity;
+
+import com.influans.sp.entity.def.RollupEntityDef;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+@Document(collection = "session_rollup")
+public class SessionRollupEntity extends RollupCounters {
+    @Id
+    private String sessionId;
+    @Field(RollupEntityDef.SPRINT_NAME)
+    private String sprintName;
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getSprintName() {
+        return sprintName;
+    }
+
+    public void setSprintName(String sprintName) {
+        this.sprintName = sprintName;
+    }
+}
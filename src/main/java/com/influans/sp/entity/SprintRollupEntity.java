@@ -0,0 +1,34 @@
+package com.influans.sp.entity;
+
+import com.influans.sp.entity.def.RollupEntityDef;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Totals of all the sessions sharing the same sprint name.
+ */
+@Document(collection = "sprint_rollup")
+public class SprintRollupEntity extends RollupCounters {
+    @Id
+    private String sprintName;
+    // sessions having at least one ended story
+    @Field(RollupEntityDef.SESSIONS)
+    private long sessions;
+
+    public String getSprintName() {
+        return sprintName;
+    }
+
+    public void setSprintName(String sprintName) {
+        this.sprintName = sprintName;
+    }
+
+    public long getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(long sessions) {
+        this.sessions = sessions;
+    }
+}
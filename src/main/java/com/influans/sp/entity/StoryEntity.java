@@ -1,29 +1,64 @@
 package com.influans.sp.entity;
 
 import com.influans.sp.entity.def.StoryEntityDef;
+import com.influans.sp.utils.Base62;
+import com.influans.sp.utils.LexoRank;
+import com.influans.sp.utils.StringUtils;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
+import java.util.List;
+
+/**
+ * Stories are listed by rank (see {@link LexoRank}). Stories created before ranks existed have no rank: they come
+ * first, sorted by order, until the session is ranked.
+ * <p/>
+ * The keywords of the story name are stored with the story and indexed for the story search, they are computed each
+ * time the name is set. Search results are sorted by creation key, creation time followed by the story id: ids do not
+ * sort by creation time, object ids are not even comparable with the string ids of the other generators.
+ */
 @Document(collection = "story")
+@CompoundIndexes({
+        @CompoundIndex(name = "session_rank", def = "{'" + StoryEntityDef.SESSION_ID + "': 1, '"
+                + StoryEntityDef.RANK + "': 1, '" + StoryEntityDef.ORDER + "': 1}"),
+        @CompoundIndex(name = "keywords_created", def = "{'" + StoryEntityDef.KEYWORDS + "': 1, '"
+                + StoryEntityDef.CREATION_KEY + "': -1}")})
 public class StoryEntity {
+    public static final int CREATION_TIME_WIDTH = 8;
+
     @Id
     private String storyId;
     @Field(StoryEntityDef.STORY_NAME)
     private String storyName;
+    @Field(StoryEntityDef.KEYWORDS)
+    private List<String> keywords;
+    // see creationKey(long, String), set with the story id
+    @Field(StoryEntityDef.CREATION_KEY)
+    private String creationKey;
     @Field(StoryEntityDef.SESSION_ID)
     private String sessionId;
     @Field(StoryEntityDef.ORDER)
     private int order;
     @Field(StoryEntityDef.ENDED)
     private boolean ended;
+    @Field(StoryEntityDef.RANK)
+    private String rank;
+    // end of the voting countdown (epoch millis), removed when no countdown is running: the sparse index only holds
+    // the running countdowns, reloaded at startup
+    @Indexed(sparse = true)
+    @Field(StoryEntityDef.DEADLINE)
+    private Long deadline;
 
     public StoryEntity() {
     }
 
     public StoryEntity(String sessionId, String storyName, int order) {
         this.sessionId = sessionId;
-        this.storyName = storyName;
+        setStoryName(storyName);
         this.order = order;
     }
 
@@ -51,12 +86,48 @@ public class StoryEntity {
         this.sessionId = sessionId;
     }
 
+    public String getRank() {
+        return rank;
+    }
+
+    public void setRank(String rank) {
+        this.rank = rank;
+    }
+
+    public Long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Long deadline) {
+        this.deadline = deadline;
+    }
+
     public String getStoryId() {
         return storyId;
     }
 
     public void setStoryId(String storyId) {
         this.storyId = storyId;
+        if (creationKey == null && storyId != null) {
+            this.creationKey = creationKey(System.currentTimeMillis(), storyId);
+        }
+    }
+
+    /**
+     * @param createdAt creation time in milliseconds since 1970
+     * @param storyId   story id
+     * @return key sorting stories by creation time, then by id
+     */
+    public static String creationKey(long createdAt, String storyId) {
+        return Base62.encode(createdAt, CREATION_TIME_WIDTH) + storyId;
+    }
+
+    public String getCreationKey() {
+        return creationKey;
+    }
+
+    public void setCreationKey(String creationKey) {
+        this.creationKey = creationKey;
     }
 
     public String getStoryName() {
@@ -65,5 +136,14 @@ public class StoryEntity {
 
     public void setStoryName(String storyName) {
         this.storyName = storyName;
+        this.keywords = StringUtils.keywords(storyName);
+    }
+
+    public List<String> getKeywords() {
+        return keywords;
+    }
+
+    public void setKeywords(List<String> keywords) {
+        this.keywords = keywords;
     }
 }
\ No newline at end of file
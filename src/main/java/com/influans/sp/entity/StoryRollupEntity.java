@@ -0,0 +1,126 @@
+package com.influans.sp.entity;
+
+import com.influans.sp.entity.def.StoryRollupEntityDef;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Estimation of an ended story, computed from the card weights of the votes of its last round. Stories without any
+ * numeric vote have no average, min and max.
+ */
+@Document(collection = "story_rollup")
+public class StoryRollupEntity {
+    @Id
+    private String storyId;
+    @Indexed
+    @Field(StoryRollupEntityDef.SESSION_ID)
+    private String sessionId;
+    @Field(StoryRollupEntityDef.ROUNDS)
+    private int rounds;
+    @Field(StoryRollupEntityDef.VOTES)
+    private int votes;
+    @Field(StoryRollupEntityDef.AVERAGE)
+    private Double average;
+    @Field(StoryRollupEntityDef.MIN)
+    private Double min;
+    @Field(StoryRollupEntityDef.MAX)
+    private Double max;
+    // first round where all the numeric votes were equal, null until consensus is reached
+    @Field(StoryRollupEntityDef.CONSENSUS_ROUND)
+    private Integer consensusRound;
+
+    public StoryRollupEntity() {
+    }
+
+    public StoryRollupEntity(String storyId, String sessionId) {
+        this.storyId = storyId;
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * @return true if the story has at least one numeric vote
+     */
+    public boolean isEstimated() {
+        return average != null;
+    }
+
+    /**
+     * @return difference between the highest and the lowest numeric vote, 0 if the story is not estimated
+     */
+    public double getSpread() {
+        return isEstimated() ? max - min : 0;
+    }
+
+    /**
+     * @return estimation of the story, 0 if the story is not estimated
+     */
+    public double getPoints() {
+        return isEstimated() ? average : 0;
+    }
+
+    public String getStoryId() {
+        return storyId;
+    }
+
+    public void setStoryId(String storyId) {
+        this.storyId = storyId;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public void setRounds(int rounds) {
+        this.rounds = rounds;
+    }
+
+    public int getVotes() {
+        return votes;
+    }
+
+    public void setVotes(int votes) {
+        this.votes = votes;
+    }
+
+    public Double getAverage() {
+        return average;
+    }
+
+    public void setAverage(Double average) {
+        this.average = average;
+    }
+
+    public Double getMin() {
+        return min;
+    }
+
+    public void setMin(Double min) {
+        this.min = min;
+    }
+
+    public Double getMax() {
+        return max;
+    }
+
+    public void setMax(Double max) {
+        this.max = max;
+    }
+
+    public Integer getConsensusRound() {
+        return consensusRound;
+    }
+
+    public void setConsensusRound(Integer consensusRound) {
+        this.consensusRound = consensusRound;
+    }
+}
@@ -7,10 +7,17 @@ import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.util.Optional;
 
+/**
+ * Users are identified by a single string key, sessionId:username. Lookups by session and username are primary key
+ * reads and the users of a session are a range of the _id index, so no secondary index is needed. Session ids never
+ * contain the separator, usernames may.
+ */
 @Document(collection = "user")
 public class UserEntity {
+    public static final char KEY_SEPARATOR = ':';
+
     @Id
-    private EntityId userId;
+    private String userKey;
     @Field(UserEntityDef.ADMIN)
     private Boolean admin;
     @Field(UserEntityDef.CONNECTED)
@@ -20,18 +27,61 @@ public class UserEntity {
     }
 
     public UserEntity(String username, String sessionId, Boolean admin) {
-        this.userId = new EntityId(username, sessionId);
+        this.userKey = key(sessionId, username);
         this.admin = admin;
         this.connected = true;
     }
 
+    /**
+     * @param sessionId session id
+     * @param username  username
+     * @return user key
+     */
+    public static String key(String sessionId, String username) {
+        return sessionId + KEY_SEPARATOR + username;
+    }
+
+    /**
+     * @param sessionId session id
+     * @return lower bound (inclusive) of the keys of the session users
+     */
+    public static String sessionKeyFrom(String sessionId) {
+        return sessionId + KEY_SEPARATOR;
+    }
+
+    /**
+     * @param sessionId session id
+     * @return upper bound (exclusive) of the keys of the session users
+     */
+    public static String sessionKeyTo(String sessionId) {
+        return sessionId + (char) (KEY_SEPARATOR + 1);
+    }
+
+    public String getUserKey() {
+        return userKey;
+    }
+
+    public void setUserKey(String userKey) {
+        this.userKey = userKey;
+    }
+
+    public String getSessionId() {
+        return userKey != null ? userKey.substring(0, userKey.indexOf(KEY_SEPARATOR)) : null;
+    }
+
+    public String getUsername() {
+        return userKey != null ? userKey.substring(userKey.indexOf(KEY_SEPARATOR) + 1) : null;
+    }
 
+    /**
+     * @return username and session id as a composite id, the former layout of the user _id
+     */
     public EntityId getUserId() {
-        return userId;
+        return userKey != null ? new EntityId(getUsername(), getSessionId()) : null;
     }
 
     public void setUserId(EntityId userId) {
-        this.userId = userId;
+        this.userKey = key(userId.getSessionId(), userId.getEntityId());
     }
 
     public Boolean isAdmin() {
@@ -49,4 +99,4 @@ public class UserEntity {
     public void setConnected(Boolean connected) {
         this.connected = connected;
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package com.influans.sp.entity;
 import com.influans.sp.dto.VoteDto;
 import com.influans.sp.entity.def.VoteEntityDef;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -10,6 +11,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
 public class VoteEntity {
     @Id
     private String voteId;
+    @Indexed
     @Field(VoteEntityDef.STORY_ID)
     private String storyId;
     @Field(VoteEntityDef.SESSION_ID)
@@ -0,0 +1,9 @@
+package com.influans.sp.entity.def;
+
+public class CardEntityDef {
+    public static final String LABEL = "lbl";
+    public static final String WEIGHT = "wgt";
+
+    private CardEntityDef() {
+    }
+}
@@ -0,0 +1,12 @@
+package com.influans.sp.entity.def;
+
+public class ClusterEventEntityDef {
+    public static final String ORIGIN = "org";
+    public static final String TOPIC = "tpc";
+    public static final String TYPE = "typ";
+    public static final String PAYLOAD = "pld";
+    public static final String STORY_IDS = "sts";
+
+    private ClusterEventEntityDef() {
+    }
+}
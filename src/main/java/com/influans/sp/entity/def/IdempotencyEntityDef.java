@@ -0,0 +1,10 @@
+package com.influans.sp.entity.def;
+
+public class IdempotencyEntityDef {
+    public static final String PAYLOAD = "pld";
+    public static final String REQUEST_HASH = "rqh";
+    public static final String CREATED_AT = "cdt";
+
+    private IdempotencyEntityDef() {
+    }
+}
@@ -0,0 +1,15 @@
+package com.influans.sp.entity.def;
+
+public class RollupEntityDef {
+    public static final String SPRINT_NAME = "snm";
+    public static final String SESSIONS = "ses";
+    public static final String STORIES = "sto";
+    public static final String ROUNDS = "rnd";
+    public static final String CONSENSUS = "cns";
+    public static final String ESTIMATED = "est";
+    public static final String POINTS = "pts";
+    public static final String SPREAD = "spr";
+
+    private RollupEntityDef() {
+    }
+}
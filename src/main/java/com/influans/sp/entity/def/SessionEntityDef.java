@@ -3,6 +3,9 @@ package com.influans.sp.entity.def;
 public class SessionEntityDef {
     public static final String SPRINT_NAME = "snm";
     public static final String CARD_SET = "cst";
+    public static final String CARDS = "crd";
+    public static final String CREATED_AT = "cdt";
+    public static final String OPEN_STORIES = "ops";
 
     private SessionEntityDef() {
     }
@@ -4,7 +4,13 @@ public class StoryEntityDef {
     public static final String STORY_NAME = "snm";
     public static final String SESSION_ID = "sid";
     public static final String ORDER = "ord";
+    public static final String RANK = "rnk";
     public static final String ENDED = "end";
+    public static final String DEADLINE = "ddl";
+    public static final String KEYWORDS = "kws";
+    public static final String CREATION_KEY = "ck";
+    // id of the call which ended the story, see StoryRepositoryCustom#endStories
+    public static final String END_TOKEN = "etk";
 
     private StoryEntityDef() {
     }
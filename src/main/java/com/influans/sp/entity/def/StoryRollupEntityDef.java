@@ -0,0 +1,14 @@
+package com.influans.sp.entity.def;
+
+public class StoryRollupEntityDef {
+    public static final String SESSION_ID = "sid";
+    public static final String ROUNDS = "rnd";
+    public static final String VOTES = "vts";
+    public static final String AVERAGE = "avg";
+    public static final String MIN = "min";
+    public static final String MAX = "max";
+    public static final String CONSENSUS_ROUND = "cnr";
+
+    private StoryRollupEntityDef() {
+    }
+}
@@ -1,25 +1,67 @@
 package com.influans.sp.enums;
 
 
+import com.google.common.collect.ImmutableMap;
+import com.influans.sp.utils.CardDeck;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 public enum CardSetEnum {
-    TIME("time"), FIBONACCI("fibonacci"), MODIFIED_FIBONACCI("modifiedFibonacci");
+    // weights in hours, 8 hours a day and 5 days a week
+    TIME("time", new String[]{"time-0", "time-1h", "time-2h", "time-4h", "time-1d", "time-2d", "time-3d", "time-4d",
+            "time-1w", "time-2w", "pass", "?", "break"},
+            new double[]{0, 1, 2, 4, 8, 16, 24, 32, 40, 80}),
+    // fib-31 is the id of the 21 card in cards.js
+    FIBONACCI("fibonacci", new String[]{"fib-0", "fib-1", "fib-2", "fib-3", "fib-5", "fib-8", "fib-13", "fib-31",
+            "fib-34", "fib-55", "pass", "?", "break"},
+            new double[]{0, 1, 2, 3, 5, 8, 13, 21, 34, 55}),
+    MODIFIED_FIBONACCI("modifiedFibonacci", new String[]{"mfib-0", "mfib-1/2", "mfib-1", "mfib-2", "mfib-3", "mfib-5",
+            "mfib-8", "mfib-13", "mfib-20", "mfib-40", "mfib-100", "pass", "?", "break"},
+            new double[]{0, 0.5, 1, 2, 3, 5, 8, 13, 20, 40, 100});
+
+    private static final Map<String, CardSetEnum> BY_VALUE;
+
+    static {
+        final ImmutableMap.Builder<String, CardSetEnum> builder = ImmutableMap.builder();
+        for (CardSetEnum cardSetEnum : values()) {
+            builder.put(cardSetEnum.value.toLowerCase(Locale.ROOT), cardSetEnum);
+        }
+        BY_VALUE = builder.build();
+    }
 
     private final String value;
+    // card ids as sent by the web client (see cards.js), in deck order
+    private final CardDeck deck;
 
-    CardSetEnum(String value) {
+    CardSetEnum(String value, String[] cards, double[] weights) {
         this.value = value;
+        this.deck = CardDeck.of(Arrays.asList(cards), weights);
     }
 
     public static CardSetEnum toEnum(String value) {
-        for (CardSetEnum cardSetEnum : CardSetEnum.values()) {
-            if (cardSetEnum.getValue().equalsIgnoreCase(value)) {
-                return cardSetEnum;
-            }
-        }
-        return null;
+        return value != null ? BY_VALUE.get(value.toLowerCase(Locale.ROOT)) : null;
     }
 
     public String getValue() {
         return value;
     }
+
+    public CardDeck getDeck() {
+        return deck;
+    }
+
+    public List<String> getCards() {
+        return deck.getLabels();
+    }
+
+    /**
+     * @param card card id
+     * @return position of the card in the deck, -1 if the card is not part of the deck
+     */
+    public int indexOf(String card) {
+        return deck.ordinal(card);
+    }
 }
@@ -0,0 +1,33 @@
+package com.influans.sp.enums;
+
+/**
+ * @author hazem
+ */
+public enum DataFormat {
+    NDJSON("ndjson", "application/x-ndjson"), CSV("csv", "text/csv");
+
+    private final String value;
+    private final String contentType;
+
+    DataFormat(String value, String contentType) {
+        this.value = value;
+        this.contentType = contentType;
+    }
+
+    public static DataFormat toEnum(String value) {
+        for (DataFormat dataFormat : DataFormat.values()) {
+            if (dataFormat.getValue().equalsIgnoreCase(value)) {
+                return dataFormat;
+            }
+        }
+        return null;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,35 @@
+package com.influans.sp.enums;
+
+/**
+ * Encodings of the STOMP MESSAGE frame bodies, negotiated by the client in its CONNECT frame.
+ *
+ * @author hazem
+ */
+public enum WireFormat {
+    JSON("json", "application/json"), CBOR("cbor", "application/cbor"), SMILE("smile", "application/x-jackson-smile");
+
+    private final String value;
+    private final String contentType;
+
+    WireFormat(String value, String contentType) {
+        this.value = value;
+        this.contentType = contentType;
+    }
+
+    public static WireFormat toEnum(String value) {
+        for (WireFormat wireFormat : WireFormat.values()) {
+            if (wireFormat.getValue().equalsIgnoreCase(value)) {
+                return wireFormat;
+            }
+        }
+        return null;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -4,8 +4,13 @@ package com.influans.sp.enums;
  * @author hazem
  */
 public enum WsTypes {
-    VOTE_ADDED, VOTE_REMOVED,
-    STORY_ADDED, STORY_REMOVED, STORY_ENDED,
-    USER_CONNECTED, USER_DISCONNECTED
+    VOTE_ADDED, VOTE_REMOVED, VOTES_ADDED,
+    STORY_ADDED, STORY_REMOVED, STORY_ENDED, STORY_REVOTED,
+    STORIES_ADDED, STORIES_REORDERED, STORIES_ENDED,
+    USER_CONNECTED, USER_DISCONNECTED,
+    SESSION_STATE,
+    TIMER_STARTED, TIMER_TICK, TIMER_STOPPED,
+    ROUND_OPENED, ROUND_ENDED,
+    IMPORT_PROGRESS
 
 }
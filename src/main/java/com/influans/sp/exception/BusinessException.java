@@ -0,0 +1,17 @@
+package com.influans.sp.exception;
+
+/**
+ * Expected functional error (invalid argument, unknown session...). It is part of the normal request flow, so no
+ * stack trace is captured and the error handler does not log it as an error.
+ */
+public class BusinessException extends CustomException {
+    private static final long serialVersionUID = 4378927416632091157L;
+
+    public BusinessException(CustomErrorCode errorCode) {
+        this(errorCode, errorCode.getMessage());
+    }
+
+    public BusinessException(CustomErrorCode errorCode, String message) {
+        super(errorCode, message, false);
+    }
+}
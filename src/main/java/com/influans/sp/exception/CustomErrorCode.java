@@ -6,22 +6,24 @@ import javax.ws.rs.core.Response;
 public enum CustomErrorCode {
     BAD_ARGS(Response.Status.BAD_REQUEST, "Parameter should not be null or empty"), //
     DUPLICATE_IDENTIFIER(Response.Status.CONFLICT, "An object with the same identifier already exists"), //
+    IDEMPOTENCY_KEY_REUSED(Response.Status.CONFLICT, "The idempotency key has already been used for another request"), //
     OBJECT_NOT_FOUND(Response.Status.NOT_FOUND, "Object not found"), //
     INTERNAL_SERVER_ERROR(Response.Status.INTERNAL_SERVER_ERROR, "Unmanaged exception"), //
     NOT_YET_IMPLEMENTED(Response.Status.NOT_IMPLEMENTED, "Service not yet implemented"), //
     PERMISSION_DENIED(Response.Status.FORBIDDEN, "Rights problem"), //
     SERVICE_UNAVAILABLE(Response.Status.SERVICE_UNAVAILABLE, "Service unavailable"), //
-    BAD_GATEWAY(Response.Status.BAD_GATEWAY, "Problem with external api service");
+    BAD_GATEWAY(Response.Status.BAD_GATEWAY, "Problem with external api service"), //
+    TOO_MANY_REQUESTS(TooManyRequests.STATUS, "Too many requests");
 
-    private final Response.Status code;
+    private final Response.StatusType code;
     private final String message;
 
-    CustomErrorCode(Response.Status code, String message) {
+    CustomErrorCode(Response.StatusType code, String message) {
         this.code = code;
         this.message = message;
     }
 
-    public Response.Status getHttpStatus() {
+    public Response.StatusType getHttpStatus() {
         return code;
     }
 
@@ -33,4 +35,26 @@ public enum CustomErrorCode {
         return message;
     }
 
+    /**
+     * 429 is not part of {@link Response.Status} in JAX-RS 2.0
+     */
+    private static class TooManyRequests implements Response.StatusType {
+        private static final TooManyRequests STATUS = new TooManyRequests();
+
+        @Override
+        public int getStatusCode() {
+            return 429;
+        }
+
+        @Override
+        public Response.Status.Family getFamily() {
+            return Response.Status.Family.CLIENT_ERROR;
+        }
+
+        @Override
+        public String getReasonPhrase() {
+            return "Too Many Requests";
+        }
+    }
+
 }
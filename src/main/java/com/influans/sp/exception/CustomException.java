@@ -25,6 +25,16 @@ public class CustomException extends RuntimeException {
         this.customErrorCode = errorCode;
     }
 
+    /**
+     * @param errorCode          error code
+     * @param message            error message
+     * @param writableStackTrace false to skip the stack trace capture
+     */
+    protected CustomException(CustomErrorCode errorCode, String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.customErrorCode = errorCode;
+    }
+
     public CustomErrorCode getCustomErrorCode() {
         return customErrorCode;
     }
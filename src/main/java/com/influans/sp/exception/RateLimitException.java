@@ -0,0 +1,19 @@
+package com.influans.sp.exception;
+
+/**
+ * Request rejected by the rate limiter, carries the delay after which the client may retry (Retry-After header).
+ */
+public class RateLimitException extends BusinessException {
+    private static final long serialVersionUID = -2915027469120433718L;
+
+    private final long retryAfterSeconds;
+
+    public RateLimitException(String message, long retryAfterSeconds) {
+        super(CustomErrorCode.TOO_MANY_REQUESTS, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
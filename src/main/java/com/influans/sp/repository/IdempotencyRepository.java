@@ -0,0 +1,7 @@
+package com.influans.sp.repository;
+
+import com.influans.sp.entity.IdempotencyEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface IdempotencyRepository extends MongoRepository<IdempotencyEntity, String> {
+}
@@ -1,11 +1,12 @@
 package com.influans.sp.repository;
 
 import com.influans.sp.entity.SessionEntity;
+import com.influans.sp.repository.custom.SessionRepositoryCustom;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 
-public interface SessionRepository extends MongoRepository<SessionEntity, String> {
+public interface SessionRepository extends MongoRepository<SessionEntity, String>, SessionRepositoryCustom {
     SessionEntity findSessionBySessionId(String sessionId);
 
     List<SessionEntity> findAll();
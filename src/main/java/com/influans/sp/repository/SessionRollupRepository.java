@@ -0,0 +1,7 @@
+package com.influans.sp.repository;
+
+import com.influans.sp.entity.SessionRollupEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface SessionRollupRepository extends MongoRepository<SessionRollupEntity, String> {
+}
@@ -0,0 +1,7 @@
+package com.influans.sp.repository;
+
+import com.influans.sp.entity.SprintRollupEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface SprintRollupRepository extends MongoRepository<SprintRollupEntity, String> {
+}
@@ -0,0 +1,12 @@
+package com.influans.sp.repository;
+
+import com.influans.sp.entity.StoryRollupEntity;
+import com.influans.sp.entity.def.StoryRollupEntityDef;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.List;
+
+public interface StoryRollupRepository extends GenericRepository<StoryRollupEntity, String> {
+    @Query(value = "{ " + StoryRollupEntityDef.SESSION_ID + " : ?0 }")
+    List<StoryRollupEntity> findBySessionId(String sessionId);
+}
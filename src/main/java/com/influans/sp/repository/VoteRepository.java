@@ -5,6 +5,7 @@ import com.influans.sp.entity.def.VoteEntityDef;
 import com.influans.sp.repository.custom.VoteRepositoryCustom;
 import org.springframework.data.mongodb.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface VoteRepository extends GenericRepository<VoteEntity, String>, VoteRepositoryCustom {
@@ -13,4 +14,7 @@ public interface VoteRepository extends GenericRepository<VoteEntity, String>, V
 
     @Query(value = "{ " + VoteEntityDef.STORY_ID + " : ?0 }")
     List<VoteEntity> findByStoryId(String storyId);
+
+    @Query(value = "{ " + VoteEntityDef.STORY_ID + " : { $in : ?0 } }")
+    List<VoteEntity> findByStoryIdIn(Collection<String> storyIds);
 }
\ No newline at end of file
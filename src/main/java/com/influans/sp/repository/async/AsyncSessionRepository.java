@@ -0,0 +1,24 @@
+package com.influans.sp.repository.async;
+
+import com.influans.sp.entity.SessionEntity;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking session operations, futures are completed on the mongo I/O executor.
+ *
+ * @author hazem
+ */
+public interface AsyncSessionRepository {
+    /**
+     * @param sessionId session id
+     * @return true if the session exists
+     */
+    CompletableFuture<Boolean> exists(String sessionId);
+
+    /**
+     * @param sessionId session id
+     * @return session, null if not found
+     */
+    CompletableFuture<SessionEntity> findOne(String sessionId);
+}
@@ -0,0 +1,25 @@
+package com.influans.sp.repository.async;
+
+import com.influans.sp.entity.StoryEntity;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking story operations, futures are completed on the mongo I/O executor.
+ *
+ * @author hazem
+ */
+public interface AsyncStoryRepository {
+    /**
+     * @param storyId story id
+     * @return true if the story exists
+     */
+    CompletableFuture<Boolean> exists(String storyId);
+
+    /**
+     * @param sessionId session id
+     * @return stories of the session
+     */
+    CompletableFuture<List<StoryEntity>> findBySessionId(String sessionId);
+}
@@ -0,0 +1,25 @@
+package com.influans.sp.repository.async;
+
+import com.influans.sp.entity.UserEntity;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking user operations, futures are completed on the mongo I/O executor.
+ *
+ * @author hazem
+ */
+public interface AsyncUserRepository {
+    /**
+     * @param userKey user key, see {@link UserEntity#key(String, String)}
+     * @return true if the user exists
+     */
+    CompletableFuture<Boolean> exists(String userKey);
+
+    /**
+     * @param sessionId session id
+     * @return users connected to the session
+     */
+    CompletableFuture<List<UserEntity>> findUsersBySessionId(String sessionId);
+}
@@ -0,0 +1,32 @@
+package com.influans.sp.repository.async;
+
+import com.influans.sp.entity.VoteEntity;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking vote operations, futures are completed on the mongo I/O executor.
+ *
+ * @author hazem
+ */
+public interface AsyncVoteRepository {
+    /**
+     * @param storyId story id
+     * @return votes of the story
+     */
+    CompletableFuture<List<VoteEntity>> findByStoryId(String storyId);
+
+    /**
+     * @param username username
+     * @param storyId  story id
+     * @return vote of the user on the story, null if the user did not vote yet
+     */
+    CompletableFuture<VoteEntity> getVoteByUserOnStory(String username, String storyId);
+
+    /**
+     * @param voteEntity vote to insert or update
+     * @return saved vote
+     */
+    CompletableFuture<VoteEntity> save(VoteEntity voteEntity);
+}
@@ -0,0 +1,30 @@
+package com.influans.sp.repository.async.impl;
+
+import com.influans.sp.entity.SessionEntity;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.async.AsyncSessionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author hazem
+ */
+@Repository
+public class AsyncSessionRepositoryImpl implements AsyncSessionRepository {
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private MongoIoExecutor mongoIoExecutor;
+
+    @Override
+    public CompletableFuture<Boolean> exists(String sessionId) {
+        return mongoIoExecutor.supply(() -> sessionRepository.exists(sessionId));
+    }
+
+    @Override
+    public CompletableFuture<SessionEntity> findOne(String sessionId) {
+        return mongoIoExecutor.supply(() -> sessionRepository.findOne(sessionId));
+    }
+}
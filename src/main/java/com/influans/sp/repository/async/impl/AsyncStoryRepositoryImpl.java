@@ -0,0 +1,31 @@
+package com.influans.sp.repository.async.impl;
+
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.async.AsyncStoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author hazem
+ */
+@Repository
+public class AsyncStoryRepositoryImpl implements AsyncStoryRepository {
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private MongoIoExecutor mongoIoExecutor;
+
+    @Override
+    public CompletableFuture<Boolean> exists(String storyId) {
+        return mongoIoExecutor.supply(() -> storyRepository.exists(storyId));
+    }
+
+    @Override
+    public CompletableFuture<List<StoryEntity>> findBySessionId(String sessionId) {
+        return mongoIoExecutor.supply(() -> storyRepository.findBySessionId(sessionId));
+    }
+}
@@ -0,0 +1,31 @@
+package com.influans.sp.repository.async.impl;
+
+import com.influans.sp.entity.UserEntity;
+import com.influans.sp.repository.UserRepository;
+import com.influans.sp.repository.async.AsyncUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author hazem
+ */
+@Repository
+public class AsyncUserRepositoryImpl implements AsyncUserRepository {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MongoIoExecutor mongoIoExecutor;
+
+    @Override
+    public CompletableFuture<Boolean> exists(String userKey) {
+        return mongoIoExecutor.supply(() -> userRepository.userExists(userKey));
+    }
+
+    @Override
+    public CompletableFuture<List<UserEntity>> findUsersBySessionId(String sessionId) {
+        return mongoIoExecutor.supply(() -> userRepository.findUsersBySessionId(sessionId));
+    }
+}
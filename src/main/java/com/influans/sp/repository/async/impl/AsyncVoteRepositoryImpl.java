@@ -0,0 +1,36 @@
+package com.influans.sp.repository.async.impl;
+
+import com.influans.sp.entity.VoteEntity;
+import com.influans.sp.repository.VoteRepository;
+import com.influans.sp.repository.async.AsyncVoteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author hazem
+ */
+@Repository
+public class AsyncVoteRepositoryImpl implements AsyncVoteRepository {
+    @Autowired
+    private VoteRepository voteRepository;
+    @Autowired
+    private MongoIoExecutor mongoIoExecutor;
+
+    @Override
+    public CompletableFuture<List<VoteEntity>> findByStoryId(String storyId) {
+        return mongoIoExecutor.supply(() -> voteRepository.findByStoryId(storyId));
+    }
+
+    @Override
+    public CompletableFuture<VoteEntity> getVoteByUserOnStory(String username, String storyId) {
+        return mongoIoExecutor.supply(() -> voteRepository.getVoteByUserOnStory(username, storyId));
+    }
+
+    @Override
+    public CompletableFuture<VoteEntity> save(VoteEntity voteEntity) {
+        return mongoIoExecutor.supply(() -> voteRepository.save(voteEntity));
+    }
+}
@@ -0,0 +1,117 @@
+package com.influans.sp.repository.async.impl;
+
+import com.influans.sp.config.ThreadingConfig;
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.utils.FutureUtils;
+import com.influans.sp.utils.VirtualThreads;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * The driver bundled with Spring Data MongoDB is blocking: the async repositories run its calls on this executor,
+ * separate from the REST one so that a REST task waiting for several queries can never starve them. Virtual threads
+ * are used when enabled (see {@link ThreadingConfig}), a bounded pool otherwise. Blocking service methods go through
+ * {@link #join(Supplier)}, which runs the queries on the calling thread: they never wait for a thread of the pool.
+ *
+ * @author hazem
+ */
+@Component
+public class MongoIoExecutor {
+    private static final ThreadLocal<Boolean> CALLER_RUNS = new ThreadLocal<>();
+
+    @Value("${mongo.async.poolSize:32}")
+    private int poolSize;
+
+    @Value("${mongo.async.queueCapacity:10000}")
+    private int queueCapacity;
+
+    @Autowired
+    private ThreadingConfig threadingConfig;
+
+    private Executor executor;
+    private ThreadPoolTaskExecutor threadPool;
+    private ExecutorService virtualThreads;
+
+    @PostConstruct
+    public void init() {
+        if (threadingConfig.isVirtual()) {
+            virtualThreads = VirtualThreads.newPerTaskExecutor();
+            executor = virtualThreads;
+        } else {
+            threadPool = new ThreadPoolTaskExecutor();
+            threadPool.setCorePoolSize(poolSize);
+            threadPool.setMaxPoolSize(poolSize);
+            threadPool.setQueueCapacity(queueCapacity);
+            threadPool.setThreadNamePrefix("mongo-io-");
+            threadPool.initialize();
+            executor = threadPool;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (threadPool != null) {
+            threadPool.shutdown();
+        }
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+    }
+
+    /**
+     * @param query blocking mongo call
+     * @param <T>   result type
+     * @return future completed with the query result
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> query) {
+        if (CALLER_RUNS.get() != null) {
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                future.complete(query.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        try {
+            return CompletableFuture.supplyAsync(query, executor);
+        } catch (RejectedExecutionException e) {
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(new BusinessException(CustomErrorCode.SERVICE_UNAVAILABLE, "database is overloaded, retry later"));
+            return future;
+        }
+    }
+
+    /**
+     * Runs an async call with its queries executed on the calling thread, so that blocking service methods share the
+     * code of their async variant without handing the queries to the pool and waiting for them.
+     *
+     * @param call async call
+     * @param <T>  result type
+     * @return call result
+     * @should run the queries on the calling thread
+     * @should rethrow the runtime exception that failed the call
+     */
+    public static <T> T join(Supplier<CompletableFuture<T>> call) {
+        final boolean nested = CALLER_RUNS.get() != null;
+        CALLER_RUNS.set(Boolean.TRUE);
+        try {
+            return FutureUtils.join(call.get());
+        } finally {
+            if (!nested) {
+                CALLER_RUNS.remove();
+            }
+        }
+    }
+}
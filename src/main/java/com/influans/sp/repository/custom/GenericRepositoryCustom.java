@@ -71,12 +71,13 @@ public interface GenericRepositoryCustom<T, ID extends Serializable> {
      * @return MongoDAOResponse
      * @should update field on selected document with given value
      * @should not perform an update if id does not exists
+     * @should remove the field if value is null
      */
     DAOResponse update(ID id, String field, Object value);
 
     /**
      * Updates the object that is found in the collection of the entity class that matches ths given id with
-     * the provided update values.
+     * the provided update values. Fields whose value is null are removed from the document.
      *
      * @param id     entity id
      * @param values values to update
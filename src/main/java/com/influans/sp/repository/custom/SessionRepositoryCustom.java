@@ -0,0 +1,67 @@
+package com.influans.sp.repository.custom;
+
+import com.influans.sp.entity.SessionEntity;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @author hazem
+ */
+public interface SessionRepositoryCustom extends GenericRepositoryCustom<SessionEntity, String> {
+
+    /**
+     * Opens a cursor on the sessions created in the given range, the caller is responsible for closing it.
+     *
+     * @param from inclusive lower bound
+     * @param to   exclusive upper bound
+     * @return sessions created in the given range sorted by creation date
+     * @should stream only sessions created in the given range
+     */
+    CloseableIterator<SessionEntity> streamByCreationDate(Date from, Date to);
+
+    /**
+     * @return sessions with a parallel estimation round in progress, with their open stories only
+     * @should return only sessions with open stories
+     * @should skip empty rounds
+     */
+    List<SessionEntity> findWithOpenRound();
+
+    /**
+     * Opens a parallel estimation round unless one is already open, so that concurrent calls open a single round. An
+     * empty round, whose stories were all ended on their own, does not prevent a new round.
+     *
+     * @param sessionId session id
+     * @param storyIds  stories of the round
+     * @return true if the round was opened by this call
+     * @should open the round only if no round is open
+     * @should open the round if the open round is empty
+     */
+    boolean openRound(String sessionId, List<String> storyIds);
+
+    /**
+     * Closes the round in progress, concurrent calls close it once.
+     *
+     * @param sessionId session id
+     * @return the session with the stories of the closed round only, null if no round was open
+     * @should close the round once
+     */
+    SessionEntity closeRound(String sessionId);
+
+    /**
+     * @param sessionId session id
+     * @param storyIds  stories to remove from the round in progress
+     * @return true if at least one of the stories was part of the round
+     * @should remove the stories from the open round
+     */
+    boolean removeOpenStories(String sessionId, Collection<String> storyIds);
+
+    /**
+     * @param sessionId session id
+     * @return true if the open round had no story left and was cleared by this call
+     * @should clear the open round only if it is empty
+     */
+    boolean clearEmptyRound(String sessionId);
+}
@@ -1,9 +1,117 @@
 package com.influans.sp.repository.custom;
 
 import com.influans.sp.entity.StoryEntity;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * @author hazem
  */
 public interface StoryRepositoryCustom extends GenericRepositoryCustom<StoryEntity, String> {
+
+    /**
+     * @param sessionId session id
+     * @return stories of the given session sorted by rank, then by order
+     * @should return stories of the given session sorted by rank
+     * @should return stories without rank first sorted by order
+     */
+    List<StoryEntity> findBySessionId(String sessionId);
+
+    /**
+     * @param sessionId session id
+     * @return stories of the given session which are not ended, with their name only, sorted by rank, then by order
+     * @should return only stories which are not ended sorted by rank
+     */
+    List<StoryEntity> findNotEndedBySessionId(String sessionId);
+
+    /**
+     * @param sessionId       session id
+     * @param rank            rank to start from (exclusive), null to start from the first ranked story
+     * @param excludedStoryId story to skip, may be null
+     * @return first ranked story of the session after the given rank
+     * @should return the next ranked story of the session
+     * @should skip the excluded story
+     */
+    StoryEntity findNextByRank(String sessionId, String rank, String excludedStoryId);
+
+    /**
+     * @param sessionId session id
+     * @return number of stories of the session without rank
+     */
+    long countUnranked(String sessionId);
+
+    /**
+     * @return stories which are not ended and have a running voting countdown
+     * @should return only stories with a deadline which are not ended
+     */
+    List<StoryEntity> findWithDeadline();
+
+    /**
+     * Ends a story if it is not ended yet, in a single atomic update: concurrent calls end the story once.
+     *
+     * @param storyId story id
+     * @return the ended story, null if it does not exist or was already ended
+     * @should end the story and remove its deadline
+     * @should return null if the story is already ended
+     */
+    StoryEntity endStory(String storyId);
+
+    /**
+     * Ends the given stories which are not ended yet with a single update, then reads back the stories ended by this
+     * call: each story is returned by one call only, even when several calls race.
+     *
+     * @param storyIds story ids
+     * @return stories ended by this call
+     * @should end only the stories which are not ended yet
+     */
+    List<StoryEntity> endStories(Collection<String> storyIds);
+
+    /**
+     * Reopens an ended story for a new voting round, in a single atomic update: concurrent calls reopen it once.
+     *
+     * @param storyId story id
+     * @return the reopened story, null if it does not exist or is not ended
+     * @should reopen an ended story
+     * @should return null if the story is not ended
+     */
+    StoryEntity reopenStory(String storyId);
+
+    /**
+     * @param sessionId session id
+     * @param storyIds  story ids
+     * @return number of the given stories which belong to the given session
+     * @should count only stories of the given session
+     */
+    long countSessionStories(String sessionId, Collection<String> storyIds);
+
+    /**
+     * Opens a cursor on the stories of a session, the caller is responsible for closing it.
+     *
+     * @param sessionId session id
+     * @return stories of the given session sorted by rank, then by order
+     * @should stream stories of the given session sorted by order
+     */
+    CloseableIterator<StoryEntity> streamBySessionId(String sessionId);
+
+    /**
+     * Search on story names, served by the keywords_created index: the index is walked from the first keyword, which
+     * should be the rarest one, in creation key order, from the given key.
+     *
+     * @param keywords keywords that the story name should all contain, see {@link com.influans.sp.utils.StringUtils#keywords(String)}
+     * @param after    creation key of the last story of the previous page, null for the first page
+     * @param limit    maximum number of stories to return
+     * @return matching stories, most recent first
+     * @should return stories whose name contains all the keywords
+     * @should return the stories created before the given key
+     */
+    List<StoryEntity> search(List<String> keywords, String after, int limit);
+
+    /**
+     * @param keyword keyword
+     * @return number of stories whose name contains the keyword
+     * @should count the stories containing the keyword
+     */
+    long countByKeyword(String keyword);
 }
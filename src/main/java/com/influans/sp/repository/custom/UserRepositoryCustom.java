@@ -15,6 +15,8 @@ public interface UserRepositoryCustom {
      * @return list of UserEntity
      * @should return users list related to a given session
      * @should return empty list if sessionId is invalid
+     * @should not return users of sessions whose id starts with the given sessionId
+     * @should return users stored with the legacy composite id
      */
     List<UserEntity> findUsersBySessionId(String sessionId);
 
@@ -27,6 +29,15 @@ public interface UserRepositoryCustom {
      * @should return user connected to a given session with a given username
      * @should return null if sessionId is invalid
      * @should return null if username is invalid
+     * @should find and rewrite a user stored with the legacy composite id
      */
     UserEntity findUser(String sessionId, String username);
+
+    /**
+     * @param userKey user key
+     * @return true if the user exists, with the compact key or the legacy composite id
+     * @should return true for a user stored with the legacy composite id
+     * @should return false if the user does not exist
+     */
+    boolean userExists(String userKey);
 }
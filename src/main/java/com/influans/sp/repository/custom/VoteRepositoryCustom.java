@@ -1,6 +1,7 @@
 package com.influans.sp.repository.custom;
 
 import com.influans.sp.entity.VoteEntity;
+import org.springframework.data.util.CloseableIterator;
 
 /**
  * @author hazem
@@ -17,4 +18,19 @@ public interface VoteRepositoryCustom extends GenericRepositoryCustom<VoteEntity
      * @should return null if storyId is invalid
      */
     VoteEntity getVoteByUserOnStory(String username, String storyId);
+
+    /**
+     * Opens a cursor on all the votes, served by the storyId index. The caller is responsible for closing it.
+     *
+     * @return votes grouped by story
+     * @should stream the votes of each story consecutively
+     */
+    CloseableIterator<VoteEntity> streamOrderedByStoryId();
+
+    /**
+     * @param storyId story id
+     * @return number of deleted votes
+     * @should delete the votes of the given story only
+     */
+    long deleteByStoryId(String storyId);
 }
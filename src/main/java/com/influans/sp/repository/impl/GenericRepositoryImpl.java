@@ -7,6 +7,7 @@ import com.mongodb.util.JSONParseException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
@@ -78,7 +79,11 @@ public abstract class GenericRepositoryImpl<T, ID extends Serializable> implemen
         Update up = new Update();
         if (values != null) {
             for (Map.Entry<String, Object> entry : values.entrySet()) {
-                up.set(entry.getKey(), entry.getValue());
+                if (entry.getValue() == null) {
+                    up.unset(entry.getKey());
+                } else {
+                    up.set(entry.getKey(), entry.getValue());
+                }
             }
         }
         WriteResult result = this.mongoTemplate.updateFirst(q, up, this.getTClass());
@@ -171,6 +176,51 @@ public abstract class GenericRepositoryImpl<T, ID extends Serializable> implemen
             return this;
         }
 
+        /**
+         * builder method to insert/replace a list of entities, fields which are null are removed like with
+         * {@link MongoTemplate#save(Object)}
+         * @param entities entities to save
+         * @return BulkBuilder
+         */
+        public BulkBuilder save(List<T> entities) {
+            bulkAll(entities, (T t) -> {
+                DBObject dbO = toDbObject(t);
+                bulk.find(new BasicDBObject(MONGO_ID, dbO.get(MONGO_ID))) //
+                        .upsert() //
+                        .replaceOne(dbO);
+            });
+            return this;
+        }
+
+        /**
+         * builder method to set some fields of a single document, fields set to null are removed
+         * @param id     entity id
+         * @param values values to set
+         * @return BulkBuilder
+         */
+        public BulkBuilder set(ID id, Map<String, Object> values) {
+            Assert.notEmpty(values);
+            final BasicDBObject set = new BasicDBObject();
+            final BasicDBObject unset = new BasicDBObject();
+            values.forEach((field, value) -> {
+                if (value == null) {
+                    unset.put(field, "");
+                } else {
+                    set.put(field, value);
+                }
+            });
+            final BasicDBObject update = new BasicDBObject();
+            if (!set.isEmpty()) {
+                update.put("$set", set);
+            }
+            if (!unset.isEmpty()) {
+                update.put("$unset", unset);
+            }
+            bulk.find(new BasicDBObject(MONGO_ID, new QueryMapper(mongoTemplate.getConverter()).convertId(id))) //
+                    .updateOne(update);
+            return this;
+        }
+
         private void bulkAll(List<T> entities, Consumer<T> func) {
             Assert.notEmpty(entities);
             entities.stream().forEach(t -> {
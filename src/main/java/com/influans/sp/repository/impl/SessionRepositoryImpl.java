@@ -0,0 +1,72 @@
+package com.influans.sp.repository.impl;
+
+import com.influans.sp.entity.SessionEntity;
+import com.influans.sp.entity.def.SessionEntityDef;
+import com.influans.sp.repository.custom.SessionRepositoryCustom;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @author hazem
+ */
+public class SessionRepositoryImpl extends GenericRepositoryImpl<SessionEntity, String> implements SessionRepositoryCustom {
+    @Override
+    public Class<SessionEntity> getTClass() {
+        return SessionEntity.class;
+    }
+
+    @Override
+    public String getId(SessionEntity sessionEntity) {
+        return sessionEntity.getSessionId();
+    }
+
+    @Override
+    public CloseableIterator<SessionEntity> streamByCreationDate(Date from, Date to) {
+        final Query q = new Query(Criteria.where(SessionEntityDef.CREATED_AT).gte(from).lt(to))
+                .with(new Sort(SessionEntityDef.CREATED_AT));
+        return mongoTemplate.stream(q, getTClass());
+    }
+
+    @Override
+    public List<SessionEntity> findWithOpenRound() {
+        // rounds whose stories were all ended on their own are empty until they are cleared
+        final Query q = new Query(Criteria.where(SessionEntityDef.OPEN_STORIES + ".0").exists(true));
+        q.fields().include(SessionEntityDef.OPEN_STORIES);
+        return mongoTemplate.find(q, getTClass());
+    }
+
+    @Override
+    public boolean openRound(String sessionId, List<String> storyIds) {
+        final Query q = new Query(Criteria.where(MONGO_ID).is(sessionId).orOperator(
+                Criteria.where(SessionEntityDef.OPEN_STORIES).exists(false),
+                Criteria.where(SessionEntityDef.OPEN_STORIES).size(0)));
+        return mongoTemplate.updateFirst(q, Update.update(SessionEntityDef.OPEN_STORIES, storyIds), getTClass()).getN() == 1;
+    }
+
+    @Override
+    public SessionEntity closeRound(String sessionId) {
+        final Query q = new Query(Criteria.where(MONGO_ID).is(sessionId).and(SessionEntityDef.OPEN_STORIES).exists(true));
+        q.fields().include(SessionEntityDef.OPEN_STORIES);
+        return mongoTemplate.findAndModify(q, new Update().unset(SessionEntityDef.OPEN_STORIES), getTClass());
+    }
+
+    @Override
+    public boolean removeOpenStories(String sessionId, Collection<String> storyIds) {
+        final Query q = new Query(Criteria.where(MONGO_ID).is(sessionId).and(SessionEntityDef.OPEN_STORIES).in(storyIds));
+        return mongoTemplate.updateFirst(q, new Update().pullAll(SessionEntityDef.OPEN_STORIES, storyIds.toArray()),
+                getTClass()).getN() > 0;
+    }
+
+    @Override
+    public boolean clearEmptyRound(String sessionId) {
+        final Query q = new Query(Criteria.where(MONGO_ID).is(sessionId).and(SessionEntityDef.OPEN_STORIES).size(0));
+        return mongoTemplate.updateFirst(q, new Update().unset(SessionEntityDef.OPEN_STORIES), getTClass()).getN() == 1;
+    }
+}
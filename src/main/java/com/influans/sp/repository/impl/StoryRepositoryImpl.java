@@ -1,7 +1,18 @@
 package com.influans.sp.repository.impl;
 
 import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.entity.def.StoryEntityDef;
 import com.influans.sp.repository.custom.StoryRepositoryCustom;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * @author hazem
@@ -16,4 +27,122 @@ public class StoryRepositoryImpl extends GenericRepositoryImpl<StoryEntity, Stri
     public String getId(StoryEntity storyEntity) {
         return storyEntity.getStoryId();
     }
+
+    @Override
+    public List<StoryEntity> findWithDeadline() {
+        // $exists selects the sparse index, deadlines cleared before they were removed are stored as null
+        final Query q = new Query(Criteria.where(StoryEntityDef.DEADLINE).exists(true).ne(null)
+                .and(StoryEntityDef.ENDED).is(false));
+        q.fields().include(StoryEntityDef.SESSION_ID).include(StoryEntityDef.DEADLINE);
+        return mongoTemplate.find(q, getTClass());
+    }
+
+    @Override
+    public long countSessionStories(String sessionId, Collection<String> storyIds) {
+        final Query q = new Query();
+        q.addCriteria(Criteria.where(MONGO_ID).in(storyIds)
+                .andOperator(Criteria.where(StoryEntityDef.SESSION_ID).is(sessionId)));
+        return mongoTemplate.count(q, getTClass());
+    }
+
+    @Override
+    public StoryEntity endStory(String storyId) {
+        final Query q = new Query(Criteria.where(MONGO_ID).is(storyId).and(StoryEntityDef.ENDED).is(false));
+        return mongoTemplate.findAndModify(q, endUpdate(), FindAndModifyOptions.options().returnNew(true), getTClass());
+    }
+
+    @Override
+    public List<StoryEntity> endStories(Collection<String> storyIds) {
+        final String token = new ObjectId().toString();
+        mongoTemplate.updateMulti(new Query(Criteria.where(MONGO_ID).in(storyIds).and(StoryEntityDef.ENDED).is(false)),
+                endUpdate().set(StoryEntityDef.END_TOKEN, token), getTClass());
+        return mongoTemplate.find(new Query(Criteria.where(MONGO_ID).in(storyIds).and(StoryEntityDef.END_TOKEN).is(token)),
+                getTClass());
+    }
+
+    @Override
+    public CloseableIterator<StoryEntity> streamBySessionId(String sessionId) {
+        return mongoTemplate.stream(sessionQuery(sessionId), getTClass());
+    }
+
+    @Override
+    public List<StoryEntity> findBySessionId(String sessionId) {
+        return mongoTemplate.find(sessionQuery(sessionId), getTClass());
+    }
+
+    @Override
+    public List<StoryEntity> findNotEndedBySessionId(String sessionId) {
+        final Query q = new Query(Criteria.where(StoryEntityDef.SESSION_ID).is(sessionId)
+                .and(StoryEntityDef.ENDED).is(false))
+                .with(new Sort(StoryEntityDef.RANK, StoryEntityDef.ORDER));
+        q.fields().include(StoryEntityDef.STORY_NAME);
+        return mongoTemplate.find(q, getTClass());
+    }
+
+    @Override
+    public StoryEntity findNextByRank(String sessionId, String rank, String excludedStoryId) {
+        final Criteria criteria = Criteria.where(StoryEntityDef.SESSION_ID).is(sessionId);
+        if (rank != null) {
+            criteria.and(StoryEntityDef.RANK).gt(rank);
+        } else {
+            criteria.and(StoryEntityDef.RANK).ne(null);
+        }
+        if (excludedStoryId != null) {
+            criteria.and(MONGO_ID).ne(excludedStoryId);
+        }
+        return mongoTemplate.findOne(new Query(criteria).with(new Sort(StoryEntityDef.RANK)), getTClass());
+    }
+
+    @Override
+    public long countUnranked(String sessionId) {
+        final Query q = new Query(Criteria.where(StoryEntityDef.SESSION_ID).is(sessionId)
+                .and(StoryEntityDef.RANK).is(null));
+        return mongoTemplate.count(q, getTClass());
+    }
+
+    /**
+     * Sorted by creation key: pages stay stable while stories are added, and recent estimations come first. The next
+     * page starts after the last key instead of skipping the previous pages, so each page reads size index entries.
+     */
+    @Override
+    public List<StoryEntity> search(List<String> keywords, String after, int limit) {
+        // $all uses the index bounds of its first keyword
+        final Criteria criteria = Criteria.where(StoryEntityDef.KEYWORDS).all(keywords);
+        if (after != null) {
+            criteria.and(StoryEntityDef.CREATION_KEY).lt(after);
+        }
+        final Query q = new Query(criteria)
+                .with(new Sort(Sort.Direction.DESC, StoryEntityDef.CREATION_KEY))
+                .limit(limit);
+        q.fields().include(StoryEntityDef.STORY_NAME).include(StoryEntityDef.SESSION_ID).include(StoryEntityDef.ENDED)
+                .include(StoryEntityDef.CREATION_KEY);
+        return mongoTemplate.find(q, getTClass());
+    }
+
+    @Override
+    public long countByKeyword(String keyword) {
+        return mongoTemplate.count(new Query(Criteria.where(StoryEntityDef.KEYWORDS).is(keyword)), getTClass());
+    }
+
+    /**
+     * The deadline of an ended story is removed from the sparse deadline index.
+     */
+    @Override
+    public StoryEntity reopenStory(String storyId) {
+        final Query q = new Query(Criteria.where(MONGO_ID).is(storyId).and(StoryEntityDef.ENDED).is(true));
+        return mongoTemplate.findAndModify(q, new Update().set(StoryEntityDef.ENDED, false).unset(StoryEntityDef.END_TOKEN),
+                FindAndModifyOptions.options().returnNew(true), getTClass());
+    }
+
+    private static Update endUpdate() {
+        return new Update().set(StoryEntityDef.ENDED, true).unset(StoryEntityDef.DEADLINE);
+    }
+
+    /**
+     * Served by the session_rank index, stories without rank come first.
+     */
+    private Query sessionQuery(String sessionId) {
+        return new Query(Criteria.where(StoryEntityDef.SESSION_ID).is(sessionId))
+                .with(new Sort(StoryEntityDef.RANK, StoryEntityDef.ORDER));
+    }
 }
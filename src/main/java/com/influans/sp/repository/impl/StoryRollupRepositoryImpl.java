@@ -0,0 +1,20 @@
+package com.influans.sp.repository.impl;
+
+import com.influans.sp.entity.StoryRollupEntity;
+import com.influans.sp.repository.custom.GenericRepositoryCustom;
+
+/**
+ * @author hazem
+ */
+public class StoryRollupRepositoryImpl extends GenericRepositoryImpl<StoryRollupEntity, String>
+        implements GenericRepositoryCustom<StoryRollupEntity, String> {
+    @Override
+    public Class<StoryRollupEntity> getTClass() {
+        return StoryRollupEntity.class;
+    }
+
+    @Override
+    public String getId(StoryRollupEntity storyRollupEntity) {
+        return storyRollupEntity.getStoryId();
+    }
+}
@@ -1,42 +1,87 @@
 package com.influans.sp.repository.impl;
 
-import com.influans.sp.entity.EntityId;
 import com.influans.sp.entity.UserEntity;
-import com.influans.sp.entity.def.EntityIdDef;
 import com.influans.sp.entity.def.UserEntityDef;
 import com.influans.sp.repository.custom.UserRepositoryCustom;
+import com.influans.sp.service.UserKeyMigrationService;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
+ * While user.key.legacy.enabled is set, users written with the former composite _id by nodes that are not upgraded
+ * yet are found as well: a lookup by key falls back to the composite id and rewrites the user with the compact key.
+ *
  * @author hazem
  */
-public class UserRepositoryImpl extends GenericRepositoryImpl<UserEntity, EntityId> implements UserRepositoryCustom {
+public class UserRepositoryImpl extends GenericRepositoryImpl<UserEntity, String> implements UserRepositoryCustom {
+    @Value("${user.key.legacy.enabled:true}")
+    private boolean legacyEnabled;
+
     @Override
     public Class<UserEntity> getTClass() {
         return UserEntity.class;
     }
 
     @Override
-    public EntityId getId(UserEntity userEntity) {
-        return userEntity.getUserId();
+    public String getId(UserEntity userEntity) {
+        return userEntity.getUserKey();
     }
 
     @Override
     public List<UserEntity> findUsersBySessionId(String sessionId) {
         final Query q = new Query();
-        q.addCriteria(Criteria.where("_id.sId").is(sessionId)
+        q.addCriteria(Criteria.where(MONGO_ID).gte(UserEntity.sessionKeyFrom(sessionId)).lt(UserEntity.sessionKeyTo(sessionId))
                 .andOperator(Criteria.where(UserEntityDef.CONNECTED).is(true)));
-        return mongoTemplate.find(q, getTClass());
+        final List<UserEntity> users = mongoTemplate.find(q, getTClass());
+        if (!legacyEnabled) {
+            return users;
+        }
+        final Map<String, UserEntity> usersByKey = new LinkedHashMap<>();
+        try (DBCursor cursor = getCollection().find(new BasicDBObject(UserKeyMigrationService.LEGACY_SESSION_ID, sessionId)
+                .append(UserEntityDef.CONNECTED, true))) {
+            cursor.forEach(legacy -> {
+                final UserEntity user = read(UserKeyMigrationService.compact(legacy));
+                usersByKey.put(user.getUserKey(), user);
+            });
+        }
+        // a user stored with both ids is being rewritten, the compact key wins
+        users.forEach(user -> usersByKey.put(user.getUserKey(), user));
+        return new ArrayList<>(usersByKey.values());
     }
 
     @Override
     public UserEntity findUser(String sessionId, String username) {
-        final Query q = new Query();
-        q.addCriteria(Criteria.where("_id." + EntityIdDef.SESSION_ID).is(sessionId)
-                .andOperator(Criteria.where("_id." + EntityIdDef.ENTITY_ID).is(username)));
-        return mongoTemplate.findOne(q, getTClass());
+        final UserEntity user = mongoTemplate.findById(UserEntity.key(sessionId, username), getTClass());
+        if (user != null || !legacyEnabled) {
+            return user;
+        }
+        final DBObject legacy = getCollection().findOne(
+                new BasicDBObject(MONGO_ID, UserKeyMigrationService.legacyId(sessionId, username)));
+        // rewritten on read, so that saving the returned user does not leave a duplicate behind
+        return legacy != null ? read(UserKeyMigrationService.rekey(getCollection(), legacy)) : null;
+    }
+
+    @Override
+    public boolean userExists(String userKey) {
+        final boolean exists = mongoTemplate.exists(new Query(Criteria.where(MONGO_ID).is(userKey)), getTClass());
+        if (exists || !legacyEnabled) {
+            return exists;
+        }
+        final int separator = userKey.indexOf(UserEntity.KEY_SEPARATOR);
+        return getCollection().count(new BasicDBObject(MONGO_ID, UserKeyMigrationService.legacyId(
+                userKey.substring(0, separator), userKey.substring(separator + 1)))) > 0;
+    }
+
+    private UserEntity read(DBObject user) {
+        return mongoTemplate.getConverter().read(getTClass(), user);
     }
 }
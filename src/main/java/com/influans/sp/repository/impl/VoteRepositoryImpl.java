@@ -3,8 +3,10 @@ package com.influans.sp.repository.impl;
 import com.influans.sp.entity.VoteEntity;
 import com.influans.sp.entity.def.VoteEntityDef;
 import com.influans.sp.repository.custom.VoteRepositoryCustom;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
 
 /**
  * @author hazem
@@ -27,4 +29,14 @@ public class VoteRepositoryImpl extends GenericRepositoryImpl<VoteEntity, String
                 .andOperator(Criteria.where(VoteEntityDef.USERNAME).is(username)));
         return mongoTemplate.findOne(q, getTClass());
     }
+
+    @Override
+    public CloseableIterator<VoteEntity> streamOrderedByStoryId() {
+        return mongoTemplate.stream(new Query().with(new Sort(VoteEntityDef.STORY_ID)), getTClass());
+    }
+
+    @Override
+    public long deleteByStoryId(String storyId) {
+        return mongoTemplate.remove(new Query(Criteria.where(VoteEntityDef.STORY_ID).is(storyId)), getTClass()).getN();
+    }
 }
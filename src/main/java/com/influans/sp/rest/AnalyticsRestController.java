@@ -0,0 +1,54 @@
+package com.influans.sp.rest;
+
+import com.influans.sp.config.RestExecutor;
+import com.influans.sp.dto.SessionAnalyticsDto;
+import com.influans.sp.dto.SprintAnalyticsDto;
+import com.influans.sp.service.AnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+public class AnalyticsRestController {
+    @Autowired
+    private RestExecutor restExecutor;
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    /**
+     * @param sessionId session id
+     * @return session totals and estimation of its ended stories
+     * @should return 200 status
+     * @should return valid error status if an exception has been thrown
+     */
+    @RequestMapping(value = "/analytics/sessions/{sessionId}", method = RequestMethod.GET)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<SessionAnalyticsDto>> getSessionAnalytics(@PathVariable("sessionId") String sessionId) {
+        return restExecutor.supply(() -> new ResponseEntity<>(analyticsService.getSessionAnalytics(sessionId), HttpStatus.OK));
+    }
+
+    /**
+     * @return totals of every sprint
+     * @should return 200 status
+     */
+    @RequestMapping(value = "/analytics/sprints", method = RequestMethod.GET)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<List<SprintAnalyticsDto>>> listSprints() {
+        return restExecutor.supply(() -> new ResponseEntity<>(analyticsService.listSprints(), HttpStatus.OK));
+    }
+
+    /**
+     * @param sprintName sprint name
+     * @return totals of the sessions of the sprint
+     * @should return 200 status
+     */
+    @RequestMapping(value = "/analytics/sprints/{sprintName}", method = RequestMethod.GET)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<SprintAnalyticsDto>> getSprintAnalytics(@PathVariable("sprintName") String sprintName) {
+        return restExecutor.supply(() -> new ResponseEntity<>(analyticsService.getSprintAnalytics(sprintName), HttpStatus.OK));
+    }
+}
@@ -0,0 +1,41 @@
+package com.influans.sp.rest;
+
+import com.influans.sp.dto.NodeDto;
+import com.influans.sp.service.SessionRoutingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+public class ClusterRestController {
+
+    @Autowired
+    private SessionRoutingService sessionRoutingService;
+
+    /**
+     * @param sessionId session id
+     * @return node owning the session
+     * @should return 200 status
+     * @should return valid error status if an exception has been thrown
+     */
+    @RequestMapping(value = "/cluster/owner", method = RequestMethod.GET)
+    @ResponseBody
+    public ResponseEntity<NodeDto> getOwner(@RequestParam(value = "sessionId", required = false) String sessionId) {
+        return new ResponseEntity<>(sessionRoutingService.lookup(sessionId), HttpStatus.OK);
+    }
+
+    /**
+     * The node list is read only, it comes from the configuration or the membership document.
+     *
+     * @return configured nodes
+     * @should return 200 status
+     */
+    @RequestMapping(value = "/cluster/nodes", method = RequestMethod.GET)
+    @ResponseBody
+    public ResponseEntity<List<String>> listNodes() {
+        return new ResponseEntity<>(sessionRoutingService.getNodes(), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,55 @@
+package com.influans.sp.rest;
+
+import com.influans.sp.enums.DataFormat;
+import com.influans.sp.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Date;
+
+@RestController
+public class ExportRestController {
+
+    @Autowired
+    private ExportService exportService;
+
+    /**
+     * @param sessionId session id
+     * @param format    ndjson (default) or csv
+     * @return stories of the session joined with their votes
+     * @should return 200 status
+     * @should return valid error status if an exception has been thrown
+     */
+    @RequestMapping(value = "/export/sessions/{sessionId}", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> exportSession(@PathVariable("sessionId") String sessionId,
+                                                               @RequestParam(value = "format", required = false) String format) {
+        final DataFormat dataFormat = exportService.getFormat(format);
+        return stream(exportService.exportSession(sessionId, dataFormat), dataFormat);
+    }
+
+    /**
+     * @param from   first day (inclusive) of the session creation date, yyyy-MM-dd
+     * @param to     last day (exclusive) of the session creation date, yyyy-MM-dd
+     * @param format ndjson (default) or csv
+     * @return stories of the sessions created in the range joined with their votes
+     * @should return 200 status
+     */
+    @RequestMapping(value = "/export/sessions", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> exportSessions(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
+                                                                @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to,
+                                                                @RequestParam(value = "format", required = false) String format) {
+        final DataFormat dataFormat = exportService.getFormat(format);
+        return stream(exportService.exportSessions(from, to, dataFormat), dataFormat);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(StreamingResponseBody body, DataFormat dataFormat) {
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType(dataFormat.getContentType() + ";charset=UTF-8"))
+                .body(body);
+    }
+}
@@ -0,0 +1,26 @@
+package com.influans.sp.rest;
+
+import com.influans.sp.service.MetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+public class MetricsRestController {
+
+    @Autowired
+    private MetricsService metricsService;
+
+    /**
+     * @return counters of the current node
+     * @should return 200 status
+     */
+    @RequestMapping(value = "/metrics", method = RequestMethod.GET)
+    @ResponseBody
+    public ResponseEntity<Map<String, Long>> getMetrics() {
+        return new ResponseEntity<>(metricsService.snapshot(), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,55 @@
+package com.influans.sp.rest;
+
+import com.influans.sp.config.RestExecutor;
+import com.influans.sp.dto.RoundDto;
+import com.influans.sp.dto.StoryBatchDto;
+import com.influans.sp.service.RoundService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+public class RoundRestController {
+    @Autowired
+    private RestExecutor restExecutor;
+    @Autowired
+    private RoundService roundService;
+
+    /**
+     * @param storyBatchDto session and stories to open, only storyId is required
+     * @return opened round
+     * @should return 200 status
+     * @should return valid error status if an exception has been thrown
+     */
+    @RequestMapping(value = "/rounds", method = RequestMethod.POST)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<RoundDto>> openRound(@RequestBody StoryBatchDto storyBatchDto) {
+        return restExecutor.supply(() -> new ResponseEntity<>(roundService.openRound(storyBatchDto), HttpStatus.OK));
+    }
+
+    /**
+     * @param sessionId session id
+     * @return round in progress
+     * @should return 200 status
+     */
+    @RequestMapping(value = "/rounds/{sessionId}", method = RequestMethod.GET)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<RoundDto>> getRound(@PathVariable("sessionId") String sessionId) {
+        return restExecutor.supply(() -> new ResponseEntity<>(roundService.getRound(sessionId), HttpStatus.OK));
+    }
+
+    /**
+     * @param sessionId session id
+     * @return ended round with the votes of its stories
+     * @should return 200 status
+     * @should return valid error status if an exception has been thrown
+     */
+    @RequestMapping(value = "/rounds/{sessionId}/end", method = RequestMethod.POST)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<RoundDto>> endRound(@PathVariable("sessionId") String sessionId) {
+        return restExecutor.supply(() -> new ResponseEntity<>(roundService.endRound(sessionId), HttpStatus.OK));
+    }
+}
@@ -1,17 +1,28 @@
 package com.influans.sp.rest;
 
+import com.influans.sp.config.RateLimitInterceptor;
+import com.influans.sp.config.RestExecutor;
 import com.influans.sp.dto.SessionDto;
+import com.influans.sp.service.IdempotencyService;
 import com.influans.sp.service.SessionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 public class SessionRestController {
-
+    @Autowired
+    private RestExecutor restExecutor;
     @Autowired
     private SessionService sessionService;
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
 
     /**
      * @param sessionId sessionId
@@ -21,19 +32,43 @@ public class SessionRestController {
      */
     @RequestMapping(value = "/sessions/{sessionId}", method = RequestMethod.GET)
     @ResponseBody
-    public ResponseEntity<SessionDto> getSession(@PathVariable("sessionId") String sessionId) {
-        return new ResponseEntity<>(sessionService.getSession(sessionId), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<SessionDto>> getSession(@PathVariable("sessionId") String sessionId) {
+        return sessionService.getSessionAsync(sessionId).thenApply(sessionDto -> new ResponseEntity<>(sessionDto, HttpStatus.OK));
     }
 
     /**
-     * @param sessionDto Session that will be created
+     * @param sessionDto     Session that will be created
+     * @param idempotencyKey key identifying the client request across retries
+     * @param request        current request, its client scopes the idempotency key
      * @return SessionDto
      * @should return 200 status
      * @should return valid error status if an exception has been thrown
      */
     @RequestMapping(value = "/sessions", method = RequestMethod.POST)
     @ResponseBody
-    public ResponseEntity<SessionDto> createSession(@RequestBody SessionDto sessionDto) {
-        return new ResponseEntity<>(sessionService.createSession(sessionDto), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<SessionDto>> createSession(@RequestBody SessionDto sessionDto,
+                                                                       @RequestHeader(value = IdempotencyService.IDEMPOTENCY_HEADER, required = false) String idempotencyKey,
+                                                                       HttpServletRequest request) {
+        // the request is not available any more once the call runs on the async executor
+        final String scope = "sessions/" + rateLimitInterceptor.getClient(request);
+        return restExecutor.supply(() -> new ResponseEntity<>(idempotencyService.execute(idempotencyKey, scope, sessionDto, SessionDto.class,
+                () -> sessionService.createSession(sessionDto)), HttpStatus.OK));
+    }
+
+    /**
+     * @param sessionId      id of the cloned session
+     * @param sessionDto     username of the admin and sprint name of the new session
+     * @param idempotencyKey key identifying the client request across retries
+     * @return SessionDto of the new session
+     * @should return 200 status
+     * @should return valid error status if an exception has been thrown
+     */
+    @RequestMapping(value = "/sessions/{sessionId}/clone", method = RequestMethod.POST)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<SessionDto>> cloneSession(@PathVariable("sessionId") String sessionId,
+                                                                      @RequestBody SessionDto sessionDto,
+                                                                      @RequestHeader(value = IdempotencyService.IDEMPOTENCY_HEADER, required = false) String idempotencyKey) {
+        return restExecutor.supply(() -> new ResponseEntity<>(idempotencyService.execute(idempotencyKey, "sessions/" + sessionId + "/clone",
+                sessionDto, SessionDto.class, () -> sessionService.cloneSession(sessionId, sessionDto)), HttpStatus.OK));
     }
-}
\ No newline at end of file
+}
@@ -1,31 +1,83 @@
 package com.influans.sp.rest;
 
+import com.google.common.collect.ImmutableMap;
+import com.influans.sp.config.BodySessionRateLimit;
+import com.influans.sp.config.RateLimitInterceptor;
+import com.influans.sp.config.RestExecutor;
+import com.influans.sp.dto.ImportResultDto;
+import com.influans.sp.dto.StoryBatchDto;
 import com.influans.sp.dto.StoryDto;
+import com.influans.sp.dto.StorySearchResultDto;
+import com.influans.sp.service.IdempotencyService;
+import com.influans.sp.service.ImportService;
+import com.influans.sp.service.ResourceVersionService;
+import com.influans.sp.service.StorySearchService;
 import com.influans.sp.service.StoryService;
+import com.influans.sp.service.VotingTimerService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.QueryParam;
+import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController()
 public class StoryRestController {
-
+    @Autowired
+    private RestExecutor restExecutor;
     @Autowired
     private StoryService storyService;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    @Autowired
+    private ImportService importService;
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private VotingTimerService votingTimerService;
+    @Autowired
+    private StorySearchService storySearchService;
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
 
     /**
-     * @param sessionId sessionId
+     * @param sessionId   sessionId
+     * @param ifNoneMatch etag of the list already known by the client
      * @return List of StoryDto
      * @should return 200 status
      * @should return valid error status if an exception has been thrown
+     * @should return 304 status if the stories list did not change
      */
     @RequestMapping(value = "/stories", method = RequestMethod.GET)
     @ResponseBody
-    public ResponseEntity<List<StoryDto>> listStories(@QueryParam("sessionId") String sessionId) {
-        return new ResponseEntity<>(storyService.listStories(sessionId), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<List<StoryDto>>> listStories(@QueryParam("sessionId") String sessionId,
+                                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        final String eTag = resourceVersionService.getSessionETag(sessionId);
+        if (resourceVersionService.isNotModified(ifNoneMatch, eTag, () -> resourceVersionService.sessionExists(sessionId))) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).body(null));
+        }
+        return storyService.listStoriesAsync(sessionId).thenApply(stories -> ResponseEntity.ok().eTag(eTag).body(stories));
+    }
+
+    /**
+     * @param query words to search in story names
+     * @param after cursor of the last story of the previous page, absent for the first page
+     * @param size  page size
+     * @return matching stories with their estimation
+     * @should return 200 status
+     * @should return valid error status if an exception has been thrown
+     */
+    @RequestMapping(value = "/stories/search", method = RequestMethod.GET)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<List<StorySearchResultDto>>> search(@RequestParam("q") String query,
+                                                                                @RequestParam(value = "after", required = false) String after,
+                                                                                @RequestParam(value = "size", defaultValue = "20") int size) {
+        return restExecutor.supply(() -> new ResponseEntity<>(storySearchService.search(query, after, size), HttpStatus.OK));
     }
 
     /**
@@ -36,8 +88,8 @@ public class StoryRestController {
      */
     @RequestMapping(value = "/stories/{storyId}", method = RequestMethod.DELETE)
     @ResponseBody
-    public ResponseEntity delete(@PathVariable("storyId") String storyId) {
-        return new ResponseEntity<>(storyService.delete(storyId), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity> delete(@PathVariable("storyId") String storyId) {
+        return restExecutor.supply(() -> new ResponseEntity<>(storyService.delete(storyId), HttpStatus.OK));
     }
 
     /**
@@ -48,21 +100,133 @@ public class StoryRestController {
      */
     @RequestMapping(value = "/stories/{storyId}", method = RequestMethod.POST)
     @ResponseBody
-    public ResponseEntity endStory(@PathVariable("storyId") String storyId) {
-        return new ResponseEntity<>(storyService.endStory(storyId), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity> endStory(@PathVariable("storyId") String storyId) {
+        return restExecutor.supply(() -> new ResponseEntity<>(storyService.endStory(storyId), HttpStatus.OK));
     }
 
     /**
-     * @param storyDto story that will be created
+     * @param storyId ended story
+     * @return empty response
+     * @should return 200 status
+     * @should return valid error status if an exception has been thrown
+     */
+    @RequestMapping(value = "/stories/{storyId}/revote", method = RequestMethod.POST)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity> revoteStory(@PathVariable("storyId") String storyId) {
+        return restExecutor.supply(() -> new ResponseEntity<>(storyService.revoteStory(storyId), HttpStatus.OK));
+    }
+
+    /**
+     * @param storyDto       story that will be created
+     * @param after          story preceding the new story, empty to insert it first, absent to append it
+     * @param idempotencyKey key identifying the client request across retries
+     * @param request        current request, throttled against the session of the story
      * @return StoryDto
      * @should return 200 status
      * @should return valid error status if an exception has been thrown
+     * @should not create the story twice for the same idempotency key
+     * @should reject an idempotency key reused with another position
      */
     @RequestMapping(value = "/stories", method = RequestMethod.POST)
     @ResponseBody
-    public ResponseEntity<StoryDto> createStory(@RequestBody StoryDto storyDto) {
-        return new ResponseEntity<>(storyService.createStory(storyDto), HttpStatus.OK);
+    @BodySessionRateLimit
+    public CompletableFuture<ResponseEntity<StoryDto>> createStory(@RequestBody StoryDto storyDto,
+                                                                   @RequestParam(value = "after", required = false) String after,
+                                                                   @RequestHeader(value = IdempotencyService.IDEMPOTENCY_HEADER, required = false) String idempotencyKey,
+                                                                   HttpServletRequest request) {
+        rateLimitInterceptor.acquire(request, storyDto.getSessionId());
+        // the position is part of the request, appends keep hashing the body alone
+        final Object idempotentRequest = after == null ? storyDto : ImmutableMap.of("story", storyDto, "after", after);
+        return restExecutor.supply(() -> new ResponseEntity<>(idempotencyService.execute(idempotencyKey, "stories/" + storyDto.getSessionId(), idempotentRequest, StoryDto.class,
+                () -> after == null ? storyService.createStory(storyDto) : storyService.insertStory(storyDto, after)), HttpStatus.OK));
+    }
+
+    /**
+     * @param storyId moved story
+     * @param after   story preceding the moved story, absent or empty to move it first
+     * @return moved story with its new rank
+     * @should return 200 status
+     * @should return valid error status if an exception has been thrown
+     */
+    @RequestMapping(value = "/stories/{storyId}/rank", method = RequestMethod.PUT)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<StoryDto>> moveStory(@PathVariable("storyId") String storyId,
+                                                                 @RequestParam(value = "after", required = false) String after) {
+        return restExecutor.supply(() -> new ResponseEntity<>(storyService.moveStory(storyId, after), HttpStatus.OK));
+    }
+
+    /**
+     * @param storyId  story id
+     * @param duration countdown in seconds
+     * @return story with its deadline
+     * @should return 200 status
+     * @should return valid error status if an exception has been thrown
+     */
+    @RequestMapping(value = "/stories/{storyId}/timer", method = RequestMethod.POST)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<StoryDto>> startTimer(@PathVariable("storyId") String storyId,
+                                                                  @RequestParam("duration") long duration) {
+        return restExecutor.supply(() -> new ResponseEntity<>(votingTimerService.startTimer(storyId, duration), HttpStatus.OK));
+    }
+
+    /**
+     * @param storyId story id
+     * @return story without deadline
+     * @should return 200 status
+     */
+    @RequestMapping(value = "/stories/{storyId}/timer", method = RequestMethod.DELETE)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<StoryDto>> stopTimer(@PathVariable("storyId") String storyId) {
+        return restExecutor.supply(() -> new ResponseEntity<>(votingTimerService.stopTimer(storyId), HttpStatus.OK));
     }
 
+    /**
+     * @param storyBatchDto stories that will be created
+     * @return created stories
+     * @should return 200 status
+     * @should return valid error status if an exception has been thrown
+     */
+    @RequestMapping(value = "/stories/batch", method = RequestMethod.POST)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<List<StoryDto>>> createStories(@RequestBody StoryBatchDto storyBatchDto) {
+        return restExecutor.supply(() -> new ResponseEntity<>(storyService.createStories(storyBatchDto), HttpStatus.OK));
+    }
 
+    /**
+     * @param storyBatchDto stories with their new order
+     * @return empty response
+     * @should return 200 status
+     */
+    @RequestMapping(value = "/stories/batch/reorder", method = RequestMethod.POST)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity> reorderStories(@RequestBody StoryBatchDto storyBatchDto) {
+        return restExecutor.supply(() -> new ResponseEntity<>(storyService.reorderStories(storyBatchDto), HttpStatus.OK));
+    }
+
+    /**
+     * @param storyBatchDto stories that will be ended
+     * @return empty response
+     * @should return 200 status
+     */
+    @RequestMapping(value = "/stories/batch/end", method = RequestMethod.POST)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity> endStories(@RequestBody StoryBatchDto storyBatchDto) {
+        return restExecutor.supply(() -> new ResponseEntity<>(storyService.endStories(storyBatchDto), HttpStatus.OK));
+    }
+
+    /**
+     * @param sessionId   session id
+     * @param format      ndjson (default) or csv
+     * @param inputStream uploaded backlog
+     * @return import result
+     * @should return 200 status
+     * @should return valid error status if an exception has been thrown
+     */
+    @RequestMapping(value = "/sessions/{sessionId}/stories/import", method = RequestMethod.POST)
+    @ResponseBody
+    public ResponseEntity<ImportResultDto> importStories(@PathVariable("sessionId") String sessionId,
+                                                         @RequestParam(value = "format", required = false) String format,
+                                                         InputStream inputStream) {
+        return new ResponseEntity<>(importService.importStories(sessionId, format, inputStream), HttpStatus.OK);
+    }
 }
\ No newline at end of file
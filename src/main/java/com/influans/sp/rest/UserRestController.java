@@ -1,43 +1,66 @@
 package com.influans.sp.rest;
 
+import com.influans.sp.config.BodySessionRateLimit;
+import com.influans.sp.config.RateLimitInterceptor;
+import com.influans.sp.config.RestExecutor;
 import com.influans.sp.dto.DefaultResponse;
 import com.influans.sp.dto.UserDto;
+import com.influans.sp.service.ResourceVersionService;
 import com.influans.sp.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class UserRestController {
+    @Autowired
+    private RestExecutor restExecutor;
     @Autowired
     private UserService userService;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
 
 
     /**
-     * @param sessionId session id
+     * @param sessionId   session id
+     * @param ifNoneMatch etag of the list already known by the client
      * @return list of UserDto
      * @should return 200 status
      * @should return valid error status if an exception has been thrown
+     * @should return 304 status if the users list did not change
      */
     @RequestMapping(value = "/users", method = RequestMethod.GET)
     @ResponseBody
-    public ResponseEntity<List<UserDto>> listUsers(@RequestParam("sessionId") String sessionId) {
-        return new ResponseEntity<>(userService.listUsers(sessionId), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<List<UserDto>>> listUsers(@RequestParam("sessionId") String sessionId,
+                                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        final String eTag = resourceVersionService.getSessionETag(sessionId);
+        if (resourceVersionService.isNotModified(ifNoneMatch, eTag, () -> resourceVersionService.sessionExists(sessionId))) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).body(null));
+        }
+        return userService.listUsersAsync(sessionId).thenApply(users -> ResponseEntity.ok().eTag(eTag).body(users));
     }
 
     /**
      * @param userDto user that will be connected
+     * @param request current request, throttled against the session joined by the user
      * @return UserDto
      * @should return 200 status
      * @should return valid error status if an exception has been thrown
      */
     @RequestMapping(value = "/users/connect", method = RequestMethod.POST)
     @ResponseBody
-    public ResponseEntity<UserDto> connect(@RequestBody UserDto userDto) {
-        return new ResponseEntity<>(userService.connectUser(userDto), HttpStatus.OK);
+    @BodySessionRateLimit
+    public CompletableFuture<ResponseEntity<UserDto>> connect(@RequestBody UserDto userDto, HttpServletRequest request) {
+        rateLimitInterceptor.acquire(request, userDto.getSessionId());
+        return restExecutor.supply(() -> new ResponseEntity<>(userService.connectUser(userDto), HttpStatus.OK));
     }
 
     /**
@@ -48,8 +71,8 @@ public class UserRestController {
      */
     @RequestMapping(value = "/users/disconnect", method = RequestMethod.POST)
     @ResponseBody
-    public ResponseEntity<DefaultResponse> disconnect(@RequestBody UserDto userDto) {
-        return new ResponseEntity<>(userService.disconnectUser(userDto), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<DefaultResponse>> disconnect(@RequestBody UserDto userDto) {
+        return restExecutor.supply(() -> new ResponseEntity<>(userService.disconnectUser(userDto), HttpStatus.OK));
     }
 
 }
\ No newline at end of file
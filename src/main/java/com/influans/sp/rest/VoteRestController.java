@@ -1,32 +1,55 @@
 package com.influans.sp.rest;
 
+import com.influans.sp.config.BodySessionRateLimit;
+import com.influans.sp.config.RateLimitInterceptor;
+import com.influans.sp.config.RestExecutor;
 import com.influans.sp.dto.VoteDto;
+import com.influans.sp.dto.VoteStatsDto;
+import com.influans.sp.service.IdempotencyService;
+import com.influans.sp.service.ResourceVersionService;
 import com.influans.sp.service.VoteService;
 import com.influans.sp.websocket.WebSocketSender;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.QueryParam;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController()
 public class VoteRestController {
-
+    @Autowired
+    private RestExecutor restExecutor;
     @Autowired
     private VoteService voteService;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
 
     /**
-     * @param storyId story id
+     * @param storyId     story id
+     * @param ifNoneMatch etag of the list already known by the client
      * @return List of VoteDto
      * @should return 200 status
      * @should return valid error status if an exception has been thrown
+     * @should return 304 status if the votes list did not change
      */
     @RequestMapping(value = "/votes", method = RequestMethod.GET)
     @ResponseBody
-    public ResponseEntity<List<VoteDto>> listVote(@QueryParam("storyId") String storyId) {
-        return new ResponseEntity<>(voteService.listVotes(storyId), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<List<VoteDto>>> listVote(@QueryParam("storyId") String storyId,
+                                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        final String eTag = resourceVersionService.getStoryETag(storyId);
+        if (resourceVersionService.isNotModified(ifNoneMatch, eTag, () -> resourceVersionService.storyExists(storyId))) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).body(null));
+        }
+        return voteService.listVotesAsync(storyId).thenApply(votes -> ResponseEntity.ok().eTag(eTag).body(votes));
     }
 
     /**
@@ -37,19 +60,38 @@ public class VoteRestController {
      */
     @RequestMapping(value = "/votes/{voteId}", method = RequestMethod.DELETE)
     @ResponseBody
-    public ResponseEntity delete(@PathVariable("voteId") String voteId) {
-        return new ResponseEntity<>(voteService.delete(voteId), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity> delete(@PathVariable("voteId") String voteId) {
+        return restExecutor.supply(() -> new ResponseEntity<>(voteService.delete(voteId), HttpStatus.OK));
     }
 
     /**
-     * @param voteDto vote that will be create
+     * @param voteDto        vote that will be create
+     * @param idempotencyKey key identifying the client request across retries
+     * @param request        current request, throttled against the session of the vote
      * @return VoteDto
      * @should return 200 status
      * @should return valid error status if an exception has been thrown
      */
     @RequestMapping(value = "/votes", method = RequestMethod.POST)
     @ResponseBody
-    public ResponseEntity<VoteDto> saveVote(@RequestBody VoteDto voteDto) {
-        return new ResponseEntity<>(voteService.saveVote(voteDto), HttpStatus.OK);
+    @BodySessionRateLimit
+    public CompletableFuture<ResponseEntity<VoteDto>> saveVote(@RequestBody VoteDto voteDto,
+                                                               @RequestHeader(value = IdempotencyService.IDEMPOTENCY_HEADER, required = false) String idempotencyKey,
+                                                               HttpServletRequest request) {
+        rateLimitInterceptor.acquire(request, voteDto.getSessionId());
+        return restExecutor.supply(() -> new ResponseEntity<>(idempotencyService.execute(idempotencyKey, "votes/" + voteDto.getSessionId(), voteDto, VoteDto.class,
+                () -> voteService.saveVote(voteDto)), HttpStatus.OK));
+    }
+
+    /**
+     * @param storyId story id
+     * @return votes of the story aggregated against the session deck
+     * @should return 200 status
+     * @should return valid error status if an exception has been thrown
+     */
+    @RequestMapping(value = "/votes/stats", method = RequestMethod.GET)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<VoteStatsDto>> getVoteStats(@QueryParam("storyId") String storyId) {
+        return restExecutor.supply(() -> new ResponseEntity<>(voteService.getVoteStats(storyId), HttpStatus.OK));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,347 @@
+package com.influans.sp.service;
+
+import com.influans.sp.dto.SessionAnalyticsDto;
+import com.influans.sp.dto.SprintAnalyticsDto;
+import com.influans.sp.dto.StoryAnalyticsDto;
+import com.influans.sp.entity.SessionEntity;
+import com.influans.sp.entity.SessionRollupEntity;
+import com.influans.sp.entity.SprintRollupEntity;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.entity.StoryRollupEntity;
+import com.influans.sp.entity.VoteEntity;
+import com.influans.sp.entity.def.RollupEntityDef;
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.SessionRollupRepository;
+import com.influans.sp.repository.SprintRollupRepository;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.StoryRollupRepository;
+import com.influans.sp.repository.VoteRepository;
+import com.influans.sp.utils.CardDeck;
+import com.influans.sp.utils.StringUtils;
+import com.mongodb.WriteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Estimation analytics read from rollup documents, never from the vote collection:
+ * <ul>
+ * <li>story_rollup: estimation of each ended story (votes, average, spread, rounds to consensus)</li>
+ * <li>session_rollup and sprint_rollup: totals of the sessions and of the sessions sharing a sprint name</li>
+ * </ul>
+ * Rollups are updated each time a story is ended: the story rollup is recomputed from the votes of the story and the
+ * difference with its previous version is added to the totals with $inc. Callers only report the stories they actually
+ * ended (see {@link com.influans.sp.repository.custom.StoryRepositoryCustom#endStory(String)}), so racing ends are
+ * counted once, and a story counts a new round each time it is ended again after a revote (see
+ * {@link StoryService#revoteStory(String)}). Votes saved before rollups existed are processed once by {@link #backfill()}.
+ *
+ * @author hazem
+ */
+@Service
+public class AnalyticsService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalyticsService.class);
+    private static final String MONGO_ID = "_id";
+
+    @Autowired
+    private StoryRollupRepository storyRollupRepository;
+    @Autowired
+    private SessionRollupRepository sessionRollupRepository;
+    @Autowired
+    private SprintRollupRepository sprintRollupRepository;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${analytics.backfill.enabled:false}")
+    private boolean backfillEnabled;
+
+    @Value("${analytics.backfill.chunkSize:500}")
+    private int chunkSize;
+
+    @PostConstruct
+    public void init() {
+        if (backfillEnabled) {
+            LOGGER.info("{} ended stories added to the analytics rollups", backfill());
+        }
+    }
+
+    /**
+     * Each call is a voting round: the story rollup is replaced by the estimation of the current votes and the session
+     * and sprint totals are updated incrementally. Errors are logged, a failing rollup never fails the end of a story.
+     *
+     * @param storyEntity ended story
+     * @should create the story rollup from the votes of the story
+     * @should count a new round when the story is ended again
+     * @should keep the first consensus round
+     * @should update the session and sprint totals incrementally
+     */
+    public void onStoryEnded(StoryEntity storyEntity) {
+        onStoriesEnded(Collections.singletonList(storyEntity));
+    }
+
+    /**
+     * Same as {@link #onStoryEnded(StoryEntity)} for several stories: sessions, previous rollups and votes are read
+     * with one query each, the story rollups are written with one bulk upsert and the totals once per session.
+     *
+     * @param storyEntities ended stories
+     * @should update the rollups of all the stories
+     */
+    public void onStoriesEnded(List<StoryEntity> storyEntities) {
+        if (storyEntities.isEmpty()) {
+            return;
+        }
+        final Set<String> storyIds = storyEntities.stream().map(StoryEntity::getStoryId).collect(Collectors.toSet());
+        try {
+            final Map<String, SessionEntity> sessions = new HashMap<>();
+            sessionRepository.findAll(storyEntities.stream().map(StoryEntity::getSessionId).collect(Collectors.toSet()))
+                    .forEach(sessionEntity -> sessions.put(sessionEntity.getSessionId(), sessionEntity));
+            final Map<String, StoryRollupEntity> previousRollups = new HashMap<>();
+            storyRollupRepository.findAll(storyIds).forEach(rollup -> previousRollups.put(rollup.getStoryId(), rollup));
+            final Map<String, List<VoteEntity>> votesByStory = voteRepository.findByStoryIdIn(storyIds).stream()
+                    .collect(Collectors.groupingBy(VoteEntity::getStoryId));
+
+            final Map<String, Totals> totalsBySession = new HashMap<>();
+            final List<StoryRollupEntity> rollups = new ArrayList<>();
+            for (StoryEntity storyEntity : storyEntities) {
+                final StoryRollupEntity previous = previousRollups.get(storyEntity.getStoryId());
+                final StoryRollupEntity current = rollup(storyEntity, deckOf(sessions.get(storyEntity.getSessionId())),
+                        votesByStory.getOrDefault(storyEntity.getStoryId(), Collections.emptyList()), previous);
+                rollups.add(current);
+                // a story listed twice builds its second round on the first one
+                previousRollups.put(current.getStoryId(), current);
+                totalsBySession.computeIfAbsent(storyEntity.getSessionId(), sessionId -> new Totals()).add(previous, current);
+            }
+
+            storyRollupRepository.bulk().save(rollups).execute();
+            totalsBySession.forEach((sessionId, totals) -> applyTotals(sessionId, sprintNameOf(sessions.get(sessionId)), totals));
+        } catch (Exception e) {
+            LOGGER.error("Error while updating the rollups of stories " + storyIds, e);
+        }
+    }
+
+    /**
+     * @param sessionId session id
+     * @return totals of the session and rollups of its ended stories
+     * @should throw an exception if sessionId is null or empty
+     * @should throw an exception if session does not exist
+     * @should return the session totals and the story rollups
+     */
+    public SessionAnalyticsDto getSessionAnalytics(String sessionId) {
+        if (StringUtils.isEmpty(sessionId)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "sessionId should not be null or empty");
+        }
+
+        final SessionRollupEntity sessionRollupEntity = sessionRollupRepository.findOne(sessionId);
+        if (Objects.isNull(sessionRollupEntity) && !sessionRepository.exists(sessionId)) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + sessionId);
+        }
+
+        final SessionAnalyticsDto sessionAnalyticsDto = new SessionAnalyticsDto(sessionId, sessionRollupEntity);
+        sessionAnalyticsDto.setStories(storyRollupRepository.findBySessionId(sessionId).stream()
+                .map(StoryAnalyticsDto::new)
+                .collect(Collectors.toList()));
+        return sessionAnalyticsDto;
+    }
+
+    /**
+     * @param sprintName sprint name
+     * @return totals of the sessions of the sprint
+     * @should throw an exception if the sprint has no ended story
+     * @should return the totals of all the sessions of the sprint
+     */
+    public SprintAnalyticsDto getSprintAnalytics(String sprintName) {
+        if (StringUtils.isEmpty(sprintName)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "sprintName should not be null or empty");
+        }
+
+        final SprintRollupEntity sprintRollupEntity = sprintRollupRepository.findOne(sprintName);
+        if (Objects.isNull(sprintRollupEntity)) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "no ended story found for sprint " + sprintName);
+        }
+        return new SprintAnalyticsDto(sprintRollupEntity);
+    }
+
+    /**
+     * @return totals of every sprint, sorted by sprint name
+     * @should return all the sprints sorted by name
+     */
+    public List<SprintAnalyticsDto> listSprints() {
+        return sprintRollupRepository.findAll(new Sort("sprintName")).stream()
+                .map(SprintAnalyticsDto::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Builds the rollups of the stories ended before rollups existed. Votes are streamed grouped by story and
+     * processed by chunks, so the vote collection is never loaded at once. Stories which already have a rollup are
+     * skipped, the job can be run again safely. Historical stories count as a single round.
+     *
+     * @return number of backfilled stories
+     * @should create the rollups of the ended stories from their votes
+     * @should skip stories which already have a rollup
+     * @should skip stories which are not ended
+     */
+    public long backfill() {
+        long backfilled = 0;
+        final Map<String, List<VoteEntity>> chunk = new LinkedHashMap<>();
+        try (CloseableIterator<VoteEntity> votes = voteRepository.streamOrderedByStoryId()) {
+            while (votes.hasNext()) {
+                final VoteEntity voteEntity = votes.next();
+                if (!chunk.containsKey(voteEntity.getStoryId()) && chunk.size() >= chunkSize) {
+                    backfilled += backfillChunk(chunk);
+                    chunk.clear();
+                }
+                chunk.computeIfAbsent(voteEntity.getStoryId(), storyId -> new ArrayList<>()).add(voteEntity);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            backfilled += backfillChunk(chunk);
+        }
+        return backfilled;
+    }
+
+    private long backfillChunk(Map<String, List<VoteEntity>> votesByStory) {
+        final Set<String> rolledUp = new HashSet<>();
+        storyRollupRepository.findAll(votesByStory.keySet()).forEach(rollup -> rolledUp.add(rollup.getStoryId()));
+
+        final Map<String, SessionEntity> sessions = new HashMap<>();
+        final Map<String, Totals> totalsBySession = new HashMap<>();
+        final List<StoryRollupEntity> rollups = new ArrayList<>();
+        for (StoryEntity storyEntity : storyRepository.findAll(votesByStory.keySet())) {
+            if (!storyEntity.isEnded() || rolledUp.contains(storyEntity.getStoryId())) {
+                continue;
+            }
+            final SessionEntity sessionEntity = sessions.computeIfAbsent(storyEntity.getSessionId(), sessionRepository::findOne);
+            final StoryRollupEntity rollup = rollup(storyEntity, deckOf(sessionEntity), votesByStory.get(storyEntity.getStoryId()), null);
+            rollups.add(rollup);
+            totalsBySession.computeIfAbsent(storyEntity.getSessionId(), sessionId -> new Totals()).add(null, rollup);
+        }
+
+        storyRollupRepository.save(rollups);
+        totalsBySession.forEach((sessionId, totals) -> applyTotals(sessionId, sprintNameOf(sessions.get(sessionId)), totals));
+        return rollups.size();
+    }
+
+    /**
+     * @param previous rollup of the previous round, null for the first round
+     */
+    private static StoryRollupEntity rollup(StoryEntity storyEntity, CardDeck deck, List<VoteEntity> voteEntities, StoryRollupEntity previous) {
+        final StoryRollupEntity rollup = new StoryRollupEntity(storyEntity.getStoryId(), storyEntity.getSessionId());
+        rollup.setVotes(voteEntities.size());
+        rollup.setRounds(previous != null ? previous.getRounds() + 1 : 1);
+
+        int weighted = 0;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (VoteEntity voteEntity : voteEntities) {
+            final int ordinal = deck.ordinal(voteEntity.getValue());
+            final double weight = ordinal >= 0 ? deck.weight(ordinal) : Double.NaN;
+            if (!Double.isNaN(weight)) {
+                weighted++;
+                sum += weight;
+                min = Math.min(min, weight);
+                max = Math.max(max, weight);
+            }
+        }
+        if (weighted > 0) {
+            rollup.setAverage(sum / weighted);
+            rollup.setMin(min);
+            rollup.setMax(max);
+        }
+
+        if (previous != null && previous.getConsensusRound() != null) {
+            rollup.setConsensusRound(previous.getConsensusRound());
+        } else if (rollup.isEstimated() && min == max) {
+            rollup.setConsensusRound(rollup.getRounds());
+        }
+        return rollup;
+    }
+
+    /**
+     * The sprint counts a new session when the session rollup is created.
+     */
+    private void applyTotals(String sessionId, String sprintName, Totals totals) {
+        final WriteResult result = mongoTemplate.upsert(new Query(Criteria.where(MONGO_ID).is(sessionId)),
+                totals.toUpdate().set(RollupEntityDef.SPRINT_NAME, sprintName), SessionRollupEntity.class);
+        if (!StringUtils.isEmpty(sprintName)) {
+            final Update update = totals.toUpdate();
+            if (!result.isUpdateOfExisting()) {
+                update.inc(RollupEntityDef.SESSIONS, 1);
+            }
+            mongoTemplate.upsert(new Query(Criteria.where(MONGO_ID).is(sprintName)), update, SprintRollupEntity.class);
+        }
+    }
+
+    private static CardDeck deckOf(SessionEntity sessionEntity) {
+        return sessionEntity != null ? CardDeckService.toDeck(sessionEntity) : CardDeck.ANY;
+    }
+
+    private static String sprintNameOf(SessionEntity sessionEntity) {
+        return sessionEntity != null ? sessionEntity.getSprintName() : null;
+    }
+
+    /**
+     * Differences to add to the session and sprint counters.
+     */
+    private static final class Totals {
+        private long stories;
+        private long rounds;
+        private long consensus;
+        private long estimated;
+        private double points;
+        private double spread;
+
+        private void add(StoryRollupEntity previous, StoryRollupEntity current) {
+            if (previous == null) {
+                stories++;
+            }
+            rounds += current.getRounds() - (previous != null ? previous.getRounds() : 0);
+            consensus += count(current.getConsensusRound() != null) - count(previous != null && previous.getConsensusRound() != null);
+            estimated += count(current.isEstimated()) - count(previous != null && previous.isEstimated());
+            points += current.getPoints() - (previous != null ? previous.getPoints() : 0);
+            spread += current.getSpread() - (previous != null ? previous.getSpread() : 0);
+        }
+
+        private Update toUpdate() {
+            return new Update()
+                    .inc(RollupEntityDef.STORIES, stories)
+                    .inc(RollupEntityDef.ROUNDS, rounds)
+                    .inc(RollupEntityDef.CONSENSUS, consensus)
+                    .inc(RollupEntityDef.ESTIMATED, estimated)
+                    .inc(RollupEntityDef.POINTS, points)
+                    .inc(RollupEntityDef.SPREAD, spread);
+        }
+
+        private static int count(boolean condition) {
+            return condition ? 1 : 0;
+        }
+    }
+}
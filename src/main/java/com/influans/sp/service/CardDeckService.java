@@ -0,0 +1,97 @@
+package com.influans.sp.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.influans.sp.entity.CardEntity;
+import com.influans.sp.entity.SessionEntity;
+import com.influans.sp.repository.async.AsyncSessionRepository;
+import com.influans.sp.repository.async.impl.MongoIoExecutor;
+import com.influans.sp.utils.CardDeck;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deck table of each session, built from the custom cards of the session or from its card set. Decks cannot be
+ * modified once the session is created, so tables are cached after the first load without invalidation. A cached
+ * deck does not prove that the session still exists, callers needing it check the session itself.
+ *
+ * @author hazem
+ */
+@Service
+public class CardDeckService {
+
+    @Autowired
+    private AsyncSessionRepository asyncSessionRepository;
+
+    @Value("${deck.cache.maxSize:10000}")
+    private long maxSize;
+
+    @Value("${deck.cache.expireAfterAccess:86400}")
+    private long expireAfterAccess;
+
+    private Cache<String, CardDeck> decks;
+
+    @PostConstruct
+    public void init() {
+        decks = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccess, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * @param sessionId session id
+     * @return deck of the session, null if the session does not exist
+     * @should return the custom deck of the session
+     * @should return the card set deck if the session has no custom cards
+     * @should return null if session does not exist
+     * @should load the deck of a session only once
+     */
+    public CardDeck getDeck(String sessionId) {
+        return MongoIoExecutor.join(() -> getDeckAsync(sessionId));
+    }
+
+    /**
+     * @param sessionId session id
+     * @return future deck of the session, completed with null if the session does not exist
+     */
+    public CompletableFuture<CardDeck> getDeckAsync(String sessionId) {
+        final CardDeck cached = decks.getIfPresent(sessionId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return asyncSessionRepository.findOne(sessionId).thenApply(sessionEntity -> {
+            if (sessionEntity == null) {
+                return null;
+            }
+            final CardDeck deck = toDeck(sessionEntity);
+            final CardDeck previous = decks.asMap().putIfAbsent(sessionId, deck);
+            return previous != null ? previous : deck;
+        });
+    }
+
+    /**
+     * @param sessionEntity session
+     * @return deck table of the session
+     */
+    public static CardDeck toDeck(SessionEntity sessionEntity) {
+        if (sessionEntity.getCards() != null && !sessionEntity.getCards().isEmpty()) {
+            final List<String> labels = new ArrayList<>(sessionEntity.getCards().size());
+            final double[] weights = new double[sessionEntity.getCards().size()];
+            for (int i = 0; i < weights.length; i++) {
+                final CardEntity card = sessionEntity.getCards().get(i);
+                labels.add(card.getLabel());
+                weights[i] = card.getWeight() != null ? card.getWeight() : Double.NaN;
+            }
+            return CardDeck.of(labels, weights);
+        }
+        return sessionEntity.getCardSet() != null ? sessionEntity.getCardSet().getDeck() : CardDeck.ANY;
+    }
+}
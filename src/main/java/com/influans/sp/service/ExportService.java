@@ -0,0 +1,180 @@
+package com.influans.sp.service;
+
+import com.influans.sp.dto.StoryExportDto;
+import com.influans.sp.entity.SessionEntity;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.entity.VoteEntity;
+import com.influans.sp.enums.DataFormat;
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.VoteRepository;
+import com.influans.sp.utils.CsvUtils;
+import com.influans.sp.utils.JsonSerializer;
+import com.influans.sp.utils.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Streams stories joined with their votes. Sessions and stories are read through Mongo cursors; stories are buffered
+ * by chunks of export.chunkSize and the votes of a whole chunk are loaded with a single storyId $in query, so a
+ * session is exported with one votes query in most cases and memory use only depends on the chunk size.
+ *
+ * @author hazem
+ */
+@Service
+public class ExportService {
+    private static final String[] CSV_HEADER = {"sessionId", "sprintName", "storyId", "storyName", "order", "ended", "username", "value"};
+
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Value("${export.chunkSize:500}")
+    private int chunkSize;
+
+    /**
+     * @param format requested format, ndjson if null or empty
+     * @return export format
+     * @should return ndjson if format is null or empty
+     * @should throw an exception if format is not supported
+     */
+    public DataFormat getFormat(String format) {
+        if (StringUtils.isEmpty(format)) {
+            return DataFormat.NDJSON;
+        }
+        final DataFormat dataFormat = DataFormat.toEnum(format);
+        if (dataFormat == null) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "unsupported export format " + format);
+        }
+        return dataFormat;
+    }
+
+    /**
+     * Validation is done before returning, the body is written later by the servlet container.
+     *
+     * @param sessionId session id
+     * @param format    export format
+     * @return streaming body
+     * @should throw an exception if sessionId is null or empty
+     * @should throw an exception if session does not exist
+     * @should write one ndjson line per story with its votes
+     * @should write one csv line per vote
+     * @should export the votes of stories spread over several chunks
+     */
+    public StreamingResponseBody exportSession(String sessionId, DataFormat format) {
+        if (StringUtils.isEmpty(sessionId)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "sessionId should not be null or empty");
+        }
+        final SessionEntity sessionEntity = sessionRepository.findOne(sessionId);
+        if (Objects.isNull(sessionEntity)) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + sessionId);
+        }
+        return outputStream -> {
+            final Writer writer = open(outputStream, format);
+            writeSession(writer, sessionEntity, format);
+            writer.flush();
+        };
+    }
+
+    /**
+     * @param from   inclusive lower bound of the session creation date
+     * @param to     exclusive upper bound of the session creation date
+     * @param format export format
+     * @return streaming body
+     * @should throw an exception if range is not valid
+     * @should export only sessions created in the given range
+     */
+    public StreamingResponseBody exportSessions(Date from, Date to, DataFormat format) {
+        if (from == null || to == null || !from.before(to)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "from should be before to");
+        }
+        return outputStream -> {
+            final Writer writer = open(outputStream, format);
+            try (CloseableIterator<SessionEntity> sessions = sessionRepository.streamByCreationDate(from, to)) {
+                while (sessions.hasNext()) {
+                    writeSession(writer, sessions.next(), format);
+                }
+            }
+            writer.flush();
+        };
+    }
+
+    private Writer open(OutputStream outputStream, DataFormat format) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == DataFormat.CSV) {
+            writeLine(writer, CsvUtils.toLine((Object[]) CSV_HEADER));
+        }
+        return writer;
+    }
+
+    private void writeSession(Writer writer, SessionEntity sessionEntity, DataFormat format) throws IOException {
+        try (CloseableIterator<StoryEntity> stories = storyRepository.streamBySessionId(sessionEntity.getSessionId())) {
+            final Map<String, StoryExportDto> chunk = new LinkedHashMap<>();
+            while (stories.hasNext()) {
+                final StoryExportDto storyExportDto = new StoryExportDto(sessionEntity, stories.next());
+                chunk.put(storyExportDto.getStoryId(), storyExportDto);
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(writer, chunk, format);
+                }
+            }
+            writeChunk(writer, chunk, format);
+        }
+    }
+
+    private void writeChunk(Writer writer, Map<String, StoryExportDto> chunk, DataFormat format) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        for (VoteEntity voteEntity : voteRepository.findByStoryIdIn(new ArrayList<>(chunk.keySet()))) {
+            final StoryExportDto storyExportDto = chunk.get(voteEntity.getStoryId());
+            if (storyExportDto != null) {
+                storyExportDto.getVotes().put(voteEntity.getUsername(), voteEntity.getValue());
+            }
+        }
+        for (StoryExportDto storyExportDto : chunk.values()) {
+            if (format == DataFormat.CSV) {
+                writeCsv(writer, storyExportDto);
+            } else {
+                writeLine(writer, JsonSerializer.serialize(storyExportDto));
+            }
+        }
+        chunk.clear();
+    }
+
+    private void writeCsv(Writer writer, StoryExportDto story) throws IOException {
+        if (story.getVotes().isEmpty()) {
+            writeLine(writer, CsvUtils.toLine(story.getSessionId(), story.getSprintName(), story.getStoryId(),
+                    story.getStoryName(), story.getOrder(), story.isEnded(), null, null));
+            return;
+        }
+        for (Map.Entry<String, String> vote : story.getVotes().entrySet()) {
+            writeLine(writer, CsvUtils.toLine(story.getSessionId(), story.getSprintName(), story.getStoryId(),
+                    story.getStoryName(), story.getOrder(), story.isEnded(), vote.getKey(), vote.getValue()));
+        }
+    }
+
+    private void writeLine(Writer writer, String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,138 @@
+package com.influans.sp.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.influans.sp.entity.IdempotencyEntity;
+import com.influans.sp.entity.def.IdempotencyEntityDef;
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.repository.IdempotencyRepository;
+import com.influans.sp.utils.JsonSerializer;
+import com.influans.sp.utils.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Replays the response of a request already executed with the same Idempotency-Key instead of executing it again.
+ * Responses are kept in a bounded in-memory cache and, when enabled, mirrored in a Mongo collection with a TTL index
+ * so that retries landing after a restart or on another node are also detected. Failed executions are not recorded,
+ * the client may retry them. Keys are scoped by the caller (endpoint and session or client) and bound to the hash of
+ * the request body, reusing a key for another request is rejected with 409.
+ *
+ * @author hazem
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyService.class);
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+
+    @Value("${idempotency.maxSize:10000}")
+    private long maxSize;
+
+    @Value("${idempotency.ttl:86400}")
+    private long ttl;
+
+    @Value("${idempotency.mongo.enabled:false}")
+    private boolean mongoEnabled;
+
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private Cache<String, Execution> responses;
+
+    @PostConstruct
+    public void init() {
+        responses = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                .build();
+        if (mongoEnabled) {
+            mongoTemplate.indexOps(IdempotencyEntity.class)
+                    .ensureIndex(new Index().on(IdempotencyEntityDef.CREATED_AT, Sort.Direction.ASC).expire(ttl));
+        }
+    }
+
+    /**
+     * @param idempotencyKey key sent by the client, the action is always executed if null or empty
+     * @param scope          endpoint and session (or client) scope, the same key may be used in different scopes
+     * @param request        request body, retries must send the same body
+     * @param type           response type
+     * @param action         service call
+     * @param <T>            response type
+     * @return the response of the first execution for this key
+     * @throws BusinessException with {@link CustomErrorCode#IDEMPOTENCY_KEY_REUSED} if the key has been used for
+     *                           another request body
+     * @should execute the action if key is null or empty
+     * @should execute the action only once for the same key
+     * @should execute the action again if the first execution failed
+     * @should replay responses stored in mongo
+     * @should reject a key reused with another request body
+     */
+    public <T> T execute(String idempotencyKey, String scope, Object request, Class<T> type, Supplier<T> action) {
+        if (StringUtils.isEmpty(idempotencyKey, true)) {
+            return action.get();
+        }
+        final String key = scope + ":" + idempotencyKey;
+        final String requestHash = Hashing.sha256()
+                .hashString(Objects.isNull(request) ? "" : JsonSerializer.serialize(request), StandardCharsets.UTF_8).toString();
+        final Execution execution;
+        try {
+            // concurrent retries of the same key wait for the first execution
+            execution = responses.get(key, () -> load(key, requestHash, type, action));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        // executions stored before request hashes were recorded have none
+        if (!Objects.isNull(execution.requestHash) && !execution.requestHash.equals(requestHash)) {
+            throw new BusinessException(CustomErrorCode.IDEMPOTENCY_KEY_REUSED, "idempotency key " + idempotencyKey
+                    + " has already been used for another request");
+        }
+        return type.cast(execution.response);
+    }
+
+    private <T> Execution load(String key, String requestHash, Class<T> type, Supplier<T> action) {
+        if (mongoEnabled) {
+            final IdempotencyEntity idempotencyEntity = idempotencyRepository.findOne(key);
+            if (!Objects.isNull(idempotencyEntity)) {
+                LOGGER.debug("Replaying response of {} from mongo", key);
+                return new Execution(idempotencyEntity.getRequestHash(), JsonSerializer.toObject(idempotencyEntity.getPayload(), type));
+            }
+        }
+        final T response = action.get();
+        if (mongoEnabled) {
+            idempotencyRepository.save(new IdempotencyEntity(key, requestHash, JsonSerializer.serialize(response)));
+        }
+        return new Execution(requestHash, response);
+    }
+
+    private static class Execution {
+        private final String requestHash;
+        private final Object response;
+
+        private Execution(String requestHash, Object response) {
+            this.requestHash = requestHash;
+            this.response = response;
+        }
+    }
+}
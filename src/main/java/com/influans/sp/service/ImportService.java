@@ -0,0 +1,209 @@
+package com.influans.sp.service;
+
+import com.google.common.collect.ImmutableSet;
+import com.influans.sp.dto.ImportResultDto;
+import com.influans.sp.dto.StoryDto;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.enums.DataFormat;
+import com.influans.sp.enums.WsTypes;
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.utils.CsvUtils;
+import com.influans.sp.utils.IdGenerator;
+import com.influans.sp.utils.JsonSerializer;
+import com.influans.sp.utils.LexoRank;
+import com.influans.sp.utils.StringUtils;
+import com.influans.sp.websocket.WebSocketSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Imports a backlog without loading it in memory: the upload is parsed record by record and stories are written in
+ * fixed-size bulk chunks, each chunk being followed by an {@link WsTypes#IMPORT_PROGRESS} notification.
+ * <p/>
+ * Chunks are committed as they fill up: when the upload turns out to be invalid, the pending chunk is dropped and the
+ * error reports the number of stories already committed, which are the first records of the upload.
+ *
+ * @author hazem
+ */
+@Service
+public class ImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportService.class);
+    private static final Set<String> NAME_COLUMNS = ImmutableSet.of("storyname", "summary", "name", "title");
+
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private WebSocketSender webSocketSender;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Value("${stories.import.chunkSize:500}")
+    private int chunkSize;
+
+    @Value("${stories.import.maxRecordLength:65536}")
+    private int maxRecordLength;
+
+    /**
+     * CSV uploads may start with a header, the story name is then read from the storyName, summary, name or title
+     * column. Without header the first column is used. NDJSON lines are parsed as {@link StoryDto}.
+     * Stories are appended after the existing stories of the session, in upload order; records without a name are
+     * skipped.
+     *
+     * @param sessionId   session id
+     * @param format      upload format, ndjson if null or empty
+     * @param inputStream upload
+     * @return import result
+     * @should throw an exception if sessionId is null or empty
+     * @should throw an exception if session does not exist
+     * @should throw an exception if format is not supported
+     * @should import csv stories after existing stories
+     * @should import ndjson stories and skip lines without name
+     * @should write stories by chunks and send progress notifications
+     * @should not write the pending chunk if the upload is invalid
+     * @should reject ndjson lines longer than the maximum record length
+     */
+    public ImportResultDto importStories(String sessionId, String format, InputStream inputStream) {
+        if (StringUtils.isEmpty(sessionId)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "sessionId should not be null or empty");
+        }
+        final DataFormat dataFormat = StringUtils.isEmpty(format) ? DataFormat.NDJSON : DataFormat.toEnum(format);
+        if (dataFormat == null) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "unsupported import format " + format);
+        }
+        if (!sessionRepository.exists(sessionId)) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + sessionId);
+        }
+
+        final StoryEntity lastStory = storyRepository.findFirstBySessionIdOrderByOrderDesc(sessionId);
+        final StoryEntity lastRankedStory = storyRepository.findFirstBySessionIdOrderByRankDesc(sessionId);
+        final Chunk chunk = new Chunk(sessionId, Objects.isNull(lastStory) ? 0 : lastStory.getOrder(),
+                Objects.isNull(lastRankedStory) ? null : lastRankedStory.getRank());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            if (dataFormat == DataFormat.CSV) {
+                readCsv(reader, chunk);
+            } else {
+                readNdjson(reader, chunk);
+            }
+            chunk.flush();
+        } catch (IOException e) {
+            LOGGER.error("Error while importing stories in session " + sessionId, e);
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "invalid upload: " + e.getMessage() + ", the first "
+                    + chunk.imported + " stories were imported, the following records were not");
+        }
+
+        final ImportResultDto result = new ImportResultDto(sessionId, chunk.imported, chunk.skipped, true);
+        webSocketSender.sendNotification(sessionId, WsTypes.IMPORT_PROGRESS, result);
+        return result;
+    }
+
+    private void readCsv(BufferedReader reader, Chunk chunk) throws IOException {
+        List<String> record = CsvUtils.readRecord(reader, maxRecordLength);
+        int nameColumn = 0;
+        if (record != null) {
+            for (int i = 0; i < record.size(); i++) {
+                if (NAME_COLUMNS.contains(record.get(i).trim().toLowerCase())) {
+                    nameColumn = i;
+                    record = CsvUtils.readRecord(reader, maxRecordLength);
+                    break;
+                }
+            }
+        }
+        while (record != null) {
+            chunk.add(record.size() > nameColumn ? record.get(nameColumn) : null);
+            record = CsvUtils.readRecord(reader, maxRecordLength);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, Chunk chunk) throws IOException {
+        String line;
+        while ((line = readLine(reader)) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            final StoryDto storyDto = JsonSerializer.toObject(line, StoryDto.class);
+            chunk.add(storyDto != null ? storyDto.getStoryName() : null);
+        }
+    }
+
+    /**
+     * Same as {@link BufferedReader#readLine()}, without reading more than maxRecordLength chars in memory.
+     */
+    private String readLine(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        final StringBuilder line = new StringBuilder();
+        while (c >= 0 && c != '\n') {
+            if (c != '\r') {
+                if (line.length() >= maxRecordLength) {
+                    throw new IOException("ndjson line longer than " + maxRecordLength + " chars");
+                }
+                line.append((char) c);
+            }
+            c = reader.read();
+        }
+        return line.toString();
+    }
+
+    private class Chunk {
+        private final String sessionId;
+        private final List<StoryEntity> stories = new ArrayList<>();
+        private int order;
+        private String rank;
+        private int imported;
+        private int skipped;
+
+        Chunk(String sessionId, int order, String rank) {
+            this.sessionId = sessionId;
+            this.order = order;
+            this.rank = rank;
+        }
+
+        void add(String storyName) {
+            if (StringUtils.isEmpty(storyName, true)) {
+                skipped++;
+                return;
+            }
+            final StoryEntity storyEntity = new StoryEntity(sessionId, storyName.trim(), ++order);
+            storyEntity.setStoryId(idGenerator.nextId());
+            rank = LexoRank.between(rank, null);
+            storyEntity.setRank(rank);
+            stories.add(storyEntity);
+            if (stories.size() >= chunkSize) {
+                flush();
+                webSocketSender.sendNotification(sessionId, WsTypes.IMPORT_PROGRESS, new ImportResultDto(sessionId, imported, skipped, false));
+            }
+        }
+
+        void flush() {
+            if (stories.isEmpty()) {
+                return;
+            }
+            storyRepository.bulk().insert(stories).execute();
+            imported += stories.size();
+            stories.clear();
+            resourceVersionService.bumpSession(sessionId);
+        }
+    }
+}
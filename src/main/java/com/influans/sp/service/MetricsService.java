@@ -0,0 +1,69 @@
+package com.influans.sp.service;
+
+import com.influans.sp.exception.CustomErrorCode;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory counters of the current node, cheap enough to be incremented on every request.
+ *
+ * @author hazem
+ */
+@Service
+public class MetricsService {
+    public static final String ERRORS_PREFIX = "errors.";
+    public static final String UNEXPECTED_ERRORS = ERRORS_PREFIX + "UNEXPECTED";
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (CustomErrorCode customErrorCode : CustomErrorCode.values()) {
+            counters.put(getErrorCounter(customErrorCode), new LongAdder());
+        }
+        counters.put(UNEXPECTED_ERRORS, new LongAdder());
+    }
+
+    /**
+     * @param name counter name
+     * @should create the counter on first increment
+     */
+    public void increment(String name) {
+        counters.computeIfAbsent(name, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * @param customErrorCode error code, null for unexpected errors
+     */
+    public void incrementError(CustomErrorCode customErrorCode) {
+        increment(customErrorCode != null ? getErrorCounter(customErrorCode) : UNEXPECTED_ERRORS);
+    }
+
+    /**
+     * @param name counter name
+     * @return current value, 0 if the counter does not exist
+     */
+    public long get(String name) {
+        final LongAdder counter = counters.get(name);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * @return all counters sorted by name
+     */
+    public SortedMap<String, Long> snapshot() {
+        final SortedMap<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+        return snapshot;
+    }
+
+    public static String getErrorCounter(CustomErrorCode customErrorCode) {
+        return ERRORS_PREFIX + customErrorCode.name();
+    }
+}
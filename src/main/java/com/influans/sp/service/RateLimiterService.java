@@ -0,0 +1,141 @@
+package com.influans.sp.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.RateLimitException;
+import com.influans.sp.utils.StringUtils;
+import com.influans.sp.utils.TokenBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter. Limits are configured per endpoint family as family:capacity/refillPerSecond, once for
+ * session buckets (keys starting with session:) and once for client buckets (any other key), a request of a family
+ * is allowed only if every bucket it is keyed by still has a token, and then consumes a token of each of them.
+ * Buckets are kept in a bounded cache and evicted once idle.
+ *
+ * @author hazem
+ */
+@Service
+public class RateLimiterService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateLimiterService.class);
+    public static final String DEFAULT_FAMILY = "default";
+    public static final String THROTTLED_PREFIX = "ratelimit.throttled.";
+    public static final String SESSION_KEY_PREFIX = "session:";
+
+    @Value("${ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ratelimit.limits:}")
+    private String configuredLimits;
+
+    @Value("${ratelimit.client.limits:}")
+    private String configuredClientLimits;
+
+    @Value("${ratelimit.maxBuckets:100000}")
+    private long maxBuckets;
+
+    @Value("${ratelimit.idleTimeout:600}")
+    private long idleTimeout;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    private final Map<String, double[]> sessionLimits = new HashMap<>();
+    private final Map<String, double[]> clientLimits = new HashMap<>();
+    private Cache<String, TokenBucket> buckets;
+
+    @PostConstruct
+    public void init() {
+        parseLimits(configuredLimits, sessionLimits);
+        parseLimits(configuredClientLimits, clientLimits);
+        buckets = CacheBuilder.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout, TimeUnit.SECONDS)
+                .build();
+        LOGGER.info("Rate limiting {}", enabled ? "enabled" : "disabled");
+    }
+
+    /**
+     * @param family endpoint family
+     * @param keys   bucket keys (session:..., client:...), null or empty keys are ignored
+     * @return true if the request is allowed
+     * @should reject requests once a bucket is empty
+     * @should not consume a token of any bucket if the request is rejected
+     * @should count throttled requests
+     * @should use the default limit for unknown families
+     * @should let a team behind one address join and vote with the shipped limits
+     * @should throttle a client flooding a session with the shipped limits
+     */
+    public boolean tryAcquire(String family, String... keys) {
+        return consume(family, keys) == null;
+    }
+
+    /**
+     * @param family endpoint family
+     * @param keys   bucket keys
+     * @throws RateLimitException with {@link CustomErrorCode#TOO_MANY_REQUESTS} if the request is not allowed
+     * @should give the delay after which the request may be retried
+     */
+    public void acquire(String family, String... keys) {
+        final TokenBucket empty = consume(family, keys);
+        if (empty != null) {
+            throw new RateLimitException("rate limit exceeded on " + family, Math.max(1, empty.getRetryAfterSeconds()));
+        }
+    }
+
+    /**
+     * @return the empty bucket that rejected the request, null if the request is allowed
+     */
+    private TokenBucket consume(String family, String... keys) {
+        if (!enabled) {
+            return null;
+        }
+        final long now = System.nanoTime();
+        final String[] sortedKeys = Arrays.stream(keys).filter(key -> !StringUtils.isEmpty(key)).sorted().toArray(String[]::new);
+        final List<TokenBucket> keyBuckets = new ArrayList<>(sortedKeys.length);
+        for (String key : sortedKeys) {
+            keyBuckets.add(getBucket(family, key, now));
+        }
+        // buckets are locked in key order so that concurrent requests sharing buckets cannot deadlock
+        final TokenBucket empty = TokenBucket.tryConsumeAll(keyBuckets, now);
+        if (empty != null) {
+            metricsService.increment(THROTTLED_PREFIX + family);
+        }
+        return empty;
+    }
+
+    private TokenBucket getBucket(String family, String key, long now) {
+        final Map<String, double[]> limits = key.startsWith(SESSION_KEY_PREFIX) ? sessionLimits : clientLimits;
+        final double[] limit = limits.containsKey(family) ? limits.get(family) : limits.get(DEFAULT_FAMILY);
+        try {
+            return buckets.get(family + ":" + key, () -> new TokenBucket(limit[0], limit[1], now));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void parseLimits(String configured, Map<String, double[]> limits) {
+        limits.put(DEFAULT_FAMILY, new double[]{100, 50});
+        if (!StringUtils.isEmpty(configured, true)) {
+            for (String limit : configured.split(",")) {
+                final String[] familyAndRate = limit.trim().split(":");
+                final String[] rate = familyAndRate[1].split("/");
+                limits.put(familyAndRate[0], new double[]{Double.parseDouble(rate[0]), Double.parseDouble(rate[1])});
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.influans.sp.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.utils.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Keeps a monotonically increasing version for each session (stories and users lists) and for each story (votes
+ * list). Versions are bumped by every mutating service call and exposed as ETags so that unchanged lists can be
+ * answered with 304 without querying Mongo.
+ * <p/>
+ * Versions live in memory: the node start time is part of the ETag so that a restart invalidates every ETag, and
+ * session routing keeps all the mutations of a session on the same node. Evicted keys fall back to the highest
+ * evicted version, so a stale ETag can never match again once a key has been evicted.
+ *
+ * @author hazem
+ */
+@Service
+public class ResourceVersionService {
+    private static final String SESSION_PREFIX = "session:";
+    private static final String STORY_PREFIX = "story:";
+
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Value("${etag.versions.maxSize:100000}")
+    private long maxSize;
+
+    @Value("${etag.versions.expireAfterAccess:86400}")
+    private long expireAfterAccess;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong floor = new AtomicLong();
+    private Cache<String, Long> versions;
+
+    @PostConstruct
+    public void init() {
+        versions = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccess, TimeUnit.SECONDS)
+                .removalListener((RemovalListener<String, Long>) notification ->
+                        floor.accumulateAndGet(notification.getValue(), Math::max))
+                .build();
+    }
+
+    /**
+     * @param sessionId modified session
+     * @should change the session etag
+     * @should not change the etag of other sessions
+     */
+    public void bumpSession(String sessionId) {
+        bump(SESSION_PREFIX + sessionId);
+    }
+
+    /**
+     * @param storyId story whose votes were modified
+     */
+    public void bumpStory(String storyId) {
+        bump(STORY_PREFIX + storyId);
+    }
+
+    /**
+     * @param sessionId session id
+     * @return etag of the stories and users lists of the given session
+     */
+    public String getSessionETag(String sessionId) {
+        return eTag(SESSION_PREFIX + sessionId);
+    }
+
+    /**
+     * @param storyId story id
+     * @return etag of the votes list of the given story
+     */
+    public String getStoryETag(String storyId) {
+        return eTag(STORY_PREFIX + storyId);
+    }
+
+    /**
+     * @param ifNoneMatch value of the If-None-Match header
+     * @param eTag        current etag
+     * @param exists      whether the resource exists, only called for the wildcard
+     * @return true if the client copy is still valid
+     * @should return false if header is null
+     * @should return true if header contains the current etag
+     * @should return true for wildcard if the resource exists
+     * @should return false for wildcard if the resource does not exist
+     * @should return false after a bump
+     */
+    public boolean isNotModified(String ifNoneMatch, String eTag, BooleanSupplier exists) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            final String value = candidate.trim();
+            if (eTag.equals(value) || ("W/" + eTag).equals(value)) {
+                return true;
+            }
+            wildcard |= "*".equals(value);
+        }
+        return wildcard && exists.getAsBoolean();
+    }
+
+    /**
+     * @param sessionId session id
+     * @return true if the session exists
+     */
+    public boolean sessionExists(String sessionId) {
+        return !StringUtils.isEmpty(sessionId) && sessionRepository.exists(sessionId);
+    }
+
+    /**
+     * @param storyId story id
+     * @return true if the story exists
+     */
+    public boolean storyExists(String storyId) {
+        return !StringUtils.isEmpty(storyId) && storyRepository.exists(storyId);
+    }
+
+    private void bump(String key) {
+        if (key != null) {
+            versions.put(key, sequence.incrementAndGet());
+        }
+    }
+
+    private String eTag(String key) {
+        final Long version = versions.getIfPresent(key);
+        return "\"" + epoch + "-" + (version != null ? version : floor.get()) + "\"";
+    }
+}
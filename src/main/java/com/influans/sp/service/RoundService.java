@@ -0,0 +1,298 @@
+package com.influans.sp.service;
+
+import com.influans.sp.dto.RoundDto;
+import com.influans.sp.dto.StoryBatchDto;
+import com.influans.sp.dto.StoryDto;
+import com.influans.sp.dto.VoteDto;
+import com.influans.sp.entity.SessionEntity;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.entity.VoteEntity;
+import com.influans.sp.enums.WsTypes;
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.VoteRepository;
+import com.influans.sp.utils.StringUtils;
+import com.influans.sp.websocket.WebSocketSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parallel estimation rounds: several stories of a session are open for votes at the same time and are ended together.
+ * <ul>
+ * <li>the open stories are stored in the session document and kept in memory by the node owning the session (see
+ * {@link SessionRoutingService}), so that votes are routed without reading the session</li>
+ * <li>votes on open stories are not notified one by one: they are queued and sent every interval as a single
+ * {@link WsTypes#VOTES_ADDED} frame per session, a vote updated several times within an interval is sent once</li>
+ * <li>ending the round ends all its stories with one bulk update and reveals their votes in a single
+ * {@link WsTypes#ROUND_ENDED} frame</li>
+ * <li>opening and ending a round are conditional updates of the session, so that concurrent calls open or end it
+ * once, and a story ended on its own (by {@link StoryService} or its voting timer) leaves the round</li>
+ * </ul>
+ *
+ * @author hazem
+ */
+@Service
+public class RoundService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RoundService.class);
+
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+    @Autowired
+    private StoryService storyService;
+    @Autowired
+    private SessionRoutingService sessionRoutingService;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    @Autowired
+    private WebSocketSender webSocketSender;
+
+    @Value("${rounds.maxStories:20}")
+    private int maxStories;
+
+    // sessionId -> open stories
+    private final Map<String, Set<String>> openRounds = new ConcurrentHashMap<>();
+    // sessionId -> votes waiting for the next frame, by vote id
+    private final Map<String, Map<String, VoteDto>> pendingVotes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        openRounds.clear();
+        pendingVotes.clear();
+        final int reloaded = reload();
+        if (reloaded > 0) {
+            LOGGER.info("{} parallel rounds reloaded", reloaded);
+        }
+    }
+
+    /**
+     * @param storyBatchDto session and stories to open, only storyId is required
+     * @return opened round
+     * @should throw an exception if sessionId is null or empty
+     * @should throw an exception if stories list is empty or too large
+     * @should throw an exception if session does not exist
+     * @should throw an exception if a round is already open
+     * @should throw an exception if a story does not belong to the session
+     * @should throw an exception if a story is ended
+     * @should open the round and send a websocket notification
+     */
+    public RoundDto openRound(StoryBatchDto storyBatchDto) {
+        if (storyBatchDto == null || StringUtils.isEmpty(storyBatchDto.getSessionId())) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "session should not be null or empty");
+        }
+        if (storyBatchDto.getStories() == null || storyBatchDto.getStories().isEmpty()) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "stories should not be null or empty");
+        }
+        if (storyBatchDto.getStories().size() > maxStories) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "a round should not contain more than " + maxStories + " stories");
+        }
+        final Set<String> storyIds = new LinkedHashSet<>();
+        for (StoryDto storyDto : storyBatchDto.getStories()) {
+            if (StringUtils.isEmpty(storyDto.getStoryId())) {
+                throw new BusinessException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
+            }
+            storyIds.add(storyDto.getStoryId());
+        }
+
+        final String sessionId = storyBatchDto.getSessionId();
+        final SessionEntity sessionEntity = findSession(sessionId);
+        if (sessionEntity.getOpenStories() != null && !sessionEntity.getOpenStories().isEmpty()) {
+            throw roundAlreadyOpen(sessionId);
+        }
+        int found = 0;
+        for (StoryEntity storyEntity : storyRepository.findAll(storyIds)) {
+            if (!sessionId.equals(storyEntity.getSessionId())) {
+                continue;
+            }
+            if (storyEntity.isEnded()) {
+                throw new BusinessException(CustomErrorCode.BAD_ARGS, "story " + storyEntity.getStoryId() + " is already ended");
+            }
+            found++;
+        }
+        if (found != storyIds.size()) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "stories not found in session " + sessionId);
+        }
+
+        final List<String> openStories = new ArrayList<>(storyIds);
+        if (!sessionRepository.openRound(sessionId, openStories)) {
+            throw roundAlreadyOpen(sessionId);
+        }
+        openRounds.put(sessionId, Collections.unmodifiableSet(new HashSet<>(openStories)));
+
+        final RoundDto roundDto = new RoundDto(sessionId, openStories);
+        resourceVersionService.bumpSession(sessionId);
+        webSocketSender.sendNotification(sessionId, WsTypes.ROUND_OPENED, roundDto);
+        return roundDto;
+    }
+
+    /**
+     * @param sessionId session id
+     * @return round in progress, without stories if no round is open
+     * @should throw an exception if session does not exist
+     * @should return the open stories of the session
+     */
+    public RoundDto getRound(String sessionId) {
+        final SessionEntity sessionEntity = findSession(sessionId);
+        return new RoundDto(sessionId, sessionEntity.getOpenStories() != null ? sessionEntity.getOpenStories() : new ArrayList<>());
+    }
+
+    /**
+     * @param sessionId session id
+     * @return ended round with the votes of its stories
+     * @should throw an exception if session does not exist
+     * @should throw an exception if no round is open
+     * @should end all the stories of the round
+     * @should end the round once
+     * @should reveal the votes of all the stories in a single websocket notification
+     */
+    public RoundDto endRound(String sessionId) {
+        final SessionEntity sessionEntity = sessionRepository.closeRound(sessionId);
+        if (sessionEntity == null) {
+            findSession(sessionId);
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "no round is open in session " + sessionId);
+        }
+        final List<String> storyIds = sessionEntity.getOpenStories();
+
+        // votes still queued are part of the reveal
+        openRounds.remove(sessionId);
+        pendingVotes.remove(sessionId);
+        final List<String> endedIds = storyService.markEnded(storyIds);
+
+        final Map<String, List<VoteDto>> votes = new LinkedHashMap<>();
+        storyIds.forEach(storyId -> votes.put(storyId, new ArrayList<>()));
+        for (VoteEntity voteEntity : voteRepository.findByStoryIdIn(storyIds)) {
+            votes.get(voteEntity.getStoryId()).add(new VoteDto(voteEntity.getVoteId(), voteEntity.getSessionId(),
+                    voteEntity.getStoryId(), voteEntity.getUsername(), voteEntity.getValue()));
+        }
+
+        final RoundDto roundDto = new RoundDto(sessionId, storyIds, votes);
+        resourceVersionService.bumpSession(sessionId);
+        endedIds.forEach(resourceVersionService::bumpStory);
+        webSocketSender.sendNotification(sessionId, WsTypes.ROUND_ENDED, roundDto);
+        return roundDto;
+    }
+
+    /**
+     * Removes stories ended outside of the round from the open round of their session. The round is over once its last
+     * story is removed: it is cleared and notified as ended, without votes to reveal.
+     *
+     * @param sessionId session id
+     * @param storyIds  ended stories
+     * @should remove the ended stories from the open round
+     * @should do nothing if the stories are not part of the open round
+     * @should clear the round once all its stories are ended
+     */
+    public void onStoriesEnded(String sessionId, Collection<String> storyIds) {
+        if (storyIds.isEmpty() || !sessionRepository.removeOpenStories(sessionId, storyIds)) {
+            return;
+        }
+        openRounds.computeIfPresent(sessionId, (id, openStories) -> {
+            final Set<String> remaining = new HashSet<>(openStories);
+            remaining.removeAll(storyIds);
+            return Collections.unmodifiableSet(remaining);
+        });
+        if (sessionRepository.clearEmptyRound(sessionId)) {
+            openRounds.remove(sessionId);
+            resourceVersionService.bumpSession(sessionId);
+            webSocketSender.sendNotification(sessionId, WsTypes.ROUND_ENDED,
+                    new RoundDto(sessionId, new ArrayList<>(), new LinkedHashMap<>()));
+        }
+    }
+
+    /**
+     * Queues the notification of a saved vote if its story is part of the open round of the session.
+     *
+     * @param voteDto saved vote
+     * @return true if the vote will be sent with the next frame, false if it should be notified on its own
+     * @should queue only votes on open stories
+     */
+    public boolean queueVote(VoteDto voteDto) {
+        final Set<String> openStories = openRounds.get(voteDto.getSessionId());
+        if (openStories == null || !openStories.contains(voteDto.getStoryId())) {
+            return false;
+        }
+        pendingVotes.compute(voteDto.getSessionId(), (sessionId, votes) -> {
+            final Map<String, VoteDto> queued = votes != null ? votes : new LinkedHashMap<>();
+            // an updated vote moves to the end, so that the frame keeps the order of the last updates
+            queued.remove(voteDto.getVoteId());
+            queued.put(voteDto.getVoteId(), voteDto);
+            return queued;
+        });
+        return true;
+    }
+
+    @Scheduled(fixedRateString = "${rounds.vote.interval:200}")
+    public void scheduledFlush() {
+        flushVotes();
+    }
+
+    /**
+     * @return number of sent frames
+     * @should send the queued votes of each session in a single frame
+     */
+    public int flushVotes() {
+        int frames = 0;
+        for (String sessionId : pendingVotes.keySet()) {
+            final Map<String, VoteDto> votes = pendingVotes.remove(sessionId);
+            if (votes != null && !votes.isEmpty()) {
+                webSocketSender.sendNotification(sessionId, WsTypes.VOTES_ADDED, new ArrayList<>(votes.values()));
+                frames++;
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * Loads the rounds stored in the sessions owned by this node.
+     *
+     * @return number of loaded rounds
+     * @should load the open rounds of the sessions
+     */
+    public int reload() {
+        int reloaded = 0;
+        for (SessionEntity sessionEntity : sessionRepository.findWithOpenRound()) {
+            if (sessionRoutingService.isLocal(sessionEntity.getSessionId())) {
+                openRounds.put(sessionEntity.getSessionId(), Collections.unmodifiableSet(new HashSet<>(sessionEntity.getOpenStories())));
+                reloaded++;
+            }
+        }
+        return reloaded;
+    }
+
+    private BusinessException roundAlreadyOpen(String sessionId) {
+        return new BusinessException(CustomErrorCode.BAD_ARGS, "a round is already open in session " + sessionId);
+    }
+
+    private SessionEntity findSession(String sessionId) {
+        if (StringUtils.isEmpty(sessionId)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "sessionId should not be null or empty");
+        }
+        final SessionEntity sessionEntity = sessionRepository.findOne(sessionId);
+        if (Objects.isNull(sessionEntity)) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + sessionId);
+        }
+        return sessionEntity;
+    }
+}
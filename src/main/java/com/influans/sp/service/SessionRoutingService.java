@@ -0,0 +1,228 @@
+package com.influans.sp.service;
+
+import com.influans.sp.dto.NodeDto;
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.utils.ConsistentHashRing;
+import com.influans.sp.utils.StringUtils;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Assigns each session to one application node so that all the traffic of a session lands on the same node. Routing
+ * is disabled as long as the node list is empty.
+ * <p/>
+ * The node list comes from cluster.nodes, or, with cluster.nodes.source=mongo, from a membership document that every
+ * node reads periodically, so that all the nodes converge to the same ring. The document is seeded with cluster.nodes
+ * by the first node and is then maintained by the deployment, it cannot be changed through the API.
+ * <p/>
+ * Node urls are compared once normalized (see {@link #normalizeNode(String)}), cluster.node.self should be one of them:
+ * a node missing from its own ring owns no session, so it redirects every call and runs no timer nor round.
+ * <p/>
+ * REST calls are redirected to the owner node. Websocket handshakes cannot be redirected (browsers and SockJS do not
+ * follow redirects there): the load balancer is expected to route them by their sessionId query parameter.
+ *
+ * @author hazem
+ */
+@Service
+public class SessionRoutingService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionRoutingService.class);
+    public static final String MEMBERSHIP_COLLECTION = "cluster_membership";
+    private static final String MEMBERSHIP_ID = "nodes";
+    private static final String MEMBERSHIP_NODES = "nodes";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${cluster.nodes:}")
+    private String configuredNodes;
+
+    @Value("${cluster.node.self:}")
+    private String self;
+
+    @Value("${cluster.virtualNodes:128}")
+    private int virtualNodes;
+
+    @Value("${cluster.nodes.source:config}")
+    private String source;
+
+    private volatile List<String> nodes = Collections.emptyList();
+    private volatile ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes, 0);
+    private final List<Consumer<List<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @should normalize the url of the current node
+     * @should fail if the node list is not empty and the current node is not set
+     */
+    @PostConstruct
+    public void init() {
+        self = normalizeNode(self);
+        final List<String> seed = StringUtils.isEmpty(configuredNodes, true)
+                ? Collections.emptyList() : Arrays.asList(configuredNodes.split(","));
+        if (isShared()) {
+            getMembershipCollection().update(new BasicDBObject("_id", MEMBERSHIP_ID),
+                    new BasicDBObject("$setOnInsert", new BasicDBObject(MEMBERSHIP_NODES, seed)), true, false);
+            refresh();
+        } else if (!seed.isEmpty()) {
+            updateNodes(seed);
+        }
+        if (!nodes.isEmpty() && StringUtils.isEmpty(self)) {
+            throw new IllegalStateException("cluster.node.self should be set when the node list is not empty: " + nodes);
+        }
+    }
+
+    /**
+     * @param listener called with the new node list each time the membership changes
+     */
+    public void subscribe(Consumer<List<String>> listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.nodes.refreshInterval:10000}")
+    public void scheduledRefresh() {
+        if (isShared()) {
+            refresh();
+        }
+    }
+
+    /**
+     * Reads the node list from the membership document.
+     *
+     * @return the effective node list
+     * @should load the node list from the membership document
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> refresh() {
+        final DBObject membership = getMembershipCollection().findOne(new BasicDBObject("_id", MEMBERSHIP_ID));
+        if (membership == null) {
+            return nodes;
+        }
+        return updateNodes((List<String>) membership.get(MEMBERSHIP_NODES));
+    }
+
+    /**
+     * @return true if sessions are distributed over several nodes
+     */
+    public boolean isEnabled() {
+        return !ring.isEmpty();
+    }
+
+    /**
+     * @param sessionId session id
+     * @return node owning the session, null if routing is disabled
+     * @should throw an exception if sessionId is null or empty
+     * @should return null if routing is disabled
+     * @should return the node owning the given session
+     */
+    public String getOwner(String sessionId) {
+        if (StringUtils.isEmpty(sessionId)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "sessionId should not be null or empty");
+        }
+        return ring.get(sessionId);
+    }
+
+    /**
+     * @param sessionId session id
+     * @return true if the session is owned by the current node or if routing is disabled
+     * @should return true if routing is disabled
+     * @should return false if the session is owned by another node
+     */
+    public boolean isLocal(String sessionId) {
+        final String owner = getOwner(sessionId);
+        return owner == null || owner.equals(self);
+    }
+
+    /**
+     * @param sessionId session id
+     * @return owner of the given session
+     */
+    public NodeDto lookup(String sessionId) {
+        final String owner = getOwner(sessionId);
+        return new NodeDto(sessionId, owner, owner == null || owner.equals(self));
+    }
+
+    /**
+     * Rebuilds the ring with the new node list. Consistent hashing only moves the sessions owned by added or removed
+     * nodes, the other sessions keep their owner.
+     *
+     * @param newNodes node base urls
+     * @return the effective node list
+     * @should rebalance sessions over the new node list
+     * @should disable routing if the node list is empty
+     * @should notify the listeners only if the node list changed
+     * @should normalize the node urls
+     */
+    public synchronized List<String> updateNodes(List<String> newNodes) {
+        final List<String> sanitizedNodes = new ArrayList<>(newNodes == null ? Collections.emptyList() : newNodes.stream()
+                .map(SessionRoutingService::normalizeNode)
+                .filter(node -> !node.isEmpty())
+                .distinct()
+                .collect(Collectors.toList()));
+        if (sanitizedNodes.equals(nodes)) {
+            return nodes;
+        }
+        ring = new ConsistentHashRing<>(sanitizedNodes, virtualNodes);
+        nodes = Collections.unmodifiableList(sanitizedNodes);
+        LOGGER.info("Session routing updated, nodes: {}, self: {}", nodes, self);
+        if (!nodes.isEmpty() && !nodes.contains(self)) {
+            LOGGER.error("cluster.node.self {} is not part of the node list {}, this node owns no session", self, nodes);
+        }
+        listeners.forEach(listener -> {
+            try {
+                listener.accept(nodes);
+            } catch (Exception e) {
+                LOGGER.error("Error while applying the new node list", e);
+            }
+        });
+        return nodes;
+    }
+
+    /**
+     * @param node node base url
+     * @return the url trimmed and without trailing slashes, empty if null
+     * @should remove blanks and trailing slashes
+     */
+    public static String normalizeNode(String node) {
+        if (node == null) {
+            return "";
+        }
+        String normalized = node.trim();
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    private boolean isShared() {
+        return "mongo".equals(source);
+    }
+
+    private DBCollection getMembershipCollection() {
+        return mongoTemplate.getCollection(MEMBERSHIP_COLLECTION);
+    }
+}
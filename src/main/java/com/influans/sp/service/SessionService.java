@@ -1,27 +1,39 @@
 package com.influans.sp.service;
 
+import com.influans.sp.dto.CardDto;
 import com.influans.sp.dto.SessionDto;
 import com.influans.sp.entity.SessionEntity;
 import com.influans.sp.entity.StoryEntity;
 import com.influans.sp.entity.UserEntity;
 import com.influans.sp.enums.CardSetEnum;
+import com.influans.sp.exception.BusinessException;
 import com.influans.sp.exception.CustomErrorCode;
-import com.influans.sp.exception.CustomException;
 import com.influans.sp.repository.SessionRepository;
 import com.influans.sp.repository.StoryRepository;
 import com.influans.sp.repository.UserRepository;
+import com.influans.sp.repository.async.AsyncSessionRepository;
+import com.influans.sp.repository.async.impl.MongoIoExecutor;
+import com.influans.sp.utils.IdGenerator;
+import com.influans.sp.utils.LexoRank;
 import com.influans.sp.utils.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 /**
  * @author hazem
  */
 @Service
 public class SessionService {
+    public static final int MAX_CARDS = 64;
 
     @Autowired
     private SessionRepository sessionRepository;
@@ -29,6 +41,10 @@ public class SessionService {
     private UserRepository userRepository;
     @Autowired
     private StoryRepository storyRepository;
+    @Autowired
+    private AsyncSessionRepository asyncSessionRepository;
+    @Autowired
+    private IdGenerator idGenerator;
 
     /**
      * @param sessionId session id
@@ -38,15 +54,24 @@ public class SessionService {
      * @should return valid session if it exists
      */
     public SessionDto getSession(String sessionId) {
+        return MongoIoExecutor.join(() -> getSessionAsync(sessionId));
+    }
+
+    /**
+     * @param sessionId session id
+     * @return future session
+     * @should fail if session does not exist
+     */
+    public CompletableFuture<SessionDto> getSessionAsync(String sessionId) {
         if (StringUtils.isEmpty(sessionId)) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "SessionId should not be empty");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "SessionId should not be empty");
         }
-        final SessionEntity sessionEntity = sessionRepository.findSessionBySessionId(sessionId);
-        if (sessionEntity == null) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "Session not found");
-        }
-
-        return new SessionDto(sessionEntity);
+        return asyncSessionRepository.findOne(sessionId).thenApply(sessionEntity -> {
+            if (sessionEntity == null) {
+                throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "Session not found");
+            }
+            return new SessionDto(sessionEntity);
+        });
     }
 
     /**
@@ -55,24 +80,32 @@ public class SessionService {
      * @should throw an error if sessionDto is null
      * @should throw an error if username is null
      * @should throw an error if cardSet is null
+     * @should throw an error if custom cards are not valid
+     * @should create session with custom cards
+     * @should generate the session id with the configured generator
      * @should create session and an admin user
      * @should create stories if stories list is not empty
      */
     public SessionDto createSession(SessionDto sessionDto) {
         if (sessionDto == null) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "Session should not be null");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "Session should not be null");
         }
 
         if (StringUtils.isEmpty(sessionDto.getUsername(), true)) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "Username should not be null");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "Username should not be null");
         }
 
-        if (CardSetEnum.toEnum(sessionDto.getCardSet()) == null) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "Username should not be null");
+        if (CollectionUtils.isEmpty(sessionDto.getCards())) {
+            if (CardSetEnum.toEnum(sessionDto.getCardSet()) == null) {
+                throw new BusinessException(CustomErrorCode.BAD_ARGS, "CardSet should not be null");
+            }
+        } else {
+            checkCards(sessionDto.getCards());
         }
 
         //save session
         final SessionEntity sessionEntity = sessionDto.toEntity();
+        sessionEntity.setCreatedAt(new Date());
         sessionRepository.save(sessionEntity);
         //save stories
         if (!CollectionUtils.isEmpty(sessionDto.getStories())) {
@@ -86,4 +119,81 @@ public class SessionService {
         sessionDto.setSessionId(sessionEntity.getSessionId());
         return sessionDto;
     }
+
+    /**
+     * Creates a new session with the deck of an existing session and a copy of its stories which are not ended, to
+     * carry them over to the next sprint. The number of queries does not depend on the number of stories: the stories
+     * are read with a single query and copied with a single bulk insert, followed by the insert of the admin user.
+     *
+     * @param sessionId  id of the cloned session
+     * @param sessionDto username of the admin and sprint name of the new session
+     * @return sessionDto of the new session, with the names of the copied stories
+     * @should throw an error if sessionId is null or empty
+     * @should throw an error if username is null
+     * @should throw an error if session does not exist
+     * @should copy the card set and the custom cards
+     * @should copy the stories which are not ended in the same order
+     * @should create the admin user
+     */
+    public SessionDto cloneSession(String sessionId, SessionDto sessionDto) {
+        if (StringUtils.isEmpty(sessionId)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "SessionId should not be empty");
+        }
+
+        if (sessionDto == null || StringUtils.isEmpty(sessionDto.getUsername(), true)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "Username should not be null");
+        }
+
+        final SessionEntity clonedSession = sessionRepository.findOne(sessionId);
+        if (clonedSession == null) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "Session not found");
+        }
+        final List<StoryEntity> clonedStories = storyRepository.findNotEndedBySessionId(sessionId);
+
+        //save session
+        final SessionEntity sessionEntity = new SessionEntity(idGenerator.nextId());
+        sessionEntity.setSprintName(sessionDto.getSprintName());
+        sessionEntity.setCardSet(clonedSession.getCardSet());
+        sessionEntity.setCards(clonedSession.getCards());
+        sessionEntity.setCreatedAt(new Date());
+        sessionRepository.save(sessionEntity);
+        //save stories, ranked again from the start in the order of the cloned session
+        final List<StoryEntity> storyEntities = new ArrayList<>(clonedStories.size());
+        String rank = null;
+        for (StoryEntity clonedStory : clonedStories) {
+            final StoryEntity storyEntity = new StoryEntity(sessionEntity.getSessionId(), clonedStory.getStoryName(), storyEntities.size() + 1);
+            storyEntity.setStoryId(idGenerator.nextId());
+            rank = LexoRank.between(rank, null);
+            storyEntity.setRank(rank);
+            storyEntities.add(storyEntity);
+        }
+        if (!storyEntities.isEmpty()) {
+            storyRepository.bulk().insert(storyEntities).execute();
+        }
+        //save user
+        userRepository.save(new UserEntity(sessionDto.getUsername(), sessionEntity.getSessionId(), true));
+
+        final SessionDto clonedSessionDto = new SessionDto(sessionEntity);
+        clonedSessionDto.setUsername(sessionDto.getUsername());
+        clonedSessionDto.setStories(storyEntities.stream().map(StoryEntity::getStoryName).collect(Collectors.toList()));
+        return clonedSessionDto;
+    }
+
+    private void checkCards(List<CardDto> cards) {
+        if (cards.size() > MAX_CARDS) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "a deck should not have more than " + MAX_CARDS + " cards");
+        }
+        final Set<String> labels = new HashSet<>();
+        for (CardDto card : cards) {
+            if (card == null || StringUtils.isEmpty(card.getLabel(), true)) {
+                throw new BusinessException(CustomErrorCode.BAD_ARGS, "card label should not be null or empty");
+            }
+            if (!labels.add(card.getLabel())) {
+                throw new BusinessException(CustomErrorCode.BAD_ARGS, "duplicated card " + card.getLabel());
+            }
+            if (card.getWeight() != null && (card.getWeight().isNaN() || card.getWeight().isInfinite())) {
+                throw new BusinessException(CustomErrorCode.BAD_ARGS, "card weight should be a finite number");
+            }
+        }
+    }
 }
@@ -0,0 +1,131 @@
+package com.influans.sp.service;
+
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.entity.def.StoryEntityDef;
+import com.influans.sp.utils.Base62;
+import com.influans.sp.utils.SnowflakeIdGenerator;
+import com.influans.sp.utils.StringUtils;
+import com.influans.sp.utils.TimeOrderedIdGenerator;
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+
+/**
+ * Computes the keywords and the creation key of the stories created before the story search existed, or before the
+ * search was sorted by creation key, so that they can be found. The creation time of a story is read from its id when
+ * the id carries one. Runs at startup on a single node and once, through the migration document of
+ * {@link UserKeyMigrationService#runOnce(String, Runnable)}, so that nodes do not scan the story collection each time
+ * they start. It can still be run again safely: migrated stories no longer match the query. The former index on the
+ * keywords alone is dropped, the keywords_created index starts with the keywords.
+ *
+ * @author hazem
+ */
+@Service
+public class StoryKeywordsMigrationService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StoryKeywordsMigrationService.class);
+    public static final String MIGRATION_ID = "storyKeywords";
+
+    @Value("${stories.keywords.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${stories.keywords.migration.chunkSize:500}")
+    private int chunkSize;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserKeyMigrationService userKeyMigrationService;
+
+    /**
+     * @should run the migration once
+     */
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            final boolean ran = userKeyMigrationService.runOnce(MIGRATION_ID, () -> {
+                final long migrated = migrate();
+                if (migrated > 0) {
+                    LOGGER.info("{} stories indexed for the story search", migrated);
+                }
+            });
+            if (!ran) {
+                LOGGER.info("story keywords migration already done or running on another node");
+            }
+        }
+    }
+
+    /**
+     * @return number of migrated stories
+     * @should set the keywords of the stories without keywords
+     * @should set the creation key of the stories without creation key
+     * @should do nothing if stories are already migrated
+     */
+    public long migrate() {
+        final DBCollection collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(StoryEntity.class));
+        long migrated = 0;
+        BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+        int pending = 0;
+        final BasicDBList missing = new BasicDBList();
+        missing.add(new BasicDBObject(StoryEntityDef.KEYWORDS, new BasicDBObject("$exists", false)));
+        missing.add(new BasicDBObject(StoryEntityDef.CREATION_KEY, new BasicDBObject("$exists", false)));
+        try (DBCursor cursor = collection.find(new BasicDBObject("$or", missing), new BasicDBObject(StoryEntityDef.STORY_NAME, 1))) {
+            while (cursor.hasNext()) {
+                final DBObject story = cursor.next();
+                final Object id = story.get("_id");
+                bulk.find(new BasicDBObject("_id", id)).updateOne(new BasicDBObject("$set",
+                        new BasicDBObject(StoryEntityDef.KEYWORDS, StringUtils.keywords((String) story.get(StoryEntityDef.STORY_NAME)))
+                                .append(StoryEntityDef.CREATION_KEY, StoryEntity.creationKey(createdAt(id), id.toString()))));
+                if (++pending == chunkSize) {
+                    bulk.execute();
+                    migrated += pending;
+                    bulk = collection.initializeUnorderedBulkOperation();
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+            migrated += pending;
+        }
+        collection.getIndexInfo().stream()
+                .filter(index -> ((DBObject) index.get("key")).keySet().equals(Collections.singleton(StoryEntityDef.KEYWORDS)))
+                .forEach(index -> collection.dropIndex((String) index.get("name")));
+        return migrated;
+    }
+
+    /**
+     * @param id story id
+     * @return creation time carried by the id, 0 if the id does not carry one: such stories come last
+     */
+    static long createdAt(Object id) {
+        if (id instanceof ObjectId) {
+            return ((ObjectId) id).getDate().getTime();
+        }
+        final String storyId = id.toString();
+        try {
+            if (storyId.length() == TimeOrderedIdGenerator.WIDTH) {
+                return TimeOrderedIdGenerator.getTimestamp(storyId);
+            }
+            if (storyId.length() == Base62.LONG_WIDTH) {
+                return SnowflakeIdGenerator.getTimestamp(storyId);
+            }
+        } catch (IllegalArgumentException e) {
+            // not a generated id
+        }
+        return 0;
+    }
+}
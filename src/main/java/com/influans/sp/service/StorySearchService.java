@@ -0,0 +1,108 @@
+package com.influans.sp.service;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.influans.sp.dto.StoryAnalyticsDto;
+import com.influans.sp.dto.StorySearchResultDto;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.entity.StoryRollupEntity;
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.StoryRollupRepository;
+import com.influans.sp.utils.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Search of stories by name across sessions: a story matches when its name contains all the words of the query,
+ * stopwords excepted. The index on the story keywords is walked from the rarest word of the query, so the cost of a
+ * query depends on the number of stories containing that word, not on the size of the collection. Word counts are
+ * cached, they only need to be roughly right. Estimations are read from the story rollups of the page (see
+ * {@link AnalyticsService}), votes are never loaded.
+ *
+ * @author hazem
+ */
+@Service
+public class StorySearchService {
+
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private StoryRollupRepository storyRollupRepository;
+
+    @Value("${stories.search.maxSize:100}")
+    private int maxSize;
+
+    @Value("${stories.search.keywordCache.maxSize:10000}")
+    private long keywordCacheSize;
+
+    @Value("${stories.search.keywordCache.expireAfterWrite:600}")
+    private long keywordCacheExpiry;
+
+    // keyword -> number of stories containing it
+    private LoadingCache<String, Long> keywordCounts;
+
+    @PostConstruct
+    public void init() {
+        keywordCounts = CacheBuilder.newBuilder()
+                .maximumSize(keywordCacheSize)
+                .expireAfterWrite(keywordCacheExpiry, TimeUnit.SECONDS)
+                .build(CacheLoader.from(storyRepository::countByKeyword));
+    }
+
+    /**
+     * @param query words to search in story names
+     * @param after cursor of the last story of the previous page, null or empty for the first page
+     * @param size  page size
+     * @return matching stories of the page, most recent first
+     * @should throw an exception if query is null or empty
+     * @should throw an exception if query contains only stopwords
+     * @should throw an exception if size is not valid
+     * @should return the stories matching the query
+     * @should return the estimation of ended stories
+     * @should return the page following the given cursor
+     */
+    public List<StorySearchResultDto> search(String query, String after, int size) {
+        final List<String> keywords = StringUtils.keywords(query);
+        if (keywords.isEmpty()) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "query should contain at least one word");
+        }
+        if (size <= 0 || size > maxSize) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "size should be between 1 and " + maxSize);
+        }
+
+        keywords.sort(Comparator.comparing(keywordCounts::getUnchecked));
+        final List<StoryEntity> storyEntities = storyRepository.search(keywords, StringUtils.isEmpty(after) ? null : after, size);
+        final List<String> endedStoryIds = storyEntities.stream()
+                .filter(StoryEntity::isEnded)
+                .map(StoryEntity::getStoryId)
+                .collect(Collectors.toList());
+        final Map<String, StoryRollupEntity> rollups = new HashMap<>();
+        if (!endedStoryIds.isEmpty()) {
+            storyRollupRepository.findAll(endedStoryIds).forEach(rollup -> rollups.put(rollup.getStoryId(), rollup));
+        }
+
+        final List<StorySearchResultDto> results = new ArrayList<>(storyEntities.size());
+        for (StoryEntity storyEntity : storyEntities) {
+            final StorySearchResultDto result = new StorySearchResultDto(storyEntity);
+            final StoryRollupEntity rollup = rollups.get(storyEntity.getStoryId());
+            if (rollup != null) {
+                result.setEstimation(new StoryAnalyticsDto(rollup));
+            }
+            results.add(result);
+        }
+        return results;
+    }
+}
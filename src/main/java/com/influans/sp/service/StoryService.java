@@ -2,23 +2,43 @@ package com.influans.sp.service;
 
 import com.google.common.collect.ImmutableMap;
 import com.influans.sp.dto.DefaultResponse;
+import com.influans.sp.dto.StoryBatchDto;
 import com.influans.sp.dto.StoryDto;
 import com.influans.sp.entity.StoryEntity;
 import com.influans.sp.entity.def.StoryEntityDef;
 import com.influans.sp.enums.WsTypes;
+import com.influans.sp.exception.BusinessException;
 import com.influans.sp.exception.CustomErrorCode;
-import com.influans.sp.exception.CustomException;
 import com.influans.sp.repository.DAOResponse;
 import com.influans.sp.repository.SessionRepository;
 import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.VoteRepository;
+import com.influans.sp.repository.async.AsyncSessionRepository;
+import com.influans.sp.repository.async.AsyncStoryRepository;
+import com.influans.sp.repository.async.impl.MongoIoExecutor;
+import com.influans.sp.repository.impl.GenericRepositoryImpl;
+import com.influans.sp.utils.IdGenerator;
+import com.influans.sp.utils.LexoRank;
 import com.influans.sp.utils.StringUtils;
 import com.influans.sp.websocket.WebSocketSender;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 /**
  * @author hazem
@@ -31,7 +51,28 @@ public class StoryService {
     @Autowired
     private SessionRepository sessionRepository;
     @Autowired
+    private VoteRepository voteRepository;
+    @Autowired
     private WebSocketSender webSocketSender;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    @Autowired
+    private AsyncSessionRepository asyncSessionRepository;
+    @Autowired
+    private AsyncStoryRepository asyncStoryRepository;
+    @Autowired
+    private IdGenerator idGenerator;
+    @Autowired
+    private VotingTimerService votingTimerService;
+    @Autowired
+    private AnalyticsService analyticsService;
+    // the round service ends its stories through this service
+    @Autowired
+    @Lazy
+    private RoundService roundService;
+
+    @Value("${stories.batch.maxSize:500}")
+    private int batchMaxSize;
 
     /**
      * @param sessionId session id
@@ -41,17 +82,32 @@ public class StoryService {
      * @should throw an exception if session id is not valid
      */
     public List<StoryDto> listStories(String sessionId) {
+        return MongoIoExecutor.join(() -> listStoriesAsync(sessionId));
+    }
+
+    /**
+     * The existence check and the stories query run concurrently.
+     *
+     * @param sessionId session id
+     * @return future list of stories
+     * @should fail if session id is not valid
+     */
+    public CompletableFuture<List<StoryDto>> listStoriesAsync(String sessionId) {
         if (StringUtils.isEmpty(sessionId)) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "sessionId should not be null or empty");
-        }
-        if (!sessionRepository.exists(sessionId)) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + sessionId);
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "sessionId should not be null or empty");
         }
 
-        final List<StoryDto> stories = new ArrayList<>();
-        storyRepository.findBySessionId(sessionId).forEach(storyEntity -> //
-                stories.add(new StoryDto(storyEntity)));
-        return stories;
+        final CompletableFuture<Boolean> sessionExists = asyncSessionRepository.exists(sessionId);
+        final CompletableFuture<List<StoryEntity>> storyEntities = asyncStoryRepository.findBySessionId(sessionId);
+        return sessionExists.thenCombine(storyEntities, (exists, entities) -> {
+            if (!exists) {
+                throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + sessionId);
+            }
+            final List<StoryDto> stories = new ArrayList<>();
+            entities.forEach(storyEntity -> //
+                    stories.add(new StoryDto(storyEntity)));
+            return stories;
+        });
     }
 
     /**
@@ -64,19 +120,55 @@ public class StoryService {
      */
     public DefaultResponse delete(String storyId) {
         if (StringUtils.isEmpty(storyId)) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
         }
 
         final StoryEntity storyEntity = storyRepository.findOne(storyId);
         if (Objects.isNull(storyEntity)) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "story not found with id = " + storyId);
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "story not found with id = " + storyId);
         }
 
         storyRepository.delete(storyId);
+        votingTimerService.cancel(storyId);
+        resourceVersionService.bumpSession(storyEntity.getSessionId());
+        resourceVersionService.bumpStory(storyId);
         webSocketSender.sendNotification(storyEntity.getSessionId(), WsTypes.STORY_REMOVED, storyId);
         return DefaultResponse.ok();
     }
 
+    /**
+     * Starts a new voting round on an ended story: the story is reopened and the votes of the previous round are
+     * deleted. Ending it again counts one more round in its estimation rollup.
+     *
+     * @param storyId story id
+     * @return empty response
+     * @should throw an exception if storyId is null or empty
+     * @should throw an exception if story does not exist
+     * @should throw an exception if story is not ended
+     * @should reopen the story and delete its votes
+     * @should count a new round when the story is ended again
+     * @should send a websocket notification
+     */
+    public DefaultResponse revoteStory(String storyId) {
+        if (StringUtils.isEmpty(storyId)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
+        }
+
+        final StoryEntity storyEntity = storyRepository.reopenStory(storyId);
+        if (Objects.isNull(storyEntity)) {
+            if (!storyRepository.exists(storyId)) {
+                throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "story not found with id = " + storyId);
+            }
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "story " + storyId + " is not ended");
+        }
+
+        voteRepository.deleteByStoryId(storyId);
+        resourceVersionService.bumpSession(storyEntity.getSessionId());
+        resourceVersionService.bumpStory(storyId);
+        webSocketSender.sendNotification(storyEntity.getSessionId(), WsTypes.STORY_REVOTED, storyId);
+        return DefaultResponse.ok();
+    }
+
     /**
      * @param storyDto storyDto
      * @return StoryDto with new id
@@ -85,25 +177,68 @@ public class StoryService {
      * @should throw an exception if storyName contains only spaces
      * @should throw an exception if session does not exist
      * @should create a story related to the given sessionId
+     * @should rank the story after the last story of the session
      * @should send a websocket notification
      */
     public StoryDto createStory(StoryDto storyDto) {
-        if (StringUtils.isEmpty(storyDto.getSessionId())) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "session should not be null or empty");
+        validateStory(storyDto);
+        return saveStory(storyDto, appendRank(storyDto.getSessionId()));
+    }
+
+    /**
+     * Inserts a story between two others: the new story gets a rank between the ranks of its neighbours, the other
+     * stories are not modified.
+     *
+     * @param storyDto     storyDto
+     * @param afterStoryId story preceding the new story, null or empty to insert it first
+     * @return StoryDto with new id and rank
+     * @should throw an exception if previous story does not belong to the session
+     * @should insert the story between the previous story and the next one
+     * @should insert the story first if afterStoryId is empty
+     */
+    public StoryDto insertStory(StoryDto storyDto, String afterStoryId) {
+        validateStory(storyDto);
+        return saveStory(storyDto, rankAfter(storyDto.getSessionId(), afterStoryId, null));
+    }
+
+    /**
+     * Moves a story right after another one. Only the rank of the moved story is updated.
+     *
+     * @param storyId      moved story
+     * @param afterStoryId story preceding the moved story, null or empty to move it first
+     * @return moved story with its new rank
+     * @should throw an exception if storyId is null or empty
+     * @should throw an exception if story does not exist
+     * @should throw an exception if the story is moved after itself
+     * @should move the story by updating its rank only
+     * @should move the story first if afterStoryId is empty
+     * @should rank the stories created before ranks existed
+     * @should send a websocket notification
+     */
+    public StoryDto moveStory(String storyId, String afterStoryId) {
+        if (StringUtils.isEmpty(storyId)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
         }
 
-        if (StringUtils.isEmpty(storyDto.getStoryName(), true)) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "story name should not be null or empty");
+        final StoryEntity storyEntity = storyRepository.findOne(storyId);
+        if (Objects.isNull(storyEntity)) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "story not found with id = " + storyId);
         }
 
-        if (!sessionRepository.exists(storyDto.getSessionId())) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found");
+        if (storyId.equals(afterStoryId)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "a story cannot be moved after itself");
         }
 
-        final StoryEntity storyEntity = new StoryEntity(storyDto.getSessionId(), storyDto.getStoryName(), storyDto.getOrder());
-        storyRepository.save(storyEntity);
-        storyDto.setStoryId(storyEntity.getStoryId());
-        webSocketSender.sendNotification(storyEntity.getSessionId(), WsTypes.STORY_ADDED, storyDto);
+        final String rank = rankAfter(storyEntity.getSessionId(), afterStoryId, storyId);
+        storyRepository.update(storyId, ImmutableMap.<String, Object>builder()
+                .put(StoryEntityDef.RANK, rank)
+                .build());
+        storyEntity.setRank(rank);
+
+        final StoryDto storyDto = new StoryDto(storyEntity);
+        storyDto.setSessionId(storyEntity.getSessionId());
+        resourceVersionService.bumpSession(storyEntity.getSessionId());
+        webSocketSender.sendNotification(storyEntity.getSessionId(), WsTypes.STORIES_REORDERED, Collections.singletonList(storyDto));
         return storyDto;
     }
 
@@ -113,23 +248,258 @@ public class StoryService {
      * @should throw an exception if storyId is empty or null
      * @should throw an exception if story does not exist
      * @should set story as ended
+     * @should stop the voting timer of the story
+     * @should update the analytics rollups
+     * @should update the analytics rollups once if the story is already ended
+     * @should remove the story from the open round
      * @should send a websocket notification
      */
     public DefaultResponse endStory(String storyId) {
         if (StringUtils.isEmpty(storyId)) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
         }
 
-        final StoryEntity storyEntity = storyRepository.findOne(storyId);
+        final StoryEntity storyEntity = storyRepository.endStory(storyId);
         if (Objects.isNull(storyEntity)) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "story not found with id = " + storyId);
+            if (!storyRepository.exists(storyId)) {
+                throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "story not found with id = " + storyId);
+            }
+            // ended by a previous or concurrent call, which did the rest
+            return DefaultResponse.ok();
         }
 
-        storyRepository.update(storyId, ImmutableMap.<String, Object>builder()
-                .put(StoryEntityDef.ENDED, true)
-                .build());
+        votingTimerService.cancel(storyId);
+        analyticsService.onStoryEnded(storyEntity);
+        roundService.onStoriesEnded(storyEntity.getSessionId(), Collections.singletonList(storyId));
+        resourceVersionService.bumpSession(storyEntity.getSessionId());
 
         webSocketSender.sendNotification(storyEntity.getSessionId(), WsTypes.STORY_ENDED, storyId);
         return DefaultResponse.ok();
     }
+
+    /**
+     * Creates several stories of the same session with a single bulk insert and a single notification.
+     *
+     * @param storyBatchDto stories to create
+     * @return created stories with their new ids
+     * @should throw an exception if sessionId is empty or null
+     * @should throw an exception if stories list is empty
+     * @should throw an exception if a storyName is empty or null
+     * @should throw an exception if session does not exist
+     * @should create all stories related to the given sessionId
+     * @should send a single websocket notification
+     */
+    public List<StoryDto> createStories(StoryBatchDto storyBatchDto) {
+        validateBatch(storyBatchDto);
+        if (storyBatchDto.getStories().stream().anyMatch(storyDto -> StringUtils.isEmpty(storyDto.getStoryName(), true))) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "story name should not be null or empty");
+        }
+        final String sessionId = storyBatchDto.getSessionId();
+        if (!sessionRepository.exists(sessionId)) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found");
+        }
+
+        // ids are assigned here since bulk inserts do not report generated ids back to the entities
+        final List<StoryEntity> storyEntities = new ArrayList<>();
+        String rank = appendRank(sessionId);
+        for (StoryDto storyDto : storyBatchDto.getStories()) {
+            final StoryEntity storyEntity = new StoryEntity(sessionId, storyDto.getStoryName(), storyDto.getOrder());
+            storyEntity.setStoryId(idGenerator.nextId());
+            storyEntity.setRank(rank);
+            storyEntities.add(storyEntity);
+            rank = LexoRank.between(rank, null);
+        }
+        storyRepository.bulk().insert(storyEntities).execute();
+
+        final List<StoryDto> stories = storyEntities.stream().map(storyEntity -> {
+            final StoryDto storyDto = new StoryDto(storyEntity);
+            storyDto.setSessionId(sessionId);
+            return storyDto;
+        }).collect(Collectors.toList());
+        resourceVersionService.bumpSession(sessionId);
+        webSocketSender.sendNotification(sessionId, WsTypes.STORIES_ADDED, stories);
+        return stories;
+    }
+
+    /**
+     * Updates the order of several stories of the same session. The given stories keep the positions they occupy in
+     * the list and are sorted by order among them: their ranks are exchanged, the other stories are not modified.
+     *
+     * @param storyBatchDto stories with their new order
+     * @return empty response
+     * @should throw an exception if a storyId is empty or null
+     * @should throw an exception if a story does not belong to the session
+     * @should update the order of all given stories
+     * @should keep the position of the stories which are not part of the batch
+     * @should send a single websocket notification
+     */
+    public DefaultResponse reorderStories(StoryBatchDto storyBatchDto) {
+        final Set<String> storyIds = validateSessionStories(storyBatchDto);
+        if (storyRepository.countUnranked(storyBatchDto.getSessionId()) > 0) {
+            rankSession(storyBatchDto.getSessionId());
+        }
+        final List<String> ranks = new ArrayList<>();
+        storyRepository.findAll(storyIds).forEach(storyEntity -> ranks.add(storyEntity.getRank()));
+        Collections.sort(ranks);
+        // a story listed twice takes its last order, stories with the same order keep the batch order
+        final Map<String, Integer> orders = new LinkedHashMap<>();
+        storyBatchDto.getStories().forEach(storyDto -> orders.put(storyDto.getStoryId(), storyDto.getOrder()));
+        final List<String> sortedIds = new ArrayList<>(orders.keySet());
+        sortedIds.sort(Comparator.comparingInt(orders::get));
+
+        final GenericRepositoryImpl<StoryEntity, String>.BulkBuilder bulk = storyRepository.bulk();
+        for (int i = 0; i < sortedIds.size(); i++) {
+            bulk.set(sortedIds.get(i), ImmutableMap.<String, Object>builder()
+                    .put(StoryEntityDef.ORDER, orders.get(sortedIds.get(i)))
+                    .put(StoryEntityDef.RANK, ranks.get(i))
+                    .build());
+        }
+        bulk.execute();
+
+        final List<StoryDto> stories = storyBatchDto.getStories().stream().map(storyDto -> {
+            final StoryDto reordered = new StoryDto();
+            reordered.setStoryId(storyDto.getStoryId());
+            reordered.setOrder(storyDto.getOrder());
+            return reordered;
+        }).collect(Collectors.toList());
+        resourceVersionService.bumpSession(storyBatchDto.getSessionId());
+        storyIds.forEach(resourceVersionService::bumpStory);
+        webSocketSender.sendNotification(storyBatchDto.getSessionId(), WsTypes.STORIES_REORDERED, stories);
+        return DefaultResponse.ok();
+    }
+
+    /**
+     * Ends several stories of the same session.
+     *
+     * @param storyBatchDto stories to end, only storyId is required
+     * @return empty response
+     * @should throw an exception if a story does not belong to the session
+     * @should set all given stories as ended
+     * @should send a single websocket notification
+     */
+    public DefaultResponse endStories(StoryBatchDto storyBatchDto) {
+        final List<String> endedIds = markEnded(validateSessionStories(storyBatchDto));
+
+        if (!endedIds.isEmpty()) {
+            roundService.onStoriesEnded(storyBatchDto.getSessionId(), endedIds);
+            resourceVersionService.bumpSession(storyBatchDto.getSessionId());
+            webSocketSender.sendNotification(storyBatchDto.getSessionId(), WsTypes.STORIES_ENDED, endedIds);
+        }
+        return DefaultResponse.ok();
+    }
+
+    /**
+     * Ends the given stories which are not ended yet with a single update, without notification: callers send their
+     * own. Stories already ended, by a previous or concurrent call, are left untouched.
+     *
+     * @param storyIds ids of existing stories
+     * @return ids of the stories ended by this call, in the given order
+     * @should end only the stories which are not ended yet
+     */
+    List<String> markEnded(Collection<String> storyIds) {
+        final List<StoryEntity> endedStories = storyRepository.endStories(storyIds);
+        final Set<String> endedIds = endedStories.stream().map(StoryEntity::getStoryId).collect(Collectors.toSet());
+        endedIds.forEach(votingTimerService::cancel);
+        analyticsService.onStoriesEnded(endedStories);
+        return storyIds.stream().filter(endedIds::contains).collect(Collectors.toList());
+    }
+
+    private void validateStory(StoryDto storyDto) {
+        if (StringUtils.isEmpty(storyDto.getSessionId())) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "session should not be null or empty");
+        }
+
+        if (StringUtils.isEmpty(storyDto.getStoryName(), true)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "story name should not be null or empty");
+        }
+
+        if (!sessionRepository.exists(storyDto.getSessionId())) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found");
+        }
+    }
+
+    private StoryDto saveStory(StoryDto storyDto, String rank) {
+        final StoryEntity storyEntity = new StoryEntity(storyDto.getSessionId(), storyDto.getStoryName(), storyDto.getOrder());
+        storyEntity.setRank(rank);
+        storyRepository.save(storyEntity);
+        storyDto.setStoryId(storyEntity.getStoryId());
+        storyDto.setRank(rank);
+        resourceVersionService.bumpSession(storyEntity.getSessionId());
+        webSocketSender.sendNotification(storyEntity.getSessionId(), WsTypes.STORY_ADDED, storyDto);
+        return storyDto;
+    }
+
+    private String appendRank(String sessionId) {
+        final StoryEntity lastStory = storyRepository.findFirstBySessionIdOrderByRankDesc(sessionId);
+        return LexoRank.between(Objects.isNull(lastStory) ? null : lastStory.getRank(), null);
+    }
+
+    /**
+     * @param sessionId    session id
+     * @param afterStoryId story preceding the ranked story, null or empty for the first position
+     * @param movedStoryId story being moved, ignored when looking for the next story
+     * @return rank between the given story and the next one
+     */
+    private String rankAfter(String sessionId, String afterStoryId, String movedStoryId) {
+        if (storyRepository.countUnranked(sessionId) > 0) {
+            rankSession(sessionId);
+        }
+        String previousRank = null;
+        if (!StringUtils.isEmpty(afterStoryId)) {
+            final StoryEntity previousStory = storyRepository.findOne(afterStoryId);
+            if (Objects.isNull(previousStory) || !sessionId.equals(previousStory.getSessionId())) {
+                throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "story not found in session " + sessionId + " with id = " + afterStoryId);
+            }
+            previousRank = previousStory.getRank();
+        }
+        final StoryEntity nextStory = storyRepository.findNextByRank(sessionId, previousRank, movedStoryId);
+        return LexoRank.between(previousRank, Objects.isNull(nextStory) ? null : nextStory.getRank());
+    }
+
+    /**
+     * Gives new ranks to all the stories of a session, in their current list order. Only needed once for the sessions
+     * created before ranks existed.
+     */
+    private void rankSession(String sessionId) {
+        final List<StoryEntity> storyEntities = storyRepository.findBySessionId(sessionId);
+        if (storyEntities.isEmpty()) {
+            return;
+        }
+        final GenericRepositoryImpl<StoryEntity, String>.BulkBuilder bulk = storyRepository.bulk();
+        String rank = null;
+        for (StoryEntity storyEntity : storyEntities) {
+            rank = LexoRank.between(rank, null);
+            bulk.set(storyEntity.getStoryId(), ImmutableMap.<String, Object>builder()
+                    .put(StoryEntityDef.RANK, rank)
+                    .build());
+        }
+        bulk.execute();
+    }
+
+    private void validateBatch(StoryBatchDto storyBatchDto) {
+        if (storyBatchDto == null || StringUtils.isEmpty(storyBatchDto.getSessionId())) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "session should not be null or empty");
+        }
+        if (storyBatchDto.getStories() == null || storyBatchDto.getStories().isEmpty()) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "stories should not be null or empty");
+        }
+        if (storyBatchDto.getStories().size() > batchMaxSize) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "stories should not contain more than " + batchMaxSize + " elements");
+        }
+    }
+
+    private Set<String> validateSessionStories(StoryBatchDto storyBatchDto) {
+        validateBatch(storyBatchDto);
+        final Set<String> storyIds = new LinkedHashSet<>();
+        storyBatchDto.getStories().forEach(storyDto -> {
+            if (StringUtils.isEmpty(storyDto.getStoryId())) {
+                throw new BusinessException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
+            }
+            storyIds.add(storyDto.getStoryId());
+        });
+        if (storyRepository.countSessionStories(storyBatchDto.getSessionId(), storyIds) != storyIds.size()) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "stories not found in session " + storyBatchDto.getSessionId());
+        }
+        return storyIds;
+    }
 }
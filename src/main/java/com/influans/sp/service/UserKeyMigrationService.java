@@ -0,0 +1,172 @@
+package com.influans.sp.service;
+
+import com.influans.sp.entity.UserEntity;
+import com.influans.sp.entity.def.EntityIdDef;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DuplicateKeyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Rewrites the users stored with the former composite _id {eId: username, sId: sessionId} to the single string key
+ * of {@link UserEntity}. Runs at startup, before the server accepts requests, on a single node: the first node to
+ * acquire the migration document runs it, the others skip it, and the document records that it is done.
+ * <p>
+ * During a rolling upgrade, nodes still running the former version keep writing composite ids, so while
+ * user.key.legacy.enabled is set the user repository falls back to the composite id and the index on _id.sId is
+ * kept. Once every node is upgraded, turning the property off runs a last pass that picks up the stragglers and
+ * drops the index.
+ *
+ * @author hazem
+ */
+@Service
+public class UserKeyMigrationService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserKeyMigrationService.class);
+    public static final String LEGACY_SESSION_ID = "_id." + EntityIdDef.SESSION_ID;
+    public static final String MIGRATION_COLLECTION = "migrations";
+    public static final String MIGRATION_ID = "userKey";
+    public static final String FINAL_MIGRATION_ID = "userKey.final";
+    private static final String STATE = "st";
+    private static final String OWNER = "by";
+    private static final String LOCKED_UNTIL = "exp";
+    private static final String RUNNING = "running";
+    private static final String DONE = "done";
+
+    @Value("${user.key.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${user.key.legacy.enabled:true}")
+    private boolean legacyEnabled;
+
+    @Value("${user.key.migration.lockTimeout:600000}")
+    private long lockTimeout;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            final boolean ran = runOnce(legacyEnabled ? MIGRATION_ID : FINAL_MIGRATION_ID, () -> {
+                final long migrated = migrate();
+                if (migrated > 0) {
+                    LOGGER.info("{} users migrated to the compact key", migrated);
+                }
+            });
+            if (!ran) {
+                LOGGER.info("user key migration already done or running on another node");
+            }
+        }
+    }
+
+    /**
+     * Runs a migration unless it is done or held by another node. A lock left by a node that died is taken over
+     * once it expires, a failed migration releases it so that the next node retries.
+     *
+     * @param migrationId id of the migration document
+     * @param migration   migration to run
+     * @return true if this node ran the migration
+     * @should run the migration once
+     * @should not run the migration held by another node
+     * @should take over an expired lock
+     * @should release the lock if the migration fails
+     */
+    public boolean runOnce(String migrationId, Runnable migration) {
+        final DBCollection migrations = mongoTemplate.getCollection(MIGRATION_COLLECTION);
+        final long now = System.currentTimeMillis();
+        try {
+            // an existing document that is done or still locked does not match, the upsert then fails on the _id
+            migrations.update(new BasicDBObject("_id", migrationId)
+                            .append(STATE, new BasicDBObject("$ne", DONE))
+                            .append(LOCKED_UNTIL, new BasicDBObject("$lt", new Date(now))),
+                    new BasicDBObject("$set", new BasicDBObject(STATE, RUNNING)
+                            .append(OWNER, owner)
+                            .append(LOCKED_UNTIL, new Date(now + lockTimeout))), true, false);
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+        final BasicDBObject lock = new BasicDBObject("_id", migrationId).append(OWNER, owner);
+        try {
+            migration.run();
+        } catch (RuntimeException e) {
+            migrations.remove(lock);
+            throw e;
+        }
+        migrations.update(lock, new BasicDBObject("$set", new BasicDBObject(STATE, DONE)));
+        return true;
+    }
+
+    /**
+     * @return number of migrated users
+     * @should rewrite legacy users with the compact key
+     * @should keep the user fields
+     * @should do nothing if users are already migrated
+     * @should keep the legacy index while legacy users are read
+     */
+    public long migrate() {
+        final DBCollection collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(UserEntity.class));
+        long migrated = 0;
+        try (DBCursor cursor = collection.find(new BasicDBObject(LEGACY_SESSION_ID, new BasicDBObject("$exists", true)))) {
+            while (cursor.hasNext()) {
+                rekey(collection, cursor.next());
+                migrated++;
+            }
+        }
+        if (!legacyEnabled) {
+            collection.getIndexInfo().stream()
+                    .filter(index -> ((DBObject) index.get("key")).containsField(LEGACY_SESSION_ID))
+                    .forEach(index -> collection.dropIndex((String) index.get("name")));
+        }
+        return migrated;
+    }
+
+    /**
+     * @param sessionId session id
+     * @param username  username
+     * @return the former composite id of a user
+     */
+    public static DBObject legacyId(String sessionId, String username) {
+        return new BasicDBObject(EntityIdDef.ENTITY_ID, username).append(EntityIdDef.SESSION_ID, sessionId);
+    }
+
+    /**
+     * @param legacy user stored with the composite id
+     * @return the same user with the compact key
+     */
+    public static DBObject compact(DBObject legacy) {
+        final DBObject legacyId = (DBObject) legacy.get("_id");
+        final BasicDBObject user = new BasicDBObject(legacy.toMap());
+        user.put("_id", UserEntity.key((String) legacyId.get(EntityIdDef.SESSION_ID),
+                (String) legacyId.get(EntityIdDef.ENTITY_ID)));
+        return user;
+    }
+
+    /**
+     * @param collection user collection
+     * @param legacy     user stored with the composite id
+     * @return the user stored with the compact key, written by an upgraded node if there is one
+     */
+    public static DBObject rekey(DBCollection collection, DBObject legacy) {
+        final DBObject user = compact(legacy);
+        final DBObject current = collection.findOne(new BasicDBObject("_id", user.get("_id")));
+        // save first: a crash between both writes leaves a duplicate that the next run removes
+        if (current == null) {
+            collection.save(user);
+        }
+        collection.remove(new BasicDBObject("_id", legacy.get("_id")));
+        return current != null ? current : user;
+    }
+}
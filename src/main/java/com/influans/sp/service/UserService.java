@@ -4,16 +4,20 @@ import com.influans.sp.dto.DefaultResponse;
 import com.influans.sp.dto.UserDto;
 import com.influans.sp.entity.UserEntity;
 import com.influans.sp.enums.WsTypes;
+import com.influans.sp.exception.BusinessException;
 import com.influans.sp.exception.CustomErrorCode;
-import com.influans.sp.exception.CustomException;
 import com.influans.sp.repository.SessionRepository;
 import com.influans.sp.repository.UserRepository;
+import com.influans.sp.repository.async.AsyncSessionRepository;
+import com.influans.sp.repository.async.AsyncUserRepository;
+import com.influans.sp.repository.async.impl.MongoIoExecutor;
 import com.influans.sp.utils.StringUtils;
 import com.influans.sp.websocket.WebSocketSender;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -28,6 +32,12 @@ public class UserService {
     private SessionRepository sessionRepository;
     @Autowired
     private WebSocketSender webSocketSender;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    @Autowired
+    private AsyncSessionRepository asyncSessionRepository;
+    @Autowired
+    private AsyncUserRepository asyncUserRepository;
 
 
     /**
@@ -40,18 +50,33 @@ public class UserService {
      * @should not return disconnected users
      */
     public List<UserDto> listUsers(String sessionId) {
+        return MongoIoExecutor.join(() -> listUsersAsync(sessionId));
+    }
+
+    /**
+     * The existence check and the users query run concurrently.
+     *
+     * @param sessionId session id
+     * @return future list of connected users
+     * @should fail if session does not exist
+     */
+    public CompletableFuture<List<UserDto>> listUsersAsync(String sessionId) {
         if (StringUtils.isEmpty(sessionId)) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "session should not be null or empty");
-        }
-        if (!sessionRepository.exists(sessionId)) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + sessionId);
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "session should not be null or empty");
         }
-        final List<UserEntity> users = userRepository.findUsersBySessionId(sessionId);
-        return users.stream()
-                .map(userEntity -> new UserDto(userEntity.getUserId().getEntityId(),
-                        userEntity.getUserId().getSessionId(),
-                        userEntity.isAdmin()))
-                .collect(Collectors.toList());
+
+        final CompletableFuture<Boolean> sessionExists = asyncSessionRepository.exists(sessionId);
+        final CompletableFuture<List<UserEntity>> users = asyncUserRepository.findUsersBySessionId(sessionId);
+        return sessionExists.thenCombine(users, (exists, userEntities) -> {
+            if (!exists) {
+                throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + sessionId);
+            }
+            return userEntities.stream()
+                    .map(userEntity -> new UserDto(userEntity.getUsername(),
+                            userEntity.getSessionId(),
+                            userEntity.isAdmin()))
+                    .collect(Collectors.toList());
+        });
     }
 
     /**
@@ -68,14 +93,14 @@ public class UserService {
      */
     public UserDto connectUser(UserDto userDto) {
         if (StringUtils.isEmpty(userDto.getSessionId())) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "session should not be null or empty");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "session should not be null or empty");
         }
 
         if (StringUtils.isEmpty(userDto.getUsername(), true)) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "username should not be null or empty");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "username should not be null or empty");
         }
         if (!sessionRepository.exists(userDto.getSessionId())) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + userDto.getSessionId());
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + userDto.getSessionId());
         }
 
         UserEntity userEntity = userRepository.findUser(userDto.getSessionId(), userDto.getUsername());
@@ -88,10 +113,11 @@ public class UserService {
                 userEntity.setConnected(true);
                 userRepository.save(userEntity);
             } else {
-                throw new CustomException(CustomErrorCode.DUPLICATE_IDENTIFIER, String.format("username %s already used in session %s", userDto.getUsername(), userDto.getSessionId()));
+                throw new BusinessException(CustomErrorCode.DUPLICATE_IDENTIFIER, String.format("username %s already used in session %s", userDto.getUsername(), userDto.getSessionId()));
             }
 
         }
+        resourceVersionService.bumpSession(userDto.getSessionId());
         webSocketSender.sendNotification(userDto.getSessionId(), WsTypes.USER_CONNECTED, userDto);
         return userDto;
     }
@@ -108,24 +134,25 @@ public class UserService {
      */
     public DefaultResponse disconnectUser(UserDto userDto) {
         if (StringUtils.isEmpty(userDto.getSessionId())) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "session should not be null or empty");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "session should not be null or empty");
         }
 
         if (StringUtils.isEmpty(userDto.getUsername(), true)) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "username should not be null or empty");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "username should not be null or empty");
         }
         if (!sessionRepository.exists(userDto.getSessionId())) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + userDto.getSessionId());
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + userDto.getSessionId());
         }
 
         final UserEntity userEntity = userRepository.findUser(userDto.getSessionId(), userDto.getUsername());
 
         if (userEntity == null) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "user not found with username = " + userDto.getUsername());
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "user not found with username = " + userDto.getUsername());
         }
 
         userEntity.setConnected(false);
         userRepository.save(userEntity);
+        resourceVersionService.bumpSession(userDto.getSessionId());
         webSocketSender.sendNotification(userDto.getSessionId(), WsTypes.USER_DISCONNECTED, userDto.getUsername());
         return DefaultResponse.ok();
     }
@@ -2,23 +2,33 @@ package com.influans.sp.service;
 
 import com.influans.sp.dto.DefaultResponse;
 import com.influans.sp.dto.VoteDto;
-import com.influans.sp.entity.EntityId;
+import com.influans.sp.dto.VoteStatsDto;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.entity.UserEntity;
 import com.influans.sp.entity.VoteEntity;
 import com.influans.sp.enums.WsTypes;
+import com.influans.sp.exception.BusinessException;
 import com.influans.sp.exception.CustomErrorCode;
-import com.influans.sp.exception.CustomException;
-import com.influans.sp.repository.SessionRepository;
 import com.influans.sp.repository.StoryRepository;
-import com.influans.sp.repository.UserRepository;
 import com.influans.sp.repository.VoteRepository;
+import com.influans.sp.repository.async.AsyncSessionRepository;
+import com.influans.sp.repository.async.AsyncStoryRepository;
+import com.influans.sp.repository.async.AsyncUserRepository;
+import com.influans.sp.repository.async.AsyncVoteRepository;
+import com.influans.sp.repository.async.impl.MongoIoExecutor;
+import com.influans.sp.utils.CardDeck;
 import com.influans.sp.utils.StringUtils;
 import com.influans.sp.websocket.WebSocketSender;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author hazem
@@ -29,13 +39,23 @@ public class VoteService {
     @Autowired
     private VoteRepository voteRepository;
     @Autowired
+    private WebSocketSender webSocketSender;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    @Autowired
     private StoryRepository storyRepository;
     @Autowired
-    private SessionRepository sessionRepository;
+    private CardDeckService cardDeckService;
     @Autowired
-    private UserRepository userRepository;
+    private AsyncSessionRepository asyncSessionRepository;
     @Autowired
-    private WebSocketSender webSocketSender;
+    private AsyncStoryRepository asyncStoryRepository;
+    @Autowired
+    private AsyncUserRepository asyncUserRepository;
+    @Autowired
+    private AsyncVoteRepository asyncVoteRepository;
+    @Autowired
+    private RoundService roundService;
 
     /**
      * @param storyId storyId
@@ -45,23 +65,36 @@ public class VoteService {
      * @should return list of votes related to the given story
      */
     public List<VoteDto> listVotes(String storyId) {
-        if (StringUtils.isEmpty(storyId)) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
-        }
+        return MongoIoExecutor.join(() -> listVotesAsync(storyId));
+    }
 
-        if (!storyRepository.exists(storyId)) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "no story found with given Id " + storyId);
+    /**
+     * The existence check and the votes query run concurrently.
+     *
+     * @param storyId storyId
+     * @return future list of votes
+     * @should fail if story does not exist with given id
+     */
+    public CompletableFuture<List<VoteDto>> listVotesAsync(String storyId) {
+        if (StringUtils.isEmpty(storyId)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
         }
 
-        final List<VoteDto> votes = new ArrayList<>();
-        voteRepository.findByStoryId(storyId) //
-                .forEach(voteEntity -> //
-                        votes.add(new VoteDto(voteEntity.getVoteId(), //
-                                voteEntity.getSessionId(), //
-                                voteEntity.getStoryId(), //
-                                voteEntity.getUsername(), //
-                                voteEntity.getValue())));
-        return votes;
+        final CompletableFuture<Boolean> storyExists = asyncStoryRepository.exists(storyId);
+        final CompletableFuture<List<VoteEntity>> voteEntities = asyncVoteRepository.findByStoryId(storyId);
+        return storyExists.thenCombine(voteEntities, (exists, entities) -> {
+            if (!exists) {
+                throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "no story found with given Id " + storyId);
+            }
+            final List<VoteDto> votes = new ArrayList<>();
+            entities.forEach(voteEntity -> //
+                    votes.add(new VoteDto(voteEntity.getVoteId(), //
+                            voteEntity.getSessionId(), //
+                            voteEntity.getStoryId(), //
+                            voteEntity.getUsername(), //
+                            voteEntity.getValue())));
+            return votes;
+        });
     }
 
     /**
@@ -74,17 +107,20 @@ public class VoteService {
      */
     public DefaultResponse delete(String voteId) {
         if (StringUtils.isEmpty(voteId)) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "voteId should not be null or empty");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "voteId should not be null or empty");
         }
 
         final VoteEntity voteEntity = voteRepository.findOne(voteId);
 
         if (Objects.isNull(voteEntity)) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "no vote found with given Id " + voteId);
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "no vote found with given Id " + voteId);
         }
 
         voteRepository.delete(voteId);
-        webSocketSender.sendNotification(voteEntity.getSessionId(), WsTypes.VOTE_REMOVED, voteId);
+        resourceVersionService.bumpStory(voteEntity.getStoryId());
+        // the removed vote id alone does not tell the other nodes which story etag to invalidate
+        webSocketSender.sendNotification(voteEntity.getSessionId(), WsTypes.VOTE_REMOVED, voteId,
+                Collections.singletonList(voteEntity.getStoryId()));
         return DefaultResponse.ok();
     }
 
@@ -98,50 +134,145 @@ public class VoteService {
      * @should throw an exception if story does not exist with given Id
      * @should throw an exception if user does not exist with given username
      * @should throw an exception if session does not exist with given sessionId
+     * @should throw an exception if value is not part of the session deck
      * @should Update existing vote if the user has already voted on the given story
      * @should create a vote for the given user on the selected story
      * @should send a websocket notification
+     * @should queue the notification if the story is part of the open round
      */
     public VoteDto saveVote(VoteDto voteDto) {
+        return MongoIoExecutor.join(() -> saveVoteAsync(voteDto));
+    }
+
+    /**
+     * Arguments are validated synchronously. The session deck, the story and user checks and the lookup of the
+     * previous vote are then sent concurrently, instead of four sequential round trips. The deck is cached, so the
+     * session is only read by the first vote of each session.
+     *
+     * @param voteDto voteDto
+     * @return future voteDto with new id
+     * @should fail if session does not exist with given sessionId
+     * @should save the vote once all the checks succeeded
+     */
+    public CompletableFuture<VoteDto> saveVoteAsync(VoteDto voteDto) {
         if (StringUtils.isEmpty(voteDto.getSessionId())) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "sessionId should not be null or empty");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "sessionId should not be null or empty");
         }
 
         if (StringUtils.isEmpty(voteDto.getStoryId())) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
         }
 
         if (StringUtils.isEmpty(voteDto.getUsername())) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "username should not be null or empty");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "username should not be null or empty");
         }
 
         if (StringUtils.isEmpty(voteDto.getValue())) {
-            throw new CustomException(CustomErrorCode.BAD_ARGS, "value should not be null or empty");
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "value should not be null or empty");
         }
 
-        if (!sessionRepository.exists(voteDto.getSessionId())) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + voteDto.getSessionId());
-        }
+        final CompletableFuture<Boolean> sessionExists = asyncSessionRepository.exists(voteDto.getSessionId());
+        final CompletableFuture<CardDeck> deck = cardDeckService.getDeckAsync(voteDto.getSessionId());
+        final CompletableFuture<Boolean> storyExists = asyncStoryRepository.exists(voteDto.getStoryId());
+        final CompletableFuture<Boolean> userExists = asyncUserRepository.exists(UserEntity.key(voteDto.getSessionId(), voteDto.getUsername()));
+        final CompletableFuture<VoteEntity> previousVote = asyncVoteRepository.getVoteByUserOnStory(voteDto.getUsername(), voteDto.getStoryId());
 
-        if (!storyRepository.exists(voteDto.getStoryId())) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "story not found with id = " + voteDto.getStoryId());
-        }
+        return CompletableFuture.allOf(sessionExists, deck, storyExists, userExists, previousVote).thenCompose(ignored -> {
+            // the deck may come from the cache, only the session lookup proves the session still exists
+            if (!sessionExists.join() || deck.join() == null) {
+                throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "session not found with id = " + voteDto.getSessionId());
+            }
+
+            if (!deck.join().accepts(voteDto.getValue())) {
+                throw new BusinessException(CustomErrorCode.BAD_ARGS, "value " + voteDto.getValue() + " is not part of the session deck");
+            }
+
+            if (!storyExists.join()) {
+                throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "story not found with id = " + voteDto.getStoryId());
+            }
+
+            if (!userExists.join()) {
+                throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "user not found with username = " + voteDto.getUsername());
+            }
 
-        if (!userRepository.exists(new EntityId(voteDto.getUsername(), voteDto.getSessionId()))) {
-            throw new CustomException(CustomErrorCode.OBJECT_NOT_FOUND, "user not found with username = " + voteDto.getUsername());
+            VoteEntity voteEntity = previousVote.join();
+            if (Objects.isNull(voteEntity)) {
+                voteEntity = new VoteEntity(voteDto);
+            } else {
+                voteEntity.setValue(voteDto.getValue());
+            }
+            return asyncVoteRepository.save(voteEntity);
+        }).thenApply(voteEntity -> {
+            voteDto.setVoteId(voteEntity.getVoteId());
+            resourceVersionService.bumpStory(voteDto.getStoryId());
+
+            // votes of a parallel round are sent in batches
+            if (!roundService.queueVote(voteDto)) {
+                webSocketSender.sendNotification(voteDto.getSessionId(), WsTypes.VOTE_ADDED, voteDto);
+            }
+            return voteDto;
+        });
+    }
+
+    /**
+     * Votes are counted per card ordinal and averaged with the card weights of the session deck. Cards without
+     * weight (pass, ?...) are counted but do not take part in the average, min and max.
+     *
+     * @param storyId storyId
+     * @return votes statistics
+     * @should throw an exception if storyId is null or empty
+     * @should throw an exception if story does not exist with given id
+     * @should count votes per card in deck order
+     * @should compute average min and max from card weights
+     */
+    public VoteStatsDto getVoteStats(String storyId) {
+        if (StringUtils.isEmpty(storyId)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
         }
 
-        VoteEntity voteEntity = voteRepository.getVoteByUserOnStory(voteDto.getUsername(), voteDto.getStoryId());
-        if (Objects.isNull(voteEntity)) {
-            voteEntity = new VoteEntity(voteDto);
-        } else {
-            voteEntity.setValue(voteDto.getValue());
+        final StoryEntity storyEntity = storyRepository.findOne(storyId);
+        if (Objects.isNull(storyEntity)) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "no story found with given Id " + storyId);
         }
 
-        voteRepository.save(voteEntity);
-        voteDto.setVoteId(voteEntity.getVoteId());
+        final CardDeck sessionDeck = cardDeckService.getDeck(storyEntity.getSessionId());
+        final CardDeck deck = sessionDeck != null ? sessionDeck : CardDeck.ANY;
+        final int[] counts = new int[deck.size()];
+        // values outside of the deck: sessions without card set or votes saved before validation
+        final Map<String, Integer> others = new LinkedHashMap<>();
+        final List<VoteEntity> voteEntities = voteRepository.findByStoryId(storyId);
+        int weighted = 0;
+        double sum = 0;
+        int min = -1;
+        int max = -1;
+        for (VoteEntity voteEntity : voteEntities) {
+            final int ordinal = deck.ordinal(voteEntity.getValue());
+            if (ordinal < 0) {
+                others.merge(voteEntity.getValue(), 1, Integer::sum);
+                continue;
+            }
+            counts[ordinal]++;
+            final double weight = deck.weight(ordinal);
+            if (!Double.isNaN(weight)) {
+                weighted++;
+                sum += weight;
+                min = min < 0 || weight < deck.weight(min) ? ordinal : min;
+                max = max < 0 || weight > deck.weight(max) ? ordinal : max;
+            }
+        }
 
-        webSocketSender.sendNotification(voteDto.getSessionId(), WsTypes.VOTE_ADDED, voteDto);
-        return voteDto;
+        final VoteStatsDto voteStatsDto = new VoteStatsDto(storyId, voteEntities.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                voteStatsDto.getCounts().put(deck.label(i), counts[i]);
+            }
+        }
+        voteStatsDto.getCounts().putAll(others);
+        if (weighted > 0) {
+            voteStatsDto.setAverage(sum / weighted);
+            voteStatsDto.setMin(deck.label(min));
+            voteStatsDto.setMax(deck.label(max));
+        }
+        return voteStatsDto;
     }
 }
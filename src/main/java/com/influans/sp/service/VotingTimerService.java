@@ -0,0 +1,286 @@
+package com.influans.sp.service;
+
+import com.influans.sp.dto.StoryDto;
+import com.influans.sp.dto.TimerTickDto;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.entity.def.StoryEntityDef;
+import com.influans.sp.enums.WsTypes;
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.CustomException;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.utils.HashedTimingWheel;
+import com.influans.sp.utils.StringUtils;
+import com.influans.sp.websocket.WebSocketSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Time-boxed voting: a story whose countdown expires is ended through {@link StoryService#endStory(String)}.
+ * <p/>
+ * Countdowns are kept in a single {@link HashedTimingWheel} advanced by one scheduled task, instead of one scheduled
+ * task per story. Deadlines are stored in the story documents and reloaded at startup, each node reloading the
+ * sessions it owns (see {@link SessionRoutingService}). When the node list changes, the timers of the sessions moved
+ * to another node are dropped and the deadlines of the sessions moved to this node are loaded. Clients receive one {@link WsTypes#TIMER_TICK} frame per
+ * session and per broadcast interval, holding the countdowns of all the running timers of the session.
+ *
+ * @author hazem
+ */
+@Service
+public class VotingTimerService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VotingTimerService.class);
+
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private StoryService storyService;
+    @Autowired
+    private SessionRoutingService sessionRoutingService;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    @Autowired
+    private WebSocketSender webSocketSender;
+
+    @Value("${voting.timer.tick:100}")
+    private long tickMillis;
+
+    @Value("${voting.timer.wheelSize:512}")
+    private int wheelSize;
+
+    @Value("${voting.timer.maxDuration:3600}")
+    private long maxDuration;
+
+    private HashedTimingWheel<Timer> wheel;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        if (subscribed.compareAndSet(false, true)) {
+            sessionRoutingService.subscribe(nodes -> rehome());
+        }
+        timers.clear();
+        wheel = new HashedTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+        final int reloaded = reload();
+        if (reloaded > 0) {
+            LOGGER.info("{} voting timers reloaded", reloaded);
+        }
+    }
+
+    /**
+     * @param storyId  story id
+     * @param duration countdown in seconds
+     * @return story with its deadline
+     * @should throw an exception if storyId is null or empty
+     * @should throw an exception if duration is not valid
+     * @should throw an exception if story does not exist
+     * @should throw an exception if story is ended
+     * @should save the deadline and send a websocket notification
+     * @should end the story once the deadline is reached
+     * @should replace the running timer of the story
+     */
+    public StoryDto startTimer(String storyId, long duration) {
+        if (StringUtils.isEmpty(storyId)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
+        }
+        if (duration <= 0 || duration > maxDuration) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "duration should be between 1 and " + maxDuration + " seconds");
+        }
+
+        final StoryEntity storyEntity = storyRepository.findOne(storyId);
+        if (Objects.isNull(storyEntity)) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "story not found with id = " + storyId);
+        }
+        if (storyEntity.isEnded()) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "story " + storyId + " is already ended");
+        }
+
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(duration);
+        storyRepository.update(storyId, StoryEntityDef.DEADLINE, deadline);
+        schedule(storyId, storyEntity.getSessionId(), deadline);
+        storyEntity.setDeadline(deadline);
+
+        final StoryDto storyDto = new StoryDto(storyEntity);
+        storyDto.setSessionId(storyEntity.getSessionId());
+        resourceVersionService.bumpSession(storyEntity.getSessionId());
+        webSocketSender.sendNotification(storyEntity.getSessionId(), WsTypes.TIMER_STARTED, storyDto);
+        return storyDto;
+    }
+
+    /**
+     * @param storyId story id
+     * @return story without deadline
+     * @should throw an exception if story does not exist
+     * @should cancel the timer and clear the deadline
+     */
+    public StoryDto stopTimer(String storyId) {
+        if (StringUtils.isEmpty(storyId)) {
+            throw new BusinessException(CustomErrorCode.BAD_ARGS, "storyId should not be null or empty");
+        }
+
+        final StoryEntity storyEntity = storyRepository.findOne(storyId);
+        if (Objects.isNull(storyEntity)) {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "story not found with id = " + storyId);
+        }
+
+        cancel(storyId);
+        storyRepository.update(storyId, StoryEntityDef.DEADLINE, null);
+        storyEntity.setDeadline(null);
+
+        final StoryDto storyDto = new StoryDto(storyEntity);
+        storyDto.setSessionId(storyEntity.getSessionId());
+        resourceVersionService.bumpSession(storyEntity.getSessionId());
+        webSocketSender.sendNotification(storyEntity.getSessionId(), WsTypes.TIMER_STOPPED, storyId);
+        return storyDto;
+    }
+
+    /**
+     * Removes the timer of a story from the wheel, the stored deadline is left untouched.
+     *
+     * @param storyId story id
+     * @return true if a timer was running
+     */
+    public boolean cancel(String storyId) {
+        final Timer timer = timers.remove(storyId);
+        return timer != null && timer.cancel();
+    }
+
+    /**
+     * @param storyId story id
+     * @return true if the countdown of the story is running on this node
+     */
+    public boolean isRunning(String storyId) {
+        return timers.containsKey(storyId);
+    }
+
+    /**
+     * Schedules the deadlines stored in the stories of the sessions owned by this node.
+     *
+     * @return number of scheduled timers
+     * @should schedule the stored deadlines
+     */
+    public int reload() {
+        final List<StoryEntity> storyEntities = storyRepository.findWithDeadline();
+        int reloaded = 0;
+        for (StoryEntity storyEntity : storyEntities) {
+            final Timer running = timers.get(storyEntity.getStoryId());
+            if (sessionRoutingService.isLocal(storyEntity.getSessionId())
+                    && (running == null || running.deadline != storyEntity.getDeadline())) {
+                schedule(storyEntity.getStoryId(), storyEntity.getSessionId(), storyEntity.getDeadline());
+                reloaded++;
+            }
+        }
+        return reloaded;
+    }
+
+    /**
+     * Moves the timers after a membership change: the timers of the sessions owned by another node are dropped, their
+     * deadlines stay stored for the new owner, and the deadlines of the sessions now owned by this node are loaded.
+     *
+     * @return number of loaded timers
+     * @should drop the timers of the sessions owned by another node
+     * @should load the deadlines of the sessions owned by this node
+     */
+    public int rehome() {
+        timers.values().forEach(timer -> {
+            if (!sessionRoutingService.isLocal(timer.sessionId) && timers.remove(timer.storyId, timer)) {
+                timer.cancel();
+            }
+        });
+        final int reloaded = reload();
+        if (reloaded > 0) {
+            LOGGER.info("{} voting timers moved to this node", reloaded);
+        }
+        return reloaded;
+    }
+
+    @Scheduled(fixedRateString = "${voting.timer.interval:100}")
+    public void scheduledAdvance() {
+        advance(System.currentTimeMillis());
+    }
+
+    /**
+     * @param now current time in milliseconds
+     * @return number of ended stories
+     */
+    public int advance(long now) {
+        int ended = 0;
+        for (Timer timer : wheel.advance(now)) {
+            if (timers.remove(timer.storyId, timer)) {
+                try {
+                    storyService.endStory(timer.storyId);
+                    ended++;
+                } catch (CustomException e) {
+                    LOGGER.debug("Timer of story {} expired: {}", timer.storyId, e.getMessage());
+                } catch (Exception e) {
+                    LOGGER.error("Error while ending story " + timer.storyId, e);
+                }
+            }
+        }
+        return ended;
+    }
+
+    @Scheduled(fixedRateString = "${voting.timer.broadcastInterval:1000}")
+    public void scheduledBroadcast() {
+        broadcastTicks(System.currentTimeMillis());
+    }
+
+    /**
+     * @param now current time in milliseconds
+     * @return number of sent frames
+     * @should send a single frame per session
+     */
+    public int broadcastTicks(long now) {
+        final Map<String, Map<String, Long>> countdowns = new HashMap<>();
+        timers.values().forEach(timer -> countdowns.computeIfAbsent(timer.sessionId, sessionId -> new TreeMap<>())
+                .put(timer.storyId, Math.max(0, TimeUnit.MILLISECONDS.toSeconds(timer.deadline - now + 999))));
+        countdowns.forEach((sessionId, remaining) ->
+                webSocketSender.sendNotification(sessionId, WsTypes.TIMER_TICK, new TimerTickDto(sessionId, now, remaining)));
+        return countdowns.size();
+    }
+
+    /**
+     * The timer is registered before being scheduled: a deadline already reached may expire as soon as it is in the
+     * wheel, and expired timers are only handled while they are registered.
+     */
+    private void schedule(String storyId, String sessionId, long deadline) {
+        final Timer timer = new Timer(storyId, sessionId, deadline);
+        final Timer previous = timers.put(storyId, timer);
+        if (previous != null) {
+            previous.cancel();
+        }
+        timer.timeout = wheel.schedule(timer, deadline);
+    }
+
+    private static final class Timer {
+        private final String storyId;
+        private final String sessionId;
+        private final long deadline;
+        private volatile HashedTimingWheel.Timeout<Timer> timeout;
+
+        private Timer(String storyId, String sessionId, long deadline) {
+            this.storyId = storyId;
+            this.sessionId = sessionId;
+            this.deadline = deadline;
+        }
+
+        private boolean cancel() {
+            final HashedTimingWheel.Timeout<Timer> scheduled = timeout;
+            return scheduled != null && scheduled.cancel();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.influans.sp.utils;
+
+/**
+ * Fixed width base62 encoding of non-negative longs. Digits are sorted in ASCII order (0-9, A-Z, a-z), so encoded
+ * values of the same width sort like the numbers they encode.
+ */
+public class Base62 {
+    public static final int BASE = 62;
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    /**
+     * Width needed to encode any non-negative long.
+     */
+    public static final int LONG_WIDTH = 11;
+
+    private Base62() {
+    }
+
+    /**
+     * @param value non-negative value
+     * @param width number of digits, left padded with 0
+     * @return encoded value
+     * @should encode zero as zeros
+     * @should keep the numeric order
+     * @should throw an exception if value does not fit in width
+     */
+    public static String encode(long value, int width) {
+        if (value < 0) {
+            throw new IllegalArgumentException("negative value " + value);
+        }
+        final char[] chars = new char[width];
+        long remaining = value;
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = DIGITS[(int) (remaining % DIGITS.length)];
+            remaining /= DIGITS.length;
+        }
+        if (remaining != 0) {
+            throw new IllegalArgumentException(value + " does not fit in " + width + " base62 digits");
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @param encoded encoded value
+     * @return decoded value
+     * @should decode encoded values
+     */
+    public static long decode(String encoded) {
+        long value = 0;
+        for (int i = 0; i < encoded.length(); i++) {
+            value = value * DIGITS.length + digit(encoded.charAt(i));
+        }
+        return value;
+    }
+
+    /**
+     * @param value digit value, between 0 and 61
+     * @return digit character
+     */
+    static char toChar(int value) {
+        return DIGITS[value];
+    }
+
+    /**
+     * @param c digit character
+     * @return digit value
+     */
+    static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 10;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 36;
+        }
+        throw new IllegalArgumentException("invalid base62 digit " + c);
+    }
+}
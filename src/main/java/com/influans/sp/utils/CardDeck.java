@@ -0,0 +1,94 @@
+package com.influans.sp.utils;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable lookup table of a deck: card label to ordinal (position in the deck) and numeric weight. Cards without a
+ * numeric meaning (pass, ?, break...) have a NaN weight. Votes are validated and aggregated through the table, so
+ * card labels are never parsed.
+ */
+public final class CardDeck {
+    /**
+     * Deck of the sessions created without card set, any value is accepted.
+     */
+    public static final CardDeck ANY = new CardDeck(Collections.emptyList(), new double[0], false);
+
+    private final List<String> labels;
+    private final Map<String, Integer> ordinals;
+    private final double[] weights;
+    private final boolean restricted;
+
+    private CardDeck(List<String> labels, double[] weights, boolean restricted) {
+        this.labels = ImmutableList.copyOf(labels);
+        final ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builder();
+        for (int i = 0; i < labels.size(); i++) {
+            builder.put(labels.get(i), i);
+        }
+        this.ordinals = builder.build();
+        this.weights = weights;
+        this.restricted = restricted;
+    }
+
+    /**
+     * @param labels  card labels in deck order, should be unique
+     * @param weights numeric weight of each card, NaN or missing (shorter array) for non-numeric cards
+     * @return deck table
+     * @should index labels in deck order
+     * @should use NaN for missing weights
+     * @should throw an exception for duplicated labels
+     */
+    public static CardDeck of(List<String> labels, double[] weights) {
+        final double[] padded = Arrays.copyOf(weights, labels.size());
+        Arrays.fill(padded, Math.min(weights.length, labels.size()), labels.size(), Double.NaN);
+        return new CardDeck(labels, padded, true);
+    }
+
+    /**
+     * @param label card label
+     * @return position of the card in the deck, -1 if the card is not part of the deck
+     */
+    public int ordinal(String label) {
+        final Integer ordinal = label != null ? ordinals.get(label) : null;
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * @param ordinal card position
+     * @return numeric weight of the card, NaN if the card has no numeric value
+     */
+    public double weight(int ordinal) {
+        return weights[ordinal];
+    }
+
+    /**
+     * @param ordinal card position
+     * @return card label
+     */
+    public String label(int ordinal) {
+        return labels.get(ordinal);
+    }
+
+    /**
+     * @param label card label
+     * @return true if a vote can be cast with the given label
+     * @should accept any value if the deck is not restricted
+     * @should reject values that are not part of the deck
+     */
+    public boolean accepts(String label) {
+        return !restricted || ordinals.containsKey(label);
+    }
+
+    public List<String> getLabels() {
+        return labels;
+    }
+
+    public int size() {
+        return labels.size();
+    }
+}
@@ -0,0 +1,56 @@
+package com.influans.sp.utils;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring: each node is placed on the ring several times (virtual nodes) and a key belongs to the first
+ * node found clockwise from the key hash. Adding or removing a node only moves the keys of the neighbour segments.
+ *
+ * @param <T> node type
+ */
+public class ConsistentHashRing<T> {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final SortedMap<Long, T> ring = new TreeMap<>();
+
+    /**
+     * @param nodes        ring nodes, their toString value is used to place them on the ring
+     * @param virtualNodes number of positions of each node on the ring
+     */
+    public ConsistentHashRing(Collection<T> nodes, int virtualNodes) {
+        for (T node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node.toString() + "#" + i), node);
+            }
+        }
+    }
+
+    /**
+     * @param key key to locate
+     * @return node owning the given key, null if the ring is empty
+     * @should return null if the ring is empty
+     * @should always return the same node for a given key
+     * @should only move keys owned by a removed node
+     */
+    public T get(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        final SortedMap<Long, T> tail = ring.tailMap(hash(key));
+        return tail.isEmpty() ? ring.get(ring.firstKey()) : tail.get(tail.firstKey());
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    private static long hash(String value) {
+        return HASH_FUNCTION.hashString(value, StandardCharsets.UTF_8).asLong();
+    }
+}
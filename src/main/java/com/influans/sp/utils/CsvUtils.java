@@ -0,0 +1,97 @@
+package com.influans.sp.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Minimal RFC 4180 support for the export and import of sessions.
+ */
+public class CsvUtils {
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private CsvUtils() {
+    }
+
+    /**
+     * @param values line values, null values are written as empty fields
+     * @return csv line without line separator
+     * @should join values with commas
+     * @should quote values containing separators quotes or line breaks
+     */
+    public static String toLine(Object... values) {
+        final StringJoiner joiner = new StringJoiner(String.valueOf(SEPARATOR));
+        for (Object value : values) {
+            joiner.add(escape(value == null ? "" : value.toString()));
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Reads the next record, quoted fields may contain separators, escaped quotes and line breaks.
+     *
+     * @param reader    source, only the chars of the returned record are consumed
+     * @param maxLength maximum number of chars of a record
+     * @return record fields, null at the end of the stream
+     * @throws IOException if the record is longer than maxLength
+     * @should split fields on commas
+     * @should read quoted fields spanning several lines
+     * @should return null at the end of the stream
+     */
+    public static List<String> readRecord(BufferedReader reader, int maxLength) throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (c >= 0) {
+            if (++length > maxLength) {
+                throw new IOException("csv record longer than " + maxLength + " chars");
+            }
+            if (quoted) {
+                if (c == QUOTE) {
+                    reader.mark(1);
+                    if (reader.read() == QUOTE) {
+                        field.append(QUOTE);
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == QUOTE) {
+                quoted = true;
+            } else if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(SEPARATOR) < 0 && value.indexOf(QUOTE) < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return QUOTE + value.replace(String.valueOf(QUOTE), "\"\"") + QUOTE;
+    }
+}
@@ -0,0 +1,31 @@
+package com.influans.sp.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public final class FutureUtils {
+
+    private FutureUtils() {
+    }
+
+    /**
+     * Blocking callers of async services expect the exceptions thrown by the services, not the wrapper added by
+     * {@link CompletableFuture#join()}.
+     *
+     * @param future future to wait for
+     * @param <T>    result type
+     * @return future result
+     * @should return the future result
+     * @should rethrow the runtime exception that failed the future
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.influans.sp.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel (Varghese and Lauck): a ring of buckets, each bucket covering one tick. A timeout is linked in
+ * the bucket of its deadline tick with the number of full wheel turns left before it expires, so scheduling and
+ * cancelling are O(1) whatever the number of pending timeouts, and advancing the wheel only visits the buckets of the
+ * elapsed ticks.
+ * <p/>
+ * The wheel has no thread of its own, {@link #advance(long)} is called by the owner at least once per tick. Deadlines
+ * are rounded up to the next tick.
+ *
+ * @param <T> timeout payload
+ */
+public class HashedTimingWheel<T> {
+    private final long tickMillis;
+    private final int mask;
+    private final Bucket<T>[] buckets;
+    // last processed tick, ticks are counted from the epoch
+    private long tick;
+    private int size;
+
+    /**
+     * @param tickMillis duration of a tick in milliseconds
+     * @param wheelSize  number of buckets, rounded up to a power of two
+     * @param now        current time in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, long now) {
+        if (tickMillis <= 0 || wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("invalid timing wheel: tick=" + tickMillis + ", size=" + wheelSize);
+        }
+        final int length = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = Math.max(length, 1) - 1;
+        this.buckets = new Bucket[mask + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket<>();
+        }
+        this.tick = now / tickMillis;
+    }
+
+    /**
+     * @param value    payload returned by {@link #advance(long)} once the deadline is reached
+     * @param deadline expiration time in milliseconds, a past deadline expires on the next tick
+     * @return handle to cancel the timeout
+     * @should expire the timeout once its deadline is reached
+     * @should expire timeouts scheduled several turns ahead
+     * @should expire past deadlines on the next tick
+     */
+    public synchronized Timeout<T> schedule(T value, long deadline) {
+        final long deadlineTick = Math.max(ceilDiv(deadline, tickMillis), tick + 1);
+        final Timeout<T> timeout = new Timeout<>(this, value, deadline, (deadlineTick - tick - 1) / buckets.length);
+        buckets[(int) (deadlineTick & mask)].add(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Processes every tick elapsed since the previous call.
+     *
+     * @param now current time in milliseconds
+     * @return payloads of the expired timeouts, tick by tick
+     * @should not expire timeouts before their deadline
+     */
+    public synchronized List<T> advance(long now) {
+        final long target = now / tickMillis;
+        final List<T> expired = new ArrayList<>();
+        if (size == 0) {
+            tick = Math.max(tick, target);
+            return expired;
+        }
+        while (tick < target && size > 0) {
+            tick++;
+            final Bucket<T> bucket = buckets[(int) (tick & mask)];
+            Timeout<T> timeout = bucket.head;
+            while (timeout != null) {
+                final Timeout<T> next = timeout.next;
+                if (timeout.rounds == 0) {
+                    bucket.remove(timeout);
+                    size--;
+                    expired.add(timeout.value);
+                } else {
+                    timeout.rounds--;
+                }
+                timeout = next;
+            }
+        }
+        tick = Math.max(tick, target);
+        return expired;
+    }
+
+    /**
+     * @return number of pending timeouts
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        size--;
+        return true;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    public static final class Timeout<T> {
+        private final HashedTimingWheel<T> wheel;
+        private final T value;
+        private final long deadline;
+        private long rounds;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(HashedTimingWheel<T> wheel, T value, long deadline, long rounds) {
+            this.wheel = wheel;
+            this.value = value;
+            this.deadline = deadline;
+            this.rounds = rounds;
+        }
+
+        /**
+         * @return true if the timeout was pending, false if it already expired or was cancelled
+         * @should remove the timeout from the wheel
+         */
+        public boolean cancel() {
+            return wheel.cancel(this);
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+
+    /**
+     * Doubly linked list, so that a timeout is unlinked in constant time when it is cancelled.
+     */
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+
+        private void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        private void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
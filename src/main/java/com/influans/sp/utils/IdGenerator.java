@@ -0,0 +1,11 @@
+package com.influans.sp.utils;
+
+/**
+ * Generates the ids of the sessions and stories, see IdGeneratorConfig for the available implementations.
+ */
+public interface IdGenerator {
+    /**
+     * @return a new unique id, never containing ':' (used as separator in user keys)
+     */
+    String nextId();
+}
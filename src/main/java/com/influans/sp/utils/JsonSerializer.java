@@ -1,17 +1,81 @@
 package com.influans.sp.utils;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-
+/**
+ * Holds the single ObjectMapper of the application: it is exposed as a bean to Spring MVC and to the STOMP message
+ * converter (see JacksonConfig), so every JSON payload is (de)serialized with the same configuration. Readers and
+ * writers are immutable and cached per type, which saves the root type lookups done by readValue/writeValueAsString.
+ */
 public class JsonSerializer {
     private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(JsonSerializer.class);
-    private final static ObjectMapper objectMapper = new ObjectMapper();
+    private final static ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final static Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final static Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * @return the shared object mapper
+     */
+    public static ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * @param clazz object class
+     * @return cached reader for the given type
+     */
+    public static ObjectReader reader(Class<?> clazz) {
+        return readers.computeIfAbsent(clazz, objectMapper::reader);
+    }
+
+    /**
+     * @param clazz object class
+     * @return cached writer for the given type
+     */
+    public static ObjectWriter writer(Class<?> clazz) {
+        return writers.computeIfAbsent(clazz, objectMapper::writerFor);
+    }
+
+    /**
+     * Registers a module on the shared mapper, readers and writers built before are dropped so that every payload is
+     * handled by the module. Registering the same module again has no effect.
+     *
+     * @param module jackson module
+     */
+    public static synchronized void registerModule(Module module) {
+        objectMapper.registerModule(module);
+        readers.clear();
+        writers.clear();
+    }
+
+    /**
+     * Builds the readers and writers of the given types, to be called once the object mapper is fully configured.
+     *
+     * @param classes types to prepare
+     */
+    public static void warmUp(Class<?>... classes) {
+        readers.clear();
+        writers.clear();
+        for (Class<?> clazz : classes) {
+            reader(clazz);
+            writer(clazz);
+        }
+    }
 
     /**
      * @param object object to serialize to json
@@ -20,7 +84,7 @@ public class JsonSerializer {
      */
     public static String serialize(Object object) {
         try {
-            return objectMapper.writeValueAsString(object);
+            return writer(object.getClass()).writeValueAsString(object);
         } catch (Exception ex) {
             LOGGER.error("Error when converting name=" + object.getClass().getName(), ex);
         }
@@ -36,7 +100,7 @@ public class JsonSerializer {
      */
     public static <T> T toObject(String jsonText, Class<T> clazz) {
         try {
-            return objectMapper.readValue(jsonText, clazz);
+            return reader(clazz).readValue(jsonText);
         } catch (IOException ex) {
             LOGGER.error("Exception on converting to class=" + clazz.getName(), ex);
             return null;
@@ -51,13 +115,42 @@ public class JsonSerializer {
      * @should create List of objects for json text
      */
     public static <T> List<T> toListObject(String jsonText, Class<T> clazz) {
-        try {
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonText)) {
+            return readList(parser, clazz);
+        } catch (IOException ex) {
+            LOGGER.error("Exception on converting to class=" + clazz.getName(), ex);
+            return new ArrayList<>();
+        }
+    }
 
-            return objectMapper.readValue(jsonText, TypeFactory.defaultInstance().constructCollectionType(List.class, clazz));
+    /**
+     * @param inputStream json list to deserialize
+     * @param clazz       created objects class
+     * @param <T>         object type
+     * @return List of T objects
+     * @should create List of objects for json stream
+     */
+    public static <T> List<T> toListObject(InputStream inputStream, Class<T> clazz) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            return readList(parser, clazz);
         } catch (IOException ex) {
             LOGGER.error("Exception on converting to class=" + clazz.getName(), ex);
             return new ArrayList<>();
         }
     }
 
+    /**
+     * Elements are bound one by one while the array is parsed, instead of building the whole tree of the array first.
+     */
+    private static <T> List<T> readList(JsonParser parser, Class<T> clazz) throws IOException {
+        final List<T> list = new ArrayList<>();
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IOException("json array expected");
+        }
+        final ObjectReader reader = reader(clazz);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            list.add(reader.readValue(parser));
+        }
+        return list;
+    }
 }
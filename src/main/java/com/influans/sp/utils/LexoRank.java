@@ -0,0 +1,178 @@
+package com.influans.sp.utils;
+
+import com.google.common.base.Strings;
+
+/**
+ * Rank keys: strings whose lexicographic order is the list order, so that an element can be moved or inserted between
+ * two others by giving it a key between theirs, without touching any other element.
+ * <p/>
+ * A key is an integer part followed by an optional fraction, both in base62. The first character of the integer
+ * part gives its length: 'a' to 'z' for 2 to 27 characters, 'A' to 'Z' for 27 to 2 characters below zero. Appending
+ * increments the integer part (a0, a1, ..., az, b00, ...), so keys grow logarithmically with the number of appends.
+ * Inserting between two consecutive integers uses the fraction, which grows by about one character every six
+ * inserts at the same place. Fractions never end with 0, which always leaves room below a key.
+ */
+public final class LexoRank {
+    /**
+     * Key of the first element of an empty list.
+     */
+    public static final String ZERO = "a0";
+    private static final String SMALLEST_INTEGER = "A" + Strings.repeat("0", 26);
+
+    private LexoRank() {
+    }
+
+    /**
+     * @param before key of the previous element, null for the beginning of the list
+     * @param after  key of the next element, null for the end of the list
+     * @return key sorted strictly between before and after
+     * @should return zero for an empty list
+     * @should increment the integer part when appending
+     * @should generate keys before the first key
+     * @should generate keys between two keys
+     * @should keep appended keys short
+     * @should throw an exception if before is not lower than after
+     */
+    public static String between(String before, String after) {
+        if (before != null) {
+            validate(before);
+        }
+        if (after != null) {
+            validate(after);
+        }
+        if (before != null && after != null && before.compareTo(after) >= 0) {
+            throw new IllegalArgumentException(before + " should be lower than " + after);
+        }
+        if (before == null) {
+            if (after == null) {
+                return ZERO;
+            }
+            final String integer = integerPart(after);
+            if (integer.equals(SMALLEST_INTEGER)) {
+                return integer + midpoint("", after.substring(integer.length()));
+            }
+            if (integer.compareTo(after) < 0) {
+                return integer;
+            }
+            final String decremented = decrement(integer);
+            if (decremented == null) {
+                throw new IllegalArgumentException("no key before " + after);
+            }
+            return decremented;
+        }
+        final String integerBefore = integerPart(before);
+        final String fractionBefore = before.substring(integerBefore.length());
+        if (after == null) {
+            final String incremented = increment(integerBefore);
+            return incremented != null ? incremented : integerBefore + midpoint(fractionBefore, null);
+        }
+        final String integerAfter = integerPart(after);
+        if (integerBefore.equals(integerAfter)) {
+            return integerBefore + midpoint(fractionBefore, after.substring(integerAfter.length()));
+        }
+        final String incremented = increment(integerBefore);
+        if (incremented == null) {
+            throw new IllegalArgumentException("no key after " + before);
+        }
+        return incremented.compareTo(after) < 0 ? incremented : integerBefore + midpoint(fractionBefore, null);
+    }
+
+    /**
+     * @param a lower fraction, may be empty
+     * @param b upper fraction, null for no upper bound
+     * @return fraction strictly between a and b, not ending with 0
+     */
+    private static String midpoint(String a, String b) {
+        if (b != null) {
+            // common prefix, a being padded with zeros
+            int n = 0;
+            while (n < b.length() && (n < a.length() ? a.charAt(n) : '0') == b.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return b.substring(0, n) + midpoint(n < a.length() ? a.substring(n) : "", b.substring(n));
+            }
+        }
+        final int digitA = a.isEmpty() ? 0 : Base62.digit(a.charAt(0));
+        final int digitB = b != null ? Base62.digit(b.charAt(0)) : Base62.BASE;
+        if (digitB - digitA > 1) {
+            return String.valueOf(Base62.toChar((digitA + digitB + 1) / 2));
+        }
+        if (b != null && b.length() > 1) {
+            return b.substring(0, 1);
+        }
+        return Base62.toChar(digitA) + midpoint(a.isEmpty() ? "" : a.substring(1), null);
+    }
+
+    private static String increment(String integer) {
+        final char head = integer.charAt(0);
+        final char[] digits = integer.substring(1).toCharArray();
+        for (int i = digits.length - 1; i >= 0; i--) {
+            final int digit = Base62.digit(digits[i]) + 1;
+            if (digit < Base62.BASE) {
+                digits[i] = Base62.toChar(digit);
+                return head + new String(digits);
+            }
+            digits[i] = '0';
+        }
+        if (head == 'Z') {
+            return ZERO;
+        }
+        if (head == 'z') {
+            return null;
+        }
+        final char next = (char) (head + 1);
+        final String rest = new String(digits);
+        return next + (next > 'a' ? rest + '0' : rest.substring(1));
+    }
+
+    private static String decrement(String integer) {
+        final char head = integer.charAt(0);
+        final char[] digits = integer.substring(1).toCharArray();
+        for (int i = digits.length - 1; i >= 0; i--) {
+            final int digit = Base62.digit(digits[i]) - 1;
+            if (digit >= 0) {
+                digits[i] = Base62.toChar(digit);
+                return head + new String(digits);
+            }
+            digits[i] = Base62.toChar(Base62.BASE - 1);
+        }
+        if (head == 'a') {
+            return "Z" + Base62.toChar(Base62.BASE - 1);
+        }
+        if (head == 'A') {
+            return null;
+        }
+        final char previous = (char) (head - 1);
+        final String rest = new String(digits);
+        return previous + (previous < 'Z' ? rest + Base62.toChar(Base62.BASE - 1) : rest.substring(1));
+    }
+
+    private static String integerPart(String key) {
+        final int length = integerLength(key.charAt(0));
+        if (length > key.length()) {
+            throw new IllegalArgumentException("invalid rank key " + key);
+        }
+        return key.substring(0, length);
+    }
+
+    private static int integerLength(char head) {
+        if (head >= 'a' && head <= 'z') {
+            return head - 'a' + 2;
+        }
+        if (head >= 'A' && head <= 'Z') {
+            return 'Z' - head + 2;
+        }
+        throw new IllegalArgumentException("invalid rank key head " + head);
+    }
+
+    private static void validate(String key) {
+        if (key.isEmpty() || key.equals(SMALLEST_INTEGER)) {
+            throw new IllegalArgumentException("invalid rank key " + key);
+        }
+        final String fraction = key.substring(integerPart(key).length());
+        if (fraction.endsWith("0")) {
+            throw new IllegalArgumentException("invalid rank key " + key);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.influans.sp.utils;
+
+import org.bson.types.ObjectId;
+
+/**
+ * Mongo object ids, 24 hexadecimal characters.
+ */
+public class ObjectIdGenerator implements IdGenerator {
+    @Override
+    public String nextId() {
+        return new ObjectId().toString();
+    }
+}
@@ -0,0 +1,76 @@
+package com.influans.sp.utils;
+
+/**
+ * 64 bits ids encoded on 11 base62 characters: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node and
+ * 12 bits of sequence. Ids of a node are strictly increasing, ids of different nodes are ordered by time up to the
+ * millisecond. Every node of a deployment needs its own node number.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+    /**
+     * 2016-01-01T00:00:00Z, 41 bits of milliseconds last until 2085.
+     */
+    public static final long EPOCH = 1451606400000L;
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    private static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    private long lastTimestamp = -1;
+    private long sequence;
+
+    /**
+     * @param node node number, between 0 and {@link #MAX_NODE}
+     */
+    public SnowflakeIdGenerator(int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("node should be between 0 and " + MAX_NODE);
+        }
+        this.node = node;
+    }
+
+    /**
+     * @return new id
+     * @should generate strictly increasing ids
+     * @should encode the node in the id
+     */
+    @Override
+    public String nextId() {
+        return Base62.encode(nextLong(), Base62.LONG_WIDTH);
+    }
+
+    /**
+     * @return new 64 bits id
+     */
+    public synchronized long nextLong() {
+        long timestamp = Math.max(System.currentTimeMillis() - EPOCH, lastTimestamp);
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0) {
+                // sequence exhausted (or clock moved backwards): borrow the next millisecond
+                timestamp = lastTimestamp + 1;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * @param id id generated by this class
+     * @return node that generated the id
+     */
+    public static int getNode(String id) {
+        return (int) ((Base62.decode(id) >>> SEQUENCE_BITS) & MAX_NODE);
+    }
+
+    /**
+     * @param id id generated by this class
+     * @return creation time of the id in milliseconds since 1970
+     * @should return the creation time of the id
+     */
+    public static long getTimestamp(String id) {
+        return (Base62.decode(id) >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+}
@@ -1,7 +1,19 @@
 package com.influans.sp.utils;
 
+import com.google.common.collect.ImmutableSet;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 public class StringUtils extends org.springframework.util.StringUtils {
+    private static final Pattern KEYWORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // words found in most story names, an index lookup on them would match most of the stories
+    private static final Set<String> STOPWORDS = ImmutableSet.of("a", "an", "and", "as", "at", "be", "by", "for",
+            "from", "in", "is", "it", "of", "on", "or", "the", "to", "with");
     /**
      * @should return true if value is null or empty
      * @should return true if value contains spaces and trim is true
@@ -14,4 +26,23 @@ public class StringUtils extends org.springframework.util.StringUtils {
         return value == null || (trim ? value.trim().length() == 0 : value.length() == 0);
     }
 
+    /**
+     * @should split the value on non alphanumeric characters
+     * @should return distinct lower case keywords
+     * @should return an empty list if value is null
+     * @should drop stopwords
+     * @param value text value
+     * @return distinct lower case words of the value without stopwords, in order of appearance
+     */
+    public static List<String> keywords(String value) {
+        final Set<String> keywords = new LinkedHashSet<>();
+        if (value != null) {
+            for (String keyword : KEYWORD_SEPARATOR.split(value.toLowerCase(Locale.ROOT))) {
+                if (!keyword.isEmpty() && !STOPWORDS.contains(keyword)) {
+                    keywords.add(keyword);
+                }
+            }
+        }
+        return new ArrayList<>(keywords);
+    }
 }
@@ -0,0 +1,35 @@
+package com.influans.sp.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 17 characters: milliseconds since 1970 on 8 base62 digits followed by 9 random base62 digits (53 bits). Ids sort by
+ * creation time, so index inserts always go to the right of the _id index, and no node configuration is needed.
+ * Ids created in the same millisecond are not ordered.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+    public static final int TIME_WIDTH = 8;
+    private static final int RANDOM_WIDTH = 9;
+    public static final int WIDTH = TIME_WIDTH + RANDOM_WIDTH;
+    private static final long RANDOM_BOUND = 1L << 53;
+
+    /**
+     * @return new id
+     * @should generate ids sorted by creation time
+     * @should generate unique ids
+     */
+    @Override
+    public String nextId() {
+        return Base62.encode(System.currentTimeMillis(), TIME_WIDTH)
+                + Base62.encode(ThreadLocalRandom.current().nextLong(RANDOM_BOUND), RANDOM_WIDTH);
+    }
+
+    /**
+     * @param id id generated by this class
+     * @return creation time of the id in milliseconds since 1970
+     * @should return the creation time of the id
+     */
+    public static long getTimestamp(String id) {
+        return Base62.decode(id.substring(0, TIME_WIDTH));
+    }
+}
@@ -0,0 +1,90 @@
+package com.influans.sp.utils;
+
+import java.util.List;
+
+/**
+ * Token bucket holding at most capacity tokens and refilled continuously at refillPerSecond tokens per second.
+ */
+public class TokenBucket {
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param capacity        maximum burst
+     * @param refillPerSecond sustained rate
+     * @param now             current time in nanoseconds
+     */
+    public TokenBucket(double capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / NANOS_PER_SECOND;
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    /**
+     * @param now current time in nanoseconds
+     * @return true if a token has been consumed
+     * @should allow bursts up to capacity
+     * @should refill tokens over time
+     */
+    public synchronized boolean tryConsume(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consumes a token of every bucket, or of none of them if one is empty. Buckets are locked in the given order,
+     * callers sharing buckets must pass them in a consistent order.
+     *
+     * @param buckets buckets that must all have a token
+     * @param now     current time in nanoseconds
+     * @return the first empty bucket, null if a token has been consumed in every bucket
+     * @should not consume any token if one bucket is empty
+     */
+    public static TokenBucket tryConsumeAll(List<TokenBucket> buckets, long now) {
+        return tryConsumeAll(buckets, 0, now);
+    }
+
+    private static TokenBucket tryConsumeAll(List<TokenBucket> buckets, int index, long now) {
+        if (index == buckets.size()) {
+            return null;
+        }
+        final TokenBucket bucket = buckets.get(index);
+        synchronized (bucket) {
+            bucket.refill(now);
+            if (bucket.tokens < 1) {
+                return bucket;
+            }
+            final TokenBucket empty = tryConsumeAll(buckets, index + 1, now);
+            if (empty == null) {
+                bucket.tokens -= 1;
+            }
+            return empty;
+        }
+    }
+
+    /**
+     * @return seconds until the next token is available
+     */
+    public synchronized long getRetryAfterSeconds() {
+        if (tokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / refillPerNano / NANOS_PER_SECOND);
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
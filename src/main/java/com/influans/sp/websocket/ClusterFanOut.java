@@ -0,0 +1,164 @@
+package com.influans.sp.websocket;
+
+import com.influans.sp.config.WebSocketConfig;
+import com.influans.sp.dto.RoundDto;
+import com.influans.sp.dto.VoteDto;
+import com.influans.sp.dto.WsRequest;
+import com.influans.sp.entity.ClusterEventEntity;
+import com.influans.sp.enums.WsTypes;
+import com.influans.sp.service.ResourceVersionService;
+import com.influans.sp.utils.JsonSerializer;
+import com.influans.sp.utils.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Forwards websocket notifications to the other application nodes. The simple broker only knows the clients
+ * connected to the current node, so each notification is published on the cluster transport and re-broadcast by
+ * the nodes having local subscribers on the session topic.
+ * <p/>
+ * Etag versions are kept in memory by each node (see {@link ResourceVersionService}), so relayed events also bump the
+ * version of their session and of the stories whose votes changed.
+ * <p/>
+ * Nothing is relayed when no {@link ClusterTransport} is configured (single node deployment).
+ */
+@Component
+public class ClusterFanOut {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterFanOut.class);
+
+    @Autowired
+    private WebSocketConfig config;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private LocalSubscriptionRegistry subscriptionRegistry;
+
+    @Autowired
+    private SpectatorBroadcaster spectatorBroadcaster;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private CompactVoteBroadcaster compactVoteBroadcaster;
+
+    @Autowired(required = false)
+    private ClusterTransport clusterTransport;
+
+    @Value("${websocket.cluster.node:}")
+    private String nodeId;
+
+    @PostConstruct
+    public void init() {
+        if (StringUtils.isEmpty(nodeId)) {
+            nodeId = UUID.randomUUID().toString();
+        }
+        if (clusterTransport != null) {
+            clusterTransport.subscribe(this::onEvent);
+            LOGGER.info("[WS] cluster fan-out enabled on node {} using {}", nodeId, clusterTransport.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * @param topic session topic
+     * @param type  request type
+     * @param data  message data
+     * @return true if the notification has been published to the other nodes
+     * @should publish the notification on the cluster transport
+     * @should publish the stories whose votes changed
+     */
+    public boolean publish(String topic, WsTypes type, Object data) {
+        return publish(topic, type, data, storyIds(type, data));
+    }
+
+    /**
+     * @param topic    session topic
+     * @param type     request type
+     * @param data     message data
+     * @param storyIds stories whose votes changed, when they cannot be read from the data
+     * @return true if the notification has been published to the other nodes
+     */
+    public boolean publish(String topic, WsTypes type, Object data, List<String> storyIds) {
+        if (clusterTransport == null) {
+            return false;
+        }
+        clusterTransport.publish(new ClusterEventEntity(nodeId, topic, type, JsonSerializer.serialize(data), storyIds));
+        return true;
+    }
+
+    /**
+     * @param event event received from the cluster
+     * @return true if the event has been broadcast to local subscribers
+     * @should not broadcast events published by the current node
+     * @should not broadcast events if no local client subscribed to the topic
+     * @should broadcast events to local subscribers
+     * @should bump the version of the relayed stories
+     */
+    public boolean onEvent(ClusterEventEntity event) {
+        if (nodeId.equals(event.getOrigin())) {
+            return false;
+        }
+        spectatorBroadcaster.markDirty(event.getTopic());
+        resourceVersionService.bumpSession(event.getTopic());
+        if (event.getStoryIds() != null) {
+            event.getStoryIds().forEach(resourceVersionService::bumpStory);
+        }
+        final Object data = JsonSerializer.toObject(event.getPayload(), Object.class);
+        compactVoteBroadcaster.onEvent(event.getTopic(), event.getType(), data);
+        final String topicName = config.getTopicPrefix() + "/" + event.getTopic();
+        if (!subscriptionRegistry.hasSubscribers(topicName)) {
+            return false;
+        }
+        messagingTemplate.convertAndSend(topicName, new WsRequest(event.getType(), data));
+        LOGGER.debug("[WS] [topic: {}] relayed {} from node {}", topicName, event.getType(), event.getOrigin());
+        return true;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @param type notification type
+     * @param data notification data
+     * @return stories whose votes are changed by the notification, null if none
+     */
+    static List<String> storyIds(WsTypes type, Object data) {
+        if (type == null) {
+            return null;
+        }
+        switch (type) {
+            case VOTE_ADDED:
+                return data instanceof VoteDto ? Collections.singletonList(((VoteDto) data).getStoryId()) : null;
+            case VOTES_ADDED:
+                return data instanceof List ? ((List<?>) data).stream()
+                        .filter(VoteDto.class::isInstance)
+                        .map(vote -> ((VoteDto) vote).getStoryId())
+                        .distinct()
+                        .collect(Collectors.toList()) : null;
+            case STORY_ENDED:
+            case STORY_REVOTED:
+                return data instanceof String ? Collections.singletonList((String) data) : null;
+            case STORIES_ENDED:
+                return data instanceof List ? ((List<?>) data).stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.toList()) : null;
+            case ROUND_ENDED:
+                return data instanceof RoundDto ? ((RoundDto) data).getStoryIds() : null;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.influans.sp.websocket;
+
+import com.influans.sp.entity.ClusterEventEntity;
+
+import java.util.function.Consumer;
+
+/**
+ * Relays websocket notifications between application nodes.
+ */
+public interface ClusterTransport {
+
+    /**
+     * publish an event to every node of the cluster, including the current one
+     *
+     * @param event event to relay
+     */
+    void publish(ClusterEventEntity event);
+
+    /**
+     * register a listener that will be called for each event received from the cluster
+     *
+     * @param listener event listener
+     */
+    void subscribe(Consumer<ClusterEventEntity> listener);
+}
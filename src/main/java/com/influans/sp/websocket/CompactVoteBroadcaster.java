@@ -0,0 +1,246 @@
+package com.influans.sp.websocket;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.influans.sp.config.WebSocketConfig;
+import com.influans.sp.dto.VoteDictionaryDto;
+import com.influans.sp.dto.VoteDto;
+import com.influans.sp.enums.WsTypes;
+import com.influans.sp.service.CardDeckService;
+import com.influans.sp.utils.CardDeck;
+import com.influans.sp.utils.JsonSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compact encoding of the vote events, published on {topicPrefix}/{sessionId}/compact. Users and stories are
+ * replaced by small integer handles assigned per session and the vote value by its index in the session deck. Each
+ * frame is a list of operations:
+ * <ul>
+ * <li>[0, user, story, card]: vote added, card is the deck index or the raw value if it is not part of the deck</li>
+ * <li>[1, user, story]: vote removed</li>
+ * <li>[2, user, username]: new user handle</li>
+ * <li>[3, story, storyId]: new story handle</li>
+ * </ul>
+ * The votes of a {@link WsTypes#VOTES_ADDED} batch are encoded in a single frame. New handles travel in the same frame
+ * as the vote using them, and frames are handed to the broker while the session dictionary is locked, so they reach
+ * the broker in the order the handles were assigned. Clients get the handles assigned before they subscribed with the
+ * dictionary (see {@link #getDictionary(String)}), and every handle is declared again on the compact destination once
+ * a new subscription is registered (see {@link #resendHandles(String)}), which covers the frames sent between the
+ * dictionary request and the subscription.
+ * <p/>
+ * Dictionaries are kept per node: every node builds its own handles from the events it broadcasts, relayed ones
+ * included, and they are only meaningful for the clients connected to that node.
+ */
+@Component
+public class CompactVoteBroadcaster {
+    public static final String COMPACT_SUFFIX = "/compact";
+    public static final int VOTE_ADDED = 0;
+    public static final int VOTE_REMOVED = 1;
+    public static final int USER_HANDLE = 2;
+    public static final int STORY_HANDLE = 3;
+
+    @Autowired
+    private WebSocketConfig config;
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+    @Autowired
+    private LocalSubscriptionRegistry subscriptionRegistry;
+    @Autowired
+    private CardDeckService cardDeckService;
+
+    @Value("${websocket.compact.maxSessions:10000}")
+    private long maxSessions;
+
+    @Value("${websocket.compact.expireAfterAccess:86400}")
+    private long expireAfterAccess;
+
+    private Cache<String, SessionDictionary> dictionaries;
+
+    @PostConstruct
+    public void init() {
+        dictionaries = CacheBuilder.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfterAccess(expireAfterAccess, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Called for every event broadcast to the clients of this node, whether they subscribed to the compact
+     * destination or not, so that handles stay consistent.
+     *
+     * @param sessionId session id
+     * @param type      event type
+     * @param data      event data
+     * @return compact frame, null if the event has no compact form
+     * @should assign handles and send them with the first vote using them
+     * @should send the card index if the value belongs to the session deck
+     * @should send the handles of the removed vote
+     * @should encode a batch of votes in a single frame
+     * @should ignore other events
+     */
+    public List<Object[]> onEvent(String sessionId, WsTypes type, Object data) {
+        if (sessionId == null || data == null
+                || (type != WsTypes.VOTE_ADDED && type != WsTypes.VOTE_REMOVED && type != WsTypes.VOTES_ADDED)) {
+            return null;
+        }
+        final SessionDictionary dictionary = getSessionDictionary(sessionId);
+        if (dictionary == null) {
+            return null;
+        }
+        // a frame declaring handles must not overtake the frame of another event using them
+        synchronized (dictionary) {
+            final List<Object[]> frame;
+            if (type == WsTypes.VOTES_ADDED) {
+                frame = new ArrayList<>();
+                ((List<?>) data).forEach(vote -> frame.addAll(dictionary.voteAdded(toVoteDto(vote))));
+            } else {
+                frame = type == WsTypes.VOTE_ADDED
+                        ? dictionary.voteAdded(toVoteDto(data))
+                        : dictionary.voteRemoved(String.valueOf(data));
+            }
+            if (frame.isEmpty()) {
+                return null;
+            }
+            send(sessionId, frame);
+            return frame;
+        }
+    }
+
+    /**
+     * Declares again every handle of the session on the compact destination, for the clients which subscribed after
+     * requesting the dictionary. Declarations of known handles are unchanged on the clients.
+     *
+     * @param sessionId session id
+     * @return frame of the handle declarations, null if no handle has been assigned in the session
+     * @should declare the handles assigned so far
+     */
+    public List<Object[]> resendHandles(String sessionId) {
+        final SessionDictionary dictionary = sessionId != null ? dictionaries.getIfPresent(sessionId) : null;
+        if (dictionary == null) {
+            return null;
+        }
+        synchronized (dictionary) {
+            final List<Object[]> frame = dictionary.declarations();
+            if (frame.isEmpty()) {
+                return null;
+            }
+            send(sessionId, frame);
+            return frame;
+        }
+    }
+
+    /**
+     * @param destination subscribed destination
+     * @return session id of a compact destination, null for other destinations
+     */
+    public String getCompactSessionId(String destination) {
+        final String prefix = config.getTopicPrefix() + "/";
+        if (destination == null || !destination.startsWith(prefix) || !destination.endsWith(COMPACT_SUFFIX)
+                || destination.length() <= prefix.length() + COMPACT_SUFFIX.length()) {
+            return null;
+        }
+        return destination.substring(prefix.length(), destination.length() - COMPACT_SUFFIX.length());
+    }
+
+    private void send(String sessionId, List<Object[]> frame) {
+        final String destination = config.getTopicPrefix() + "/" + sessionId + COMPACT_SUFFIX;
+        if (subscriptionRegistry.hasSubscribers(destination)) {
+            messagingTemplate.convertAndSend(destination, frame);
+        }
+    }
+
+    /**
+     * @param sessionId session id
+     * @return handles assigned so far, null if the session does not exist
+     * @should return the deck and the assigned handles
+     */
+    public VoteDictionaryDto getDictionary(String sessionId) {
+        final SessionDictionary dictionary = getSessionDictionary(sessionId);
+        return dictionary != null ? dictionary.toDto(sessionId) : null;
+    }
+
+    private SessionDictionary getSessionDictionary(String sessionId) {
+        final SessionDictionary dictionary = dictionaries.getIfPresent(sessionId);
+        if (dictionary != null) {
+            return dictionary;
+        }
+        final CardDeck deck = cardDeckService.getDeck(sessionId);
+        if (deck == null) {
+            return null;
+        }
+        final SessionDictionary created = new SessionDictionary(deck);
+        final SessionDictionary previous = dictionaries.asMap().putIfAbsent(sessionId, created);
+        return previous != null ? previous : created;
+    }
+
+    private VoteDto toVoteDto(Object data) {
+        // events relayed by the cluster are deserialized as maps
+        return data instanceof VoteDto ? (VoteDto) data : JsonSerializer.getObjectMapper().convertValue(data, VoteDto.class);
+    }
+
+    private static class SessionDictionary {
+        private final CardDeck deck;
+        private final Map<String, Integer> users = new LinkedHashMap<>();
+        private final Map<String, Integer> stories = new LinkedHashMap<>();
+        // vote id -> {user, story}, removal events only carry the vote id
+        private final Map<String, int[]> votes = new HashMap<>();
+
+        private SessionDictionary(CardDeck deck) {
+            this.deck = deck;
+        }
+
+        private synchronized List<Object[]> voteAdded(VoteDto voteDto) {
+            final List<Object[]> frame = new ArrayList<>(3);
+            final int user = handle(users, voteDto.getUsername(), USER_HANDLE, frame);
+            final int story = handle(stories, voteDto.getStoryId(), STORY_HANDLE, frame);
+            if (voteDto.getVoteId() != null) {
+                votes.put(voteDto.getVoteId(), new int[]{user, story});
+            }
+            final int card = deck.ordinal(voteDto.getValue());
+            frame.add(new Object[]{VOTE_ADDED, user, story, card >= 0 ? card : voteDto.getValue()});
+            return frame;
+        }
+
+        private synchronized List<Object[]> voteRemoved(String voteId) {
+            final int[] handles = votes.remove(voteId);
+            if (handles == null) {
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(new Object[]{VOTE_REMOVED, handles[0], handles[1]});
+        }
+
+        private synchronized List<Object[]> declarations() {
+            final List<Object[]> frame = new ArrayList<>(users.size() + stories.size());
+            users.forEach((username, handle) -> frame.add(new Object[]{USER_HANDLE, handle, username}));
+            stories.forEach((storyId, handle) -> frame.add(new Object[]{STORY_HANDLE, handle, storyId}));
+            return frame;
+        }
+
+        private synchronized VoteDictionaryDto toDto(String sessionId) {
+            return new VoteDictionaryDto(sessionId, deck.getLabels(),
+                    new LinkedHashMap<>(users), new LinkedHashMap<>(stories));
+        }
+
+        private static int handle(Map<String, Integer> handles, String key, int operation, List<Object[]> frame) {
+            Integer handle = handles.get(key);
+            if (handle == null) {
+                handle = handles.size();
+                handles.put(key, handle);
+                frame.add(new Object[]{operation, handle, key});
+            }
+            return handle;
+        }
+    }
+}
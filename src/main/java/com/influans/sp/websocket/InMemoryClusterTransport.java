@@ -0,0 +1,38 @@
+package com.influans.sp.websocket;
+
+import com.influans.sp.entity.ClusterEventEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process transport: every transport instance of the JVM shares the same listeners, so several application
+ * contexts started in the same JVM behave like several nodes. Intended for tests.
+ */
+@Component
+@ConditionalOnProperty(prefix = "websocket.cluster", name = "transport", havingValue = "inMemory")
+public class InMemoryClusterTransport implements ClusterTransport {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryClusterTransport.class);
+    private static final List<Consumer<ClusterEventEntity>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(ClusterEventEntity event) {
+        LISTENERS.forEach(listener -> {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                LOGGER.error("Error while dispatching cluster event ", e);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterEventEntity> listener) {
+        LISTENERS.add(listener);
+    }
+}
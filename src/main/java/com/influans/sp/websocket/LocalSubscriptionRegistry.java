@@ -0,0 +1,96 @@
+package com.influans.sp.websocket;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps track of the destinations having at least one subscriber connected to this node.
+ */
+@Component
+public class LocalSubscriptionRegistry implements ApplicationListener<AbstractSubProtocolEvent> {
+
+    // websocket session id -> (subscription id -> destination)
+    private final Map<String, Map<String, String>> subscriptions = new ConcurrentHashMap<>();
+    // destination -> number of local subscriptions
+    private final Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void onApplicationEvent(AbstractSubProtocolEvent event) {
+        final SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        if (event instanceof SessionSubscribeEvent) {
+            subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), accessor.getDestination());
+        } else if (event instanceof SessionUnsubscribeEvent) {
+            unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+        } else if (event instanceof SessionDisconnectEvent) {
+            disconnect(((SessionDisconnectEvent) event).getSessionId());
+        }
+    }
+
+    /**
+     * @param sessionId      websocket session id
+     * @param subscriptionId subscription id
+     * @param destination    subscribed destination
+     * @should count subscriptions on the given destination
+     */
+    public void subscribe(String sessionId, String subscriptionId, String destination) {
+        if (sessionId == null || subscriptionId == null || destination == null) {
+            return;
+        }
+        final String previous = subscriptions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, destination);
+        if (previous != null) {
+            decrement(previous);
+        }
+        counters.computeIfAbsent(destination, d -> new AtomicInteger()).incrementAndGet();
+    }
+
+    /**
+     * @param sessionId      websocket session id
+     * @param subscriptionId subscription id
+     * @should remove the subscription
+     */
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        final Map<String, String> sessionSubscriptions = sessionId != null ? subscriptions.get(sessionId) : null;
+        if (sessionSubscriptions != null && subscriptionId != null) {
+            final String destination = sessionSubscriptions.remove(subscriptionId);
+            if (destination != null) {
+                decrement(destination);
+            }
+        }
+    }
+
+    /**
+     * @param sessionId websocket session id
+     * @should remove all subscriptions of the given session
+     */
+    public void disconnect(String sessionId) {
+        final Map<String, String> sessionSubscriptions = sessionId != null ? subscriptions.remove(sessionId) : null;
+        if (sessionSubscriptions != null) {
+            sessionSubscriptions.values().forEach(this::decrement);
+        }
+    }
+
+    /**
+     * @param destination destination
+     * @return true if at least one client connected to this node subscribed to the destination
+     * @should return true if a local client subscribed to the destination
+     * @should return false if no local client subscribed to the destination
+     */
+    public boolean hasSubscribers(String destination) {
+        final AtomicInteger counter = counters.get(destination);
+        return counter != null && counter.get() > 0;
+    }
+
+    private void decrement(String destination) {
+        counters.computeIfPresent(destination, (d, counter) -> counter.decrementAndGet() > 0 ? counter : null);
+    }
+}
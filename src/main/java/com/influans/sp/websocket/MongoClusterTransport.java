@@ -0,0 +1,135 @@
+package com.influans.sp.websocket;
+
+import com.influans.sp.entity.ClusterEventEntity;
+import com.mongodb.BasicDBObject;
+import com.mongodb.Bytes;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Relays events through a capped collection: every node inserts its events and tails the collection with an
+ * awaitable cursor, so no broker other than the Mongo database we already depend on is needed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "websocket.cluster", name = "transport", havingValue = "mongo")
+public class MongoClusterTransport implements ClusterTransport {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoClusterTransport.class);
+    private static final String MONGO_ID = "_id";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${websocket.cluster.mongo.size:16777216}")
+    private int collectionSize;
+
+    @Value("${websocket.cluster.mongo.retryDelay:1000}")
+    private long retryDelay;
+
+    private final List<Consumer<ClusterEventEntity>> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private volatile DBCursor cursor;
+    private Thread tailer;
+
+    @PostConstruct
+    public void start() {
+        createCappedCollection();
+        running = true;
+        tailer = new Thread(this::tail, "cluster-event-tailer");
+        tailer.setDaemon(true);
+        tailer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        final DBCursor current = cursor;
+        if (current != null) {
+            current.close();
+        }
+        tailer.interrupt();
+    }
+
+    @Override
+    public void publish(ClusterEventEntity event) {
+        mongoTemplate.insert(event);
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterEventEntity> listener) {
+        listeners.add(listener);
+    }
+
+    private void createCappedCollection() {
+        try {
+            if (!mongoTemplate.collectionExists(ClusterEventEntity.class)) {
+                mongoTemplate.createCollection(ClusterEventEntity.class, new CollectionOptions(collectionSize, null, true));
+            }
+        } catch (Exception e) {
+            // another node may have created the collection in the meantime
+            LOGGER.warn("Could not create cluster event collection: {}", e.getMessage());
+        }
+    }
+
+    private void tail() {
+        // only events published after this node started are relayed
+        ObjectId lastId = new ObjectId();
+        while (running) {
+            try {
+                cursor = mongoTemplate.getCollection(mongoTemplate.getCollectionName(ClusterEventEntity.class))
+                        .find(new BasicDBObject(MONGO_ID, new BasicDBObject("$gt", lastId)))
+                        .addOption(Bytes.QUERYOPTION_TAILABLE)
+                        .addOption(Bytes.QUERYOPTION_AWAITDATA);
+                while (running && cursor.hasNext()) {
+                    final DBObject dbObject = cursor.next();
+                    lastId = (ObjectId) dbObject.get(MONGO_ID);
+                    dispatch(mongoTemplate.getConverter().read(ClusterEventEntity.class, dbObject));
+                }
+            } catch (MongoException | IllegalStateException e) {
+                if (running) {
+                    LOGGER.warn("Cluster event cursor closed, retrying in {} ms: {}", retryDelay, e.getMessage());
+                }
+            } finally {
+                if (cursor != null) {
+                    cursor.close();
+                }
+            }
+            // a tailable cursor on an empty collection is closed immediately by the server
+            sleep();
+        }
+    }
+
+    private void dispatch(ClusterEventEntity event) {
+        listeners.forEach(listener -> {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                LOGGER.error("Error while dispatching cluster event ", e);
+            }
+        });
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(retryDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.influans.sp.websocket;
+
+import com.influans.sp.config.WebSocketConfig;
+import com.influans.sp.dto.SessionStateDto;
+import com.influans.sp.dto.StoryDto;
+import com.influans.sp.dto.WsRequest;
+import com.influans.sp.entity.SessionEntity;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.enums.WsTypes;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.VoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only fan-out for large audiences. Spectators subscribe to {topicPrefix}/{sessionId}/spectators and are never
+ * persisted as users. Instead of every raw event they receive, at most once per interval, a single
+ * {@link WsTypes#SESSION_STATE} frame with the story list and the vote histograms of the current stories: the stories
+ * of the open round (see {@link com.influans.sp.service.RoundService}), or the first story which is not ended.
+ */
+@Component
+public class SpectatorBroadcaster implements ApplicationListener<SessionSubscribeEvent> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpectatorBroadcaster.class);
+    public static final String SPECTATORS_SUFFIX = "/spectators";
+
+    @Autowired
+    private WebSocketConfig config;
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+    @Autowired
+    private LocalSubscriptionRegistry subscriptionRegistry;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+
+    private final Set<String> dirtySessions = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void onApplicationEvent(SessionSubscribeEvent event) {
+        final String destination = SimpMessageHeaderAccessor.wrap(event.getMessage()).getDestination();
+        final String prefix = config.getTopicPrefix() + "/";
+        if (destination != null && destination.startsWith(prefix) && destination.endsWith(SPECTATORS_SUFFIX)) {
+            // new spectators get the current state on the next flush
+            markDirty(destination.substring(prefix.length(), destination.length() - SPECTATORS_SUFFIX.length()));
+        }
+    }
+
+    /**
+     * @param sessionId session whose state changed
+     */
+    public void markDirty(String sessionId) {
+        if (sessionId != null) {
+            dirtySessions.add(sessionId);
+        }
+    }
+
+    /**
+     * Sends one state frame per modified session having local spectators. Intermediate events received between two
+     * flushes are conflated.
+     */
+    @Scheduled(fixedDelayString = "${websocket.spectator.interval:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * @return number of sent frames
+     * @should send a state frame to sessions having spectators
+     * @should not send anything to sessions without spectators
+     * @should send only one frame for several modifications of the same session
+     */
+    public int flush() {
+        int sent = 0;
+        final Iterator<String> iterator = dirtySessions.iterator();
+        while (iterator.hasNext()) {
+            final String sessionId = iterator.next();
+            iterator.remove();
+            final String destination = getDestination(sessionId);
+            if (subscriptionRegistry.hasSubscribers(destination)) {
+                try {
+                    messagingTemplate.convertAndSend(destination, new WsRequest(WsTypes.SESSION_STATE, buildState(sessionId)));
+                    sent++;
+                } catch (Exception e) {
+                    LOGGER.error("Error while sending spectator state ", e);
+                }
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * @param sessionId session id
+     * @return stories of the session and vote histogram of each story of the open round, or of the first story which
+     * is not ended if no round is open
+     * @should return the vote histogram of the current story
+     * @should return the vote histogram of each story of the open round
+     */
+    public SessionStateDto buildState(String sessionId) {
+        final List<StoryEntity> storyEntities = storyRepository.findBySessionId(sessionId);
+
+        final SessionEntity sessionEntity = sessionRepository.findOne(sessionId);
+        final List<String> currentStoryIds = new ArrayList<>();
+        if (sessionEntity != null && sessionEntity.getOpenStories() != null) {
+            currentStoryIds.addAll(sessionEntity.getOpenStories());
+        } else {
+            storyEntities.stream()
+                    .filter(storyEntity -> !storyEntity.isEnded())
+                    .findFirst()
+                    .ifPresent(storyEntity -> currentStoryIds.add(storyEntity.getStoryId()));
+        }
+
+        final Map<String, Map<String, Integer>> histograms = new LinkedHashMap<>();
+        currentStoryIds.forEach(storyId -> histograms.put(storyId, new TreeMap<>()));
+        if (!currentStoryIds.isEmpty()) {
+            voteRepository.findByStoryIdIn(currentStoryIds)
+                    .forEach(voteEntity -> histograms.get(voteEntity.getStoryId()).merge(voteEntity.getValue(), 1, Integer::sum));
+        }
+
+        final List<StoryDto> stories = storyEntities.stream().map(StoryDto::new).collect(Collectors.toList());
+        return new SessionStateDto(sessionId, stories, histograms);
+    }
+
+    private String getDestination(String sessionId) {
+        return config.getTopicPrefix() + "/" + sessionId + SPECTATORS_SUFFIX;
+    }
+}
@@ -12,6 +12,8 @@ import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * WebSocket push service when modifications occur on Onboarding counters for a
  * given brand
@@ -27,6 +29,15 @@ public class WebSocketSender {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private ClusterFanOut clusterFanOut;
+
+    @Autowired
+    private SpectatorBroadcaster spectatorBroadcaster;
+
+    @Autowired
+    private CompactVoteBroadcaster compactVoteBroadcaster;
+
     /**
      * Send a message to listeners (browsers) which are subscribers on suitable
      * topic. If brandCode is missing, no message is sent
@@ -44,12 +55,26 @@ public class WebSocketSender {
      * @should return false if data is  null
      */
     public boolean sendNotification(String topic, WsTypes type, Object data) {
+        return sendNotification(topic, type, data, ClusterFanOut.storyIds(type, data));
+    }
+
+    /**
+     * @param topic    websocket topic
+     * @param type     request type
+     * @param data     message data
+     * @param storyIds stories whose votes changed, relayed to the other nodes when the data does not hold them
+     * @return true if something has been sent through SimpMessagingTemplate
+     */
+    public boolean sendNotification(String topic, WsTypes type, Object data, List<String> storyIds) {
         try {
             if (topic != null && type != null && data != null) {
                 final String topicName = config.getTopicPrefix() + "/" + topic;
                 final WsRequest request = new WsRequest(type, data);
                 messagingTemplate.convertAndSend(topicName, request);
                 LOGGER.info("[WS] [topic: {}] sent data: {}", topicName, JsonSerializer.serialize(request));
+                clusterFanOut.publish(topic, type, data, storyIds);
+                compactVoteBroadcaster.onEvent(topic, type, data);
+                spectatorBroadcaster.markDirty(topic);
                 return true;
             }
         } catch (Exception e) {
@@ -0,0 +1,169 @@
+package com.influans.sp.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the threading models on POST /votes: N concurrent users, grouped in sessions of 10, each saving votes in a
+ * loop. Prints the throughput and the latency percentiles. This is not a unit test, run it against two instances
+ * started on java 21 (Spring 4.2 proxies need java.lang opened to them on java 9+):
+ * <pre>
+ * OPENS="--add-opens java.base/java.lang=ALL-UNNAMED --add-opens java.base/java.lang.invoke=ALL-UNNAMED"
+ * # pooled model
+ * java $OPENS -jar scrum_poker.war --server.port=8080 --ratelimit.enabled=false --threads.virtual.enabled=false \
+ *     --rest.async.executor=pool
+ * # virtual threads
+ * java $OPENS -jar scrum_poker.war --server.port=8081 --ratelimit.enabled=false --threads.virtual.enabled=true
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.influans.sp.benchmark.SaveVoteBenchmark \
+ *     -Dexec.args="http://localhost:8080 1000 20"
+ * </pre>
+ * Rate limiting must be disabled on the server, otherwise most votes are answered with 429. Without a mongo server, the
+ * application can be started from the test classpath (com.influans.sp.Application) with --spring.profiles.active=test,
+ * which runs it on the in-memory Fongo database.
+ *
+ * @author hazem
+ */
+public class SaveVoteBenchmark {
+    private static final int USERS_PER_SESSION = 10;
+    private static final String[] VALUES = {"fib-1", "fib-2", "fib-3", "fib-5", "fib-8", "fib-13"};
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        final String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        final int users = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        final int votesPerUser = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        final List<ObjectNode> voters = setUp(baseUrl, users);
+
+        // warm up the JIT, the connection pools and the mongo indexes
+        run(baseUrl, voters.subList(0, Math.min(100, users)), 5);
+
+        final Result result = run(baseUrl, voters, votesPerUser);
+        System.out.println(String.format("%s users=%d votes=%d errors=%d", baseUrl, users, result.latencies.length, result.errors));
+        System.out.println(String.format("throughput=%.1f req/s p50=%.1fms p99=%.1fms max=%.1fms",
+                result.latencies.length * 1000d / result.elapsedMillis,
+                percentile(result.latencies, 50), percentile(result.latencies, 99), percentile(result.latencies, 100)));
+    }
+
+    private static List<ObjectNode> setUp(String baseUrl, int users) throws IOException {
+        final List<ObjectNode> voters = new ArrayList<>(users);
+        String sessionId = null;
+        String storyId = null;
+        for (int i = 0; i < users; i++) {
+            final String username = "user" + i;
+            if (i % USERS_PER_SESSION == 0) {
+                final ObjectNode session = MAPPER.createObjectNode()
+                        .put("username", username)
+                        .put("sprintName", "benchmark")
+                        .put("cardSet", "fibonacci");
+                sessionId = post(baseUrl + "/sessions", session).get("sessionId").asText();
+                final ObjectNode story = MAPPER.createObjectNode()
+                        .put("sessionId", sessionId)
+                        .put("storyName", "story");
+                storyId = post(baseUrl + "/stories", story).get("storyId").asText();
+            } else {
+                post(baseUrl + "/users/connect", MAPPER.createObjectNode().put("username", username).put("sessionId", sessionId));
+            }
+            voters.add(MAPPER.createObjectNode()
+                    .put("sessionId", sessionId)
+                    .put("storyId", storyId)
+                    .put("username", username));
+        }
+        return voters;
+    }
+
+    private static Result run(String baseUrl, List<ObjectNode> voters, int votesPerUser) throws Exception {
+        final ExecutorService clients = Executors.newFixedThreadPool(voters.size());
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<long[]>> futures = new ArrayList<>(voters.size());
+        for (ObjectNode voter : voters) {
+            futures.add(clients.submit(() -> {
+                final long[] latencies = new long[votesPerUser];
+                start.await();
+                for (int i = 0; i < votesPerUser; i++) {
+                    final ObjectNode vote = voter.deepCopy().put("value", VALUES[i % VALUES.length]);
+                    final long begin = System.nanoTime();
+                    try {
+                        post(baseUrl + "/votes", vote);
+                        latencies[i] = System.nanoTime() - begin;
+                    } catch (IOException e) {
+                        latencies[i] = -1;
+                    }
+                }
+                return latencies;
+            }));
+        }
+
+        final long begin = System.nanoTime();
+        start.countDown();
+        final List<Long> latencies = new ArrayList<>(voters.size() * votesPerUser);
+        int errors = 0;
+        for (Future<long[]> future : futures) {
+            for (long latency : future.get()) {
+                if (latency < 0) {
+                    errors++;
+                } else {
+                    latencies.add(latency);
+                }
+            }
+        }
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        clients.shutdown();
+
+        final long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return new Result(sorted, errors, Math.max(1, elapsedMillis));
+    }
+
+    private static JsonNode post(String url, JsonNode body) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            MAPPER.writeValue(outputStream, body);
+        }
+        if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+            throw new IOException(url + " answered " + connection.getResponseCode());
+        }
+        try (InputStream inputStream = connection.getInputStream()) {
+            return MAPPER.readTree(inputStream);
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        final int index = (int) Math.ceil(percentile / 100d * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000d;
+    }
+
+    private static class Result {
+        private final long[] latencies;
+        private final int errors;
+        private final long elapsedMillis;
+
+        private Result(long[] latencies, int errors, long elapsedMillis) {
+            this.latencies = latencies;
+            this.errors = errors;
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+}
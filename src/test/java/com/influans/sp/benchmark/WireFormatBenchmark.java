@@ -0,0 +1,109 @@
+package com.influans.sp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.influans.sp.dto.ImportResultDto;
+import com.influans.sp.dto.SessionStateDto;
+import com.influans.sp.dto.StoryDto;
+import com.influans.sp.dto.UserDto;
+import com.influans.sp.dto.VoteDto;
+import com.influans.sp.dto.WsRequest;
+import com.influans.sp.enums.WsTypes;
+import com.influans.sp.utils.JsonSerializer;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Payload size and encode time of one WsRequest per event type, in JSON, CBOR and Smile. Not a unit test:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.influans.sp.benchmark.WireFormatBenchmark
+ * </pre>
+ * The encode time is measured from the objects, as done by the STOMP converter. Binary frames are transcoded from the
+ * JSON payload once per destination, that cost is printed in the last column.
+ *
+ * @author hazem
+ */
+public class WireFormatBenchmark {
+    private static final int ITERATIONS = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        final ObjectMapper json = JsonSerializer.getObjectMapper();
+        final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        final ObjectMapper smile = new ObjectMapper(new SmileFactory());
+
+        System.out.println(String.format("%-18s %8s %8s %8s %10s %10s %10s %14s",
+                "type", "json B", "cbor B", "smile B", "json ns", "cbor ns", "smile ns", "json>cbor ns"));
+        for (Map.Entry<WsTypes, Object> sample : samples().entrySet()) {
+            final WsRequest request = new WsRequest(sample.getKey(), sample.getValue());
+            final byte[] jsonBytes = json.writeValueAsBytes(request);
+            System.out.println(String.format("%-18s %8d %8d %8d %10.0f %10.0f %10.0f %14.0f",
+                    sample.getKey(),
+                    jsonBytes.length, cbor.writeValueAsBytes(request).length, smile.writeValueAsBytes(request).length,
+                    encodeTime(json, request), encodeTime(cbor, request), encodeTime(smile, request),
+                    transcodeTime(json, cbor, jsonBytes)));
+        }
+    }
+
+    private static double encodeTime(ObjectMapper mapper, Object value) throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        final long begin = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        return (System.nanoTime() - begin) / (double) ITERATIONS;
+    }
+
+    private static double transcodeTime(ObjectMapper json, ObjectMapper binary, byte[] payload) throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            binary.writeValueAsBytes(json.readTree(payload));
+        }
+        final long begin = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            binary.writeValueAsBytes(json.readTree(payload));
+        }
+        return (System.nanoTime() - begin) / (double) ITERATIONS;
+    }
+
+    private static Map<WsTypes, Object> samples() {
+        final String sessionId = ObjectId.get().toString();
+        final List<StoryDto> stories = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final StoryDto storyDto = new StoryDto();
+            storyDto.setStoryId(ObjectId.get().toString());
+            storyDto.setSessionId(sessionId);
+            storyDto.setStoryName("As a user I want to estimate story " + i);
+            storyDto.setOrder(i);
+            stories.add(storyDto);
+        }
+        final List<String> storyIds = stories.stream().map(StoryDto::getStoryId).collect(Collectors.toList());
+        final Map<String, Integer> histogram = new TreeMap<>();
+        histogram.put("3", 4);
+        histogram.put("5", 6);
+        histogram.put("8", 2);
+
+        final Map<WsTypes, Object> samples = new EnumMap<>(WsTypes.class);
+        samples.put(WsTypes.VOTE_ADDED, new VoteDto(ObjectId.get().toString(), sessionId, storyIds.get(0), "leonidas", "5"));
+        samples.put(WsTypes.VOTE_REMOVED, ObjectId.get().toString());
+        samples.put(WsTypes.STORY_ADDED, stories.get(0));
+        samples.put(WsTypes.STORY_REMOVED, storyIds.get(0));
+        samples.put(WsTypes.STORY_ENDED, storyIds.get(0));
+        samples.put(WsTypes.STORIES_ADDED, stories);
+        samples.put(WsTypes.STORIES_REORDERED, stories);
+        samples.put(WsTypes.STORIES_ENDED, storyIds);
+        samples.put(WsTypes.USER_CONNECTED, new UserDto("leonidas", sessionId, false));
+        samples.put(WsTypes.USER_DISCONNECTED, "leonidas");
+        samples.put(WsTypes.SESSION_STATE, new SessionStateDto(sessionId, stories, Collections.singletonMap(storyIds.get(0), histogram)));
+        samples.put(WsTypes.IMPORT_PROGRESS, new ImportResultDto(sessionId, 500, 3, false));
+        return samples;
+    }
+}
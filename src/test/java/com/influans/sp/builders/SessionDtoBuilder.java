@@ -1,9 +1,11 @@
 package com.influans.sp.builders;
 
 import com.google.common.collect.ImmutableList;
+import com.influans.sp.dto.CardDto;
 import com.influans.sp.dto.SessionDto;
 import com.influans.sp.enums.CardSetEnum;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -15,6 +17,7 @@ public class SessionDtoBuilder {
     private String username;
     private String sprintName;
     private List<String> stories;
+    private List<CardDto> cards;
 
     public static SessionDtoBuilder builder() {
         return new SessionDtoBuilder();
@@ -40,6 +43,14 @@ public class SessionDtoBuilder {
         return this;
     }
 
+    public SessionDtoBuilder withCard(String label, Double weight) {
+        if (cards == null) {
+            cards = new ArrayList<>();
+        }
+        cards.add(new CardDto(label, weight));
+        return this;
+    }
+
     public SessionStoriesBuilder withStories() {
         return new SessionStoriesBuilder(this);
     }
@@ -51,6 +62,7 @@ public class SessionDtoBuilder {
         sessionDto.setSprintName(sprintName);
         sessionDto.setCardSet(cardSet != null ? cardSet.name() : null);
         sessionDto.setStories(stories);
+        sessionDto.setCards(cards);
         return sessionDto;
     }
 
@@ -1,14 +1,22 @@
 package com.influans.sp.builders;
 
+import com.influans.sp.entity.CardEntity;
 import com.influans.sp.entity.SessionEntity;
 import com.influans.sp.enums.CardSetEnum;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
 /**
  * @author hazem
  */
 public class SessionEntityBuilder {
     private String sessionId;
+    private String sprintName;
     private CardSetEnum cardSet;
+    private Date createdAt;
+    private List<CardEntity> cards;
 
     public static SessionEntityBuilder builder() {
         return new SessionEntityBuilder();
@@ -19,15 +27,36 @@ public class SessionEntityBuilder {
         return this;
     }
 
+    public SessionEntityBuilder withSprintName(String sprintName) {
+        this.sprintName = sprintName;
+        return this;
+    }
+
     public SessionEntityBuilder withCardSet(CardSetEnum cardSet) {
         this.cardSet = cardSet;
         return this;
     }
 
+    public SessionEntityBuilder withCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+        return this;
+    }
+
+    public SessionEntityBuilder withCard(String label, Double weight) {
+        if (cards == null) {
+            cards = new ArrayList<>();
+        }
+        cards.add(new CardEntity(label, weight));
+        return this;
+    }
+
     public SessionEntity build() {
         final SessionEntity sessionEntity = new SessionEntity();
         sessionEntity.setSessionId(sessionId);
+        sessionEntity.setSprintName(sprintName);
         sessionEntity.setCardSet(cardSet);
+        sessionEntity.setCreatedAt(createdAt);
+        sessionEntity.setCards(cards);
         return sessionEntity;
     }
 }
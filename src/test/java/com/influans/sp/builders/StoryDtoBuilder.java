@@ -7,6 +7,7 @@ import com.influans.sp.dto.StoryDto;
  */
 public class StoryDtoBuilder {
 
+    private String storyId;
     private String sessionId;
     private String storyName;
     private int order;
@@ -15,6 +16,11 @@ public class StoryDtoBuilder {
         return new StoryDtoBuilder();
     }
 
+    public StoryDtoBuilder withStoryId(String storyId) {
+        this.storyId = storyId;
+        return this;
+    }
+
     public StoryDtoBuilder withSessionId(String sessionId) {
         this.sessionId = sessionId;
         return this;
@@ -32,6 +38,7 @@ public class StoryDtoBuilder {
 
     public StoryDto build() {
         final StoryDto storyDto = new StoryDto();
+        storyDto.setStoryId(storyId);
         storyDto.setSessionId(sessionId);
         storyDto.setStoryName(storyName);
         storyDto.setOrder(order);
@@ -8,6 +8,12 @@ import com.influans.sp.entity.StoryEntity;
 public class StoryEntityBuilder {
     private String sessionId;
     private String storyId;
+    private String storyName;
+    private int order;
+    private String rank;
+    private Long deadline;
+    private boolean ended;
+    private Long createdAt;
 
     public static StoryEntityBuilder builder() {
         return new StoryEntityBuilder();
@@ -23,10 +29,48 @@ public class StoryEntityBuilder {
         return this;
     }
 
+    public StoryEntityBuilder withStoryName(String storyName) {
+        this.storyName = storyName;
+        return this;
+    }
+
+    public StoryEntityBuilder withOrder(int order) {
+        this.order = order;
+        return this;
+    }
+
+    public StoryEntityBuilder withRank(String rank) {
+        this.rank = rank;
+        return this;
+    }
+
+    public StoryEntityBuilder withDeadline(Long deadline) {
+        this.deadline = deadline;
+        return this;
+    }
+
+    public StoryEntityBuilder withEnded(boolean ended) {
+        this.ended = ended;
+        return this;
+    }
+
+    public StoryEntityBuilder withCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+        return this;
+    }
+
     public StoryEntity build() {
         final StoryEntity storyEntity = new StoryEntity();
         storyEntity.setStoryId(storyId);
+        storyEntity.setStoryName(storyName);
         storyEntity.setSessionId(sessionId);
+        storyEntity.setOrder(order);
+        storyEntity.setRank(rank);
+        storyEntity.setDeadline(deadline);
+        storyEntity.setEnded(ended);
+        if (createdAt != null) {
+            storyEntity.setCreationKey(StoryEntity.creationKey(createdAt, storyId));
+        }
         return storyEntity;
     }
 }
@@ -0,0 +1,86 @@
+package com.influans.sp.config;
+
+import com.influans.sp.utils.SnowflakeIdGenerator;
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * @author hazem
+ */
+public class IdGeneratorConfigTest {
+
+    /**
+     * @verifies use the configured snowflake node
+     * @see IdGeneratorConfig#idGenerator()
+     */
+    @Test
+    public void idGenerator_shouldUseTheConfiguredSnowflakeNode() throws Exception {
+        // given
+        final IdGeneratorConfig config = snowflakeConfig(42, "http://node-0,http://node-31", "http://node-0");
+
+        // when
+        final String id = config.idGenerator().nextId();
+
+        // then
+        Assertions.assertThat(SnowflakeIdGenerator.getNode(id)).isEqualTo(42);
+    }
+
+    /**
+     * @verifies derive the snowflake node from the current node
+     * @see IdGeneratorConfig#idGenerator()
+     */
+    @Test
+    public void idGenerator_shouldDeriveTheSnowflakeNodeFromTheCurrentNode() throws Exception {
+        // given
+        final IdGeneratorConfig nodeA = snowflakeConfig(-1, "http://node-a,http://node-b", "http://node-a/");
+        final IdGeneratorConfig nodeB = snowflakeConfig(-1, "http://node-a,http://node-b", "http://node-b");
+
+        // when
+        final int a = SnowflakeIdGenerator.getNode(nodeA.idGenerator().nextId());
+        final int b = SnowflakeIdGenerator.getNode(nodeB.idGenerator().nextId());
+
+        // then
+        Assertions.assertThat(a).isNotEqualTo(b);
+        Assertions.assertThat(SnowflakeIdGenerator.getNode(nodeA.idGenerator().nextId())).isEqualTo(a);
+    }
+
+    /**
+     * @verifies fail if two nodes of the cluster derive the same snowflake node
+     * @see IdGeneratorConfig#idGenerator()
+     */
+    @Test
+    public void idGenerator_shouldFailIfTwoNodesOfTheClusterDeriveTheSameSnowflakeNode() throws Exception {
+        try {
+            // both urls hash to the same 10 bits
+            snowflakeConfig(-1, "http://node-0,http://node-31", "http://node-0").idGenerator();
+            Assert.fail("shouldFailIfTwoNodesOfTheClusterDeriveTheSameSnowflakeNode");
+        } catch (IllegalStateException e) {
+            Assertions.assertThat(e.getMessage()).contains("ids.node");
+        }
+    }
+
+    /**
+     * @verifies fail if the current node is not set in a cluster
+     * @see IdGeneratorConfig#idGenerator()
+     */
+    @Test
+    public void idGenerator_shouldFailIfTheCurrentNodeIsNotSetInACluster() throws Exception {
+        try {
+            snowflakeConfig(-1, "http://node-a,http://node-b", "").idGenerator();
+            Assert.fail("shouldFailIfTheCurrentNodeIsNotSetInACluster");
+        } catch (IllegalStateException e) {
+            Assertions.assertThat(e.getMessage()).contains("ids.node");
+        }
+    }
+
+    private static IdGeneratorConfig snowflakeConfig(int node, String clusterNodes, String selfNode) {
+        final IdGeneratorConfig config = new IdGeneratorConfig();
+        ReflectionTestUtils.setField(config, "generator", IdGeneratorConfig.SNOWFLAKE);
+        ReflectionTestUtils.setField(config, "node", node);
+        ReflectionTestUtils.setField(config, "clusterNodes", clusterNodes);
+        ReflectionTestUtils.setField(config, "selfNode", selfNode);
+        return config;
+    }
+}
@@ -0,0 +1,40 @@
+package com.influans.sp.config;
+
+import com.influans.sp.dto.DefaultResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author hazem
+ */
+public class JacksonConfigTest {
+
+    /**
+     * @verifies find every dto class
+     * @see JacksonConfig#dtoClasses()
+     */
+    @Test
+    public void dtoClasses_shouldFindEveryDtoClass() throws Exception {
+        // given
+        final String dtoPackage = DefaultResponse.class.getPackage().getName();
+        final List<Class<?>> expected = new ArrayList<>();
+        for (String source : new File("src/main/java/" + dtoPackage.replace('.', '/')).list()) {
+            final Class<?> clazz = Class.forName(dtoPackage + "." + source.replace(".java", ""));
+            if (!Modifier.isAbstract(clazz.getModifiers())) {
+                expected.add(clazz);
+            }
+        }
+
+        // when
+        final Class<?>[] dtoClasses = JacksonConfig.dtoClasses();
+
+        // then
+        Assertions.assertThat(expected).isNotEmpty();
+        Assertions.assertThat(dtoClasses).contains(expected.toArray(new Class<?>[expected.size()]));
+    }
+}
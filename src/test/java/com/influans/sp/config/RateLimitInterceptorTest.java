@@ -0,0 +1,48 @@
+package com.influans.sp.config;
+
+import com.influans.sp.ApplicationTest;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * 10.0.0.1 and 10.0.0.2 are the trusted proxies in tests.
+ *
+ * @author hazem
+ */
+public class RateLimitInterceptorTest extends ApplicationTest {
+
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    /**
+     * @verifies ignore X-Forwarded-For if the remote address is not a trusted proxy
+     * @see RateLimitInterceptor#getClient(javax.servlet.http.HttpServletRequest)
+     */
+    @Test
+    public void getClient_shouldIgnoreXForwardedForIfTheRemoteAddressIsNotATrustedProxy() throws Exception {
+        // given
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("192.168.1.10");
+        request.addHeader("X-Forwarded-For", "1.2.3.4");
+
+        // then
+        Assertions.assertThat(rateLimitInterceptor.getClient(request)).isEqualTo("192.168.1.10");
+    }
+
+    /**
+     * @verifies skip trusted proxies of the X-Forwarded-For chain
+     * @see RateLimitInterceptor#getClient(javax.servlet.http.HttpServletRequest)
+     */
+    @Test
+    public void getClient_shouldSkipTrustedProxiesOfTheXForwardedForChain() throws Exception {
+        // given: the first address is set by the client and cannot be trusted
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("X-Forwarded-For", "6.6.6.6, 1.2.3.4, 10.0.0.2");
+
+        // then
+        Assertions.assertThat(rateLimitInterceptor.getClient(request)).isEqualTo("1.2.3.4");
+    }
+}
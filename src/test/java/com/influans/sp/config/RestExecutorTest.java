@@ -0,0 +1,57 @@
+package com.influans.sp.config;
+
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * @author hazem
+ */
+public class RestExecutorTest extends ApplicationTest {
+
+    @Autowired
+    private RestExecutor restExecutor;
+
+    /**
+     * @verifies complete with the supplier result
+     * @see RestExecutor#supply(java.util.function.Supplier)
+     */
+    @Test
+    public void supply_shouldCompleteWithTheSupplierResult() throws Exception {
+        // given
+        final String caller = Thread.currentThread().getName();
+
+        // when
+        final CompletableFuture<String> future = restExecutor.supply(() -> Thread.currentThread().getName());
+
+        // then
+        Assertions.assertThat(future.get()).isNotEqualTo(caller);
+    }
+
+    /**
+     * @verifies complete exceptionally with the exception thrown by the supplier
+     * @see RestExecutor#supply(java.util.function.Supplier)
+     */
+    @Test
+    public void supply_shouldCompleteExceptionallyWithTheExceptionThrownByTheSupplier() throws Exception {
+        // when
+        final CompletableFuture<String> future = restExecutor.supply(() -> {
+            throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "not found");
+        });
+
+        // then
+        try {
+            future.get();
+            Assertions.fail("an exception should have been thrown");
+        } catch (ExecutionException e) {
+            Assertions.assertThat(e.getCause()).isInstanceOf(BusinessException.class);
+            Assertions.assertThat(((BusinessException) e.getCause()).getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.influans.sp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.google.common.collect.ImmutableMap;
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.enums.WireFormat;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author hazem
+ */
+public class StompWireFormatInterceptorTest extends ApplicationTest {
+    private static final byte[] JSON = "{\"type\":\"VOTE_ADDED\",\"data\":{\"username\":\"leo\",\"value\":\"5\"}}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private StompWireFormatInterceptor stompWireFormatInterceptor;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * @verifies encode json payloads in the given binary format
+     * @see StompWireFormatInterceptor#transcode(byte[], WireFormat)
+     */
+    @Test
+    public void transcode_shouldEncodeJsonPayloadsInTheGivenBinaryFormat() throws Exception {
+        // when
+        final byte[] cbor = stompWireFormatInterceptor.transcode(JSON, WireFormat.CBOR);
+
+        // then
+        Assertions.assertThat(cbor.length).isLessThan(JSON.length);
+        Assertions.assertThat(new ObjectMapper(new CBORFactory()).readTree(cbor)).isEqualTo(objectMapper.readTree(JSON));
+    }
+
+    /**
+     * @verifies negotiate the first supported binary format on binary capable connections
+     * @see StompWireFormatInterceptor#preSend(Message, org.springframework.messaging.MessageChannel)
+     */
+    @Test
+    public void preSend_shouldNegotiateTheFirstSupportedBinaryFormatOnBinaryCapableConnections() throws Exception {
+        // when
+        stompWireFormatInterceptor.preSend(connect("ws-1", "unknown, smile, cbor", true), null);
+
+        // then
+        Assertions.assertThat(stompWireFormatInterceptor.getWireFormat("ws-1")).isEqualTo(WireFormat.SMILE);
+    }
+
+    /**
+     * @verifies keep json on sockjs connections
+     * @see StompWireFormatInterceptor#preSend(Message, org.springframework.messaging.MessageChannel)
+     */
+    @Test
+    public void preSend_shouldKeepJsonOnSockjsConnections() throws Exception {
+        // when
+        stompWireFormatInterceptor.preSend(connect("ws-2", "cbor", false), null);
+
+        // then
+        Assertions.assertThat(stompWireFormatInterceptor.getWireFormat("ws-2")).isEqualTo(WireFormat.JSON);
+        Assertions.assertThat(stompWireFormatInterceptor.preSend(message("ws-2", JSON), null).getPayload()).isSameAs(JSON);
+    }
+
+    /**
+     * @verifies encode messages sent to sessions having negotiated a binary format
+     * @see StompWireFormatInterceptor#preSend(Message, org.springframework.messaging.MessageChannel)
+     */
+    @Test
+    public void preSend_shouldEncodeMessagesSentToSessionsHavingNegotiatedABinaryFormat() throws Exception {
+        // given
+        stompWireFormatInterceptor.preSend(connect("ws-3", "cbor", true), null);
+
+        // when
+        final Message<?> message = stompWireFormatInterceptor.preSend(message("ws-3", JSON), null);
+
+        // then
+        Assertions.assertThat(message.getPayload()).isEqualTo(stompWireFormatInterceptor.transcode(JSON, WireFormat.CBOR));
+        final StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        Assertions.assertThat(accessor.getContentType()).isEqualTo(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        Assertions.assertThat(accessor.getFirstNativeHeader(StompWireFormatInterceptor.CONTENT_FORMAT_HEADER)).isEqualTo("cbor");
+    }
+
+    /**
+     * @verifies encode a shared payload only once
+     * @see StompWireFormatInterceptor#preSend(Message, org.springframework.messaging.MessageChannel)
+     */
+    @Test
+    public void preSend_shouldEncodeASharedPayloadOnlyOnce() throws Exception {
+        // given
+        stompWireFormatInterceptor.preSend(connect("ws-4", "cbor", true), null);
+        stompWireFormatInterceptor.preSend(connect("ws-5", "cbor", true), null);
+        final byte[] payload = JSON.clone();
+
+        // when
+        final Object first = stompWireFormatInterceptor.preSend(message("ws-4", payload), null).getPayload();
+        final Object second = stompWireFormatInterceptor.preSend(message("ws-5", payload), null).getPayload();
+
+        // then
+        Assertions.assertThat(second).isSameAs(first);
+    }
+
+    private Message<byte[]> connect(String sessionId, String acceptFormat, boolean binaryCapable) {
+        final StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(sessionId);
+        accessor.setNativeHeader(StompWireFormatInterceptor.ACCEPT_FORMAT_HEADER, acceptFormat);
+        final Map<String, Object> attributes = binaryCapable
+                ? new HashMap<>(ImmutableMap.of(StompWireFormatInterceptor.BINARY_CAPABLE_ATTRIBUTE, Boolean.TRUE))
+                : new HashMap<>();
+        accessor.setSessionAttributes(attributes);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private Message<byte[]> message(String sessionId, byte[] payload) {
+        final SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination("/topic/session");
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+}
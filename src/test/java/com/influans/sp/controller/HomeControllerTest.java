@@ -0,0 +1,32 @@
+package com.influans.sp.controller;
+
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.CustomException;
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * @author hazem
+ */
+public class HomeControllerTest extends ApplicationTest {
+
+    @Autowired
+    private HomeController homeController;
+
+    /**
+     * @verifies throw an error if the message is not a valid user
+     * @see HomeController#connect(String)
+     */
+    @Test
+    public void connect_shouldThrowAnErrorIfTheMessageIsNotAValidUser() throws Exception {
+        try {
+            homeController.connect("not json");
+            Assert.fail("shouldThrowAnErrorIfTheMessageIsNotAValidUser");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+}
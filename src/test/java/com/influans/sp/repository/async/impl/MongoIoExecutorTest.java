@@ -0,0 +1,50 @@
+package com.influans.sp.repository.async.impl;
+
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.CustomException;
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * @author hazem
+ */
+public class MongoIoExecutorTest extends ApplicationTest {
+
+    @Autowired
+    private MongoIoExecutor mongoIoExecutor;
+
+    /**
+     * @verifies run the queries on the calling thread
+     * @see MongoIoExecutor#join(java.util.function.Supplier)
+     */
+    @Test
+    public void join_shouldRunTheQueriesOnTheCallingThread() throws Exception {
+        // when
+        final Thread queryThread = MongoIoExecutor.join(() -> mongoIoExecutor.supply(Thread::currentThread)
+                .thenCompose(first -> mongoIoExecutor.supply(Thread::currentThread)));
+
+        // then
+        Assertions.assertThat(queryThread).isSameAs(Thread.currentThread());
+        Assertions.assertThat(mongoIoExecutor.supply(Thread::currentThread).join()).isNotSameAs(Thread.currentThread());
+    }
+
+    /**
+     * @verifies rethrow the runtime exception that failed the call
+     * @see MongoIoExecutor#join(java.util.function.Supplier)
+     */
+    @Test
+    public void join_shouldRethrowTheRuntimeExceptionThatFailedTheCall() throws Exception {
+        try {
+            MongoIoExecutor.join(() -> mongoIoExecutor.supply(() -> {
+                throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "not found");
+            }));
+            Assert.fail("shouldRethrowTheRuntimeExceptionThatFailedTheCall");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+}
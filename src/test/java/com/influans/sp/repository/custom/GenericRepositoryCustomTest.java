@@ -291,6 +291,31 @@ public class GenericRepositoryCustomTest extends ApplicationTest {
 
     }
 
+    /**
+     * @verifies remove the field if value is null
+     * @see GenericRepositoryCustom#update(Serializable, String, Object)
+     */
+    @Test
+    public void update_shouldRemoveTheFieldIfValueIsNull() throws Exception {
+        // given
+        final String voteId = "voteId";
+        voteRepository.insert(VoteEntityBuilder.builder()
+                .withVoteId(voteId)
+                .withSessionId("session-1")
+                .withStoryId("story-2")
+                .withUsername("Leo")
+                .withValue("4h")
+                .build());
+
+        // when
+        final DAOResponse daoResponse = voteRepository.update(voteId, VoteEntityDef.VALUE, null);
+
+        // then
+        Assertions.assertThat(daoResponse.getnAffected()).isEqualTo(1);
+        Assertions.assertThat(mongoTemplate.count(new Query(Criteria.where(VoteEntityDef.VALUE).exists(true)), VoteEntity.class))
+                .isEqualTo(0);
+    }
+
     /**
      * @verifies update selected document with given values
      * @see GenericRepositoryCustom#update(Serializable, Map)
@@ -0,0 +1,179 @@
+package com.influans.sp.repository.custom;
+
+import com.google.common.collect.ImmutableList;
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.entity.SessionEntity;
+import com.influans.sp.entity.def.SessionEntityDef;
+import com.influans.sp.repository.SessionRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+/**
+ * @author hazem
+ */
+public class SessionRepositoryCustomTest extends ApplicationTest {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    /**
+     * @verifies return only sessions with open stories
+     * @see SessionRepositoryCustom#findWithOpenRound()
+     */
+    @Test
+    public void findWithOpenRound_shouldReturnOnlySessionsWithOpenStories() throws Exception {
+        // given
+        sessionRepository.save(ImmutableList.<SessionEntity>builder()
+                .add(SessionEntityBuilder.builder()
+                        .withSessionId("session-1")
+                        .build())
+                .add(SessionEntityBuilder.builder()
+                        .withSessionId("session-2")
+                        .build())
+                .build());
+        sessionRepository.update("session-2", SessionEntityDef.OPEN_STORIES, ImmutableList.of("story-1", "story-2"));
+
+        // when
+        final List<SessionEntity> sessions = sessionRepository.findWithOpenRound();
+
+        // then
+        Assertions.assertThat(sessions).hasSize(1);
+        Assertions.assertThat(sessions.get(0).getSessionId()).isEqualTo("session-2");
+        Assertions.assertThat(sessions.get(0).getOpenStories()).containsExactly("story-1", "story-2");
+    }
+
+    /**
+     * @verifies skip empty rounds
+     * @see SessionRepositoryCustom#findWithOpenRound()
+     */
+    @Test
+    public void findWithOpenRound_shouldSkipEmptyRounds() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("session-1")
+                .build());
+        sessionRepository.update("session-1", SessionEntityDef.OPEN_STORIES, ImmutableList.of());
+
+        // when
+        final List<SessionEntity> sessions = sessionRepository.findWithOpenRound();
+
+        // then
+        Assertions.assertThat(sessions).isEmpty();
+    }
+
+    /**
+     * @verifies open the round only if no round is open
+     * @see SessionRepositoryCustom#openRound(String, List)
+     */
+    @Test
+    public void openRound_shouldOpenTheRoundOnlyIfNoRoundIsOpen() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("session-1")
+                .build());
+
+        // when
+        final boolean opened = sessionRepository.openRound("session-1", ImmutableList.of("story-1"));
+        final boolean openedTwice = sessionRepository.openRound("session-1", ImmutableList.of("story-2"));
+
+        // then
+        Assertions.assertThat(opened).isTrue();
+        Assertions.assertThat(openedTwice).isFalse();
+        Assertions.assertThat(sessionRepository.openRound("session-2", ImmutableList.of("story-1"))).isFalse();
+        Assertions.assertThat(sessionRepository.findOne("session-1").getOpenStories()).containsExactly("story-1");
+    }
+
+    /**
+     * @verifies open the round if the open round is empty
+     * @see SessionRepositoryCustom#openRound(String, List)
+     */
+    @Test
+    public void openRound_shouldOpenTheRoundIfTheOpenRoundIsEmpty() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("session-1")
+                .build());
+        sessionRepository.update("session-1", SessionEntityDef.OPEN_STORIES, ImmutableList.of());
+
+        // when
+        final boolean opened = sessionRepository.openRound("session-1", ImmutableList.of("story-1"));
+
+        // then
+        Assertions.assertThat(opened).isTrue();
+        Assertions.assertThat(sessionRepository.findOne("session-1").getOpenStories()).containsExactly("story-1");
+    }
+
+    /**
+     * @verifies close the round once
+     * @see SessionRepositoryCustom#closeRound(String)
+     */
+    @Test
+    public void closeRound_shouldCloseTheRoundOnce() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("session-1")
+                .build());
+        sessionRepository.openRound("session-1", ImmutableList.of("story-1", "story-2"));
+
+        // when
+        final SessionEntity closed = sessionRepository.closeRound("session-1");
+        final SessionEntity closedTwice = sessionRepository.closeRound("session-1");
+
+        // then
+        Assertions.assertThat(closed.getOpenStories()).containsExactly("story-1", "story-2");
+        Assertions.assertThat(closedTwice).isNull();
+        Assertions.assertThat(sessionRepository.findOne("session-1").getOpenStories()).isNull();
+    }
+
+    /**
+     * @verifies remove the stories from the open round
+     * @see SessionRepositoryCustom#removeOpenStories(String, java.util.Collection)
+     */
+    @Test
+    public void removeOpenStories_shouldRemoveTheStoriesFromTheOpenRound() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("session-1")
+                .build());
+        sessionRepository.openRound("session-1", ImmutableList.of("story-1", "story-2", "story-3"));
+
+        // when
+        final boolean removed = sessionRepository.removeOpenStories("session-1", ImmutableList.of("story-1", "story-3"));
+        final boolean removedTwice = sessionRepository.removeOpenStories("session-1", ImmutableList.of("story-1"));
+
+        // then
+        Assertions.assertThat(removed).isTrue();
+        Assertions.assertThat(removedTwice).isFalse();
+        Assertions.assertThat(sessionRepository.findOne("session-1").getOpenStories()).containsExactly("story-2");
+    }
+
+    /**
+     * @verifies clear the open round only if it is empty
+     * @see SessionRepositoryCustom#clearEmptyRound(String)
+     */
+    @Test
+    public void clearEmptyRound_shouldClearTheOpenRoundOnlyIfItIsEmpty() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("session-1")
+                .build());
+        sessionRepository.openRound("session-1", ImmutableList.of("story-1", "story-2"));
+
+        // when
+        sessionRepository.removeOpenStories("session-1", ImmutableList.of("story-1"));
+        final boolean clearedWithStoryLeft = sessionRepository.clearEmptyRound("session-1");
+        sessionRepository.removeOpenStories("session-1", ImmutableList.of("story-2"));
+        final boolean cleared = sessionRepository.clearEmptyRound("session-1");
+        final boolean clearedTwice = sessionRepository.clearEmptyRound("session-1");
+
+        // then
+        Assertions.assertThat(clearedWithStoryLeft).isFalse();
+        Assertions.assertThat(cleared).isTrue();
+        Assertions.assertThat(clearedTwice).isFalse();
+        Assertions.assertThat(sessionRepository.findOne("session-1").getOpenStories()).isNull();
+    }
+}
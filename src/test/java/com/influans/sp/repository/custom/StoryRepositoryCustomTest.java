@@ -0,0 +1,312 @@
+package com.influans.sp.repository.custom;
+
+import com.google.common.collect.ImmutableList;
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.builders.StoryEntityBuilder;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.repository.StoryRepository;
+import org.assertj.core.api.Assertions;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+/**
+ * @author hazem
+ */
+public class StoryRepositoryCustomTest extends ApplicationTest {
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    /**
+     * @verifies return stories of the given session sorted by rank
+     * @see StoryRepositoryCustom#findBySessionId(String)
+     */
+    @Test
+    public void findBySessionId_shouldReturnStoriesOfTheGivenSessionSortedByRank() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder().withSessionId(sessionId).withStoryId("story-1").withOrder(1).withRank("a2").build())
+                .add(StoryEntityBuilder.builder().withSessionId(sessionId).withStoryId("story-2").withOrder(2).withRank("a0").build())
+                .add(StoryEntityBuilder.builder().withSessionId(sessionId).withStoryId("story-3").withOrder(3).withRank("a1").build())
+                .add(StoryEntityBuilder.builder().withSessionId("other").withStoryId("story-4").withOrder(4).withRank("Zz").build())
+                .build());
+
+        // when
+        final List<StoryEntity> stories = storyRepository.findBySessionId(sessionId);
+
+        // then
+        Assertions.assertThat(stories).extracting("storyId").containsExactly("story-2", "story-3", "story-1");
+    }
+
+    /**
+     * @verifies return stories without rank first sorted by order
+     * @see StoryRepositoryCustom#findBySessionId(String)
+     */
+    @Test
+    public void findBySessionId_shouldReturnStoriesWithoutRankFirstSortedByOrder() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder().withSessionId(sessionId).withStoryId("story-1").withOrder(1).withRank("a0").build())
+                .add(StoryEntityBuilder.builder().withSessionId(sessionId).withStoryId("story-2").withOrder(3).build())
+                .add(StoryEntityBuilder.builder().withSessionId(sessionId).withStoryId("story-3").withOrder(2).build())
+                .build());
+
+        // when
+        final List<StoryEntity> stories = storyRepository.findBySessionId(sessionId);
+
+        // then
+        Assertions.assertThat(stories).extracting("storyId").containsExactly("story-3", "story-2", "story-1");
+    }
+
+    /**
+     * @verifies return the next ranked story of the session
+     * @see StoryRepositoryCustom#findNextByRank(String, String, String)
+     */
+    @Test
+    public void findNextByRank_shouldReturnTheNextRankedStoryOfTheSession() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder().withSessionId(sessionId).withStoryId("story-1").withRank("a0").build())
+                .add(StoryEntityBuilder.builder().withSessionId(sessionId).withStoryId("story-2").withRank("a2").build())
+                .add(StoryEntityBuilder.builder().withSessionId("other").withStoryId("story-3").withRank("a1").build())
+                .build());
+
+        // when
+        final StoryEntity first = storyRepository.findNextByRank(sessionId, null, null);
+        final StoryEntity next = storyRepository.findNextByRank(sessionId, "a0", null);
+        final StoryEntity last = storyRepository.findNextByRank(sessionId, "a2", null);
+
+        // then
+        Assertions.assertThat(first.getStoryId()).isEqualTo("story-1");
+        Assertions.assertThat(next.getStoryId()).isEqualTo("story-2");
+        Assertions.assertThat(last).isNull();
+    }
+
+    /**
+     * @verifies skip the excluded story
+     * @see StoryRepositoryCustom#findNextByRank(String, String, String)
+     */
+    @Test
+    public void findNextByRank_shouldSkipTheExcludedStory() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder().withSessionId(sessionId).withStoryId("story-1").withRank("a0").build())
+                .add(StoryEntityBuilder.builder().withSessionId(sessionId).withStoryId("story-2").withRank("a1").build())
+                .add(StoryEntityBuilder.builder().withSessionId(sessionId).withStoryId("story-3").withRank("a2").build())
+                .build());
+
+        // when
+        final StoryEntity next = storyRepository.findNextByRank(sessionId, "a0", "story-2");
+
+        // then
+        Assertions.assertThat(next.getStoryId()).isEqualTo("story-3");
+    }
+
+    /**
+     * @verifies return only stories which are not ended sorted by rank
+     * @see StoryRepositoryCustom#findNotEndedBySessionId(String)
+     */
+    @Test
+    public void findNotEndedBySessionId_shouldReturnOnlyStoriesWhichAreNotEndedSortedByRank() throws Exception {
+        // given
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-1").withStoryName("story-1").withRank("a1").build())
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-2").withStoryName("story-2").withRank("a0").build())
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-3").withRank("a2").withEnded(true).build())
+                .add(StoryEntityBuilder.builder().withSessionId("otherSessionId").withStoryId("story-4").build())
+                .build());
+
+        // when
+        final List<StoryEntity> stories = storyRepository.findNotEndedBySessionId("sessionId");
+
+        // then
+        Assertions.assertThat(stories).extracting("storyId").containsExactly("story-2", "story-1");
+        Assertions.assertThat(stories).extracting("storyName").containsExactly("story-2", "story-1");
+    }
+
+    /**
+     * @verifies return only stories with a deadline which are not ended
+     * @see StoryRepositoryCustom#findWithDeadline()
+     */
+    @Test
+    public void findWithDeadline_shouldReturnOnlyStoriesWithADeadlineWhichAreNotEnded() throws Exception {
+        // given
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-1").withDeadline(1000L).build())
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-2").withDeadline(1000L).withEnded(true).build())
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-3").build())
+                .build());
+
+        // when
+        final List<StoryEntity> stories = storyRepository.findWithDeadline();
+
+        // then
+        Assertions.assertThat(stories).extracting("storyId").containsExactly("story-1");
+        Assertions.assertThat(stories.get(0).getSessionId()).isEqualTo("sessionId");
+        Assertions.assertThat(stories.get(0).getDeadline()).isEqualTo(1000L);
+    }
+
+    /**
+     * @verifies end the story and remove its deadline
+     * @see StoryRepositoryCustom#endStory(String)
+     */
+    @Test
+    public void endStory_shouldEndTheStoryAndRemoveItsDeadline() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-1").withDeadline(1000L).build());
+
+        // when
+        final StoryEntity storyEntity = storyRepository.endStory("story-1");
+
+        // then
+        Assertions.assertThat(storyEntity.isEnded()).isTrue();
+        Assertions.assertThat(storyEntity.getDeadline()).isNull();
+        Assertions.assertThat(storyRepository.findOne("story-1").isEnded()).isTrue();
+    }
+
+    /**
+     * @verifies return null if the story is already ended
+     * @see StoryRepositoryCustom#endStory(String)
+     */
+    @Test
+    public void endStory_shouldReturnNullIfTheStoryIsAlreadyEnded() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-1").build());
+        storyRepository.endStory("story-1");
+
+        // when
+        final StoryEntity storyEntity = storyRepository.endStory("story-1");
+
+        // then
+        Assertions.assertThat(storyEntity).isNull();
+    }
+
+    /**
+     * @verifies reopen an ended story
+     * @see StoryRepositoryCustom#reopenStory(String)
+     */
+    @Test
+    public void reopenStory_shouldReopenAnEndedStory() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-1").build());
+        storyRepository.endStories(ImmutableList.of("story-1"));
+
+        // when
+        final StoryEntity storyEntity = storyRepository.reopenStory("story-1");
+
+        // then
+        Assertions.assertThat(storyEntity.isEnded()).isFalse();
+        Assertions.assertThat(storyRepository.reopenStory("story-1")).isNull();
+        Assertions.assertThat(storyRepository.endStory("story-1")).isNotNull();
+    }
+
+    /**
+     * @verifies return null if the story is not ended
+     * @see StoryRepositoryCustom#reopenStory(String)
+     */
+    @Test
+    public void reopenStory_shouldReturnNullIfTheStoryIsNotEnded() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-1").build());
+
+        // then
+        Assertions.assertThat(storyRepository.reopenStory("story-1")).isNull();
+        Assertions.assertThat(storyRepository.reopenStory("unknown-story")).isNull();
+    }
+
+    /**
+     * @verifies end only the stories which are not ended yet
+     * @see StoryRepositoryCustom#endStories(java.util.Collection)
+     */
+    @Test
+    public void endStories_shouldEndOnlyTheStoriesWhichAreNotEndedYet() throws Exception {
+        // given
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-1").withDeadline(1000L).build())
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-2").withEnded(true).build())
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-3").build())
+                .build());
+
+        // when
+        final List<StoryEntity> first = storyRepository.endStories(ImmutableList.of("story-1", "story-2"));
+        final List<StoryEntity> second = storyRepository.endStories(ImmutableList.of("story-1", "story-2"));
+
+        // then
+        Assertions.assertThat(first).extracting("storyId").containsExactly("story-1");
+        Assertions.assertThat(first.get(0).getDeadline()).isNull();
+        Assertions.assertThat(second).isEmpty();
+        Assertions.assertThat(storyRepository.findOne("story-3").isEnded()).isFalse();
+    }
+
+    /**
+     * @verifies return stories whose name contains all the keywords
+     * @see StoryRepositoryCustom#search(List, String, int)
+     */
+    @Test
+    public void search_shouldReturnStoriesWhoseNameContainsAllTheKeywords() throws Exception {
+        // given
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder().withSessionId("session-1").withStoryId("story-1").withStoryName("Login page").withCreatedAt(1000L).build())
+                .add(StoryEntityBuilder.builder().withSessionId("session-2").withStoryId("story-2").withStoryName("Page of the login form").withCreatedAt(2000L).build())
+                .add(StoryEntityBuilder.builder().withSessionId("session-2").withStoryId("story-3").withStoryName("Login with google").withCreatedAt(3000L).build())
+                .build());
+
+        // when
+        final List<StoryEntity> stories = storyRepository.search(ImmutableList.of("login", "page"), null, 10);
+
+        // then
+        Assertions.assertThat(stories).extracting("storyId").containsExactly("story-2", "story-1");
+        Assertions.assertThat(stories).extracting("storyName").containsExactly("Page of the login form", "Login page");
+    }
+
+    /**
+     * @verifies return the stories created before the given key
+     * @see StoryRepositoryCustom#search(List, String, int)
+     */
+    @Test
+    public void search_shouldReturnTheStoriesCreatedBeforeTheGivenKey() throws Exception {
+        // given
+        final String objectId = new ObjectId().toString();
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-1").withStoryName("Login step 1").withCreatedAt(1000L).build())
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId(objectId).withStoryName("Login step 2").withCreatedAt(2000L).build())
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-3").withStoryName("Login step 3").withCreatedAt(3000L).build())
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-4").withStoryName("Login step 4").withCreatedAt(4000L).build())
+                .build());
+
+        // when
+        final List<StoryEntity> firstPage = storyRepository.search(ImmutableList.of("login"), null, 2);
+        final List<StoryEntity> secondPage = storyRepository.search(ImmutableList.of("login"), firstPage.get(1).getCreationKey(), 2);
+
+        // then
+        Assertions.assertThat(firstPage).extracting("storyId").containsExactly("story-4", "story-3");
+        Assertions.assertThat(secondPage).extracting("storyId").containsExactly(objectId, "story-1");
+    }
+
+    /**
+     * @verifies count the stories containing the keyword
+     * @see StoryRepositoryCustom#countByKeyword(String)
+     */
+    @Test
+    public void countByKeyword_shouldCountTheStoriesContainingTheKeyword() throws Exception {
+        // given
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-1").withStoryName("Login page").withCreatedAt(1000L).build())
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-2").withStoryName("Login with google").withCreatedAt(3000L).build())
+                .add(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-3").withStoryName("Export").build())
+                .build());
+
+        // when
+        final long count = storyRepository.countByKeyword("login");
+
+        // then
+        Assertions.assertThat(count).isEqualTo(2);
+    }
+}
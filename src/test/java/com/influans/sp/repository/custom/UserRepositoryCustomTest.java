@@ -4,11 +4,16 @@ import com.google.common.collect.ImmutableList;
 import com.influans.sp.ApplicationTest;
 import com.influans.sp.builders.UserEntityBuilder;
 import com.influans.sp.entity.UserEntity;
+import com.influans.sp.entity.def.UserEntityDef;
 import com.influans.sp.repository.UserRepository;
+import com.influans.sp.service.UserKeyMigrationService;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
 import org.assertj.core.api.Assertions;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
 
 import java.util.List;
 
@@ -19,6 +24,8 @@ public class UserRepositoryCustomTest extends ApplicationTest {
 
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
     @Before
     public void setUp() throws Exception {
@@ -45,6 +52,25 @@ public class UserRepositoryCustomTest extends ApplicationTest {
         Assertions.assertThat(usersBySessionId).hasSize(2);
     }
 
+    /**
+     * @verifies not return users of sessions whose id starts with the given sessionId
+     * @see UserRepositoryCustom#findUsersBySessionId(String)
+     */
+    @Test
+    public void findUsersBySessionId_shouldNotReturnUsersOfSessionsWhoseIdStartsWithTheGivenSessionId() throws Exception {
+        // given
+        userRepository.save(ImmutableList.<UserEntity>builder()
+                .add(createUser("prefixSession", "Leo"))
+                .add(createUser("prefixSession2", "Leander"))
+                .build());
+
+        // when
+        final List<UserEntity> usersBySessionId = userRepository.findUsersBySessionId("prefixSession");
+
+        // then
+        Assertions.assertThat(usersBySessionId).extracting("username").containsExactly("Leo");
+    }
+
     /**
      * @verifies return empty list if sessionId is invalid
      * @see UserRepositoryCustom#findUsersBySessionId(String)
@@ -113,6 +139,88 @@ public class UserRepositoryCustomTest extends ApplicationTest {
         Assertions.assertThat(result).isNull();
     }
 
+    /**
+     * @verifies return users stored with the legacy composite id
+     * @see UserRepositoryCustom#findUsersBySessionId(String)
+     */
+    @Test
+    public void findUsersBySessionId_shouldReturnUsersStoredWithTheLegacyCompositeId() throws Exception {
+        // given
+        final String sessionId = "legacy-session-1";
+        userRepository.save(createUser(sessionId, "Leo"));
+        insertLegacyUser(sessionId, "Leander");
+
+        // when
+        final List<UserEntity> usersBySessionId = userRepository.findUsersBySessionId(sessionId);
+
+        // then
+        Assertions.assertThat(usersBySessionId).extracting("username").containsOnly("Leo", "Leander");
+        Assertions.assertThat(usersBySessionId).extracting("userKey")
+                .containsOnly(UserEntity.key(sessionId, "Leo"), UserEntity.key(sessionId, "Leander"));
+    }
+
+    /**
+     * @verifies find and rewrite a user stored with the legacy composite id
+     * @see UserRepositoryCustom#findUser(String, String)
+     */
+    @Test
+    public void findUser_shouldFindAndRewriteAUserStoredWithTheLegacyCompositeId() throws Exception {
+        // given
+        final String sessionId = "legacy-session-2";
+        insertLegacyUser(sessionId, "Leo");
+
+        // when
+        final UserEntity result = userRepository.findUser(sessionId, "Leo");
+
+        // then
+        Assertions.assertThat(result).isNotNull();
+        Assertions.assertThat(result.getUserKey()).isEqualTo(UserEntity.key(sessionId, "Leo"));
+        Assertions.assertThat(result.isConnected()).isTrue();
+        Assertions.assertThat(userCollection().count(new BasicDBObject(UserKeyMigrationService.LEGACY_SESSION_ID, sessionId)))
+                .isEqualTo(0);
+        Assertions.assertThat(userRepository.exists(UserEntity.key(sessionId, "Leo"))).isTrue();
+    }
+
+    /**
+     * @verifies return true for a user stored with the legacy composite id
+     * @see UserRepositoryCustom#userExists(String)
+     */
+    @Test
+    public void userExists_shouldReturnTrueForAUserStoredWithTheLegacyCompositeId() throws Exception {
+        // given
+        final String sessionId = "legacy-session-3";
+        insertLegacyUser(sessionId, "Le:o");
+
+        // when
+        final boolean exists = userRepository.userExists(UserEntity.key(sessionId, "Le:o"));
+
+        // then
+        Assertions.assertThat(exists).isTrue();
+    }
+
+    /**
+     * @verifies return false if the user does not exist
+     * @see UserRepositoryCustom#userExists(String)
+     */
+    @Test
+    public void userExists_shouldReturnFalseIfTheUserDoesNotExist() throws Exception {
+        // when
+        final boolean exists = userRepository.userExists(UserEntity.key("legacy-session-4", "Leo"));
+
+        // then
+        Assertions.assertThat(exists).isFalse();
+    }
+
+    private void insertLegacyUser(String sessionId, String username) {
+        userCollection().insert(new BasicDBObject("_id", UserKeyMigrationService.legacyId(sessionId, username))
+                .append(UserEntityDef.ADMIN, false)
+                .append(UserEntityDef.CONNECTED, true));
+    }
+
+    private DBCollection userCollection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(UserEntity.class));
+    }
+
     private UserEntity createUser(String sessionId, String username) {
         return UserEntityBuilder.builder()
                 .withSessionId(sessionId)
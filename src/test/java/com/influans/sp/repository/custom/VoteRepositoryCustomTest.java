@@ -8,6 +8,10 @@ import org.assertj.core.api.Assertions;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author hazem
@@ -65,4 +69,45 @@ public class VoteRepositoryCustomTest extends ApplicationTest {
         Assertions.assertThat(voteByUserOnStory).isNull();
     }
 
+    /**
+     * @verifies stream the votes of each story consecutively
+     * @see VoteRepositoryCustom#streamOrderedByStoryId()
+     */
+    @Test
+    public void streamOrderedByStoryId_shouldStreamTheVotesOfEachStoryConsecutively() throws Exception {
+        // given
+        voteRepository.save(VoteEntityBuilder.builder().withStoryId("story-2").withUsername("Leo").build());
+        voteRepository.save(VoteEntityBuilder.builder().withStoryId("story-1").withUsername("Leo").build());
+        voteRepository.save(VoteEntityBuilder.builder().withStoryId("story-2").withUsername("Mia").build());
+        voteRepository.save(VoteEntityBuilder.builder().withStoryId("story-1").withUsername("Mia").build());
+
+        // when
+        final List<String> storyIds = new ArrayList<>();
+        try (CloseableIterator<VoteEntity> votes = voteRepository.streamOrderedByStoryId()) {
+            votes.forEachRemaining(vote -> storyIds.add(vote.getStoryId()));
+        }
+
+        // then
+        Assertions.assertThat(storyIds).isSorted();
+        Assertions.assertThat(storyIds).containsSequence("story-1", "story-1", "story-2", "story-2");
+    }
+
+    /**
+     * @verifies delete the votes of the given story only
+     * @see VoteRepositoryCustom#deleteByStoryId(String)
+     */
+    @Test
+    public void deleteByStoryId_shouldDeleteTheVotesOfTheGivenStoryOnly() throws Exception {
+        // given
+        voteRepository.save(VoteEntityBuilder.builder().withStoryId("revoted-story").withUsername("Leo").build());
+        voteRepository.save(VoteEntityBuilder.builder().withStoryId("revoted-story").withUsername("Max").build());
+
+        // when
+        final long deleted = voteRepository.deleteByStoryId("revoted-story");
+
+        // then
+        Assertions.assertThat(deleted).isEqualTo(2);
+        Assertions.assertThat(voteRepository.findByStoryId("revoted-story")).isEmpty();
+        Assertions.assertThat(voteRepository.findOne(existingVote.getVoteId())).isNotNull();
+    }
 }
@@ -0,0 +1,138 @@
+package com.influans.sp.rest;
+
+import com.influans.sp.AppIntegrationTest;
+import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.builders.StoryEntityBuilder;
+import com.influans.sp.builders.VoteEntityBuilder;
+import com.influans.sp.dto.ErrorResponse;
+import com.influans.sp.dto.SessionAnalyticsDto;
+import com.influans.sp.dto.SprintAnalyticsDto;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.enums.CardSetEnum;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.VoteRepository;
+import com.influans.sp.service.AnalyticsService;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.ws.rs.core.Response;
+import java.util.List;
+
+import static com.influans.sp.dto.ErrorResponse.Attributes.EXCEPTION;
+import static com.influans.sp.dto.ErrorResponse.Attributes.URI;
+import static com.influans.sp.exception.CustomErrorCode.OBJECT_NOT_FOUND;
+
+/**
+ * @author hazem
+ */
+public class AnalyticsRestControllerTest extends AppIntegrationTest {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Before
+    public void setUpRollups() throws Exception {
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withSprintName("sprint-1")
+                .withCardSet(CardSetEnum.FIBONACCI)
+                .build());
+        final StoryEntity storyEntity = storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("storyId")
+                .withEnded(true)
+                .build());
+        voteRepository.save(VoteEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("storyId")
+                .withUsername("Leo")
+                .withValue("fib-5")
+                .build());
+        analyticsService.onStoryEnded(storyEntity);
+    }
+
+    /**
+     * @verifies return 200 status
+     * @see AnalyticsRestController#getSessionAnalytics(String)
+     */
+    @Test
+    public void getSessionAnalytics_shouldReturn200Status() throws Exception {
+        // when
+        final SessionAnalyticsDto response = givenJsonClient()
+                .get("/analytics/sessions/sessionId")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(SessionAnalyticsDto.class);
+
+        // then
+        Assertions.assertThat(response.getEndedStories()).isEqualTo(1);
+        Assertions.assertThat(response.getStories()).hasSize(1);
+    }
+
+    /**
+     * @verifies return valid error status if an exception has been thrown
+     * @see AnalyticsRestController#getSessionAnalytics(String)
+     */
+    @Test
+    public void getSessionAnalytics_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
+        // when
+        final ErrorResponse errorResponse = givenJsonClient()
+                .get("/analytics/sessions/invalid_session_id")
+                .then()
+                .statusCode(OBJECT_NOT_FOUND.getStatusCode())
+                .extract()
+                .as(ErrorResponse.class);
+
+        // then
+        Assertions.assertThat(errorResponse.get(EXCEPTION)).isNotNull();
+        Assertions.assertThat(errorResponse.get(URI)).isEqualTo("/analytics/sessions/invalid_session_id");
+    }
+
+    /**
+     * @verifies return 200 status
+     * @see AnalyticsRestController#listSprints()
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void listSprints_shouldReturn200Status() throws Exception {
+        // when
+        final List<SprintAnalyticsDto> response = givenJsonClient()
+                .get("/analytics/sprints")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(List.class);
+
+        // then
+        Assertions.assertThat(response).hasSize(1);
+    }
+
+    /**
+     * @verifies return 200 status
+     * @see AnalyticsRestController#getSprintAnalytics(String)
+     */
+    @Test
+    public void getSprintAnalytics_shouldReturn200Status() throws Exception {
+        // when
+        final SprintAnalyticsDto response = givenJsonClient()
+                .get("/analytics/sprints/sprint-1")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(SprintAnalyticsDto.class);
+
+        // then
+        Assertions.assertThat(response.getSessions()).isEqualTo(1);
+        Assertions.assertThat(response.getPoints()).isEqualTo(5d);
+    }
+}
@@ -0,0 +1,127 @@
+package com.influans.sp.rest;
+
+import com.google.common.collect.ImmutableList;
+import com.influans.sp.AppIntegrationTest;
+import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.dto.ErrorResponse;
+import com.influans.sp.dto.NodeDto;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.service.SessionRoutingService;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.ws.rs.core.Response;
+import java.util.Collections;
+import java.util.List;
+
+import static com.influans.sp.dto.ErrorResponse.Attributes.EXCEPTION;
+import static com.influans.sp.dto.ErrorResponse.Attributes.URI;
+import static com.influans.sp.exception.CustomErrorCode.BAD_ARGS;
+
+/**
+ * @author hazem
+ */
+public class ClusterRestControllerTest extends AppIntegrationTest {
+
+    @Autowired
+    private SessionRoutingService sessionRoutingService;
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @After
+    public void tearDown() {
+        sessionRoutingService.updateNodes(Collections.emptyList());
+    }
+
+    /**
+     * @verifies return 200 status
+     * @see ClusterRestController#getOwner(String)
+     */
+    @Test
+    public void getOwner_shouldReturn200Status() throws Exception {
+        // given
+        sessionRoutingService.updateNodes(ImmutableList.of("http://node-a"));
+
+        // when
+        final NodeDto response = givenJsonClient()
+                .queryParam("sessionId", "sessionId")
+                .get("/cluster/owner")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(NodeDto.class);
+
+        // then
+        Assertions.assertThat(response.getNode()).isEqualTo("http://node-a");
+        Assertions.assertThat(response.isLocal()).isFalse();
+    }
+
+    /**
+     * @verifies return valid error status if an exception has been thrown
+     * @see ClusterRestController#getOwner(String)
+     */
+    @Test
+    public void getOwner_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
+        // when
+        final ErrorResponse errorResponse = givenJsonClient()
+                .get("/cluster/owner")
+                .then()
+                .statusCode(BAD_ARGS.getStatusCode())
+                .extract()
+                .as(ErrorResponse.class);
+
+        // then
+        Assertions.assertThat(errorResponse.get(EXCEPTION)).isNotNull();
+        Assertions.assertThat(errorResponse.get(URI)).isEqualTo("/cluster/owner");
+    }
+
+    /**
+     * @verifies return 200 status
+     * @see ClusterRestController#listNodes()
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void listNodes_shouldReturn200Status() throws Exception {
+        // given
+        sessionRoutingService.updateNodes(ImmutableList.of("http://node-a", "http://node-b"));
+
+        // when
+        final List<String> nodes = givenJsonClient()
+                .get("/cluster/nodes")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(List.class);
+
+        // then
+        Assertions.assertThat(nodes).containsExactly("http://node-a", "http://node-b");
+        // the node list cannot be changed through the API
+        givenJsonClient()
+                .body(ImmutableList.of("http://attacker"))
+                .put("/cluster/nodes")
+                .then()
+                .statusCode(Response.Status.METHOD_NOT_ALLOWED.getStatusCode());
+        Assertions.assertThat(sessionRoutingService.getNodes()).containsExactly("http://node-a", "http://node-b");
+    }
+
+    /**
+     * @verifies redirect session calls to the owner node
+     * @see com.influans.sp.config.SessionRoutingInterceptor#preHandle(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, Object)
+     */
+    @Test
+    public void preHandle_shouldRedirectSessionCallsToTheOwnerNode() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder().withSessionId("sessionId").build());
+        sessionRoutingService.updateNodes(ImmutableList.of("http://node-a"));
+
+        // then
+        givenJsonClient()
+                .redirects().follow(false)
+                .get("/sessions/{sessionId}", "sessionId")
+                .then()
+                .statusCode(Response.Status.TEMPORARY_REDIRECT.getStatusCode())
+                .header("Location", "http://node-a/sessions/sessionId");
+    }
+}
@@ -0,0 +1,98 @@
+package com.influans.sp.rest;
+
+import com.influans.sp.AppIntegrationTest;
+import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.builders.StoryEntityBuilder;
+import com.influans.sp.dto.ErrorResponse;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.StoryRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.ws.rs.core.Response;
+import java.util.Date;
+
+import static com.influans.sp.dto.ErrorResponse.Attributes.EXCEPTION;
+import static com.influans.sp.dto.ErrorResponse.Attributes.URI;
+import static com.influans.sp.exception.CustomErrorCode.OBJECT_NOT_FOUND;
+
+/**
+ * @author hazem
+ */
+public class ExportRestControllerTest extends AppIntegrationTest {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+
+    /**
+     * @verifies return 200 status
+     * @see ExportRestController#exportSession(String, String)
+     */
+    @Test
+    public void exportSession_shouldReturn200Status() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withCreatedAt(new Date())
+                .build());
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId("story-1")
+                .build());
+
+        // when
+        final String response = givenJsonClient()
+                .queryParam("format", "csv")
+                .get("/export/sessions/{sessionId}", sessionId)
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .asString();
+
+        // then
+        Assertions.assertThat(response.split("\n")).hasSize(2);
+    }
+
+    /**
+     * @verifies return valid error status if an exception has been thrown
+     * @see ExportRestController#exportSession(String, String)
+     */
+    @Test
+    public void exportSession_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
+        // when
+        final ErrorResponse errorResponse = givenJsonClient()
+                .get("/export/sessions/{sessionId}", "invalid_session_id")
+                .then()
+                .statusCode(OBJECT_NOT_FOUND.getStatusCode())
+                .extract()
+                .as(ErrorResponse.class);
+
+        // then
+        Assertions.assertThat(errorResponse.get(EXCEPTION)).isNotNull();
+        Assertions.assertThat(errorResponse.get(URI)).isEqualTo("/export/sessions/invalid_session_id");
+    }
+
+    /**
+     * @verifies return 200 status
+     * @see ExportRestController#exportSessions(java.util.Date, java.util.Date, String)
+     */
+    @Test
+    public void exportSessions_shouldReturn200Status() throws Exception {
+        // when
+        final String response = givenJsonClient()
+                .queryParam("from", "2016-01-01")
+                .queryParam("to", "2016-02-01")
+                .get("/export/sessions")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .asString();
+
+        // then
+        Assertions.assertThat(response).isEmpty();
+    }
+}
@@ -0,0 +1,49 @@
+package com.influans.sp.rest;
+
+import com.influans.sp.AppIntegrationTest;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.service.MetricsService;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.ws.rs.core.Response;
+import java.util.Map;
+
+/**
+ * @author hazem
+ */
+public class MetricsRestControllerTest extends AppIntegrationTest {
+
+    @Autowired
+    private MetricsService metricsService;
+
+    /**
+     * @verifies return 200 status
+     * @see MetricsRestController#getMetrics()
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getMetrics_shouldReturn200Status() throws Exception {
+        // given
+        final String counter = MetricsService.getErrorCounter(CustomErrorCode.OBJECT_NOT_FOUND);
+        final long notFoundErrors = metricsService.get(counter);
+        givenJsonClient()
+                .queryParam("sessionId", "invalid_session_id")
+                .get("/stories")
+                .then()
+                .statusCode(CustomErrorCode.OBJECT_NOT_FOUND.getStatusCode());
+
+        // when
+        final Map<String, Number> response = givenJsonClient()
+                .get("/metrics")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(Map.class);
+
+        // then
+        Assertions.assertThat(response.get(counter).longValue()).isEqualTo(notFoundErrors + 1);
+        Assertions.assertThat(response).containsKey(MetricsService.UNEXPECTED_ERRORS);
+    }
+}
@@ -0,0 +1,175 @@
+package com.influans.sp.rest;
+
+import com.google.common.collect.ImmutableList;
+import com.influans.sp.AppIntegrationTest;
+import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.builders.StoryDtoBuilder;
+import com.influans.sp.builders.StoryEntityBuilder;
+import com.influans.sp.builders.VoteEntityBuilder;
+import com.influans.sp.dto.ErrorResponse;
+import com.influans.sp.dto.RoundDto;
+import com.influans.sp.dto.StoryBatchDto;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.VoteRepository;
+import com.influans.sp.service.RoundService;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.ws.rs.core.Response;
+
+import static com.influans.sp.dto.ErrorResponse.Attributes.EXCEPTION;
+import static com.influans.sp.dto.ErrorResponse.Attributes.URI;
+import static com.influans.sp.exception.CustomErrorCode.BAD_ARGS;
+import static com.influans.sp.exception.CustomErrorCode.OBJECT_NOT_FOUND;
+
+/**
+ * @author hazem
+ */
+public class RoundRestControllerTest extends AppIntegrationTest {
+
+    @Autowired
+    private RoundService roundService;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Before
+    public void setUpRound() throws Exception {
+        roundService.init();
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .build());
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId("sessionId")
+                        .withStoryId("story-1")
+                        .build())
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId("sessionId")
+                        .withStoryId("story-2")
+                        .build())
+                .build());
+    }
+
+    /**
+     * @verifies return 200 status
+     * @see RoundRestController#openRound(com.influans.sp.dto.StoryBatchDto)
+     */
+    @Test
+    public void openRound_shouldReturn200Status() throws Exception {
+        // when
+        final RoundDto response = givenJsonClient()
+                .body(storyBatch("sessionId"))
+                .post("/rounds")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(RoundDto.class);
+
+        // then
+        Assertions.assertThat(response.getStoryIds()).containsExactly("story-1", "story-2");
+        Assertions.assertThat(sessionRepository.findOne("sessionId").getOpenStories()).hasSize(2);
+    }
+
+    /**
+     * @verifies return valid error status if an exception has been thrown
+     * @see RoundRestController#openRound(com.influans.sp.dto.StoryBatchDto)
+     */
+    @Test
+    public void openRound_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
+        // when
+        final ErrorResponse errorResponse = givenJsonClient()
+                .body(storyBatch("invalid_session_id"))
+                .post("/rounds")
+                .then()
+                .statusCode(OBJECT_NOT_FOUND.getStatusCode())
+                .extract()
+                .as(ErrorResponse.class);
+
+        // then
+        Assertions.assertThat(errorResponse.get(EXCEPTION)).isNotNull();
+        Assertions.assertThat(errorResponse.get(URI)).isEqualTo("/rounds");
+    }
+
+    /**
+     * @verifies return 200 status
+     * @see RoundRestController#getRound(String)
+     */
+    @Test
+    public void getRound_shouldReturn200Status() throws Exception {
+        // given
+        roundService.openRound(storyBatch("sessionId"));
+
+        // when
+        final RoundDto response = givenJsonClient()
+                .get("/rounds/sessionId")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(RoundDto.class);
+
+        // then
+        Assertions.assertThat(response.getStoryIds()).containsExactly("story-1", "story-2");
+    }
+
+    /**
+     * @verifies return 200 status
+     * @see RoundRestController#endRound(String)
+     */
+    @Test
+    public void endRound_shouldReturn200Status() throws Exception {
+        // given
+        roundService.openRound(storyBatch("sessionId"));
+        voteRepository.save(VoteEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("story-2")
+                .withUsername("Leo")
+                .withValue("fib-5")
+                .build());
+
+        // when
+        final RoundDto response = givenJsonClient()
+                .post("/rounds/sessionId/end")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(RoundDto.class);
+
+        // then
+        Assertions.assertThat(response.getVotes()).containsOnlyKeys("story-1", "story-2");
+        Assertions.assertThat(response.getVotes().get("story-2")).hasSize(1);
+        Assertions.assertThat(storyRepository.findOne("story-1").isEnded()).isTrue();
+    }
+
+    /**
+     * @verifies return valid error status if an exception has been thrown
+     * @see RoundRestController#endRound(String)
+     */
+    @Test
+    public void endRound_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
+        // when
+        final ErrorResponse errorResponse = givenJsonClient()
+                .post("/rounds/sessionId/end")
+                .then()
+                .statusCode(BAD_ARGS.getStatusCode())
+                .extract()
+                .as(ErrorResponse.class);
+
+        // then
+        Assertions.assertThat(errorResponse.get(EXCEPTION)).isNotNull();
+        Assertions.assertThat(errorResponse.get(URI)).isEqualTo("/rounds/sessionId/end");
+    }
+
+    private static StoryBatchDto storyBatch(String sessionId) {
+        return new StoryBatchDto(sessionId, ImmutableList.of(
+                StoryDtoBuilder.builder().withStoryId("story-1").build(),
+                StoryDtoBuilder.builder().withStoryId("story-2").build()));
+    }
+}
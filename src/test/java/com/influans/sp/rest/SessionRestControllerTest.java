@@ -76,7 +76,7 @@ public class SessionRestControllerTest extends AppIntegrationTest {
 
     /**
      * @verifies return 200 status
-     * @see SessionRestController#createSession(com.influans.sp.dto.SessionDto)
+     * @see SessionRestController#createSession(com.influans.sp.dto.SessionDto, String)
      */
     @Test
     public void createSession_shouldReturn200Status() throws Exception {
@@ -102,7 +102,7 @@ public class SessionRestControllerTest extends AppIntegrationTest {
 
     /**
      * @verifies return valid error status if an exception has been thrown
-     * @see SessionRestController#createSession(com.influans.sp.dto.SessionDto)
+     * @see SessionRestController#createSession(com.influans.sp.dto.SessionDto, String)
      */
     @Test
     public void createSession_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
@@ -125,4 +125,60 @@ public class SessionRestControllerTest extends AppIntegrationTest {
         Assertions.assertThat(errorResponse.get(EXCEPTION)).isNotNull();
         Assertions.assertThat(errorResponse.get(URI)).isEqualTo("/sessions");
     }
+
+    /**
+     * @verifies return 200 status
+     * @see SessionRestController#cloneSession(String, com.influans.sp.dto.SessionDto, String)
+     */
+    @Test
+    public void cloneSession_shouldReturn200Status() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withCardSet(CardSetEnum.FIBONACCI)
+                .build());
+        final SessionDto sessionDto = SessionDtoBuilder.builder()
+                .withUsername("username")
+                .withSprintName("sprint-2")
+                .build();
+
+        // when
+        final SessionDto response = givenJsonClient()
+                .body(sessionDto)
+                .post("/sessions/sessionId/clone")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(SessionDto.class);
+
+        // then
+        Assertions.assertThat(response.getSessionId()).isNotEqualTo("sessionId");
+        Assertions.assertThat(response.getCardSet()).isEqualTo(CardSetEnum.FIBONACCI.getValue());
+        Assertions.assertThat(response.getSprintName()).isEqualTo("sprint-2");
+    }
+
+    /**
+     * @verifies return valid error status if an exception has been thrown
+     * @see SessionRestController#cloneSession(String, com.influans.sp.dto.SessionDto, String)
+     */
+    @Test
+    public void cloneSession_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
+        // given
+        final SessionDto sessionDto = SessionDtoBuilder.builder()
+                .withUsername("username")
+                .build();
+
+        // when
+        final ErrorResponse errorResponse = givenJsonClient()
+                .body(sessionDto)
+                .post("/sessions/invalid_session_id/clone")
+                .then()
+                .statusCode(OBJECT_NOT_FOUND.getStatusCode())
+                .extract()
+                .as(ErrorResponse.class);
+
+        // then
+        Assertions.assertThat(errorResponse.get(EXCEPTION)).isNotNull();
+        Assertions.assertThat(errorResponse.get(URI)).isEqualTo("/sessions/invalid_session_id/clone");
+    }
 }
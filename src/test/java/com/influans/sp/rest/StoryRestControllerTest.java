@@ -7,21 +7,28 @@ import com.influans.sp.builders.StoryDtoBuilder;
 import com.influans.sp.builders.StoryEntityBuilder;
 import com.influans.sp.dto.DefaultResponse;
 import com.influans.sp.dto.ErrorResponse;
+import com.influans.sp.dto.ImportResultDto;
+import com.influans.sp.dto.StoryBatchDto;
 import com.influans.sp.dto.StoryDto;
+import com.influans.sp.dto.StorySearchResultDto;
 import com.influans.sp.entity.SessionEntity;
 import com.influans.sp.entity.StoryEntity;
 import com.influans.sp.enums.ResponseStatus;
 import com.influans.sp.repository.SessionRepository;
 import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.service.IdempotencyService;
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 
 import javax.ws.rs.core.Response;
 import java.util.List;
 
 import static com.influans.sp.dto.ErrorResponse.Attributes.EXCEPTION;
 import static com.influans.sp.dto.ErrorResponse.Attributes.URI;
+import static com.influans.sp.exception.CustomErrorCode.BAD_ARGS;
+import static com.influans.sp.exception.CustomErrorCode.IDEMPOTENCY_KEY_REUSED;
 import static com.influans.sp.exception.CustomErrorCode.OBJECT_NOT_FOUND;
 
 /**
@@ -36,7 +43,7 @@ public class StoryRestControllerTest extends AppIntegrationTest {
 
     /**
      * @verifies return 200 status
-     * @see StoryRestController#listStories(String)
+     * @see StoryRestController#listStories(String, String)
      */
     @Test
     @SuppressWarnings("unchecked")
@@ -75,7 +82,7 @@ public class StoryRestControllerTest extends AppIntegrationTest {
 
     /**
      * @verifies return valid error status if an exception has been thrown
-     * @see StoryRestController#listStories(String)
+     * @see StoryRestController#listStories(String, String)
      */
     @Test
     public void listStories_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
@@ -93,6 +100,86 @@ public class StoryRestControllerTest extends AppIntegrationTest {
         Assertions.assertThat(errorResponse.get(URI)).isEqualTo("/stories");
     }
 
+    /**
+     * @verifies return 200 status
+     * @see StoryRestController#search(String, String, int)
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void search_shouldReturn200Status() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("storyId")
+                .withStoryName("Login page")
+                .build());
+
+        // when
+        final List<StorySearchResultDto> response = givenJsonClient()
+                .queryParam("q", "login")
+                .get("/stories/search")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(List.class);
+
+        // then
+        Assertions.assertThat(response).hasSize(1);
+    }
+
+    /**
+     * @verifies return valid error status if an exception has been thrown
+     * @see StoryRestController#search(String, String, int)
+     */
+    @Test
+    public void search_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
+        // when
+        final ErrorResponse errorResponse = givenJsonClient()
+                .queryParam("q", "login")
+                .queryParam("size", 0)
+                .get("/stories/search")
+                .then()
+                .statusCode(BAD_ARGS.getStatusCode())
+                .extract()
+                .as(ErrorResponse.class);
+
+        // then
+        Assertions.assertThat(errorResponse.get(EXCEPTION)).isNotNull();
+        Assertions.assertThat(errorResponse.get(URI)).isEqualTo("/stories/search");
+    }
+
+    /**
+     * @verifies return 304 status if the stories list did not change
+     * @see StoryRestController#listStories(String, String)
+     */
+    @Test
+    public void listStories_shouldReturn304StatusIfTheStoriesListDidNotChange() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        final SessionEntity sessionEntity = SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build();
+        sessionRepository.save(sessionEntity);
+        final String eTag = givenJsonClient()
+                .queryParam("sessionId", sessionId)
+                .get("/stories")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .header(HttpHeaders.ETAG);
+
+        // when
+        sessionRepository.delete(sessionId);
+
+        // then
+        givenJsonClient()
+                .queryParam("sessionId", sessionId)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .get("/stories")
+                .then()
+                .statusCode(Response.Status.NOT_MODIFIED.getStatusCode());
+    }
+
     /**
      * @verifies return 200 status
      * @see StoryRestController#delete(String)
@@ -199,7 +286,56 @@ public class StoryRestControllerTest extends AppIntegrationTest {
 
     /**
      * @verifies return 200 status
-     * @see StoryRestController#createStory(com.influans.sp.dto.StoryDto)
+     * @see StoryRestController#revoteStory(String)
+     */
+    @Test
+    public void revoteStory_shouldReturn200Status() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId("storyId")
+                .withEnded(true)
+                .build());
+
+        // when
+        final DefaultResponse response = givenJsonClient()
+                .post("/stories/{storyId}/revote", "storyId")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(DefaultResponse.class);
+
+        // then
+        Assertions.assertThat(response.getStatus()).isEqualTo(ResponseStatus.OK);
+        Assertions.assertThat(storyRepository.findOne("storyId").isEnded()).isFalse();
+    }
+
+    /**
+     * @verifies return valid error status if an exception has been thrown
+     * @see StoryRestController#revoteStory(String)
+     */
+    @Test
+    public void revoteStory_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
+        // when
+        final ErrorResponse errorResponse = givenJsonClient()
+                .post("/stories/{storyId}/revote", "invalid_story_id")
+                .then()
+                .statusCode(OBJECT_NOT_FOUND.getStatusCode())
+                .extract()
+                .as(ErrorResponse.class);
+
+        // then
+        Assertions.assertThat(errorResponse.get(EXCEPTION)).isNotNull();
+        Assertions.assertThat(errorResponse.get(URI)).isEqualTo("/stories/invalid_story_id/revote");
+    }
+
+    /**
+     * @verifies return 200 status
+     * @see StoryRestController#createStory(com.influans.sp.dto.StoryDto, String)
      */
     @Test
     public void createStory_shouldReturn200Status() throws Exception {
@@ -230,9 +366,87 @@ public class StoryRestControllerTest extends AppIntegrationTest {
 
     }
 
+    /**
+     * @verifies not create the story twice for the same idempotency key
+     * @see StoryRestController#createStory(com.influans.sp.dto.StoryDto, String)
+     */
+    @Test
+    public void createStory_shouldNotCreateTheStoryTwiceForTheSameIdempotencyKey() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        final SessionEntity sessionEntity = SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build();
+        sessionRepository.save(sessionEntity);
+
+        final StoryDto storyDto = StoryDtoBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryName("story-name")
+                .build();
+        final StoryDto first = givenJsonClient()
+                .header(IdempotencyService.IDEMPOTENCY_HEADER, "create-story-retry")
+                .body(storyDto)
+                .post("/stories")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(StoryDto.class);
+
+        // when
+        final StoryDto retry = givenJsonClient()
+                .header(IdempotencyService.IDEMPOTENCY_HEADER, "create-story-retry")
+                .body(storyDto)
+                .post("/stories")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(StoryDto.class);
+
+        // then
+        Assertions.assertThat(retry.getStoryId()).isEqualTo(first.getStoryId());
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).hasSize(1);
+    }
+
+    /**
+     * @verifies reject an idempotency key reused with another position
+     * @see StoryRestController#createStory(com.influans.sp.dto.StoryDto, String)
+     */
+    @Test
+    public void createStory_shouldRejectAnIdempotencyKeyReusedWithAnotherPosition() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+        final StoryDto storyDto = StoryDtoBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryName("story-name")
+                .build();
+        final StoryDto first = givenJsonClient()
+                .header(IdempotencyService.IDEMPOTENCY_HEADER, "create-story-position")
+                .body(storyDto)
+                .post("/stories")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(StoryDto.class);
+
+        // when
+        givenJsonClient()
+                .header(IdempotencyService.IDEMPOTENCY_HEADER, "create-story-position")
+                .queryParam("after", first.getStoryId())
+                .body(storyDto)
+                .post("/stories")
+                .then()
+                .statusCode(IDEMPOTENCY_KEY_REUSED.getStatusCode());
+
+        // then
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).hasSize(1);
+    }
+
     /**
      * @verifies return valid error status if an exception has been thrown
-     * @see StoryRestController#createStory(com.influans.sp.dto.StoryDto)
+     * @see StoryRestController#createStory(com.influans.sp.dto.StoryDto, String)
      */
     @Test
     public void createStory_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
@@ -256,4 +470,113 @@ public class StoryRestControllerTest extends AppIntegrationTest {
         Assertions.assertThat(errorResponse.get(EXCEPTION)).isNotNull();
         Assertions.assertThat(errorResponse.get(URI)).isEqualTo("/stories");
     }
+
+    /**
+     * @verifies return 200 status
+     * @see StoryRestController#createStories(com.influans.sp.dto.StoryBatchDto)
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void createStories_shouldReturn200Status() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        final SessionEntity sessionEntity = SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build();
+        sessionRepository.save(sessionEntity);
+        final StoryBatchDto storyBatchDto = new StoryBatchDto(sessionId, ImmutableList.<StoryDto>builder()
+                .add(StoryDtoBuilder.builder()
+                        .withStoryName("story-1")
+                        .build())
+                .add(StoryDtoBuilder.builder()
+                        .withStoryName("story-2")
+                        .build())
+                .build());
+
+        // when
+        final List<StoryDto> response = givenJsonClient()
+                .body(storyBatchDto)
+                .post("/stories/batch")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(List.class);
+
+        // then
+        Assertions.assertThat(response).hasSize(2);
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).hasSize(2);
+    }
+
+    /**
+     * @verifies return valid error status if an exception has been thrown
+     * @see StoryRestController#createStories(com.influans.sp.dto.StoryBatchDto)
+     */
+    @Test
+    public void createStories_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
+        // given
+        final StoryBatchDto storyBatchDto = new StoryBatchDto("invalid_session_id", ImmutableList.of(StoryDtoBuilder.builder()
+                .withStoryName("story-1")
+                .build()));
+
+        // when
+        final ErrorResponse errorResponse = givenJsonClient()
+                .body(storyBatchDto)
+                .post("/stories/batch")
+                .then()
+                .statusCode(OBJECT_NOT_FOUND.getStatusCode())
+                .extract()
+                .as(ErrorResponse.class);
+
+        // then
+        Assertions.assertThat(errorResponse.get(EXCEPTION)).isNotNull();
+        Assertions.assertThat(errorResponse.get(URI)).isEqualTo("/stories/batch");
+    }
+
+    /**
+     * @verifies return 200 status
+     * @see StoryRestController#importStories(String, String, java.io.InputStream)
+     */
+    @Test
+    public void importStories_shouldReturn200Status() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        final SessionEntity sessionEntity = SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build();
+        sessionRepository.save(sessionEntity);
+
+        // when
+        final ImportResultDto response = givenJsonClient()
+                .queryParam("format", "csv")
+                .body("story-1\nstory-2\nstory-3")
+                .post("/sessions/{sessionId}/stories/import", sessionId)
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .as(ImportResultDto.class);
+
+        // then
+        Assertions.assertThat(response.getImported()).isEqualTo(3);
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).hasSize(3);
+    }
+
+    /**
+     * @verifies return valid error status if an exception has been thrown
+     * @see StoryRestController#importStories(String, String, java.io.InputStream)
+     */
+    @Test
+    public void importStories_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
+        // when
+        final ErrorResponse errorResponse = givenJsonClient()
+                .body("story-1")
+                .post("/sessions/{sessionId}/stories/import", "invalid_session_id")
+                .then()
+                .statusCode(OBJECT_NOT_FOUND.getStatusCode())
+                .extract()
+                .as(ErrorResponse.class);
+
+        // then
+        Assertions.assertThat(errorResponse.get(EXCEPTION)).isNotNull();
+        Assertions.assertThat(errorResponse.get(URI)).isEqualTo("/sessions/invalid_session_id/stories/import");
+    }
 }
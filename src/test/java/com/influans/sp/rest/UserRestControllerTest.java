@@ -37,7 +37,7 @@ public class UserRestControllerTest extends AppIntegrationTest {
 
     /**
      * @verifies return 200 status
-     * @see UserRestController#listUsers(String)
+     * @see UserRestController#listUsers(String, String)
      */
     @Test
     @SuppressWarnings("unchecked")
@@ -75,7 +75,7 @@ public class UserRestControllerTest extends AppIntegrationTest {
 
     /**
      * @verifies return valid error status if an exception has been thrown
-     * @see UserRestController#listUsers(String)
+     * @see UserRestController#listUsers(String, String)
      */
     @Test
     public void listUsers_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
@@ -42,7 +42,7 @@ public class VoteRestControllerTest extends AppIntegrationTest {
 
     /**
      * @verifies return 200 status
-     * @see VoteRestController#listVote(String)
+     * @see VoteRestController#listVote(String, String)
      */
     @Test
     @SuppressWarnings("unchecked")
@@ -81,7 +81,7 @@ public class VoteRestControllerTest extends AppIntegrationTest {
 
     /**
      * @verifies return valid error status if an exception has been thrown
-     * @see VoteRestController#listVote(String)
+     * @see VoteRestController#listVote(String, String)
      */
     @Test
     public void listVote_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
@@ -153,7 +153,7 @@ public class VoteRestControllerTest extends AppIntegrationTest {
 
     /**
      * @verifies return 200 status
-     * @see VoteRestController#saveVote(com.influans.sp.dto.VoteDto)
+     * @see VoteRestController#saveVote(com.influans.sp.dto.VoteDto, String)
      */
     @Test
     public void saveVote_shouldReturn200Status() throws Exception {
@@ -202,7 +202,7 @@ public class VoteRestControllerTest extends AppIntegrationTest {
 
     /**
      * @verifies return valid error status if an exception has been thrown
-     * @see VoteRestController#saveVote(com.influans.sp.dto.VoteDto)
+     * @see VoteRestController#saveVote(com.influans.sp.dto.VoteDto, String)
      */
     @Test
     public void saveVote_shouldReturnValidErrorStatusIfAnExceptionHasBeenThrown() throws Exception {
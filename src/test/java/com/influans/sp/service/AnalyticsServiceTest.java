@@ -0,0 +1,411 @@
+package com.influans.sp.service;
+
+import com.google.common.collect.ImmutableList;
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.builders.StoryEntityBuilder;
+import com.influans.sp.builders.VoteEntityBuilder;
+import com.influans.sp.dto.SessionAnalyticsDto;
+import com.influans.sp.dto.SprintAnalyticsDto;
+import com.influans.sp.entity.SessionRollupEntity;
+import com.influans.sp.entity.SprintRollupEntity;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.entity.StoryRollupEntity;
+import com.influans.sp.entity.VoteEntity;
+import com.influans.sp.enums.CardSetEnum;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.CustomException;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.SessionRollupRepository;
+import com.influans.sp.repository.SprintRollupRepository;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.StoryRollupRepository;
+import com.influans.sp.repository.VoteRepository;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+/**
+ * @author hazem
+ */
+public class AnalyticsServiceTest extends ApplicationTest {
+    private static final Offset<Double> PRECISION = Offset.offset(0.001);
+
+    @Autowired
+    private AnalyticsService analyticsService;
+    @Autowired
+    private StoryService storyService;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+    @Autowired
+    private StoryRollupRepository storyRollupRepository;
+    @Autowired
+    private SessionRollupRepository sessionRollupRepository;
+    @Autowired
+    private SprintRollupRepository sprintRollupRepository;
+
+    /**
+     * @verifies create the story rollup from the votes of the story
+     * @see AnalyticsService#onStoryEnded(StoryEntity)
+     */
+    @Test
+    public void onStoryEnded_shouldCreateTheStoryRollupFromTheVotesOfTheStory() throws Exception {
+        // given
+        saveSession("session-1", "sprint-1");
+        final StoryEntity storyEntity = saveStory("story-1", "session-1", true);
+        saveVotes("story-1", "session-1", "fib-3", "fib-5", "fib-5", "?");
+
+        // when
+        analyticsService.onStoryEnded(storyEntity);
+
+        // then
+        final StoryRollupEntity rollup = storyRollupRepository.findOne("story-1");
+        Assertions.assertThat(rollup.getSessionId()).isEqualTo("session-1");
+        Assertions.assertThat(rollup.getRounds()).isEqualTo(1);
+        Assertions.assertThat(rollup.getVotes()).isEqualTo(4);
+        Assertions.assertThat(rollup.getAverage()).isEqualTo(13d / 3, PRECISION);
+        Assertions.assertThat(rollup.getMin()).isEqualTo(3d);
+        Assertions.assertThat(rollup.getMax()).isEqualTo(5d);
+        Assertions.assertThat(rollup.getConsensusRound()).isNull();
+    }
+
+    /**
+     * @verifies count a new round when the story is ended again
+     * @see AnalyticsService#onStoryEnded(StoryEntity)
+     */
+    @Test
+    public void onStoryEnded_shouldCountANewRoundWhenTheStoryIsEndedAgain() throws Exception {
+        // given
+        saveSession("session-1", "sprint-1");
+        saveStory("story-1", "session-1", false);
+        saveVotes("story-1", "session-1", "fib-3", "fib-8");
+        storyService.endStory("story-1");
+
+        // when
+        storyService.revoteStory("story-1");
+        saveVotes("story-1", "session-1", "fib-3", "fib-8");
+        storyService.endStory("story-1");
+
+        // then
+        Assertions.assertThat(storyRollupRepository.findOne("story-1").getRounds()).isEqualTo(2);
+        final SessionRollupEntity sessionRollup = sessionRollupRepository.findOne("session-1");
+        Assertions.assertThat(sessionRollup.getStories()).isEqualTo(1);
+        Assertions.assertThat(sessionRollup.getRounds()).isEqualTo(2);
+    }
+
+    /**
+     * @verifies update the rollups of all the stories
+     * @see AnalyticsService#onStoriesEnded(List)
+     */
+    @Test
+    public void onStoriesEnded_shouldUpdateTheRollupsOfAllTheStories() throws Exception {
+        // given
+        saveSession("session-1", "sprint-1");
+        final StoryEntity story1 = saveStory("story-1", "session-1", true);
+        final StoryEntity story2 = saveStory("story-2", "session-1", true);
+        saveVotes("story-1", "session-1", "fib-3", "fib-5");
+        saveVotes("story-2", "session-1", "fib-8", "fib-8");
+        analyticsService.onStoryEnded(story1);
+
+        // when
+        analyticsService.onStoriesEnded(ImmutableList.of(story1, story2));
+
+        // then
+        Assertions.assertThat(storyRollupRepository.findOne("story-1").getRounds()).isEqualTo(2);
+        Assertions.assertThat(storyRollupRepository.findOne("story-2").getRounds()).isEqualTo(1);
+        Assertions.assertThat(storyRollupRepository.findOne("story-2").getConsensusRound()).isEqualTo(1);
+        final SessionRollupEntity sessionRollup = sessionRollupRepository.findOne("session-1");
+        Assertions.assertThat(sessionRollup.getStories()).isEqualTo(2);
+        Assertions.assertThat(sessionRollup.getRounds()).isEqualTo(3);
+        Assertions.assertThat(sessionRollup.getConsensus()).isEqualTo(1);
+        Assertions.assertThat(sprintRollupRepository.findOne("sprint-1").getStories()).isEqualTo(2);
+    }
+
+    /**
+     * @verifies keep the first consensus round
+     * @see AnalyticsService#onStoryEnded(StoryEntity)
+     */
+    @Test
+    public void onStoryEnded_shouldKeepTheFirstConsensusRound() throws Exception {
+        // given
+        saveSession("session-1", "sprint-1");
+        saveStory("story-1", "session-1", false);
+        saveVotes("story-1", "session-1", "fib-3", "fib-8");
+        storyService.endStory("story-1");
+        storyService.revoteStory("story-1");
+        saveVotes("story-1", "session-1", "fib-5", "fib-5", "pass");
+        storyService.endStory("story-1");
+
+        // when
+        storyService.revoteStory("story-1");
+        saveVotes("story-1", "session-1", "fib-5", "fib-8");
+        storyService.endStory("story-1");
+
+        // then
+        Assertions.assertThat(storyRollupRepository.findOne("story-1").getConsensusRound()).isEqualTo(2);
+        Assertions.assertThat(sessionRollupRepository.findOne("session-1").getConsensus()).isEqualTo(1);
+    }
+
+    /**
+     * @verifies update the session and sprint totals incrementally
+     * @see AnalyticsService#onStoryEnded(StoryEntity)
+     */
+    @Test
+    public void onStoryEnded_shouldUpdateTheSessionAndSprintTotalsIncrementally() throws Exception {
+        // given
+        saveSession("session-1", "sprint-1");
+        saveSession("session-2", "sprint-1");
+        final StoryEntity story1 = saveStory("story-1", "session-1", true);
+        final StoryEntity story2 = saveStory("story-2", "session-1", true);
+        final StoryEntity story3 = saveStory("story-3", "session-2", true);
+        saveVotes("story-1", "session-1", "fib-3", "fib-5");
+        saveVotes("story-2", "session-1", "fib-8", "fib-8");
+        saveVotes("story-3", "session-2", "fib-13");
+
+        // when
+        analyticsService.onStoryEnded(story1);
+        analyticsService.onStoryEnded(story2);
+        analyticsService.onStoryEnded(story3);
+        // story-1 is estimated again with a single vote
+        voteRepository.delete(voteRepository.findByStoryId("story-1"));
+        saveVotes("story-1", "session-1", "fib-2");
+        analyticsService.onStoryEnded(story1);
+
+        // then
+        final SessionRollupEntity sessionRollup = sessionRollupRepository.findOne("session-1");
+        Assertions.assertThat(sessionRollup.getSprintName()).isEqualTo("sprint-1");
+        Assertions.assertThat(sessionRollup.getStories()).isEqualTo(2);
+        Assertions.assertThat(sessionRollup.getRounds()).isEqualTo(3);
+        Assertions.assertThat(sessionRollup.getConsensus()).isEqualTo(2);
+        Assertions.assertThat(sessionRollup.getPoints()).isEqualTo(10d, PRECISION);
+        Assertions.assertThat(sessionRollup.getSpread()).isEqualTo(0d, PRECISION);
+
+        final SprintRollupEntity sprintRollup = sprintRollupRepository.findOne("sprint-1");
+        Assertions.assertThat(sprintRollup.getSessions()).isEqualTo(2);
+        Assertions.assertThat(sprintRollup.getStories()).isEqualTo(3);
+        Assertions.assertThat(sprintRollup.getRounds()).isEqualTo(4);
+        Assertions.assertThat(sprintRollup.getPoints()).isEqualTo(23d, PRECISION);
+    }
+
+    /**
+     * @verifies throw an exception if sessionId is null or empty
+     * @see AnalyticsService#getSessionAnalytics(String)
+     */
+    @Test
+    public void getSessionAnalytics_shouldThrowAnExceptionIfSessionIdIsNullOrEmpty() throws Exception {
+        try {
+            analyticsService.getSessionAnalytics("");
+            Assert.fail("shouldThrowAnExceptionIfSessionIdIsNullOrEmpty");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if session does not exist
+     * @see AnalyticsService#getSessionAnalytics(String)
+     */
+    @Test
+    public void getSessionAnalytics_shouldThrowAnExceptionIfSessionDoesNotExist() throws Exception {
+        try {
+            analyticsService.getSessionAnalytics("invalid_session_id");
+            Assert.fail("shouldThrowAnExceptionIfSessionDoesNotExist");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies return the session totals and the story rollups
+     * @see AnalyticsService#getSessionAnalytics(String)
+     */
+    @Test
+    public void getSessionAnalytics_shouldReturnTheSessionTotalsAndTheStoryRollups() throws Exception {
+        // given
+        saveSession("session-1", "sprint-1");
+        final StoryEntity storyEntity = saveStory("story-1", "session-1", true);
+        saveVotes("story-1", "session-1", "fib-3", "fib-8");
+        analyticsService.onStoryEnded(storyEntity);
+
+        // when
+        final SessionAnalyticsDto sessionAnalytics = analyticsService.getSessionAnalytics("session-1");
+
+        // then
+        Assertions.assertThat(sessionAnalytics.getSprintName()).isEqualTo("sprint-1");
+        Assertions.assertThat(sessionAnalytics.getEndedStories()).isEqualTo(1);
+        Assertions.assertThat(sessionAnalytics.getPoints()).isEqualTo(5.5, PRECISION);
+        Assertions.assertThat(sessionAnalytics.getAverageSpread()).isEqualTo(5d, PRECISION);
+        Assertions.assertThat(sessionAnalytics.getAverageRounds()).isEqualTo(1d, PRECISION);
+        Assertions.assertThat(sessionAnalytics.getStories()).hasSize(1);
+        Assertions.assertThat(sessionAnalytics.getStories().get(0).getSpread()).isEqualTo(5d, PRECISION);
+    }
+
+    /**
+     * @verifies throw an exception if the sprint has no ended story
+     * @see AnalyticsService#getSprintAnalytics(String)
+     */
+    @Test
+    public void getSprintAnalytics_shouldThrowAnExceptionIfTheSprintHasNoEndedStory() throws Exception {
+        try {
+            analyticsService.getSprintAnalytics("invalid_sprint");
+            Assert.fail("shouldThrowAnExceptionIfTheSprintHasNoEndedStory");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies return the totals of all the sessions of the sprint
+     * @see AnalyticsService#getSprintAnalytics(String)
+     */
+    @Test
+    public void getSprintAnalytics_shouldReturnTheTotalsOfAllTheSessionsOfTheSprint() throws Exception {
+        // given
+        saveSession("session-1", "sprint-1");
+        saveSession("session-2", "sprint-1");
+        final StoryEntity story1 = saveStory("story-1", "session-1", true);
+        final StoryEntity story2 = saveStory("story-2", "session-2", true);
+        saveVotes("story-1", "session-1", "fib-3");
+        saveVotes("story-2", "session-2", "fib-5");
+        analyticsService.onStoryEnded(story1);
+        analyticsService.onStoryEnded(story2);
+
+        // when
+        final SprintAnalyticsDto sprintAnalytics = analyticsService.getSprintAnalytics("sprint-1");
+
+        // then
+        Assertions.assertThat(sprintAnalytics.getSessions()).isEqualTo(2);
+        Assertions.assertThat(sprintAnalytics.getEndedStories()).isEqualTo(2);
+        Assertions.assertThat(sprintAnalytics.getConsensusStories()).isEqualTo(2);
+        Assertions.assertThat(sprintAnalytics.getPoints()).isEqualTo(8d, PRECISION);
+    }
+
+    /**
+     * @verifies return all the sprints sorted by name
+     * @see AnalyticsService#listSprints()
+     */
+    @Test
+    public void listSprints_shouldReturnAllTheSprintsSortedByName() throws Exception {
+        // given
+        saveSession("session-1", "sprint-2");
+        saveSession("session-2", "sprint-1");
+        final StoryEntity story1 = saveStory("story-1", "session-1", true);
+        final StoryEntity story2 = saveStory("story-2", "session-2", true);
+        analyticsService.onStoryEnded(story1);
+        analyticsService.onStoryEnded(story2);
+
+        // when
+        final List<SprintAnalyticsDto> sprints = analyticsService.listSprints();
+
+        // then
+        Assertions.assertThat(sprints).extracting("sprintName").containsExactly("sprint-1", "sprint-2");
+    }
+
+    /**
+     * @verifies create the rollups of the ended stories from their votes
+     * @see AnalyticsService#backfill()
+     */
+    @Test
+    public void backfill_shouldCreateTheRollupsOfTheEndedStoriesFromTheirVotes() throws Exception {
+        // given
+        saveSession("session-1", "sprint-1");
+        saveStory("story-1", "session-1", true);
+        saveStory("story-2", "session-1", true);
+        saveStory("story-3", "session-1", true);
+        saveVotes("story-1", "session-1", "fib-3", "fib-5");
+        saveVotes("story-2", "session-1", "fib-8");
+        saveVotes("story-3", "session-1", "fib-13", "fib-13");
+
+        // when
+        final long backfilled = analyticsService.backfill();
+
+        // then
+        Assertions.assertThat(backfilled).isEqualTo(3);
+        Assertions.assertThat(storyRollupRepository.findOne("story-1").getAverage()).isEqualTo(4d, PRECISION);
+        final SessionRollupEntity sessionRollup = sessionRollupRepository.findOne("session-1");
+        Assertions.assertThat(sessionRollup.getStories()).isEqualTo(3);
+        Assertions.assertThat(sessionRollup.getRounds()).isEqualTo(3);
+        Assertions.assertThat(sessionRollup.getConsensus()).isEqualTo(2);
+        Assertions.assertThat(sessionRollup.getPoints()).isEqualTo(25d, PRECISION);
+        Assertions.assertThat(sprintRollupRepository.findOne("sprint-1").getSessions()).isEqualTo(1);
+    }
+
+    /**
+     * @verifies skip stories which already have a rollup
+     * @see AnalyticsService#backfill()
+     */
+    @Test
+    public void backfill_shouldSkipStoriesWhichAlreadyHaveARollup() throws Exception {
+        // given
+        saveSession("session-1", "sprint-1");
+        final StoryEntity storyEntity = saveStory("story-1", "session-1", true);
+        saveStory("story-2", "session-1", true);
+        saveVotes("story-1", "session-1", "fib-3");
+        saveVotes("story-2", "session-1", "fib-5");
+        analyticsService.onStoryEnded(storyEntity);
+
+        // when
+        final long backfilled = analyticsService.backfill();
+
+        // then
+        Assertions.assertThat(backfilled).isEqualTo(1);
+        Assertions.assertThat(analyticsService.backfill()).isEqualTo(0);
+        Assertions.assertThat(sessionRollupRepository.findOne("session-1").getStories()).isEqualTo(2);
+        Assertions.assertThat(sprintRollupRepository.findOne("sprint-1").getSessions()).isEqualTo(1);
+    }
+
+    /**
+     * @verifies skip stories which are not ended
+     * @see AnalyticsService#backfill()
+     */
+    @Test
+    public void backfill_shouldSkipStoriesWhichAreNotEnded() throws Exception {
+        // given
+        saveSession("session-1", "sprint-1");
+        saveStory("story-1", "session-1", false);
+        saveVotes("story-1", "session-1", "fib-3");
+
+        // when
+        final long backfilled = analyticsService.backfill();
+
+        // then
+        Assertions.assertThat(backfilled).isEqualTo(0);
+        Assertions.assertThat(storyRollupRepository.count()).isEqualTo(0);
+    }
+
+    private void saveSession(String sessionId, String sprintName) {
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withSprintName(sprintName)
+                .withCardSet(CardSetEnum.FIBONACCI)
+                .build());
+    }
+
+    private StoryEntity saveStory(String storyId, String sessionId, boolean ended) {
+        return storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId(storyId)
+                .withEnded(ended)
+                .build());
+    }
+
+    private void saveVotes(String storyId, String sessionId, String... values) {
+        for (int i = 0; i < values.length; i++) {
+            final VoteEntity voteEntity = VoteEntityBuilder.builder()
+                    .withStoryId(storyId)
+                    .withSessionId(sessionId)
+                    .withUsername("user-" + i)
+                    .withValue(values[i])
+                    .build();
+            voteRepository.save(voteEntity);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.influans.sp.service;
+
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.enums.CardSetEnum;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.utils.CardDeck;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * @author hazem
+ */
+public class CardDeckServiceTest extends ApplicationTest {
+
+    @Autowired
+    private CardDeckService cardDeckService;
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    /**
+     * @verifies return the custom deck of the session
+     * @see CardDeckService#getDeck(String)
+     */
+    @Test
+    public void getDeck_shouldReturnTheCustomDeckOfTheSession() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("deck-custom")
+                .withCardSet(CardSetEnum.FIBONACCI)
+                .withCard("S", 1d)
+                .withCard("M", 3d)
+                .withCard("coffee", null)
+                .build());
+
+        // when
+        final CardDeck deck = cardDeckService.getDeck("deck-custom");
+
+        // then
+        Assertions.assertThat(deck.getLabels()).containsExactly("S", "M", "coffee");
+        Assertions.assertThat(deck.weight(deck.ordinal("M"))).isEqualTo(3);
+        Assertions.assertThat(deck.weight(deck.ordinal("coffee"))).isNaN();
+        Assertions.assertThat(deck.accepts("fib-1")).isFalse();
+    }
+
+    /**
+     * @verifies return the card set deck if the session has no custom cards
+     * @see CardDeckService#getDeck(String)
+     */
+    @Test
+    public void getDeck_shouldReturnTheCardSetDeckIfTheSessionHasNoCustomCards() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("deck-card-set")
+                .withCardSet(CardSetEnum.FIBONACCI)
+                .build());
+
+        // when
+        final CardDeck deck = cardDeckService.getDeck("deck-card-set");
+
+        // then
+        Assertions.assertThat(deck).isSameAs(CardSetEnum.FIBONACCI.getDeck());
+        Assertions.assertThat(deck.weight(deck.ordinal("fib-31"))).isEqualTo(21);
+    }
+
+    /**
+     * @verifies return null if session does not exist
+     * @see CardDeckService#getDeck(String)
+     */
+    @Test
+    public void getDeck_shouldReturnNullIfSessionDoesNotExist() throws Exception {
+        Assertions.assertThat(cardDeckService.getDeck("unknown")).isNull();
+    }
+
+    /**
+     * @verifies load the deck of a session only once
+     * @see CardDeckService#getDeck(String)
+     */
+    @Test
+    public void getDeck_shouldLoadTheDeckOfASessionOnlyOnce() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("deck-cached")
+                .withCard("S", 1d)
+                .build());
+        final CardDeck deck = cardDeckService.getDeck("deck-cached");
+        sessionRepository.delete("deck-cached");
+
+        // when
+        final CardDeck cached = cardDeckService.getDeck("deck-cached");
+
+        // then
+        Assertions.assertThat(cached).isSameAs(deck);
+    }
+}
@@ -0,0 +1,203 @@
+package com.influans.sp.service;
+
+import com.google.common.collect.ImmutableList;
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.builders.StoryEntityBuilder;
+import com.influans.sp.builders.VoteEntityBuilder;
+import com.influans.sp.dto.StoryExportDto;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.enums.DataFormat;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.CustomException;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.VoteRepository;
+import com.influans.sp.utils.JsonSerializer;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.MapEntry;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * @author hazem
+ */
+public class ExportServiceTest extends ApplicationTest {
+
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+
+    /**
+     * @verifies throw an exception if format is not supported
+     * @see ExportService#getFormat(String)
+     */
+    @Test
+    public void getFormat_shouldThrowAnExceptionIfFormatIsNotSupported() throws Exception {
+        try {
+            exportService.getFormat("xml");
+            Assert.fail("shouldThrowAnExceptionIfFormatIsNotSupported");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if session does not exist
+     * @see ExportService#exportSession(String, DataFormat)
+     */
+    @Test
+    public void exportSession_shouldThrowAnExceptionIfSessionDoesNotExist() throws Exception {
+        try {
+            exportService.exportSession("invalid_session_id", DataFormat.NDJSON);
+            Assert.fail("shouldThrowAnExceptionIfSessionDoesNotExist");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies write one ndjson line per story with its votes
+     * @see ExportService#exportSession(String, DataFormat)
+     */
+    @Test
+    public void exportSession_shouldWriteOneNdjsonLinePerStoryWithItsVotes() throws Exception {
+        // given
+        givenSession("session-1", new Date());
+
+        // when
+        final String[] lines = write(exportService.exportSession("session-1", DataFormat.NDJSON)).split("\n");
+
+        // then
+        Assertions.assertThat(lines).hasSize(2);
+        final StoryExportDto first = JsonSerializer.toObject(lines[0], StoryExportDto.class);
+        Assertions.assertThat(first.getStoryId()).isEqualTo("session-1-story-1");
+        Assertions.assertThat(first.getVotes()).containsEntry("Leo", "1").containsEntry("Leonidas", "3");
+        final StoryExportDto second = JsonSerializer.toObject(lines[1], StoryExportDto.class);
+        Assertions.assertThat(second.getStoryId()).isEqualTo("session-1-story-2");
+        Assertions.assertThat(second.getVotes()).isEmpty();
+    }
+
+    /**
+     * @verifies write one csv line per vote
+     * @see ExportService#exportSession(String, DataFormat)
+     */
+    @Test
+    public void exportSession_shouldWriteOneCsvLinePerVote() throws Exception {
+        // given
+        givenSession("session-1", new Date());
+
+        // when
+        final String[] lines = write(exportService.exportSession("session-1", DataFormat.CSV)).split("\n");
+
+        // then
+        Assertions.assertThat(lines).containsExactly(
+                "sessionId,sprintName,storyId,storyName,order,ended,username,value",
+                "session-1,,session-1-story-1,,1,false,Leo,1",
+                "session-1,,session-1-story-1,,1,false,Leonidas,3",
+                "session-1,,session-1-story-2,,2,false,,");
+    }
+
+    /**
+     * @verifies export the votes of stories spread over several chunks
+     * @see ExportService#exportSession(String, DataFormat)
+     */
+    @Test
+    public void exportSession_shouldExportTheVotesOfStoriesSpreadOverSeveralChunks() throws Exception {
+        // given
+        givenSession("session-1", new Date());
+        for (int order = 3; order <= 5; order++) {
+            storyRepository.save(StoryEntityBuilder.builder()
+                    .withSessionId("session-1")
+                    .withStoryId("session-1-story-" + order)
+                    .withOrder(order)
+                    .build());
+            voteRepository.save(VoteEntityBuilder.builder()
+                    .withSessionId("session-1")
+                    .withStoryId("session-1-story-" + order)
+                    .withUsername("Leo")
+                    .withValue(Integer.toString(order))
+                    .build());
+        }
+
+        // when
+        final String[] lines = write(exportService.exportSession("session-1", DataFormat.NDJSON)).split("\n");
+
+        // then
+        Assertions.assertThat(lines).hasSize(5);
+        for (int order = 3; order <= 5; order++) {
+            final StoryExportDto story = JsonSerializer.toObject(lines[order - 1], StoryExportDto.class);
+            Assertions.assertThat(story.getStoryId()).isEqualTo("session-1-story-" + order);
+            Assertions.assertThat(story.getVotes()).containsOnly(MapEntry.entry("Leo", Integer.toString(order)));
+        }
+    }
+
+    /**
+     * @verifies export only sessions created in the given range
+     * @see ExportService#exportSessions(java.util.Date, java.util.Date, DataFormat)
+     */
+    @Test
+    public void exportSessions_shouldExportOnlySessionsCreatedInTheGivenRange() throws Exception {
+        // given
+        givenSession("session-1", new Date(1000L));
+        givenSession("session-2", new Date(2000L));
+        givenSession("session-3", new Date(3000L));
+
+        // when
+        final String[] lines = write(exportService.exportSessions(new Date(1500L), new Date(3000L), DataFormat.NDJSON)).split("\n");
+
+        // then
+        Assertions.assertThat(lines).hasSize(2);
+        for (String line : lines) {
+            Assertions.assertThat(JsonSerializer.toObject(line, StoryExportDto.class).getSessionId()).isEqualTo("session-2");
+        }
+    }
+
+    private void givenSession(String sessionId, Date createdAt) {
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withCreatedAt(createdAt)
+                .build());
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId(sessionId + "-story-2")
+                        .withOrder(2)
+                        .build())
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId(sessionId + "-story-1")
+                        .withOrder(1)
+                        .build())
+                .build());
+        voteRepository.save(VoteEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId(sessionId + "-story-1")
+                .withUsername("Leo")
+                .withValue("1")
+                .build());
+        voteRepository.save(VoteEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId(sessionId + "-story-1")
+                .withUsername("Leonidas")
+                .withValue("3")
+                .build());
+    }
+
+    private String write(StreamingResponseBody body) throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        body.writeTo(outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
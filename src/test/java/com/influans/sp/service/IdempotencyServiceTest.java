@@ -0,0 +1,120 @@
+package com.influans.sp.service;
+
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.dto.StoryDto;
+import com.influans.sp.entity.IdempotencyEntity;
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.CustomException;
+import com.influans.sp.repository.IdempotencyRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author hazem
+ */
+public class IdempotencyServiceTest extends ApplicationTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+
+    /**
+     * @verifies execute the action if key is null or empty
+     * @see IdempotencyService#execute(String, String, Object, Class, java.util.function.Supplier)
+     */
+    @Test
+    public void execute_shouldExecuteTheActionIfKeyIsNullOrEmpty() throws Exception {
+        // given
+        final AtomicInteger executions = new AtomicInteger();
+
+        // when
+        idempotencyService.execute(null, "test", "request", Integer.class, executions::incrementAndGet);
+        idempotencyService.execute("", "test", "request", Integer.class, executions::incrementAndGet);
+
+        // then
+        Assertions.assertThat(executions.get()).isEqualTo(2);
+    }
+
+    /**
+     * @verifies execute the action only once for the same key
+     * @see IdempotencyService#execute(String, String, Object, Class, java.util.function.Supplier)
+     */
+    @Test
+    public void execute_shouldExecuteTheActionOnlyOnceForTheSameKey() throws Exception {
+        // given
+        final AtomicInteger executions = new AtomicInteger();
+
+        // when
+        final Integer first = idempotencyService.execute("key-1", "test", "request", Integer.class, executions::incrementAndGet);
+        final Integer retry = idempotencyService.execute("key-1", "test", "request", Integer.class, executions::incrementAndGet);
+        final Integer otherScope = idempotencyService.execute("key-1", "other", "request", Integer.class, executions::incrementAndGet);
+
+        // then
+        Assertions.assertThat(retry).isEqualTo(first);
+        Assertions.assertThat(otherScope).isEqualTo(2);
+        Assertions.assertThat(executions.get()).isEqualTo(2);
+        Assertions.assertThat(idempotencyRepository.findOne("test:key-1").getPayload()).isEqualTo("1");
+    }
+
+    /**
+     * @verifies execute the action again if the first execution failed
+     * @see IdempotencyService#execute(String, String, Object, Class, java.util.function.Supplier)
+     */
+    @Test
+    public void execute_shouldExecuteTheActionAgainIfTheFirstExecutionFailed() throws Exception {
+        try {
+            idempotencyService.execute("key-2", "test", "request", Integer.class, () -> {
+                throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "not found");
+            });
+            Assert.fail("shouldExecuteTheActionAgainIfTheFirstExecutionFailed");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+
+        Assertions.assertThat(idempotencyService.execute("key-2", "test", "request", Integer.class, () -> 5)).isEqualTo(5);
+    }
+
+    /**
+     * @verifies replay responses stored in mongo
+     * @see IdempotencyService#execute(String, String, Object, Class, java.util.function.Supplier)
+     */
+    @Test
+    public void execute_shouldReplayResponsesStoredInMongo() throws Exception {
+        // given
+        idempotencyRepository.save(new IdempotencyEntity("stories:key-3", "{\"storyId\":\"story-1\",\"storyName\":\"name\"}"));
+
+        // when
+        final StoryDto storyDto = idempotencyService.execute("key-3", "stories", "request", StoryDto.class, () -> {
+            throw new IllegalStateException("should not be executed");
+        });
+
+        // then
+        Assertions.assertThat(storyDto.getStoryId()).isEqualTo("story-1");
+    }
+
+    /**
+     * @verifies reject a key reused with another request body
+     * @see IdempotencyService#execute(String, String, Object, Class, java.util.function.Supplier)
+     */
+    @Test
+    public void execute_shouldRejectAKeyReusedWithAnotherRequestBody() throws Exception {
+        // given
+        idempotencyService.execute("key-4", "test", "first request", Integer.class, () -> 1);
+
+        // when
+        try {
+            idempotencyService.execute("key-4", "test", "second request", Integer.class, () -> 2);
+            Assert.fail("shouldRejectAKeyReusedWithAnotherRequestBody");
+        } catch (CustomException e) {
+            // then
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.IDEMPOTENCY_KEY_REUSED);
+            Assertions.assertThat(e.getCustomErrorCode().getStatusCode()).isEqualTo(409);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.influans.sp.service;
+
+import com.google.common.base.Strings;
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.builders.StoryEntityBuilder;
+import com.influans.sp.dto.ImportResultDto;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.enums.WsTypes;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.CustomException;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.websocket.WebSocketSender;
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author hazem
+ */
+public class ImportServiceTest extends ApplicationTest {
+
+    @Autowired
+    private ImportService importService;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private WebSocketSender webSocketSender;
+
+    /**
+     * @verifies throw an exception if session does not exist
+     * @see ImportService#importStories(String, String, java.io.InputStream)
+     */
+    @Test
+    public void importStories_shouldThrowAnExceptionIfSessionDoesNotExist() throws Exception {
+        try {
+            importService.importStories("invalid_session_id", "csv", toStream("story"));
+            Assert.fail("shouldThrowAnExceptionIfSessionDoesNotExist");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if format is not supported
+     * @see ImportService#importStories(String, String, java.io.InputStream)
+     */
+    @Test
+    public void importStories_shouldThrowAnExceptionIfFormatIsNotSupported() throws Exception {
+        try {
+            importService.importStories("sessionId", "xml", toStream("story"));
+            Assert.fail("shouldThrowAnExceptionIfFormatIsNotSupported");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies import csv stories after existing stories
+     * @see ImportService#importStories(String, String, java.io.InputStream)
+     */
+    @Test
+    public void importStories_shouldImportCsvStoriesAfterExistingStories() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId("story-1")
+                .withOrder(4)
+                .build());
+
+        // when
+        final ImportResultDto result = importService.importStories(sessionId, "csv",
+                toStream("Issue key,Summary\nSP-1,\"Login, with SSO\"\nSP-2,\nSP-3,Logout\n"));
+
+        // then
+        Assertions.assertThat(result.getImported()).isEqualTo(2);
+        Assertions.assertThat(result.getSkipped()).isEqualTo(1);
+        final List<StoryEntity> stories = storyRepository.findBySessionId(sessionId).stream()
+                .sorted(Comparator.comparingInt(StoryEntity::getOrder))
+                .collect(Collectors.toList());
+        Assertions.assertThat(stories).extracting("storyName").containsExactly(null, "Login, with SSO", "Logout");
+        Assertions.assertThat(stories).extracting("order").containsExactly(4, 5, 6);
+    }
+
+    /**
+     * @verifies import ndjson stories and skip lines without name
+     * @see ImportService#importStories(String, String, java.io.InputStream)
+     */
+    @Test
+    public void importStories_shouldImportNdjsonStoriesAndSkipLinesWithoutName() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+
+        // when
+        final ImportResultDto result = importService.importStories(sessionId, null,
+                toStream("{\"storyName\":\"story-1\"}\n\n{\"storyName\":\" \"}\n{\"storyName\":\"story-2\"}"));
+
+        // then
+        Assertions.assertThat(result.getImported()).isEqualTo(2);
+        Assertions.assertThat(result.getSkipped()).isEqualTo(1);
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).hasSize(2);
+    }
+
+    /**
+     * @verifies write stories by chunks and send progress notifications
+     * @see ImportService#importStories(String, String, java.io.InputStream)
+     */
+    @Test
+    public void importStories_shouldWriteStoriesByChunksAndSendProgressNotifications() throws Exception {
+        // given
+        final String sessionId = "import-progress-session";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+
+        // when
+        final ImportResultDto result = importService.importStories(sessionId, "csv", toStream("a\nb\nc\nd\ne"));
+
+        // then
+        Assertions.assertThat(result.getImported()).isEqualTo(5);
+        Assertions.assertThat(result.isDone()).isTrue();
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).hasSize(5);
+        // chunkSize is 2 in tests: 2 intermediate notifications and the final one
+        verify(webSocketSender, atLeast(3)).sendNotification(eq(sessionId), eq(WsTypes.IMPORT_PROGRESS), any(ImportResultDto.class));
+    }
+
+    /**
+     * @verifies not write the pending chunk if the upload is invalid
+     * @see ImportService#importStories(String, String, java.io.InputStream)
+     */
+    @Test
+    public void importStories_shouldNotWriteThePendingChunkIfTheUploadIsInvalid() throws Exception {
+        // given
+        final String sessionId = "import-invalid-session";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+
+        // then
+        try {
+            importService.importStories(sessionId, "csv", toStream("a\nb\nc\n" + Strings.repeat("d", 65)));
+            Assert.fail("shouldNotWriteThePendingChunkIfTheUploadIsInvalid");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+            Assertions.assertThat(e.getMessage()).contains("the first 2 stories were imported");
+        }
+        // chunkSize is 2 in tests: a and b are committed, c is dropped with the invalid record
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).extracting("storyName").containsOnly("a", "b");
+    }
+
+    /**
+     * @verifies reject ndjson lines longer than the maximum record length
+     * @see ImportService#importStories(String, String, java.io.InputStream)
+     */
+    @Test
+    public void importStories_shouldRejectNdjsonLinesLongerThanTheMaximumRecordLength() throws Exception {
+        // given
+        final String sessionId = "import-long-line-session";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+
+        // then
+        try {
+            importService.importStories(sessionId, "ndjson", toStream("{\"storyName\":\"" + Strings.repeat("a", 64) + "\"}"));
+            Assert.fail("shouldRejectNdjsonLinesLongerThanTheMaximumRecordLength");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).isEmpty();
+    }
+
+    private InputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,33 @@
+package com.influans.sp.service;
+
+import com.influans.sp.ApplicationTest;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * @author hazem
+ */
+public class MetricsServiceTest extends ApplicationTest {
+
+    @Autowired
+    private MetricsService metricsService;
+
+    /**
+     * @verifies create the counter on first increment
+     * @see MetricsService#increment(String)
+     */
+    @Test
+    public void increment_shouldCreateTheCounterOnFirstIncrement() throws Exception {
+        // given
+        Assertions.assertThat(metricsService.snapshot()).doesNotContainKey("test.counter");
+
+        // when
+        metricsService.increment("test.counter");
+        metricsService.increment("test.counter");
+
+        // then
+        Assertions.assertThat(metricsService.get("test.counter")).isEqualTo(2);
+        Assertions.assertThat(metricsService.snapshot()).containsEntry("test.counter", 2L);
+    }
+}
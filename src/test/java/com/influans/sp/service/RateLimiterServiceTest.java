@@ -0,0 +1,169 @@
+package com.influans.sp.service;
+
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.CustomException;
+import com.influans.sp.exception.RateLimitException;
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Properties;
+
+/**
+ * The throttled family allows 2 requests per key in tests, the shipped limits are checked against a limiter configured
+ * with the main application.properties.
+ *
+ * @author hazem
+ */
+public class RateLimiterServiceTest extends ApplicationTest {
+
+    @Autowired
+    private RateLimiterService rateLimiterService;
+    @Autowired
+    private MetricsService metricsService;
+
+    /**
+     * @verifies reject requests once a bucket is empty
+     * @see RateLimiterService#tryAcquire(String, String...)
+     */
+    @Test
+    public void tryAcquire_shouldRejectRequestsOnceABucketIsEmpty() throws Exception {
+        // when
+        Assertions.assertThat(rateLimiterService.tryAcquire("throttled", "session:1", "client:a")).isTrue();
+        Assertions.assertThat(rateLimiterService.tryAcquire("throttled", "session:1", "client:b")).isTrue();
+
+        // then
+        Assertions.assertThat(rateLimiterService.tryAcquire("throttled", "session:1", "client:c")).isFalse();
+        Assertions.assertThat(rateLimiterService.tryAcquire("throttled", "session:2", "client:c")).isTrue();
+    }
+
+    /**
+     * @verifies count throttled requests
+     * @see RateLimiterService#tryAcquire(String, String...)
+     */
+    @Test
+    public void tryAcquire_shouldCountThrottledRequests() throws Exception {
+        // given
+        final long throttled = metricsService.get(RateLimiterService.THROTTLED_PREFIX + "throttled");
+        rateLimiterService.tryAcquire("throttled", "client:count");
+        rateLimiterService.tryAcquire("throttled", "client:count");
+
+        // when
+        try {
+            rateLimiterService.acquire("throttled", "client:count");
+            Assert.fail("shouldCountThrottledRequests");
+        } catch (CustomException e) {
+            // then
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.TOO_MANY_REQUESTS);
+            Assertions.assertThat(e.getCustomErrorCode().getStatusCode()).isEqualTo(429);
+        }
+        Assertions.assertThat(metricsService.get(RateLimiterService.THROTTLED_PREFIX + "throttled")).isEqualTo(throttled + 1);
+    }
+
+    /**
+     * @verifies use the default limit for unknown families
+     * @see RateLimiterService#tryAcquire(String, String...)
+     */
+    @Test
+    public void tryAcquire_shouldUseTheDefaultLimitForUnknownFamilies() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertThat(rateLimiterService.tryAcquire("unknown", "client:default")).isTrue();
+        }
+    }
+
+    /**
+     * @verifies not consume a token of any bucket if the request is rejected
+     * @see RateLimiterService#tryAcquire(String, String...)
+     */
+    @Test
+    public void tryAcquire_shouldNotConsumeATokenOfAnyBucketIfTheRequestIsRejected() throws Exception {
+        // given
+        rateLimiterService.tryAcquire("throttled", "client:atomic");
+        rateLimiterService.tryAcquire("throttled", "client:atomic");
+
+        // when
+        Assertions.assertThat(rateLimiterService.tryAcquire("throttled", "session:atomic", "client:atomic")).isFalse();
+
+        // then
+        Assertions.assertThat(rateLimiterService.tryAcquire("throttled", "session:atomic", "client:other")).isTrue();
+        Assertions.assertThat(rateLimiterService.tryAcquire("throttled", "session:atomic", "client:another")).isTrue();
+    }
+
+    /**
+     * @verifies give the delay after which the request may be retried
+     * @see RateLimiterService#acquire(String, String...)
+     */
+    @Test
+    public void acquire_shouldGiveTheDelayAfterWhichTheRequestMayBeRetried() throws Exception {
+        // given
+        rateLimiterService.acquire("throttled", "client:retry");
+        rateLimiterService.acquire("throttled", "client:retry");
+
+        // when
+        try {
+            rateLimiterService.acquire("throttled", "client:retry");
+            Assert.fail("shouldGiveTheDelayAfterWhichTheRequestMayBeRetried");
+        } catch (RateLimitException e) {
+            // then: the throttled family refills 0.001 token per second
+            Assertions.assertThat(e.getRetryAfterSeconds()).isGreaterThan(900);
+        }
+    }
+
+    /**
+     * @verifies let a team behind one address join and vote with the shipped limits
+     * @see RateLimiterService#tryAcquire(String, String...)
+     */
+    @Test
+    public void tryAcquire_shouldLetATeamBehindOneAddressJoinAndVoteWithTheShippedLimits() throws Exception {
+        // given
+        final RateLimiterService shippedLimiter = shippedLimiter();
+
+        // when: 30 members of the same office join the session, then vote at once
+        for (String family : new String[]{"users", "votes"}) {
+            for (int i = 0; i < 30; i++) {
+                // then
+                Assertions.assertThat(shippedLimiter.tryAcquire(family, "session:team", "client:office")).isTrue();
+            }
+        }
+    }
+
+    /**
+     * @verifies throttle a client flooding a session with the shipped limits
+     * @see RateLimiterService#tryAcquire(String, String...)
+     */
+    @Test
+    public void tryAcquire_shouldThrottleAClientFloodingASessionWithTheShippedLimits() throws Exception {
+        // given
+        final RateLimiterService shippedLimiter = shippedLimiter();
+
+        // when
+        int allowed = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (shippedLimiter.tryAcquire("votes", "session:flooded", "client:flooder")) {
+                allowed++;
+            }
+        }
+
+        // then: the client burst is spent well before the session one, other clients still get through
+        Assertions.assertThat(allowed).isLessThan(200);
+        Assertions.assertThat(shippedLimiter.tryAcquire("votes", "session:flooded", "client:member")).isTrue();
+    }
+
+    private RateLimiterService shippedLimiter() throws Exception {
+        final Properties properties = PropertiesLoaderUtils.loadProperties(new FileSystemResource("src/main/resources/application.properties"));
+        final RateLimiterService shippedLimiter = new RateLimiterService();
+        ReflectionTestUtils.setField(shippedLimiter, "enabled", true);
+        ReflectionTestUtils.setField(shippedLimiter, "configuredLimits", properties.getProperty("ratelimit.limits"));
+        ReflectionTestUtils.setField(shippedLimiter, "configuredClientLimits", properties.getProperty("ratelimit.client.limits"));
+        ReflectionTestUtils.setField(shippedLimiter, "maxBuckets", 1000L);
+        ReflectionTestUtils.setField(shippedLimiter, "idleTimeout", 600L);
+        ReflectionTestUtils.setField(shippedLimiter, "metricsService", metricsService);
+        shippedLimiter.init();
+        return shippedLimiter;
+    }
+}
@@ -0,0 +1,114 @@
+package com.influans.sp.service;
+
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.repository.SessionRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * @author hazem
+ */
+public class ResourceVersionServiceTest extends ApplicationTest {
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    /**
+     * @verifies change the session etag
+     * @see ResourceVersionService#bumpSession(String)
+     */
+    @Test
+    public void bumpSession_shouldChangeTheSessionEtag() throws Exception {
+        // given
+        final String eTag = resourceVersionService.getSessionETag("session-1");
+
+        // when
+        resourceVersionService.bumpSession("session-1");
+
+        // then
+        Assertions.assertThat(resourceVersionService.getSessionETag("session-1")).isNotEqualTo(eTag);
+    }
+
+    /**
+     * @verifies not change the etag of other sessions
+     * @see ResourceVersionService#bumpSession(String)
+     */
+    @Test
+    public void bumpSession_shouldNotChangeTheEtagOfOtherSessions() throws Exception {
+        // given
+        resourceVersionService.bumpSession("session-2");
+        final String eTag = resourceVersionService.getSessionETag("session-2");
+
+        // when
+        resourceVersionService.bumpSession("session-3");
+
+        // then
+        Assertions.assertThat(resourceVersionService.getSessionETag("session-2")).isEqualTo(eTag);
+    }
+
+    /**
+     * @verifies return false if header is null
+     * @see ResourceVersionService#isNotModified(String, String, java.util.function.BooleanSupplier)
+     */
+    @Test
+    public void isNotModified_shouldReturnFalseIfHeaderIsNull() throws Exception {
+        Assertions.assertThat(resourceVersionService.isNotModified(null, "\"a-1\"", () -> true)).isFalse();
+    }
+
+    /**
+     * @verifies return true if header contains the current etag
+     * @see ResourceVersionService#isNotModified(String, String, java.util.function.BooleanSupplier)
+     */
+    @Test
+    public void isNotModified_shouldReturnTrueIfHeaderContainsTheCurrentEtag() throws Exception {
+        Assertions.assertThat(resourceVersionService.isNotModified("\"a-0\", W/\"a-1\"", "\"a-1\"", () -> false)).isTrue();
+    }
+
+    /**
+     * @verifies return true for wildcard if the resource exists
+     * @see ResourceVersionService#isNotModified(String, String, java.util.function.BooleanSupplier)
+     */
+    @Test
+    public void isNotModified_shouldReturnTrueForWildcardIfTheResourceExists() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .build());
+
+        // then
+        Assertions.assertThat(resourceVersionService.isNotModified("*", "\"a-1\"",
+                () -> resourceVersionService.sessionExists("sessionId"))).isTrue();
+    }
+
+    /**
+     * @verifies return false for wildcard if the resource does not exist
+     * @see ResourceVersionService#isNotModified(String, String, java.util.function.BooleanSupplier)
+     */
+    @Test
+    public void isNotModified_shouldReturnFalseForWildcardIfTheResourceDoesNotExist() throws Exception {
+        Assertions.assertThat(resourceVersionService.isNotModified("*", "\"a-1\"",
+                () -> resourceVersionService.sessionExists("invalid_session_id"))).isFalse();
+        Assertions.assertThat(resourceVersionService.isNotModified("*", "\"a-1\"",
+                () -> resourceVersionService.storyExists("invalid_story_id"))).isFalse();
+    }
+
+    /**
+     * @verifies return false after a bump
+     * @see ResourceVersionService#isNotModified(String, String, java.util.function.BooleanSupplier)
+     */
+    @Test
+    public void isNotModified_shouldReturnFalseAfterABump() throws Exception {
+        // given
+        final String eTag = resourceVersionService.getStoryETag("story-1");
+
+        // when
+        resourceVersionService.bumpStory("story-1");
+
+        // then
+        Assertions.assertThat(resourceVersionService.isNotModified(eTag, resourceVersionService.getStoryETag("story-1"), () -> true)).isFalse();
+    }
+}
@@ -0,0 +1,504 @@
+package com.influans.sp.service;
+
+import com.google.common.collect.ImmutableList;
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.builders.StoryDtoBuilder;
+import com.influans.sp.builders.StoryEntityBuilder;
+import com.influans.sp.builders.VoteDtoBuilder;
+import com.influans.sp.builders.VoteEntityBuilder;
+import com.influans.sp.dto.RoundDto;
+import com.influans.sp.dto.StoryBatchDto;
+import com.influans.sp.dto.StoryDto;
+import com.influans.sp.dto.VoteDto;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.entity.VoteEntity;
+import com.influans.sp.entity.def.SessionEntityDef;
+import com.influans.sp.enums.WsTypes;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.CustomException;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.VoteRepository;
+import com.influans.sp.websocket.WebSocketSender;
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author hazem
+ */
+public class RoundServiceTest extends ApplicationTest {
+
+    @Autowired
+    private RoundService roundService;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+    @Autowired
+    private WebSocketSender webSocketSender;
+
+    @Before
+    public void setUpRounds() throws Exception {
+        // rounds of the previous tests are dropped
+        roundService.init();
+    }
+
+    /**
+     * @verifies throw an exception if sessionId is null or empty
+     * @see RoundService#openRound(StoryBatchDto)
+     */
+    @Test
+    public void openRound_shouldThrowAnExceptionIfSessionIdIsNullOrEmpty() throws Exception {
+        for (String sessionId : new String[]{null, ""}) {
+            try {
+                roundService.openRound(new StoryBatchDto(sessionId, stories("storyId")));
+                Assert.fail("shouldThrowAnExceptionIfSessionIdIsNullOrEmpty");
+            } catch (CustomException e) {
+                Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+            }
+        }
+    }
+
+    /**
+     * @verifies throw an exception if stories list is empty or too large
+     * @see RoundService#openRound(StoryBatchDto)
+     */
+    @Test
+    public void openRound_shouldThrowAnExceptionIfStoriesListIsEmptyOrTooLarge() throws Exception {
+        // given
+        givenSession("round-size");
+        final List<String> storyIds = new ArrayList<>();
+        for (int i = 0; i <= 20; i++) {
+            storyIds.add("round-size-" + i);
+        }
+
+        // then
+        for (List<StoryDto> stories : ImmutableList.of(new ArrayList<StoryDto>(), stories(storyIds.toArray(new String[0])))) {
+            try {
+                roundService.openRound(new StoryBatchDto("round-size", stories));
+                Assert.fail("shouldThrowAnExceptionIfStoriesListIsEmptyOrTooLarge");
+            } catch (CustomException e) {
+                Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+            }
+        }
+    }
+
+    /**
+     * @verifies throw an exception if session does not exist
+     * @see RoundService#openRound(StoryBatchDto)
+     */
+    @Test
+    public void openRound_shouldThrowAnExceptionIfSessionDoesNotExist() throws Exception {
+        try {
+            roundService.openRound(new StoryBatchDto("invalid_session_id", stories("storyId")));
+            Assert.fail("shouldThrowAnExceptionIfSessionDoesNotExist");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if a round is already open
+     * @see RoundService#openRound(StoryBatchDto)
+     */
+    @Test
+    public void openRound_shouldThrowAnExceptionIfARoundIsAlreadyOpen() throws Exception {
+        // given
+        givenSession("round-open", "round-open-1", "round-open-2");
+        roundService.openRound(new StoryBatchDto("round-open", stories("round-open-1")));
+
+        // then
+        try {
+            roundService.openRound(new StoryBatchDto("round-open", stories("round-open-2")));
+            Assert.fail("shouldThrowAnExceptionIfARoundIsAlreadyOpen");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if a story does not belong to the session
+     * @see RoundService#openRound(StoryBatchDto)
+     */
+    @Test
+    public void openRound_shouldThrowAnExceptionIfAStoryDoesNotBelongToTheSession() throws Exception {
+        // given
+        givenSession("round-owner", "round-owner-1");
+        givenSession("round-other", "round-other-1");
+
+        // then
+        try {
+            roundService.openRound(new StoryBatchDto("round-owner", stories("round-owner-1", "round-other-1")));
+            Assert.fail("shouldThrowAnExceptionIfAStoryDoesNotBelongToTheSession");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+        Assertions.assertThat(sessionRepository.findOne("round-owner").getOpenStories()).isNull();
+    }
+
+    /**
+     * @verifies throw an exception if a story is ended
+     * @see RoundService#openRound(StoryBatchDto)
+     */
+    @Test
+    public void openRound_shouldThrowAnExceptionIfAStoryIsEnded() throws Exception {
+        // given
+        givenSession("round-ended", "round-ended-1");
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("round-ended")
+                .withStoryId("round-ended-2")
+                .withEnded(true)
+                .build());
+
+        // then
+        try {
+            roundService.openRound(new StoryBatchDto("round-ended", stories("round-ended-1", "round-ended-2")));
+            Assert.fail("shouldThrowAnExceptionIfAStoryIsEnded");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies open the round and send a websocket notification
+     * @see RoundService#openRound(StoryBatchDto)
+     */
+    @Test
+    public void openRound_shouldOpenTheRoundAndSendAWebsocketNotification() throws Exception {
+        // given
+        givenSession("round-session", "round-story-1", "round-story-2");
+
+        // when
+        final RoundDto roundDto = roundService.openRound(new StoryBatchDto("round-session", stories("round-story-1", "round-story-2")));
+
+        // then
+        Assertions.assertThat(roundDto.getStoryIds()).containsExactly("round-story-1", "round-story-2");
+        Assertions.assertThat(roundDto.getVotes()).isNull();
+        Assertions.assertThat(sessionRepository.findOne("round-session").getOpenStories())
+                .containsExactly("round-story-1", "round-story-2");
+        verify(webSocketSender).sendNotification("round-session", WsTypes.ROUND_OPENED, roundDto);
+    }
+
+    /**
+     * @verifies throw an exception if session does not exist
+     * @see RoundService#getRound(String)
+     */
+    @Test
+    public void getRound_shouldThrowAnExceptionIfSessionDoesNotExist() throws Exception {
+        try {
+            roundService.getRound("invalid_session_id");
+            Assert.fail("shouldThrowAnExceptionIfSessionDoesNotExist");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies return the open stories of the session
+     * @see RoundService#getRound(String)
+     */
+    @Test
+    public void getRound_shouldReturnTheOpenStoriesOfTheSession() throws Exception {
+        // given
+        givenSession("round-get", "round-get-1", "round-get-2");
+        Assertions.assertThat(roundService.getRound("round-get").getStoryIds()).isEmpty();
+        roundService.openRound(new StoryBatchDto("round-get", stories("round-get-2", "round-get-1")));
+
+        // when
+        final RoundDto roundDto = roundService.getRound("round-get");
+
+        // then
+        Assertions.assertThat(roundDto.getSessionId()).isEqualTo("round-get");
+        Assertions.assertThat(roundDto.getStoryIds()).containsExactly("round-get-2", "round-get-1");
+    }
+
+    /**
+     * @verifies throw an exception if session does not exist
+     * @see RoundService#endRound(String)
+     */
+    @Test
+    public void endRound_shouldThrowAnExceptionIfSessionDoesNotExist() throws Exception {
+        try {
+            roundService.endRound("invalid_session_id");
+            Assert.fail("shouldThrowAnExceptionIfSessionDoesNotExist");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if no round is open
+     * @see RoundService#endRound(String)
+     */
+    @Test
+    public void endRound_shouldThrowAnExceptionIfNoRoundIsOpen() throws Exception {
+        // given
+        givenSession("round-none", "round-none-1");
+
+        // then
+        try {
+            roundService.endRound("round-none");
+            Assert.fail("shouldThrowAnExceptionIfNoRoundIsOpen");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies end all the stories of the round
+     * @see RoundService#endRound(String)
+     */
+    @Test
+    public void endRound_shouldEndAllTheStoriesOfTheRound() throws Exception {
+        // given
+        givenSession("round-end", "round-end-1", "round-end-2", "round-end-3");
+        roundService.openRound(new StoryBatchDto("round-end", stories("round-end-1", "round-end-2")));
+
+        // when
+        roundService.endRound("round-end");
+
+        // then
+        Assertions.assertThat(storyRepository.findOne("round-end-1").isEnded()).isTrue();
+        Assertions.assertThat(storyRepository.findOne("round-end-2").isEnded()).isTrue();
+        Assertions.assertThat(storyRepository.findOne("round-end-3").isEnded()).isFalse();
+        Assertions.assertThat(sessionRepository.findOne("round-end").getOpenStories()).isNull();
+        Assertions.assertThat(roundService.queueVote(VoteDtoBuilder.builder()
+                .withSessionId("round-end")
+                .withStoryId("round-end-1")
+                .build())).isFalse();
+    }
+
+    /**
+     * @verifies end the round once
+     * @see RoundService#endRound(String)
+     */
+    @Test
+    public void endRound_shouldEndTheRoundOnce() throws Exception {
+        // given
+        givenSession("round-once", "round-once-1");
+        roundService.openRound(new StoryBatchDto("round-once", stories("round-once-1")));
+        roundService.endRound("round-once");
+
+        // then
+        try {
+            roundService.endRound("round-once");
+            Assert.fail("shouldEndTheRoundOnce");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+        verify(webSocketSender, times(1)).sendNotification(eq("round-once"), eq(WsTypes.ROUND_ENDED), any());
+    }
+
+    /**
+     * @verifies reveal the votes of all the stories in a single websocket notification
+     * @see RoundService#endRound(String)
+     */
+    @Test
+    public void endRound_shouldRevealTheVotesOfAllTheStoriesInASingleWebsocketNotification() throws Exception {
+        // given
+        givenSession("round-reveal", "round-reveal-1", "round-reveal-2");
+        voteRepository.save(ImmutableList.<VoteEntity>builder()
+                .add(VoteEntityBuilder.builder()
+                        .withSessionId("round-reveal")
+                        .withStoryId("round-reveal-1")
+                        .withUsername("Leo")
+                        .withValue("fib-5")
+                        .build())
+                .add(VoteEntityBuilder.builder()
+                        .withSessionId("round-reveal")
+                        .withStoryId("round-reveal-1")
+                        .withUsername("Max")
+                        .withValue("fib-8")
+                        .build())
+                .build());
+        roundService.openRound(new StoryBatchDto("round-reveal", stories("round-reveal-1", "round-reveal-2")));
+
+        // when
+        final RoundDto roundDto = roundService.endRound("round-reveal");
+
+        // then
+        Assertions.assertThat(roundDto.getVotes().keySet()).containsExactly("round-reveal-1", "round-reveal-2");
+        Assertions.assertThat(roundDto.getVotes().get("round-reveal-1")).extracting("username").containsOnly("Leo", "Max");
+        Assertions.assertThat(roundDto.getVotes().get("round-reveal-2")).isEmpty();
+        final ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(webSocketSender, times(1)).sendNotification(eq("round-reveal"), eq(WsTypes.ROUND_ENDED), captor.capture());
+        Assertions.assertThat(captor.getValue()).isSameAs(roundDto);
+        verify(webSocketSender, times(0)).sendNotification(eq("round-reveal"), eq(WsTypes.STORY_ENDED), any());
+    }
+
+    /**
+     * @verifies remove the ended stories from the open round
+     * @see RoundService#onStoriesEnded(String, java.util.Collection)
+     */
+    @Test
+    public void onStoriesEnded_shouldRemoveTheEndedStoriesFromTheOpenRound() throws Exception {
+        // given
+        givenSession("round-left", "round-left-1", "round-left-2");
+        roundService.openRound(new StoryBatchDto("round-left", stories("round-left-1", "round-left-2")));
+
+        // when
+        roundService.onStoriesEnded("round-left", ImmutableList.of("round-left-1"));
+
+        // then
+        Assertions.assertThat(sessionRepository.findOne("round-left").getOpenStories()).containsExactly("round-left-2");
+        Assertions.assertThat(roundService.queueVote(vote("vote-1", "round-left", "round-left-1", "fib-5"))).isFalse();
+        Assertions.assertThat(roundService.queueVote(vote("vote-2", "round-left", "round-left-2", "fib-5"))).isTrue();
+    }
+
+    /**
+     * @verifies do nothing if the stories are not part of the open round
+     * @see RoundService#onStoriesEnded(String, java.util.Collection)
+     */
+    @Test
+    public void onStoriesEnded_shouldDoNothingIfTheStoriesAreNotPartOfTheOpenRound() throws Exception {
+        // given
+        givenSession("round-other", "round-other-1", "round-other-2");
+        roundService.openRound(new StoryBatchDto("round-other", stories("round-other-1")));
+
+        // when
+        roundService.onStoriesEnded("round-other", ImmutableList.of("round-other-2"));
+        roundService.onStoriesEnded("sessionId", ImmutableList.of("round-other-1"));
+
+        // then
+        Assertions.assertThat(sessionRepository.findOne("round-other").getOpenStories()).containsExactly("round-other-1");
+        Assertions.assertThat(roundService.queueVote(vote("vote-1", "round-other", "round-other-1", "fib-5"))).isTrue();
+    }
+
+    /**
+     * @verifies clear the round once all its stories are ended
+     * @see RoundService#onStoriesEnded(String, java.util.Collection)
+     */
+    @Test
+    public void onStoriesEnded_shouldClearTheRoundOnceAllItsStoriesAreEnded() throws Exception {
+        // given
+        givenSession("round-drained", "round-drained-1", "round-drained-2", "round-drained-3");
+        roundService.openRound(new StoryBatchDto("round-drained", stories("round-drained-1", "round-drained-2")));
+
+        // when
+        roundService.onStoriesEnded("round-drained", ImmutableList.of("round-drained-1"));
+        roundService.onStoriesEnded("round-drained", ImmutableList.of("round-drained-2"));
+
+        // then
+        verify(webSocketSender, times(1)).sendNotification(eq("round-drained"), eq(WsTypes.ROUND_ENDED), any());
+        Assertions.assertThat(roundService.getRound("round-drained").getStoryIds()).isEmpty();
+        Assertions.assertThat(sessionRepository.findWithOpenRound()).isEmpty();
+        Assertions.assertThat(roundService.queueVote(vote("vote-1", "round-drained", "round-drained-2", "fib-5"))).isFalse();
+        final RoundDto roundDto = roundService.openRound(new StoryBatchDto("round-drained", stories("round-drained-3")));
+        Assertions.assertThat(roundDto.getStoryIds()).containsExactly("round-drained-3");
+        Assertions.assertThat(roundService.queueVote(vote("vote-2", "round-drained", "round-drained-3", "fib-5"))).isTrue();
+    }
+
+    /**
+     * @verifies queue only votes on open stories
+     * @see RoundService#queueVote(VoteDto)
+     */
+    @Test
+    public void queueVote_shouldQueueOnlyVotesOnOpenStories() throws Exception {
+        // given
+        givenSession("round-queue", "round-queue-1", "round-queue-2");
+        roundService.openRound(new StoryBatchDto("round-queue", stories("round-queue-1")));
+
+        // then
+        Assertions.assertThat(roundService.queueVote(vote("vote-1", "round-queue", "round-queue-1", "fib-5"))).isTrue();
+        Assertions.assertThat(roundService.queueVote(vote("vote-2", "round-queue", "round-queue-2", "fib-5"))).isFalse();
+        Assertions.assertThat(roundService.queueVote(vote("vote-3", "sessionId", "round-queue-1", "fib-5"))).isFalse();
+    }
+
+    /**
+     * @verifies send the queued votes of each session in a single frame
+     * @see RoundService#flushVotes()
+     */
+    @Test
+    public void flushVotes_shouldSendTheQueuedVotesOfEachSessionInASingleFrame() throws Exception {
+        // given
+        givenSession("round-flush-a", "round-flush-a1", "round-flush-a2");
+        givenSession("round-flush-b", "round-flush-b1");
+        roundService.openRound(new StoryBatchDto("round-flush-a", stories("round-flush-a1", "round-flush-a2")));
+        roundService.openRound(new StoryBatchDto("round-flush-b", stories("round-flush-b1")));
+        roundService.queueVote(vote("vote-a1", "round-flush-a", "round-flush-a1", "fib-3"));
+        roundService.queueVote(vote("vote-a2", "round-flush-a", "round-flush-a2", "fib-5"));
+        // the second update of vote-a1 replaces the first one
+        final VoteDto updated = vote("vote-a1", "round-flush-a", "round-flush-a1", "fib-8");
+        roundService.queueVote(updated);
+        roundService.queueVote(vote("vote-b1", "round-flush-b", "round-flush-b1", "fib-1"));
+
+        // when
+        final int frames = roundService.flushVotes();
+
+        // then
+        Assertions.assertThat(frames).isEqualTo(2);
+        final ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(webSocketSender).sendNotification(eq("round-flush-a"), eq(WsTypes.VOTES_ADDED), captor.capture());
+        Assertions.assertThat((List<?>) captor.getValue()).extracting("voteId").containsExactly("vote-a2", "vote-a1");
+        Assertions.assertThat(((List<?>) captor.getValue()).get(1)).isSameAs(updated);
+        verify(webSocketSender).sendNotification(eq("round-flush-b"), eq(WsTypes.VOTES_ADDED), any());
+        Assertions.assertThat(roundService.flushVotes()).isEqualTo(0);
+    }
+
+    /**
+     * @verifies load the open rounds of the sessions
+     * @see RoundService#reload()
+     */
+    @Test
+    public void reload_shouldLoadTheOpenRoundsOfTheSessions() throws Exception {
+        // given
+        givenSession("round-reload", "round-reload-1");
+        sessionRepository.update("round-reload", SessionEntityDef.OPEN_STORIES, ImmutableList.of("round-reload-1"));
+
+        // when
+        final int reloaded = roundService.reload();
+
+        // then
+        Assertions.assertThat(reloaded).isEqualTo(1);
+        Assertions.assertThat(roundService.queueVote(vote("vote-1", "round-reload", "round-reload-1", "fib-5"))).isTrue();
+    }
+
+    private void givenSession(String sessionId, String... storyIds) {
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+        final List<StoryEntity> storyEntities = new ArrayList<>();
+        for (String storyId : storyIds) {
+            storyEntities.add(StoryEntityBuilder.builder()
+                    .withSessionId(sessionId)
+                    .withStoryId(storyId)
+                    .build());
+        }
+        storyRepository.save(storyEntities);
+    }
+
+    private static List<StoryDto> stories(String... storyIds) {
+        final List<StoryDto> stories = new ArrayList<>();
+        for (String storyId : storyIds) {
+            stories.add(StoryDtoBuilder.builder()
+                    .withStoryId(storyId)
+                    .build());
+        }
+        return stories;
+    }
+
+    private static VoteDto vote(String voteId, String sessionId, String storyId, String value) {
+        return VoteDtoBuilder.builder()
+                .withVoteId(voteId)
+                .withSessionId(sessionId)
+                .withStoryId(storyId)
+                .withUsername("Leo")
+                .withValue(value)
+                .build();
+    }
+}
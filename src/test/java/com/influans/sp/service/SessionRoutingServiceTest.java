@@ -0,0 +1,238 @@
+package com.influans.sp.service;
+
+import com.google.common.collect.ImmutableList;
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.CustomException;
+import com.mongodb.BasicDBObject;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author hazem
+ */
+public class SessionRoutingServiceTest extends ApplicationTest {
+
+    @Autowired
+    private SessionRoutingService sessionRoutingService;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @After
+    public void tearDown() {
+        sessionRoutingService.updateNodes(Collections.emptyList());
+    }
+
+    /**
+     * @verifies throw an exception if sessionId is null or empty
+     * @see SessionRoutingService#getOwner(String)
+     */
+    @Test
+    public void getOwner_shouldThrowAnExceptionIfSessionIdIsNullOrEmpty() throws Exception {
+        try {
+            sessionRoutingService.getOwner(null);
+            Assert.fail("shouldThrowAnExceptionIfSessionIdIsNullOrEmpty");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies return null if routing is disabled
+     * @see SessionRoutingService#getOwner(String)
+     */
+    @Test
+    public void getOwner_shouldReturnNullIfRoutingIsDisabled() throws Exception {
+        Assertions.assertThat(sessionRoutingService.getOwner("sessionId")).isNull();
+    }
+
+    /**
+     * @verifies return the node owning the given session
+     * @see SessionRoutingService#getOwner(String)
+     */
+    @Test
+    public void getOwner_shouldReturnTheNodeOwningTheGivenSession() throws Exception {
+        // given
+        sessionRoutingService.updateNodes(ImmutableList.of("http://node-a", "http://node-b"));
+
+        // when
+        final String owner = sessionRoutingService.getOwner("sessionId");
+
+        // then
+        Assertions.assertThat(owner).isIn("http://node-a", "http://node-b");
+        Assertions.assertThat(sessionRoutingService.getOwner("sessionId")).isEqualTo(owner);
+    }
+
+    /**
+     * @verifies return true if routing is disabled
+     * @see SessionRoutingService#isLocal(String)
+     */
+    @Test
+    public void isLocal_shouldReturnTrueIfRoutingIsDisabled() throws Exception {
+        Assertions.assertThat(sessionRoutingService.isLocal("sessionId")).isTrue();
+    }
+
+    /**
+     * @verifies return false if the session is owned by another node
+     * @see SessionRoutingService#isLocal(String)
+     */
+    @Test
+    public void isLocal_shouldReturnFalseIfTheSessionIsOwnedByAnotherNode() throws Exception {
+        // given
+        sessionRoutingService.updateNodes(ImmutableList.of("http://other-node"));
+
+        // then
+        Assertions.assertThat(sessionRoutingService.isLocal("sessionId")).isFalse();
+    }
+
+    /**
+     * @verifies rebalance sessions over the new node list
+     * @see SessionRoutingService#updateNodes(java.util.List)
+     */
+    @Test
+    public void updateNodes_shouldRebalanceSessionsOverTheNewNodeList() throws Exception {
+        // given
+        sessionRoutingService.updateNodes(ImmutableList.of("http://node-a"));
+        Assertions.assertThat(sessionRoutingService.getOwner("sessionId")).isEqualTo("http://node-a");
+
+        // when
+        sessionRoutingService.updateNodes(ImmutableList.of(" http://node-b ", "", "http://node-b"));
+
+        // then
+        Assertions.assertThat(sessionRoutingService.getNodes()).containsExactly("http://node-b");
+        Assertions.assertThat(sessionRoutingService.getOwner("sessionId")).isEqualTo("http://node-b");
+    }
+
+    /**
+     * @verifies disable routing if the node list is empty
+     * @see SessionRoutingService#updateNodes(java.util.List)
+     */
+    @Test
+    public void updateNodes_shouldDisableRoutingIfTheNodeListIsEmpty() throws Exception {
+        // given
+        sessionRoutingService.updateNodes(ImmutableList.of("http://node-a"));
+
+        // when
+        sessionRoutingService.updateNodes(Collections.emptyList());
+
+        // then
+        Assertions.assertThat(sessionRoutingService.isEnabled()).isFalse();
+    }
+
+    /**
+     * @verifies notify the listeners only if the node list changed
+     * @see SessionRoutingService#updateNodes(java.util.List)
+     */
+    @Test
+    public void updateNodes_shouldNotifyTheListenersOnlyIfTheNodeListChanged() throws Exception {
+        // given
+        final List<List<String>> notified = new ArrayList<>();
+        sessionRoutingService.subscribe(notified::add);
+
+        // when
+        sessionRoutingService.updateNodes(ImmutableList.of("http://node-a"));
+        sessionRoutingService.updateNodes(ImmutableList.of("http://node-a "));
+
+        // then
+        Assertions.assertThat(notified).containsExactly(ImmutableList.of("http://node-a"));
+    }
+
+    /**
+     * @verifies load the node list from the membership document
+     * @see SessionRoutingService#refresh()
+     */
+    @Test
+    public void refresh_shouldLoadTheNodeListFromTheMembershipDocument() throws Exception {
+        // given
+        mongoTemplate.getCollection(SessionRoutingService.MEMBERSHIP_COLLECTION).save(new BasicDBObject("_id", "nodes")
+                .append("nodes", ImmutableList.of("http://node-a", "http://node-b")));
+
+        // when
+        final List<String> nodes = sessionRoutingService.refresh();
+
+        // then
+        Assertions.assertThat(nodes).containsExactly("http://node-a", "http://node-b");
+        Assertions.assertThat(sessionRoutingService.isEnabled()).isTrue();
+    }
+
+    /**
+     * @verifies normalize the node urls
+     * @see SessionRoutingService#updateNodes(java.util.List)
+     */
+    @Test
+    public void updateNodes_shouldNormalizeTheNodeUrls() throws Exception {
+        // when
+        sessionRoutingService.updateNodes(ImmutableList.of("http://node-a/", " http://node-a", "http://node-b//"));
+
+        // then
+        Assertions.assertThat(sessionRoutingService.getNodes()).containsExactly("http://node-a", "http://node-b");
+    }
+
+    /**
+     * @verifies remove blanks and trailing slashes
+     * @see SessionRoutingService#normalizeNode(String)
+     */
+    @Test
+    public void normalizeNode_shouldRemoveBlanksAndTrailingSlashes() throws Exception {
+        Assertions.assertThat(SessionRoutingService.normalizeNode(" http://node-a:8080/ ")).isEqualTo("http://node-a:8080");
+        Assertions.assertThat(SessionRoutingService.normalizeNode(null)).isEmpty();
+    }
+
+    /**
+     * @verifies normalize the url of the current node
+     * @see SessionRoutingService#init()
+     */
+    @Test
+    public void init_shouldNormalizeTheUrlOfTheCurrentNode() throws Exception {
+        // given
+        final SessionRoutingService routingService = routingService("http://node-a,http://node-b", "http://node-a/");
+
+        // when
+        routingService.init();
+
+        // then
+        Assertions.assertThat(routingService.getSelf()).isEqualTo("http://node-a");
+        Assertions.assertThat(routingService.isLocal(sessionOwnedBy(routingService, "http://node-a"))).isTrue();
+    }
+
+    /**
+     * @verifies fail if the node list is not empty and the current node is not set
+     * @see SessionRoutingService#init()
+     */
+    @Test
+    public void init_shouldFailIfTheNodeListIsNotEmptyAndTheCurrentNodeIsNotSet() throws Exception {
+        try {
+            routingService("http://node-a,http://node-b", " ").init();
+            Assert.fail("shouldFailIfTheNodeListIsNotEmptyAndTheCurrentNodeIsNotSet");
+        } catch (IllegalStateException e) {
+            Assertions.assertThat(e.getMessage()).contains("cluster.node.self");
+        }
+    }
+
+    private SessionRoutingService routingService(String nodes, String self) {
+        final SessionRoutingService routingService = new SessionRoutingService();
+        ReflectionTestUtils.setField(routingService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(routingService, "configuredNodes", nodes);
+        ReflectionTestUtils.setField(routingService, "self", self);
+        ReflectionTestUtils.setField(routingService, "virtualNodes", 128);
+        ReflectionTestUtils.setField(routingService, "source", "config");
+        return routingService;
+    }
+
+    private static String sessionOwnedBy(SessionRoutingService routingService, String node) {
+        for (int i = 0; ; i++) {
+            if (node.equals(routingService.getOwner("session-" + i))) {
+                return "session-" + i;
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.influans.sp.service;
 import com.influans.sp.ApplicationTest;
 import com.influans.sp.builders.SessionDtoBuilder;
 import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.builders.StoryEntityBuilder;
 import com.influans.sp.dto.SessionDto;
 import com.influans.sp.entity.SessionEntity;
 import com.influans.sp.entity.StoryEntity;
@@ -13,6 +14,8 @@ import com.influans.sp.exception.CustomException;
 import com.influans.sp.repository.SessionRepository;
 import com.influans.sp.repository.StoryRepository;
 import com.influans.sp.repository.UserRepository;
+import com.influans.sp.utils.Base62;
+import com.influans.sp.utils.SnowflakeIdGenerator;
 import org.assertj.core.api.Assertions;
 import org.junit.Assert;
 import org.junit.Test;
@@ -131,6 +134,68 @@ public class SessionServiceTest extends ApplicationTest {
         }
     }
 
+    /**
+     * @verifies throw an error if custom cards are not valid
+     * @see SessionService#createSession(com.influans.sp.dto.SessionDto)
+     */
+    @Test
+    public void createSession_shouldThrowAnErrorIfCustomCardsAreNotValid() throws Exception {
+        final SessionDto sessionDto = SessionDtoBuilder.builder()
+                .withUsername("username")
+                .withCard("S", 1d)
+                .withCard("S", 2d)
+                .build();
+        try {
+            sessionService.createSession(sessionDto);
+            Assert.fail("shouldThrowAnErrorIfCustomCardsAreNotValid");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies create session with custom cards
+     * @see SessionService#createSession(com.influans.sp.dto.SessionDto)
+     */
+    @Test
+    public void createSession_shouldCreateSessionWithCustomCards() throws Exception {
+        // given
+        final SessionDto sessionDto = SessionDtoBuilder.builder()
+                .withUsername("username")
+                .withCard("S", 1d)
+                .withCard("M", 3d)
+                .withCard("?", null)
+                .build();
+        //when
+        final SessionDto createdSession = sessionService.createSession(sessionDto);
+
+        //then
+        final SessionEntity sessionEntity = sessionRepository.findOne(createdSession.getSessionId());
+        Assertions.assertThat(sessionEntity.getCardSet()).isNull();
+        Assertions.assertThat(sessionEntity.getCards()).extracting("label").containsExactly("S", "M", "?");
+        Assertions.assertThat(sessionEntity.getCards()).extracting("weight").containsExactly(1d, 3d, null);
+    }
+
+    /**
+     * @verifies generate the session id with the configured generator
+     * @see SessionService#createSession(com.influans.sp.dto.SessionDto)
+     */
+    @Test
+    public void createSession_shouldGenerateTheSessionIdWithTheConfiguredGenerator() throws Exception {
+        // given
+        final SessionDto sessionDto = SessionDtoBuilder.builder()
+                .withUsername("username")
+                .withCardSet(CardSetEnum.FIBONACCI)
+                .build();
+        //when
+        final SessionDto createdSession = sessionService.createSession(sessionDto);
+
+        //then, test properties use snowflake ids on node 7
+        Assertions.assertThat(createdSession.getSessionId()).hasSize(Base62.LONG_WIDTH);
+        Assertions.assertThat(SnowflakeIdGenerator.getNode(createdSession.getSessionId())).isEqualTo(7);
+        Assertions.assertThat(sessionRepository.exists(createdSession.getSessionId())).isTrue();
+    }
+
     /**
      * @verifies create session and an admin user
      * @see SessionService#createSession(com.influans.sp.dto.SessionDto)
@@ -185,4 +250,145 @@ public class SessionServiceTest extends ApplicationTest {
         final List<StoryEntity> storyEntities = storyRepository.findBySessionId(createdSession.getSessionId());
         Assertions.assertThat(storyEntities).hasSize(2);
     }
+
+    /**
+     * @verifies throw an error if sessionId is null or empty
+     * @see SessionService#cloneSession(String, com.influans.sp.dto.SessionDto)
+     */
+    @Test
+    public void cloneSession_shouldThrowAnErrorIfSessionIdIsNullOrEmpty() throws Exception {
+        final SessionDto sessionDto = SessionDtoBuilder.builder()
+                .withUsername("username")
+                .build();
+        try {
+            sessionService.cloneSession(null, sessionDto);
+            Assert.fail("shouldThrowAnErrorIfSessionIdIsNullOrEmpty");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies throw an error if username is null
+     * @see SessionService#cloneSession(String, com.influans.sp.dto.SessionDto)
+     */
+    @Test
+    public void cloneSession_shouldThrowAnErrorIfUsernameIsNull() throws Exception {
+        final SessionDto sessionDto = SessionDtoBuilder.builder()
+                .build();
+        try {
+            sessionService.cloneSession("sessionId", sessionDto);
+            Assert.fail("shouldThrowAnErrorIfUsernameIsNull");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies throw an error if session does not exist
+     * @see SessionService#cloneSession(String, com.influans.sp.dto.SessionDto)
+     */
+    @Test
+    public void cloneSession_shouldThrowAnErrorIfSessionDoesNotExist() throws Exception {
+        final SessionDto sessionDto = SessionDtoBuilder.builder()
+                .withUsername("username")
+                .build();
+        try {
+            sessionService.cloneSession("invalid_session_id", sessionDto);
+            Assert.fail("shouldThrowAnErrorIfSessionDoesNotExist");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies copy the card set and the custom cards
+     * @see SessionService#cloneSession(String, com.influans.sp.dto.SessionDto)
+     */
+    @Test
+    public void cloneSession_shouldCopyTheCardSetAndTheCustomCards() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withSprintName("sprint-1")
+                .withCardSet(CardSetEnum.TIME)
+                .withCard("S", 1d)
+                .withCard("?", null)
+                .build());
+        final SessionDto sessionDto = SessionDtoBuilder.builder()
+                .withUsername("username")
+                .withSprintName("sprint-2")
+                .build();
+
+        // when
+        final SessionDto clonedSession = sessionService.cloneSession("sessionId", sessionDto);
+
+        // then
+        Assertions.assertThat(clonedSession.getSessionId()).isNotEqualTo("sessionId");
+        Assertions.assertThat(clonedSession.getSprintName()).isEqualTo("sprint-2");
+        final SessionEntity sessionEntity = sessionRepository.findOne(clonedSession.getSessionId());
+        Assertions.assertThat(sessionEntity.getCardSet()).isEqualTo(CardSetEnum.TIME);
+        Assertions.assertThat(sessionEntity.getSprintName()).isEqualTo("sprint-2");
+        Assertions.assertThat(sessionEntity.getCreatedAt()).isNotNull();
+        Assertions.assertThat(sessionEntity.getCards()).extracting("label").containsExactly("S", "?");
+        Assertions.assertThat(sessionEntity.getCards()).extracting("weight").containsExactly(1d, null);
+    }
+
+    /**
+     * @verifies copy the stories which are not ended in the same order
+     * @see SessionService#cloneSession(String, com.influans.sp.dto.SessionDto)
+     */
+    @Test
+    public void cloneSession_shouldCopyTheStoriesWhichAreNotEndedInTheSameOrder() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withCardSet(CardSetEnum.FIBONACCI)
+                .build());
+        storyRepository.save(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-1").withStoryName("story-1").withRank("a2").build());
+        storyRepository.save(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-2").withStoryName("story-2").withRank("a0").build());
+        storyRepository.save(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-3").withStoryName("story-3").withRank("a1").withEnded(true).build());
+        storyRepository.save(StoryEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-4").withStoryName("story-4").withRank("a3").build());
+        final SessionDto sessionDto = SessionDtoBuilder.builder()
+                .withUsername("username")
+                .build();
+
+        // when
+        final SessionDto clonedSession = sessionService.cloneSession("sessionId", sessionDto);
+
+        // then
+        Assertions.assertThat(clonedSession.getStories()).containsExactly("story-2", "story-1", "story-4");
+        final List<StoryEntity> stories = storyRepository.findBySessionId(clonedSession.getSessionId());
+        Assertions.assertThat(stories).extracting("storyName").containsExactly("story-2", "story-1", "story-4");
+        Assertions.assertThat(stories).extracting("order").containsExactly(1, 2, 3);
+        Assertions.assertThat(stories).extracting("ended").containsOnly(false);
+        Assertions.assertThat(stories).extracting("storyId").doesNotContain("story-1", "story-2", "story-4");
+        Assertions.assertThat(storyRepository.findBySessionId("sessionId")).hasSize(4);
+    }
+
+    /**
+     * @verifies create the admin user
+     * @see SessionService#cloneSession(String, com.influans.sp.dto.SessionDto)
+     */
+    @Test
+    public void cloneSession_shouldCreateTheAdminUser() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withCardSet(CardSetEnum.FIBONACCI)
+                .build());
+        final SessionDto sessionDto = SessionDtoBuilder.builder()
+                .withUsername("username")
+                .build();
+
+        // when
+        final SessionDto clonedSession = sessionService.cloneSession("sessionId", sessionDto);
+
+        // then
+        Assertions.assertThat(clonedSession.getUsername()).isEqualTo("username");
+        Assertions.assertThat(clonedSession.getStories()).isEmpty();
+        final UserEntity userEntity = userRepository.findUser(clonedSession.getSessionId(), "username");
+        Assertions.assertThat(userEntity).isNotNull();
+        Assertions.assertThat(userEntity.isAdmin()).isTrue();
+    }
 }
@@ -0,0 +1,116 @@
+package com.influans.sp.service;
+
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.entity.def.StoryEntityDef;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.utils.TimeOrderedIdGenerator;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.assertj.core.api.Assertions;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * @author hazem
+ */
+public class StoryKeywordsMigrationServiceTest extends ApplicationTest {
+
+    @Autowired
+    private StoryKeywordsMigrationService storyKeywordsMigrationService;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * @verifies set the keywords of the stories without keywords
+     * @see StoryKeywordsMigrationService#migrate()
+     */
+    @Test
+    public void migrate_shouldSetTheKeywordsOfTheStoriesWithoutKeywords() throws Exception {
+        // given
+        insertLegacyStory("story-1", "Login page");
+        insertLegacyStory("story-2", "Export stories");
+
+        // when
+        final long migrated = storyKeywordsMigrationService.migrate();
+
+        // then
+        Assertions.assertThat(migrated).isEqualTo(2);
+        Assertions.assertThat(storyRepository.findOne("story-1").getKeywords()).containsExactly("login", "page");
+        Assertions.assertThat(storyRepository.findOne("story-2").getKeywords()).containsExactly("export", "stories");
+    }
+
+    /**
+     * @verifies do nothing if stories are already migrated
+     * @see StoryKeywordsMigrationService#migrate()
+     */
+    @Test
+    public void migrate_shouldDoNothingIfStoriesAreAlreadyMigrated() throws Exception {
+        // given
+        storyRepository.save(new StoryEntity("sessionId", "Login page", 1));
+        insertLegacyStory("story-1", "Export stories");
+        storyKeywordsMigrationService.migrate();
+
+        // when
+        final long migrated = storyKeywordsMigrationService.migrate();
+
+        // then
+        Assertions.assertThat(migrated).isEqualTo(0);
+    }
+
+    /**
+     * @verifies set the creation key of the stories without creation key
+     * @see StoryKeywordsMigrationService#migrate()
+     */
+    @Test
+    public void migrate_shouldSetTheCreationKeyOfTheStoriesWithoutCreationKey() throws Exception {
+        // given
+        final ObjectId objectId = new ObjectId();
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(StoryEntity.class)).insert(new BasicDBObject("_id", objectId)
+                .append(StoryEntityDef.STORY_NAME, "Login page")
+                .append(StoryEntityDef.SESSION_ID, "sessionId"));
+        final String storyId = new TimeOrderedIdGenerator().nextId();
+        insertLegacyStory(storyId, "Export stories");
+
+        // when
+        final long migrated = storyKeywordsMigrationService.migrate();
+
+        // then
+        Assertions.assertThat(migrated).isEqualTo(2);
+        final DBObject legacy = mongoTemplate.getCollection(mongoTemplate.getCollectionName(StoryEntity.class))
+                .findOne(new BasicDBObject("_id", objectId));
+        Assertions.assertThat(legacy.get(StoryEntityDef.CREATION_KEY))
+                .isEqualTo(StoryEntity.creationKey(objectId.getDate().getTime(), objectId.toString()));
+        Assertions.assertThat(storyRepository.findOne(storyId).getCreationKey())
+                .isEqualTo(StoryEntity.creationKey(TimeOrderedIdGenerator.getTimestamp(storyId), storyId));
+    }
+
+    /**
+     * @verifies run the migration once
+     * @see StoryKeywordsMigrationService#init()
+     */
+    @Test
+    public void init_shouldRunTheMigrationOnce() throws Exception {
+        // given
+        insertLegacyStory("story-1", "Login page");
+        storyKeywordsMigrationService.init();
+        insertLegacyStory("story-2", "Export stories");
+
+        // when
+        storyKeywordsMigrationService.init();
+
+        // then
+        Assertions.assertThat(storyRepository.findOne("story-1").getKeywords()).containsExactly("login", "page");
+        Assertions.assertThat(storyRepository.findOne("story-2").getKeywords()).isNull();
+    }
+
+    private void insertLegacyStory(String storyId, String storyName) {
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(StoryEntity.class)).insert(new BasicDBObject("_id", storyId)
+                .append(StoryEntityDef.STORY_NAME, storyName)
+                .append(StoryEntityDef.SESSION_ID, "sessionId"));
+    }
+}
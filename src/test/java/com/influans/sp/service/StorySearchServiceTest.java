@@ -0,0 +1,169 @@
+package com.influans.sp.service;
+
+import com.google.common.collect.ImmutableList;
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.builders.StoryEntityBuilder;
+import com.influans.sp.dto.StorySearchResultDto;
+import com.influans.sp.entity.StoryRollupEntity;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.CustomException;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.StoryRollupRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author hazem
+ */
+public class StorySearchServiceTest extends ApplicationTest {
+
+    @Autowired
+    private StorySearchService storySearchService;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private StoryRollupRepository storyRollupRepository;
+
+    /**
+     * @verifies throw an exception if query is null or empty
+     * @see StorySearchService#search(String, String, int)
+     */
+    @Test
+    public void search_shouldThrowAnExceptionIfQueryIsNullOrEmpty() throws Exception {
+        try {
+            storySearchService.search(" ", null, 20);
+            Assert.fail("shouldThrowAnExceptionIfQueryIsNullOrEmpty");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if query contains only stopwords
+     * @see StorySearchService#search(String, String, int)
+     */
+    @Test
+    public void search_shouldThrowAnExceptionIfQueryContainsOnlyStopwords() throws Exception {
+        try {
+            storySearchService.search("of the", null, 20);
+            Assert.fail("shouldThrowAnExceptionIfQueryContainsOnlyStopwords");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if size is not valid
+     * @see StorySearchService#search(String, String, int)
+     */
+    @Test
+    public void search_shouldThrowAnExceptionIfSizeIsNotValid() throws Exception {
+        try {
+            storySearchService.search("login", null, 0);
+            Assert.fail("shouldThrowAnExceptionIfSizeIsNotValid");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+
+        try {
+            storySearchService.search("login", null, 1000);
+            Assert.fail("shouldThrowAnExceptionIfSizeIsNotValid");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies return the stories matching the query
+     * @see StorySearchService#search(String, String, int)
+     */
+    @Test
+    public void search_shouldReturnTheStoriesMatchingTheQuery() throws Exception {
+        // given
+        saveStory("story-1", "session-1", "Login page", false);
+        saveStory("story-2", "session-2", "Reset password from the login page", false);
+        saveStory("story-3", "session-2", "Export stories", false);
+
+        // when
+        final List<StorySearchResultDto> results = storySearchService.search("login", null, 20);
+
+        // then
+        Assertions.assertThat(results).extracting("storyId").containsOnly("story-1", "story-2");
+        Assertions.assertThat(results).extracting("sessionId").containsOnly("session-1", "session-2");
+    }
+
+    /**
+     * @verifies return the estimation of ended stories
+     * @see StorySearchService#search(String, String, int)
+     */
+    @Test
+    public void search_shouldReturnTheEstimationOfEndedStories() throws Exception {
+        // given
+        saveStory("story-1", "session-1", "Login page", true);
+        saveStory("story-2", "session-2", "Login with google", false);
+        final StoryRollupEntity rollup = new StoryRollupEntity("story-1", "session-1");
+        rollup.setRounds(1);
+        rollup.setVotes(2);
+        rollup.setAverage(4d);
+        rollup.setMin(3d);
+        rollup.setMax(5d);
+        storyRollupRepository.save(rollup);
+
+        // when
+        final List<StorySearchResultDto> results = storySearchService.search("login", null, 20);
+
+        // then
+        Assertions.assertThat(results).hasSize(2);
+        for (StorySearchResultDto result : results) {
+            if ("story-1".equals(result.getStoryId())) {
+                Assertions.assertThat(result.isEnded()).isTrue();
+                Assertions.assertThat(result.getEstimation().getAverage()).isEqualTo(4d);
+                Assertions.assertThat(result.getEstimation().getSpread()).isEqualTo(2d);
+            } else {
+                Assertions.assertThat(result.getEstimation()).isNull();
+            }
+        }
+    }
+
+    /**
+     * @verifies return the page following the given cursor
+     * @see StorySearchService#search(String, String, int)
+     */
+    @Test
+    public void search_shouldReturnThePageFollowingTheGivenCursor() throws Exception {
+        // given
+        for (int i = 0; i < 5; i++) {
+            saveStory("story-" + i, "session-1", "Login step " + i, false);
+        }
+
+        // when
+        final List<StorySearchResultDto> firstPage = storySearchService.search("login", null, 2);
+        final List<StorySearchResultDto> secondPage = storySearchService.search("login", firstPage.get(1).getCursor(), 2);
+        final List<StorySearchResultDto> lastPage = storySearchService.search("login", secondPage.get(1).getCursor(), 2);
+
+        // then
+        Assertions.assertThat(firstPage).hasSize(2);
+        Assertions.assertThat(secondPage).hasSize(2);
+        Assertions.assertThat(lastPage).hasSize(1);
+        final Set<String> storyIds = new HashSet<>();
+        for (List<StorySearchResultDto> page : ImmutableList.of(firstPage, secondPage, lastPage)) {
+            page.forEach(result -> storyIds.add(result.getStoryId()));
+        }
+        Assertions.assertThat(storyIds).hasSize(5);
+    }
+
+    private void saveStory(String storyId, String sessionId, String storyName, boolean ended) {
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withStoryId(storyId)
+                .withSessionId(sessionId)
+                .withStoryName(storyName)
+                .withEnded(ended)
+                .build());
+    }
+}
@@ -5,22 +5,30 @@ import com.influans.sp.ApplicationTest;
 import com.influans.sp.builders.SessionEntityBuilder;
 import com.influans.sp.builders.StoryDtoBuilder;
 import com.influans.sp.builders.StoryEntityBuilder;
+import com.influans.sp.builders.VoteEntityBuilder;
+import com.influans.sp.dto.StoryBatchDto;
 import com.influans.sp.dto.StoryDto;
 import com.influans.sp.entity.SessionEntity;
 import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.entity.StoryRollupEntity;
+import com.influans.sp.enums.CardSetEnum;
 import com.influans.sp.enums.WsTypes;
 import com.influans.sp.exception.CustomErrorCode;
 import com.influans.sp.exception.CustomException;
 import com.influans.sp.repository.SessionRepository;
 import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.StoryRollupRepository;
+import com.influans.sp.repository.VoteRepository;
 import com.influans.sp.websocket.WebSocketSender;
 import org.assertj.core.api.Assertions;
 import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Collections;
 import java.util.List;
 
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -36,6 +44,14 @@ public class StoryServiceTest extends ApplicationTest {
     private SessionRepository sessionRepository;
     @Autowired
     private WebSocketSender webSocketSender;
+    @Autowired
+    private VotingTimerService votingTimerService;
+    @Autowired
+    private StoryRollupRepository storyRollupRepository;
+    @Autowired
+    private RoundService roundService;
+    @Autowired
+    private VoteRepository voteRepository;
 
     /**
      * @verifies throw an exception if session id is null or empty
@@ -292,6 +308,249 @@ public class StoryServiceTest extends ApplicationTest {
         verify(webSocketSender).sendNotification(sessionId, WsTypes.STORY_ADDED, storyDto);
     }
 
+    /**
+     * @verifies rank the story after the last story of the session
+     * @see StoryService#createStory(StoryDto)
+     */
+    @Test
+    public void createStory_shouldRankTheStoryAfterTheLastStoryOfTheSession() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId("story-1")
+                .withRank("a4")
+                .build());
+
+        // when
+        final StoryDto createdStory = storyService.createStory(StoryDtoBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryName("story-name")
+                .build());
+
+        // then
+        Assertions.assertThat(createdStory.getRank()).isEqualTo("a5");
+        Assertions.assertThat(storyRepository.findOne(createdStory.getStoryId()).getRank()).isEqualTo("a5");
+    }
+
+    /**
+     * @verifies throw an exception if previous story does not belong to the session
+     * @see StoryService#insertStory(StoryDto, String)
+     */
+    @Test
+    public void insertStory_shouldThrowAnExceptionIfPreviousStoryDoesNotBelongToTheSession() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("other-session")
+                .withStoryId("story-1")
+                .withRank("a0")
+                .build());
+
+        // when
+        try {
+            storyService.insertStory(StoryDtoBuilder.builder()
+                    .withSessionId(sessionId)
+                    .withStoryName("story-name")
+                    .build(), "story-1");
+            Assert.fail("shouldThrowAnExceptionIfPreviousStoryDoesNotBelongToTheSession");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies insert the story between the previous story and the next one
+     * @see StoryService#insertStory(StoryDto, String)
+     */
+    @Test
+    public void insertStory_shouldInsertTheStoryBetweenThePreviousStoryAndTheNextOne() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+        saveRankedStories(sessionId);
+
+        // when
+        final StoryDto createdStory = storyService.insertStory(StoryDtoBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryName("story-name")
+                .build(), "story-1");
+
+        // then
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).extracting("storyId")
+                .containsExactly("story-1", createdStory.getStoryId(), "story-2", "story-3");
+        Assertions.assertThat(storyRepository.findOne("story-2").getRank()).isEqualTo("a1");
+    }
+
+    /**
+     * @verifies insert the story first if afterStoryId is empty
+     * @see StoryService#insertStory(StoryDto, String)
+     */
+    @Test
+    public void insertStory_shouldInsertTheStoryFirstIfAfterStoryIdIsEmpty() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+        saveRankedStories(sessionId);
+
+        // when
+        final StoryDto createdStory = storyService.insertStory(StoryDtoBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryName("story-name")
+                .build(), "");
+
+        // then
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).extracting("storyId")
+                .containsExactly(createdStory.getStoryId(), "story-1", "story-2", "story-3");
+    }
+
+    /**
+     * @verifies throw an exception if storyId is null or empty
+     * @see StoryService#moveStory(String, String)
+     */
+    @Test
+    public void moveStory_shouldThrowAnExceptionIfStoryIdIsNullOrEmpty() throws Exception {
+        try {
+            storyService.moveStory("", "story-1");
+            Assert.fail("shouldThrowAnExceptionIfStoryIdIsNullOrEmpty");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if story does not exist
+     * @see StoryService#moveStory(String, String)
+     */
+    @Test
+    public void moveStory_shouldThrowAnExceptionIfStoryDoesNotExist() throws Exception {
+        try {
+            storyService.moveStory("invalid_story_id", null);
+            Assert.fail("shouldThrowAnExceptionIfStoryDoesNotExist");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if the story is moved after itself
+     * @see StoryService#moveStory(String, String)
+     */
+    @Test
+    public void moveStory_shouldThrowAnExceptionIfTheStoryIsMovedAfterItself() throws Exception {
+        // given
+        saveRankedStories("sessionId");
+
+        // when
+        try {
+            storyService.moveStory("story-2", "story-2");
+            Assert.fail("shouldThrowAnExceptionIfTheStoryIsMovedAfterItself");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies move the story by updating its rank only
+     * @see StoryService#moveStory(String, String)
+     */
+    @Test
+    public void moveStory_shouldMoveTheStoryByUpdatingItsRankOnly() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        saveRankedStories(sessionId);
+
+        // when
+        storyService.moveStory("story-3", "story-1");
+
+        // then
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).extracting("storyId")
+                .containsExactly("story-1", "story-3", "story-2");
+        Assertions.assertThat(storyRepository.findOne("story-1").getRank()).isEqualTo("a0");
+        Assertions.assertThat(storyRepository.findOne("story-2").getRank()).isEqualTo("a1");
+        Assertions.assertThat(storyRepository.findOne("story-3").getOrder()).isEqualTo(3);
+    }
+
+    /**
+     * @verifies move the story first if afterStoryId is empty
+     * @see StoryService#moveStory(String, String)
+     */
+    @Test
+    public void moveStory_shouldMoveTheStoryFirstIfAfterStoryIdIsEmpty() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        saveRankedStories(sessionId);
+
+        // when
+        storyService.moveStory("story-3", null);
+
+        // then
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).extracting("storyId")
+                .containsExactly("story-3", "story-1", "story-2");
+    }
+
+    /**
+     * @verifies rank the stories created before ranks existed
+     * @see StoryService#moveStory(String, String)
+     */
+    @Test
+    public void moveStory_shouldRankTheStoriesCreatedBeforeRanksExisted() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId("story-1")
+                        .withOrder(1)
+                        .build())
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId("story-2")
+                        .withOrder(2)
+                        .build())
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId("story-3")
+                        .withOrder(3)
+                        .build())
+                .build());
+
+        // when
+        storyService.moveStory("story-1", "story-2");
+
+        // then
+        final List<StoryEntity> stories = storyRepository.findBySessionId(sessionId);
+        Assertions.assertThat(stories).extracting("storyId").containsExactly("story-2", "story-1", "story-3");
+        Assertions.assertThat(stories).extracting("rank").doesNotContainNull();
+    }
+
+    /**
+     * @verifies send a websocket notification
+     * @see StoryService#moveStory(String, String)
+     */
+    @Test
+    public void moveStory_shouldSendAWebsocketNotification() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        saveRankedStories(sessionId);
+
+        // when
+        final StoryDto movedStory = storyService.moveStory("story-3", "story-1");
+
+        // then
+        verify(webSocketSender).sendNotification(sessionId, WsTypes.STORIES_REORDERED, Collections.singletonList(movedStory));
+    }
+
     /**
      * @verifies throw an exception if storyId is empty or null
      * @see StoryService#endStory(String)
@@ -320,6 +579,127 @@ public class StoryServiceTest extends ApplicationTest {
         }
     }
 
+    /**
+     * @verifies throw an exception if storyId is null or empty
+     * @see StoryService#revoteStory(String)
+     */
+    @Test
+    public void revoteStory_shouldThrowAnExceptionIfStoryIdIsNullOrEmpty() throws Exception {
+        try {
+            storyService.revoteStory("");
+            Assert.fail("shouldThrowAnExceptionIfStoryIdIsNullOrEmpty");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if story does not exist
+     * @see StoryService#revoteStory(String)
+     */
+    @Test
+    public void revoteStory_shouldThrowAnExceptionIfStoryDoesNotExist() throws Exception {
+        try {
+            storyService.revoteStory("invalid_story_id");
+            Assert.fail("shouldThrowAnExceptionIfStoryDoesNotExist");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if story is not ended
+     * @see StoryService#revoteStory(String)
+     */
+    @Test
+    public void revoteStory_shouldThrowAnExceptionIfStoryIsNotEnded() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("story-open")
+                .build());
+
+        // then
+        try {
+            storyService.revoteStory("story-open");
+            Assert.fail("shouldThrowAnExceptionIfStoryIsNotEnded");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies reopen the story and delete its votes
+     * @see StoryService#revoteStory(String)
+     */
+    @Test
+    public void revoteStory_shouldReopenTheStoryAndDeleteItsVotes() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("story-revote")
+                .withEnded(true)
+                .build());
+        saveVotes("sessionId", "story-revote", "fib-3", "fib-8");
+
+        // when
+        storyService.revoteStory("story-revote");
+
+        // then
+        Assertions.assertThat(storyRepository.findOne("story-revote").isEnded()).isFalse();
+        Assertions.assertThat(voteRepository.findByStoryId("story-revote")).isEmpty();
+    }
+
+    /**
+     * @verifies count a new round when the story is ended again
+     * @see StoryService#revoteStory(String)
+     */
+    @Test
+    public void revoteStory_shouldCountANewRoundWhenTheStoryIsEndedAgain() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("session-rounds")
+                .withCardSet(CardSetEnum.FIBONACCI)
+                .build());
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("session-rounds")
+                .withStoryId("story-rounds")
+                .build());
+        saveVotes("session-rounds", "story-rounds", "fib-3", "fib-8");
+        storyService.endStory("story-rounds");
+
+        // when
+        storyService.revoteStory("story-rounds");
+        saveVotes("session-rounds", "story-rounds", "fib-5", "fib-5");
+        storyService.endStory("story-rounds");
+
+        // then
+        final StoryRollupEntity rollup = storyRollupRepository.findOne("story-rounds");
+        Assertions.assertThat(rollup.getRounds()).isEqualTo(2);
+        Assertions.assertThat(rollup.getVotes()).isEqualTo(2);
+        Assertions.assertThat(rollup.getConsensusRound()).isEqualTo(2);
+    }
+
+    /**
+     * @verifies send a websocket notification
+     * @see StoryService#revoteStory(String)
+     */
+    @Test
+    public void revoteStory_shouldSendAWebsocketNotification() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("session-revoted")
+                .withStoryId("story-revoted")
+                .withEnded(true)
+                .build());
+
+        // when
+        storyService.revoteStory("story-revoted");
+
+        // then
+        verify(webSocketSender).sendNotification("session-revoted", WsTypes.STORY_REVOTED, "story-revoted");
+    }
+
     /**
      * @verifies set story as ended
      * @see StoryService#endStory(String)
@@ -341,6 +721,96 @@ public class StoryServiceTest extends ApplicationTest {
         Assertions.assertThat(foundStory.isEnded()).isTrue();
     }
 
+    /**
+     * @verifies stop the voting timer of the story
+     * @see StoryService#endStory(String)
+     */
+    @Test
+    public void endStory_shouldStopTheVotingTimerOfTheStory() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("story-timer")
+                .build());
+        votingTimerService.startTimer("story-timer", 60);
+
+        // when
+        storyService.endStory("story-timer");
+
+        // then
+        Assertions.assertThat(votingTimerService.isRunning("story-timer")).isFalse();
+        Assertions.assertThat(storyRepository.findOne("story-timer").getDeadline()).isNull();
+        Assertions.assertThat(storyRepository.findWithDeadline()).extracting("storyId").doesNotContain("story-timer");
+    }
+
+    /**
+     * @verifies update the analytics rollups
+     * @see StoryService#endStory(String)
+     */
+    @Test
+    public void endStory_shouldUpdateTheAnalyticsRollups() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("story-rollup")
+                .build());
+
+        // when
+        storyService.endStory("story-rollup");
+
+        // then
+        final StoryRollupEntity rollup = storyRollupRepository.findOne("story-rollup");
+        Assertions.assertThat(rollup).isNotNull();
+        Assertions.assertThat(rollup.getSessionId()).isEqualTo("sessionId");
+        Assertions.assertThat(rollup.getRounds()).isEqualTo(1);
+    }
+
+    /**
+     * @verifies update the analytics rollups once if the story is already ended
+     * @see StoryService#endStory(String)
+     */
+    @Test
+    public void endStory_shouldUpdateTheAnalyticsRollupsOnceIfTheStoryIsAlreadyEnded() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("story-rollup-once")
+                .build());
+        storyService.endStory("story-rollup-once");
+
+        // when
+        storyService.endStory("story-rollup-once");
+
+        // then
+        Assertions.assertThat(storyRollupRepository.findOne("story-rollup-once").getRounds()).isEqualTo(1);
+        verify(webSocketSender, times(1)).sendNotification("sessionId", WsTypes.STORY_ENDED, "story-rollup-once");
+    }
+
+    /**
+     * @verifies remove the story from the open round
+     * @see StoryService#endStory(String)
+     */
+    @Test
+    public void endStory_shouldRemoveTheStoryFromTheOpenRound() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("session-round")
+                .build());
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder().withSessionId("session-round").withStoryId("story-round-1").build())
+                .add(StoryEntityBuilder.builder().withSessionId("session-round").withStoryId("story-round-2").build())
+                .build());
+        roundService.openRound(new StoryBatchDto("session-round", ImmutableList.of(
+                StoryDtoBuilder.builder().withStoryId("story-round-1").build(),
+                StoryDtoBuilder.builder().withStoryId("story-round-2").build())));
+
+        // when
+        storyService.endStory("story-round-1");
+
+        // then
+        Assertions.assertThat(roundService.getRound("session-round").getStoryIds()).containsExactly("story-round-2");
+    }
+
     /**
      * @verifies send a websocket notification
      * @see StoryService#endStory(String)
@@ -361,4 +831,255 @@ public class StoryServiceTest extends ApplicationTest {
         // then
         verify(webSocketSender).sendNotification(storyEntity.getSessionId(), WsTypes.STORY_ENDED, storyId);
     }
+
+    /**
+     * @verifies throw an exception if session does not exist
+     * @see StoryService#createStories(com.influans.sp.dto.StoryBatchDto)
+     */
+    @Test
+    public void createStories_shouldThrowAnExceptionIfSessionDoesNotExist() throws Exception {
+        final StoryBatchDto storyBatchDto = new StoryBatchDto("invalid_session_id", ImmutableList.of(StoryDtoBuilder.builder()
+                .withStoryName("story-name")
+                .build()));
+        try {
+            storyService.createStories(storyBatchDto);
+            Assert.fail("shouldThrowAnExceptionIfSessionDoesNotExist");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies create all stories related to the given sessionId
+     * @see StoryService#createStories(com.influans.sp.dto.StoryBatchDto)
+     */
+    @Test
+    public void createStories_shouldCreateAllStoriesRelatedToTheGivenSessionId() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+        final StoryBatchDto storyBatchDto = new StoryBatchDto(sessionId, ImmutableList.<StoryDto>builder()
+                .add(StoryDtoBuilder.builder()
+                        .withStoryName("story-1")
+                        .withOrder(1)
+                        .build())
+                .add(StoryDtoBuilder.builder()
+                        .withStoryName("story-2")
+                        .withOrder(2)
+                        .build())
+                .build());
+
+        // when
+        final List<StoryDto> stories = storyService.createStories(storyBatchDto);
+
+        // then
+        Assertions.assertThat(stories).hasSize(2);
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).hasSize(2);
+        final StoryEntity storyEntity = storyRepository.findOne(stories.get(1).getStoryId());
+        Assertions.assertThat(storyEntity).isNotNull();
+        Assertions.assertThat(storyEntity.getStoryName()).isEqualTo("story-2");
+        Assertions.assertThat(storyEntity.getOrder()).isEqualTo(2);
+        verify(webSocketSender).sendNotification(sessionId, WsTypes.STORIES_ADDED, stories);
+    }
+
+    /**
+     * @verifies throw an exception if a story does not belong to the session
+     * @see StoryService#reorderStories(com.influans.sp.dto.StoryBatchDto)
+     */
+    @Test
+    public void reorderStories_shouldThrowAnExceptionIfAStoryDoesNotBelongToTheSession() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("other-session")
+                .withStoryId("story-1")
+                .build());
+        final StoryBatchDto storyBatchDto = new StoryBatchDto("sessionId", ImmutableList.of(StoryDtoBuilder.builder()
+                .withStoryId("story-1")
+                .withOrder(3)
+                .build()));
+
+        try {
+            // when
+            storyService.reorderStories(storyBatchDto);
+            Assert.fail("shouldThrowAnExceptionIfAStoryDoesNotBelongToTheSession");
+        } catch (CustomException e) {
+            // then
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies update the order of all given stories
+     * @see StoryService#reorderStories(com.influans.sp.dto.StoryBatchDto)
+     */
+    @Test
+    public void reorderStories_shouldUpdateTheOrderOfAllGivenStories() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId("story-1")
+                        .withOrder(1)
+                        .build())
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId("story-2")
+                        .withOrder(2)
+                        .build())
+                .build());
+        final StoryBatchDto storyBatchDto = new StoryBatchDto(sessionId, ImmutableList.<StoryDto>builder()
+                .add(StoryDtoBuilder.builder()
+                        .withStoryId("story-1")
+                        .withOrder(2)
+                        .build())
+                .add(StoryDtoBuilder.builder()
+                        .withStoryId("story-2")
+                        .withOrder(1)
+                        .build())
+                .build());
+
+        // when
+        storyService.reorderStories(storyBatchDto);
+
+        // then
+        Assertions.assertThat(storyRepository.findOne("story-1").getOrder()).isEqualTo(2);
+        Assertions.assertThat(storyRepository.findOne("story-2").getOrder()).isEqualTo(1);
+    }
+
+    /**
+     * @verifies keep the position of the stories which are not part of the batch
+     * @see StoryService#reorderStories(StoryBatchDto)
+     */
+    @Test
+    public void reorderStories_shouldKeepThePositionOfTheStoriesWhichAreNotPartOfTheBatch() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        saveRankedStories(sessionId);
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId("story-4")
+                .withOrder(4)
+                .withRank("a3")
+                .build());
+        storyService.moveStory("story-4", "story-1");
+        final String movedRank = storyRepository.findOne("story-4").getRank();
+
+        // when
+        storyService.reorderStories(new StoryBatchDto(sessionId, ImmutableList.<StoryDto>builder()
+                .add(StoryDtoBuilder.builder()
+                        .withStoryId("story-2")
+                        .withOrder(3)
+                        .build())
+                .add(StoryDtoBuilder.builder()
+                        .withStoryId("story-3")
+                        .withOrder(2)
+                        .build())
+                .build()));
+
+        // then
+        Assertions.assertThat(storyRepository.findBySessionId(sessionId)).extracting("storyId")
+                .containsExactly("story-1", "story-4", "story-3", "story-2");
+        Assertions.assertThat(storyRepository.findOne("story-1").getRank()).isEqualTo("a0");
+        Assertions.assertThat(storyRepository.findOne("story-4").getRank()).isEqualTo(movedRank);
+    }
+
+    /**
+     * @verifies end only the stories which are not ended yet
+     * @see StoryService#markEnded(java.util.Collection)
+     */
+    @Test
+    public void markEnded_shouldEndOnlyTheStoriesWhichAreNotEndedYet() throws Exception {
+        // given
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId("sessionId")
+                        .withStoryId("mark-ended-1")
+                        .build())
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId("sessionId")
+                        .withStoryId("mark-ended-2")
+                        .withEnded(true)
+                        .build())
+                .build());
+
+        // when
+        final List<String> endedIds = storyService.markEnded(ImmutableList.of("mark-ended-1", "mark-ended-2"));
+
+        // then
+        Assertions.assertThat(endedIds).containsExactly("mark-ended-1");
+        Assertions.assertThat(storyRollupRepository.findOne("mark-ended-1")).isNotNull();
+        Assertions.assertThat(storyRollupRepository.findOne("mark-ended-2")).isNull();
+    }
+
+    /**
+     * @verifies set all given stories as ended
+     * @see StoryService#endStories(com.influans.sp.dto.StoryBatchDto)
+     */
+    @Test
+    public void endStories_shouldSetAllGivenStoriesAsEnded() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId("story-1")
+                        .build())
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId("story-2")
+                        .build())
+                .build());
+        final StoryBatchDto storyBatchDto = new StoryBatchDto(sessionId, ImmutableList.<StoryDto>builder()
+                .add(StoryDtoBuilder.builder()
+                        .withStoryId("story-1")
+                        .build())
+                .add(StoryDtoBuilder.builder()
+                        .withStoryId("story-2")
+                        .build())
+                .build());
+
+        // when
+        storyService.endStories(storyBatchDto);
+
+        // then
+        Assertions.assertThat(storyRepository.findOne("story-1").isEnded()).isTrue();
+        Assertions.assertThat(storyRepository.findOne("story-2").isEnded()).isTrue();
+    }
+
+    private void saveVotes(String sessionId, String storyId, String... values) {
+        for (int i = 0; i < values.length; i++) {
+            voteRepository.save(VoteEntityBuilder.builder()
+                    .withSessionId(sessionId)
+                    .withStoryId(storyId)
+                    .withUsername("user-" + i)
+                    .withValue(values[i])
+                    .build());
+        }
+    }
+
+    private void saveRankedStories(String sessionId) {
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId("story-1")
+                        .withOrder(1)
+                        .withRank("a0")
+                        .build())
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId("story-2")
+                        .withOrder(2)
+                        .withRank("a1")
+                        .build())
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId("story-3")
+                        .withOrder(3)
+                        .withRank("a2")
+                        .build())
+                .build());
+    }
 }
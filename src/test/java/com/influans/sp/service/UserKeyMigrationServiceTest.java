@@ -0,0 +1,209 @@
+package com.influans.sp.service;
+
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.builders.UserEntityBuilder;
+import com.influans.sp.entity.UserEntity;
+import com.influans.sp.entity.def.EntityIdDef;
+import com.influans.sp.entity.def.UserEntityDef;
+import com.influans.sp.repository.UserRepository;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author hazem
+ */
+public class UserKeyMigrationServiceTest extends ApplicationTest {
+
+    @Autowired
+    private UserKeyMigrationService userKeyMigrationService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * @verifies rewrite legacy users with the compact key
+     * @see UserKeyMigrationService#migrate()
+     */
+    @Test
+    public void migrate_shouldRewriteLegacyUsersWithTheCompactKey() throws Exception {
+        // given
+        insertLegacyUser("sessionId", "Leo", true);
+        insertLegacyUser("sessionId", "Leander", false);
+
+        // when
+        final long migrated = userKeyMigrationService.migrate();
+
+        // then
+        Assertions.assertThat(migrated).isEqualTo(2);
+        Assertions.assertThat(userCollection().count()).isEqualTo(2);
+        Assertions.assertThat(userRepository.findUsersBySessionId("sessionId")).extracting("username")
+                .containsOnly("Leo", "Leander");
+    }
+
+    /**
+     * @verifies keep the user fields
+     * @see UserKeyMigrationService#migrate()
+     */
+    @Test
+    public void migrate_shouldKeepTheUserFields() throws Exception {
+        // given
+        insertLegacyUser("sessionId", "Leo", true);
+
+        // when
+        userKeyMigrationService.migrate();
+
+        // then
+        final UserEntity userEntity = userRepository.findUser("sessionId", "Leo");
+        Assertions.assertThat(userEntity).isNotNull();
+        Assertions.assertThat(userEntity.getUserKey()).isEqualTo("sessionId:Leo");
+        Assertions.assertThat(userEntity.isAdmin()).isTrue();
+        Assertions.assertThat(userEntity.isConnected()).isTrue();
+    }
+
+    /**
+     * @verifies do nothing if users are already migrated
+     * @see UserKeyMigrationService#migrate()
+     */
+    @Test
+    public void migrate_shouldDoNothingIfUsersAreAlreadyMigrated() throws Exception {
+        // given
+        userRepository.save(UserEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withUsername("Leo")
+                .build());
+
+        // when
+        final long migrated = userKeyMigrationService.migrate();
+
+        // then
+        Assertions.assertThat(migrated).isEqualTo(0);
+        Assertions.assertThat(userRepository.findUser("sessionId", "Leo")).isNotNull();
+    }
+
+    /**
+     * @verifies keep the legacy index while legacy users are read
+     * @see UserKeyMigrationService#migrate()
+     */
+    @Test
+    public void migrate_shouldKeepTheLegacyIndexWhileLegacyUsersAreRead() throws Exception {
+        // given
+        insertLegacyUser("sessionId", "Leo", true);
+        userCollection().createIndex(new BasicDBObject(UserKeyMigrationService.LEGACY_SESSION_ID, 1));
+
+        // when
+        userKeyMigrationService.migrate();
+
+        // then
+        Assertions.assertThat(userCollection().getIndexInfo().stream()
+                .anyMatch(index -> ((DBObject) index.get("key")).containsField(UserKeyMigrationService.LEGACY_SESSION_ID)))
+                .isTrue();
+    }
+
+    /**
+     * @verifies run the migration once
+     * @see UserKeyMigrationService#runOnce(String, Runnable)
+     */
+    @Test
+    public void runOnce_shouldRunTheMigrationOnce() throws Exception {
+        // given
+        final AtomicInteger runs = new AtomicInteger();
+
+        // when
+        final boolean first = userKeyMigrationService.runOnce("test-once", runs::incrementAndGet);
+        final boolean second = userKeyMigrationService.runOnce("test-once", runs::incrementAndGet);
+
+        // then
+        Assertions.assertThat(first).isTrue();
+        Assertions.assertThat(second).isFalse();
+        Assertions.assertThat(runs.get()).isEqualTo(1);
+    }
+
+    /**
+     * @verifies not run the migration held by another node
+     * @see UserKeyMigrationService#runOnce(String, Runnable)
+     */
+    @Test
+    public void runOnce_shouldNotRunTheMigrationHeldByAnotherNode() throws Exception {
+        // given
+        insertLock("test-held", System.currentTimeMillis() + 60000);
+        final AtomicInteger runs = new AtomicInteger();
+
+        // when
+        final boolean ran = userKeyMigrationService.runOnce("test-held", runs::incrementAndGet);
+
+        // then
+        Assertions.assertThat(ran).isFalse();
+        Assertions.assertThat(runs.get()).isEqualTo(0);
+    }
+
+    /**
+     * @verifies take over an expired lock
+     * @see UserKeyMigrationService#runOnce(String, Runnable)
+     */
+    @Test
+    public void runOnce_shouldTakeOverAnExpiredLock() throws Exception {
+        // given
+        insertLock("test-expired", System.currentTimeMillis() - 1000);
+        final AtomicInteger runs = new AtomicInteger();
+
+        // when
+        final boolean ran = userKeyMigrationService.runOnce("test-expired", runs::incrementAndGet);
+
+        // then
+        Assertions.assertThat(ran).isTrue();
+        Assertions.assertThat(runs.get()).isEqualTo(1);
+    }
+
+    /**
+     * @verifies release the lock if the migration fails
+     * @see UserKeyMigrationService#runOnce(String, Runnable)
+     */
+    @Test
+    public void runOnce_shouldReleaseTheLockIfTheMigrationFails() throws Exception {
+        // given
+        final AtomicInteger runs = new AtomicInteger();
+        try {
+            userKeyMigrationService.runOnce("test-failed", () -> {
+                throw new IllegalStateException("failed");
+            });
+            Assert.fail("shouldReleaseTheLockIfTheMigrationFails");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // when
+        final boolean ran = userKeyMigrationService.runOnce("test-failed", runs::incrementAndGet);
+
+        // then
+        Assertions.assertThat(ran).isTrue();
+        Assertions.assertThat(runs.get()).isEqualTo(1);
+    }
+
+    private void insertLock(String migrationId, long lockedUntil) {
+        mongoTemplate.getCollection(UserKeyMigrationService.MIGRATION_COLLECTION).insert(new BasicDBObject("_id", migrationId)
+                .append("st", "running")
+                .append("by", "another-node")
+                .append("exp", new Date(lockedUntil)));
+    }
+
+    private void insertLegacyUser(String sessionId, String username, boolean admin) {
+        userCollection().insert(new BasicDBObject("_id", new BasicDBObject(EntityIdDef.ENTITY_ID, username)
+                .append(EntityIdDef.SESSION_ID, sessionId))
+                .append(UserEntityDef.ADMIN, admin)
+                .append(UserEntityDef.CONNECTED, true));
+    }
+
+    private DBCollection userCollection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(UserEntity.class));
+    }
+}
@@ -3,11 +3,14 @@ package com.influans.sp.service;
 import com.google.common.collect.ImmutableList;
 import com.influans.sp.ApplicationTest;
 import com.influans.sp.builders.*;
+import com.influans.sp.dto.StoryBatchDto;
 import com.influans.sp.dto.VoteDto;
+import com.influans.sp.dto.VoteStatsDto;
 import com.influans.sp.entity.SessionEntity;
 import com.influans.sp.entity.StoryEntity;
 import com.influans.sp.entity.UserEntity;
 import com.influans.sp.entity.VoteEntity;
+import com.influans.sp.enums.CardSetEnum;
 import com.influans.sp.enums.WsTypes;
 import com.influans.sp.exception.CustomErrorCode;
 import com.influans.sp.exception.CustomException;
@@ -17,12 +20,17 @@ import com.influans.sp.repository.UserRepository;
 import com.influans.sp.repository.VoteRepository;
 import com.influans.sp.websocket.WebSocketSender;
 import org.assertj.core.api.Assertions;
+import org.assertj.core.data.MapEntry;
 import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -42,6 +50,8 @@ public class VoteServiceTest extends ApplicationTest {
     private UserRepository userRepository;
     @Autowired
     private WebSocketSender webSocketSender;
+    @Autowired
+    private RoundService roundService;
 
     /**
      * @verifies throw an exception if storyId is null or empty
@@ -168,7 +178,8 @@ public class VoteServiceTest extends ApplicationTest {
         voteService.delete(voteId);
 
         // then
-        verify(webSocketSender).sendNotification(voteEntity.getSessionId(), WsTypes.VOTE_REMOVED, voteId);
+        verify(webSocketSender).sendNotification(voteEntity.getSessionId(), WsTypes.VOTE_REMOVED, voteId,
+                Collections.singletonList(voteEntity.getStoryId()));
     }
 
     /**
@@ -467,4 +478,253 @@ public class VoteServiceTest extends ApplicationTest {
         // then
         verify(webSocketSender).sendNotification(voteDto.getSessionId(), WsTypes.VOTE_ADDED, createdVote);
     }
+
+    /**
+     * @verifies queue the notification if the story is part of the open round
+     * @see VoteService#saveVote(VoteDto)
+     */
+    @Test
+    public void saveVote_shouldQueueTheNotificationIfTheStoryIsPartOfTheOpenRound() throws Exception {
+        // given
+        final String sessionId = "vote-round-session";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId("vote-round-story")
+                .build());
+        userRepository.save(UserEntityBuilder.builder()
+                .withUsername("username")
+                .withSessionId(sessionId)
+                .build());
+        roundService.openRound(new StoryBatchDto(sessionId, ImmutableList.of(StoryDtoBuilder.builder()
+                .withStoryId("vote-round-story")
+                .build())));
+        final VoteDto voteDto = VoteDtoBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId("vote-round-story")
+                .withUsername("username")
+                .withValue("value")
+                .build();
+
+        // when
+        final VoteDto createdVote = voteService.saveVote(voteDto);
+
+        // then
+        verify(webSocketSender, never()).sendNotification(sessionId, WsTypes.VOTE_ADDED, createdVote);
+        Assertions.assertThat(roundService.flushVotes()).isEqualTo(1);
+        verify(webSocketSender).sendNotification(sessionId, WsTypes.VOTES_ADDED, ImmutableList.of(createdVote));
+    }
+
+    /**
+     * @verifies fail if session does not exist with given sessionId
+     * @see VoteService#saveVoteAsync(VoteDto)
+     */
+    @Test
+    public void saveVoteAsync_shouldFailIfSessionDoesNotExistWithGivenSessionId() throws Exception {
+        // given
+        final VoteDto voteDto = VoteDtoBuilder.builder()
+                .withSessionId("invalid_session_id")
+                .withStoryId("storyId")
+                .withUsername("username")
+                .withValue("value")
+                .build();
+
+        // when
+        final CompletableFuture<VoteDto> future = voteService.saveVoteAsync(voteDto);
+
+        // then
+        try {
+            future.get();
+            Assert.fail("shouldFailIfSessionDoesNotExistWithGivenSessionId");
+        } catch (ExecutionException e) {
+            Assertions.assertThat(e.getCause()).isInstanceOf(CustomException.class);
+            Assertions.assertThat(((CustomException) e.getCause()).getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+        Assertions.assertThat(voteRepository.count()).isZero();
+    }
+
+    /**
+     * @verifies save the vote once all the checks succeeded
+     * @see VoteService#saveVoteAsync(VoteDto)
+     */
+    @Test
+    public void saveVoteAsync_shouldSaveTheVoteOnceAllTheChecksSucceeded() throws Exception {
+        // given
+        final String sessionId = "sessionId";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .build());
+        final String storyId = "storyId";
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId(storyId)
+                .build());
+        final String username = "username";
+        userRepository.save(UserEntityBuilder.builder()
+                .withUsername(username)
+                .withSessionId(sessionId)
+                .build());
+
+        final VoteDto voteDto = VoteDtoBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId(storyId)
+                .withUsername(username)
+                .withValue("value")
+                .build();
+
+        // when
+        final VoteDto createdVote = voteService.saveVoteAsync(voteDto).get();
+
+        // then
+        Assertions.assertThat(createdVote.getVoteId()).isNotNull();
+        Assertions.assertThat(voteRepository.findOne(createdVote.getVoteId()).getValue()).isEqualTo("value");
+        verify(webSocketSender).sendNotification(sessionId, WsTypes.VOTE_ADDED, voteDto);
+    }
+
+    /**
+     * @verifies fail if story does not exist with given id
+     * @see VoteService#listVotesAsync(String)
+     */
+    @Test
+    public void listVotesAsync_shouldFailIfStoryDoesNotExistWithGivenId() throws Exception {
+        // when
+        final CompletableFuture<List<VoteDto>> future = voteService.listVotesAsync("invalid_story_id");
+
+        // then
+        try {
+            future.get();
+            Assert.fail("shouldFailIfStoryDoesNotExistWithGivenId");
+        } catch (ExecutionException e) {
+            Assertions.assertThat(e.getCause()).isInstanceOf(CustomException.class);
+            Assertions.assertThat(((CustomException) e.getCause()).getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if value is not part of the session deck
+     * @see VoteService#saveVote(com.influans.sp.dto.VoteDto)
+     */
+    @Test
+    public void saveVote_shouldThrowAnExceptionIfValueIsNotPartOfTheSessionDeck() throws Exception {
+        // given
+        final String sessionId = "sessionId-restricted-deck";
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withCardSet(CardSetEnum.FIBONACCI)
+                .build());
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId("storyId")
+                .build());
+        userRepository.save(UserEntityBuilder.builder()
+                .withUsername("Leo")
+                .withSessionId(sessionId)
+                .build());
+
+        final VoteDto voteDto = VoteDtoBuilder.builder()
+                .withSessionId(sessionId)
+                .withStoryId("storyId")
+                .withUsername("Leo")
+                .withValue("fib-4")
+                .build();
+        try {
+            // when
+            voteService.saveVote(voteDto);
+            Assert.fail("shouldThrowAnExceptionIfValueIsNotPartOfTheSessionDeck");
+        } catch (CustomException e) {
+            // then
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+            Assertions.assertThat(voteRepository.findByStoryId("storyId")).isEmpty();
+        }
+    }
+
+    /**
+     * @verifies throw an exception if storyId is null or empty
+     * @see VoteService#getVoteStats(String)
+     */
+    @Test
+    public void getVoteStats_shouldThrowAnExceptionIfStoryIdIsNullOrEmpty() throws Exception {
+        try {
+            voteService.getVoteStats("");
+            Assert.fail("shouldThrowAnExceptionIfStoryIdIsNullOrEmpty");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if story does not exist with given id
+     * @see VoteService#getVoteStats(String)
+     */
+    @Test
+    public void getVoteStats_shouldThrowAnExceptionIfStoryDoesNotExistWithGivenId() throws Exception {
+        try {
+            voteService.getVoteStats("invalid_story_id");
+            Assert.fail("shouldThrowAnExceptionIfStoryDoesNotExistWithGivenId");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies count votes per card in deck order
+     * @see VoteService#getVoteStats(String)
+     */
+    @Test
+    public void getVoteStats_shouldCountVotesPerCardInDeckOrder() throws Exception {
+        // given
+        givenCustomDeckVotes("L", "S", "coffee", "L");
+
+        // when
+        final VoteStatsDto voteStatsDto = voteService.getVoteStats("storyId");
+
+        // then
+        Assertions.assertThat(voteStatsDto.getVotes()).isEqualTo(4);
+        Assertions.assertThat(voteStatsDto.getCounts()).containsExactly(
+                MapEntry.entry("S", 1), MapEntry.entry("L", 2), MapEntry.entry("coffee", 1));
+    }
+
+    /**
+     * @verifies compute average min and max from card weights
+     * @see VoteService#getVoteStats(String)
+     */
+    @Test
+    public void getVoteStats_shouldComputeAverageMinAndMaxFromCardWeights() throws Exception {
+        // given
+        givenCustomDeckVotes("L", "S", "coffee", "M");
+
+        // when
+        final VoteStatsDto voteStatsDto = voteService.getVoteStats("storyId");
+
+        // then
+        Assertions.assertThat(voteStatsDto.getAverage()).isEqualTo((5d + 1d + 3d) / 3);
+        Assertions.assertThat(voteStatsDto.getMin()).isEqualTo("S");
+        Assertions.assertThat(voteStatsDto.getMax()).isEqualTo("L");
+    }
+
+    private void givenCustomDeckVotes(String... values) {
+        // decks are cached per session id, the custom deck gets its own
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("sessionId-custom-deck")
+                .withCard("S", 1d)
+                .withCard("M", 3d)
+                .withCard("L", 5d)
+                .withCard("coffee", null)
+                .build());
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId-custom-deck")
+                .withStoryId("storyId")
+                .build());
+        for (int i = 0; i < values.length; i++) {
+            voteRepository.save(VoteEntityBuilder.builder()
+                    .withVoteId("vote-" + i)
+                    .withSessionId("sessionId-custom-deck")
+                    .withStoryId("storyId")
+                    .withUsername("user-" + i)
+                    .withValue(values[i])
+                    .build());
+        }
+    }
 }
@@ -0,0 +1,329 @@
+package com.influans.sp.service;
+
+import com.google.common.collect.ImmutableList;
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.builders.StoryEntityBuilder;
+import com.influans.sp.dto.StoryDto;
+import com.influans.sp.dto.TimerTickDto;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.enums.WsTypes;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.CustomException;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.websocket.WebSocketSender;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author hazem
+ */
+public class VotingTimerServiceTest extends ApplicationTest {
+    private static final long TICK = 100;
+
+    @Autowired
+    private VotingTimerService votingTimerService;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private WebSocketSender webSocketSender;
+    @Autowired
+    private SessionRoutingService sessionRoutingService;
+
+    @Before
+    public void setUpTimers() throws Exception {
+        // timers of the previous tests are dropped and the wheel is set back to the current time
+        votingTimerService.init();
+    }
+
+    @After
+    public void resetNodes() throws Exception {
+        sessionRoutingService.updateNodes(Collections.emptyList());
+    }
+
+    /**
+     * @verifies throw an exception if storyId is null or empty
+     * @see VotingTimerService#startTimer(String, long)
+     */
+    @Test
+    public void startTimer_shouldThrowAnExceptionIfStoryIdIsNullOrEmpty() throws Exception {
+        try {
+            votingTimerService.startTimer(null, 60);
+            Assert.fail("shouldThrowAnExceptionIfStoryIdIsNullOrEmpty");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if duration is not valid
+     * @see VotingTimerService#startTimer(String, long)
+     */
+    @Test
+    public void startTimer_shouldThrowAnExceptionIfDurationIsNotValid() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("timer-duration")
+                .build());
+
+        // then
+        for (long duration : new long[]{0, -1, TimeUnit.HOURS.toSeconds(1) + 1}) {
+            try {
+                votingTimerService.startTimer("timer-duration", duration);
+                Assert.fail("shouldThrowAnExceptionIfDurationIsNotValid");
+            } catch (CustomException e) {
+                Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+            }
+        }
+    }
+
+    /**
+     * @verifies throw an exception if story does not exist
+     * @see VotingTimerService#startTimer(String, long)
+     */
+    @Test
+    public void startTimer_shouldThrowAnExceptionIfStoryDoesNotExist() throws Exception {
+        try {
+            votingTimerService.startTimer("invalid_story_id", 60);
+            Assert.fail("shouldThrowAnExceptionIfStoryDoesNotExist");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if story is ended
+     * @see VotingTimerService#startTimer(String, long)
+     */
+    @Test
+    public void startTimer_shouldThrowAnExceptionIfStoryIsEnded() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("timer-ended")
+                .withEnded(true)
+                .build());
+
+        // when
+        try {
+            votingTimerService.startTimer("timer-ended", 60);
+            Assert.fail("shouldThrowAnExceptionIfStoryIsEnded");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.BAD_ARGS);
+        }
+    }
+
+    /**
+     * @verifies save the deadline and send a websocket notification
+     * @see VotingTimerService#startTimer(String, long)
+     */
+    @Test
+    public void startTimer_shouldSaveTheDeadlineAndSendAWebsocketNotification() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("timer-start")
+                .build());
+        final long before = System.currentTimeMillis();
+
+        // when
+        final StoryDto storyDto = votingTimerService.startTimer("timer-start", 60);
+
+        // then
+        Assertions.assertThat(storyDto.getDeadline()).isBetween(before + 60000, System.currentTimeMillis() + 60000);
+        Assertions.assertThat(storyRepository.findOne("timer-start").getDeadline()).isEqualTo(storyDto.getDeadline());
+        Assertions.assertThat(votingTimerService.isRunning("timer-start")).isTrue();
+        verify(webSocketSender).sendNotification("sessionId", WsTypes.TIMER_STARTED, storyDto);
+    }
+
+    /**
+     * @verifies end the story once the deadline is reached
+     * @see VotingTimerService#startTimer(String, long)
+     */
+    @Test
+    public void startTimer_shouldEndTheStoryOnceTheDeadlineIsReached() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("timer-expire")
+                .build());
+        final StoryDto storyDto = votingTimerService.startTimer("timer-expire", 1);
+
+        // when
+        final int ended = votingTimerService.advance(storyDto.getDeadline() + TICK);
+
+        // then
+        Assertions.assertThat(ended).isEqualTo(1);
+        Assertions.assertThat(storyRepository.findOne("timer-expire").isEnded()).isTrue();
+        Assertions.assertThat(votingTimerService.isRunning("timer-expire")).isFalse();
+    }
+
+    /**
+     * @verifies replace the running timer of the story
+     * @see VotingTimerService#startTimer(String, long)
+     */
+    @Test
+    public void startTimer_shouldReplaceTheRunningTimerOfTheStory() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("timer-replace")
+                .build());
+        final StoryDto first = votingTimerService.startTimer("timer-replace", 1);
+
+        // when
+        votingTimerService.startTimer("timer-replace", 60);
+        votingTimerService.advance(first.getDeadline() + TICK);
+
+        // then
+        Assertions.assertThat(storyRepository.findOne("timer-replace").isEnded()).isFalse();
+        Assertions.assertThat(votingTimerService.isRunning("timer-replace")).isTrue();
+    }
+
+    /**
+     * @verifies throw an exception if story does not exist
+     * @see VotingTimerService#stopTimer(String)
+     */
+    @Test
+    public void stopTimer_shouldThrowAnExceptionIfStoryDoesNotExist() throws Exception {
+        try {
+            votingTimerService.stopTimer("invalid_story_id");
+            Assert.fail("shouldThrowAnExceptionIfStoryDoesNotExist");
+        } catch (CustomException e) {
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @verifies cancel the timer and clear the deadline
+     * @see VotingTimerService#stopTimer(String)
+     */
+    @Test
+    public void stopTimer_shouldCancelTheTimerAndClearTheDeadline() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("timer-stop")
+                .build());
+        final StoryDto storyDto = votingTimerService.startTimer("timer-stop", 1);
+
+        // when
+        votingTimerService.stopTimer("timer-stop");
+        votingTimerService.advance(storyDto.getDeadline() + TICK);
+
+        // then
+        final StoryEntity storyEntity = storyRepository.findOne("timer-stop");
+        Assertions.assertThat(storyEntity.getDeadline()).isNull();
+        Assertions.assertThat(storyEntity.isEnded()).isFalse();
+        Assertions.assertThat(votingTimerService.isRunning("timer-stop")).isFalse();
+        verify(webSocketSender).sendNotification("sessionId", WsTypes.TIMER_STOPPED, "timer-stop");
+    }
+
+    /**
+     * @verifies schedule the stored deadlines
+     * @see VotingTimerService#reload()
+     */
+    @Test
+    public void reload_shouldScheduleTheStoredDeadlines() throws Exception {
+        // given
+        final long deadline = System.currentTimeMillis() + 1000;
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("timer-reload")
+                .withDeadline(deadline)
+                .build());
+
+        // when
+        final int reloaded = votingTimerService.reload();
+
+        // then
+        Assertions.assertThat(reloaded).isEqualTo(1);
+        Assertions.assertThat(votingTimerService.isRunning("timer-reload")).isTrue();
+        votingTimerService.advance(deadline + TICK);
+        Assertions.assertThat(storyRepository.findOne("timer-reload").isEnded()).isTrue();
+    }
+
+    /**
+     * @verifies drop the timers of the sessions owned by another node
+     * @see VotingTimerService#rehome()
+     */
+    @Test
+    public void rehome_shouldDropTheTimersOfTheSessionsOwnedByAnotherNode() throws Exception {
+        // given
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("timer-moved-away")
+                .build());
+        final StoryDto storyDto = votingTimerService.startTimer("timer-moved-away", 60);
+
+        // when
+        sessionRoutingService.updateNodes(ImmutableList.of("http://other-node"));
+
+        // then
+        Assertions.assertThat(votingTimerService.isRunning("timer-moved-away")).isFalse();
+        Assertions.assertThat(storyRepository.findOne("timer-moved-away").getDeadline()).isEqualTo(storyDto.getDeadline());
+    }
+
+    /**
+     * @verifies load the deadlines of the sessions owned by this node
+     * @see VotingTimerService#rehome()
+     */
+    @Test
+    public void rehome_shouldLoadTheDeadlinesOfTheSessionsOwnedByThisNode() throws Exception {
+        // given
+        sessionRoutingService.updateNodes(ImmutableList.of("http://other-node"));
+        storyRepository.save(StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("timer-moved-here")
+                .withDeadline(System.currentTimeMillis() + 60000)
+                .build());
+
+        // when
+        sessionRoutingService.updateNodes(Collections.emptyList());
+
+        // then
+        Assertions.assertThat(votingTimerService.isRunning("timer-moved-here")).isTrue();
+    }
+
+    /**
+     * @verifies send a single frame per session
+     * @see VotingTimerService#broadcastTicks(long)
+     */
+    @Test
+    public void broadcastTicks_shouldSendASingleFramePerSession() throws Exception {
+        // given
+        final String sessionId = "timer-session";
+        storyRepository.save(ImmutableList.<StoryEntity>builder()
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId("timer-tick-1")
+                        .build())
+                .add(StoryEntityBuilder.builder()
+                        .withSessionId(sessionId)
+                        .withStoryId("timer-tick-2")
+                        .build())
+                .build());
+        final StoryDto first = votingTimerService.startTimer("timer-tick-1", 30);
+        votingTimerService.startTimer("timer-tick-2", 60);
+
+        // when
+        votingTimerService.broadcastTicks(first.getDeadline() - 30000);
+
+        // then
+        final ArgumentCaptor<TimerTickDto> captor = ArgumentCaptor.forClass(TimerTickDto.class);
+        verify(webSocketSender).sendNotification(eq(sessionId), eq(WsTypes.TIMER_TICK), captor.capture());
+        Assertions.assertThat(captor.getValue().getRemaining()).containsEntry("timer-tick-1", 30L);
+        Assertions.assertThat(captor.getValue().getRemaining()).hasSize(2);
+    }
+}
@@ -0,0 +1,60 @@
+package com.influans.sp.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author hazem
+ */
+public class Base62Test {
+    /**
+     * @verifies encode zero as zeros
+     * @see Base62#encode(long, int)
+     */
+    @Test
+    public void encode_shouldEncodeZeroAsZeros() throws Exception {
+        Assertions.assertThat(Base62.encode(0, 4)).isEqualTo("0000");
+    }
+
+    /**
+     * @verifies keep the numeric order
+     * @see Base62#encode(long, int)
+     */
+    @Test
+    public void encode_shouldKeepTheNumericOrder() throws Exception {
+        // given
+        final long[] values = {0, 9, 10, 35, 36, 61, 62, 3843, 3844, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+
+        // then
+        for (int i = 1; i < values.length; i++) {
+            final String previous = Base62.encode(values[i - 1], Base62.LONG_WIDTH);
+            final String current = Base62.encode(values[i], Base62.LONG_WIDTH);
+            Assertions.assertThat(previous.compareTo(current)).isLessThan(0);
+        }
+    }
+
+    /**
+     * @verifies throw an exception if value does not fit in width
+     * @see Base62#encode(long, int)
+     */
+    @Test
+    public void encode_shouldThrowAnExceptionIfValueDoesNotFitInWidth() throws Exception {
+        try {
+            Base62.encode(62, 1);
+            Assert.fail("shouldThrowAnExceptionIfValueDoesNotFitInWidth");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * @verifies decode encoded values
+     * @see Base62#decode(String)
+     */
+    @Test
+    public void decode_shouldDecodeEncodedValues() throws Exception {
+        Assertions.assertThat(Base62.decode(Base62.encode(123456789L, 8))).isEqualTo(123456789L);
+        Assertions.assertThat(Base62.decode(Base62.encode(Long.MAX_VALUE, Base62.LONG_WIDTH))).isEqualTo(Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,80 @@
+package com.influans.sp.utils;
+
+import com.google.common.collect.ImmutableList;
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author hazem
+ */
+public class CardDeckTest {
+    /**
+     * @verifies index labels in deck order
+     * @see CardDeck#of(java.util.List, double[])
+     */
+    @Test
+    public void of_shouldIndexLabelsInDeckOrder() throws Exception {
+        // when
+        final CardDeck deck = CardDeck.of(ImmutableList.of("S", "M", "L"), new double[]{1, 2, 4});
+
+        // then
+        Assertions.assertThat(deck.size()).isEqualTo(3);
+        Assertions.assertThat(deck.ordinal("S")).isEqualTo(0);
+        Assertions.assertThat(deck.ordinal("L")).isEqualTo(2);
+        Assertions.assertThat(deck.ordinal("XL")).isEqualTo(-1);
+        Assertions.assertThat(deck.ordinal(null)).isEqualTo(-1);
+        Assertions.assertThat(deck.weight(deck.ordinal("M"))).isEqualTo(2);
+        Assertions.assertThat(deck.label(1)).isEqualTo("M");
+    }
+
+    /**
+     * @verifies use NaN for missing weights
+     * @see CardDeck#of(java.util.List, double[])
+     */
+    @Test
+    public void of_shouldUseNaNForMissingWeights() throws Exception {
+        // when
+        final CardDeck deck = CardDeck.of(ImmutableList.of("1", "2", "?"), new double[]{1, 2});
+
+        // then
+        Assertions.assertThat(deck.weight(2)).isNaN();
+    }
+
+    /**
+     * @verifies throw an exception for duplicated labels
+     * @see CardDeck#of(java.util.List, double[])
+     */
+    @Test
+    public void of_shouldThrowAnExceptionForDuplicatedLabels() throws Exception {
+        try {
+            CardDeck.of(ImmutableList.of("1", "1"), new double[]{1, 1});
+            Assert.fail("shouldThrowAnExceptionForDuplicatedLabels");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * @verifies accept any value if the deck is not restricted
+     * @see CardDeck#accepts(String)
+     */
+    @Test
+    public void accepts_shouldAcceptAnyValueIfTheDeckIsNotRestricted() throws Exception {
+        Assertions.assertThat(CardDeck.ANY.accepts("anything")).isTrue();
+    }
+
+    /**
+     * @verifies reject values that are not part of the deck
+     * @see CardDeck#accepts(String)
+     */
+    @Test
+    public void accepts_shouldRejectValuesThatAreNotPartOfTheDeck() throws Exception {
+        // given
+        final CardDeck deck = CardDeck.of(ImmutableList.of("S", "M"), new double[0]);
+
+        // then
+        Assertions.assertThat(deck.accepts("S")).isTrue();
+        Assertions.assertThat(deck.accepts("XL")).isFalse();
+    }
+}
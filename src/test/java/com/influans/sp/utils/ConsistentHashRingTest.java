@@ -0,0 +1,58 @@
+package com.influans.sp.utils;
+
+import com.google.common.collect.ImmutableList;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * @author hazem
+ */
+public class ConsistentHashRingTest {
+
+    /**
+     * @verifies return null if the ring is empty
+     * @see ConsistentHashRing#get(String)
+     */
+    @Test
+    public void get_shouldReturnNullIfTheRingIsEmpty() throws Exception {
+        final ConsistentHashRing<String> ring = new ConsistentHashRing<>(Collections.emptyList(), 16);
+        Assertions.assertThat(ring.get("sessionId")).isNull();
+    }
+
+    /**
+     * @verifies always return the same node for a given key
+     * @see ConsistentHashRing#get(String)
+     */
+    @Test
+    public void get_shouldAlwaysReturnTheSameNodeForAGivenKey() throws Exception {
+        // given
+        final ConsistentHashRing<String> ring = new ConsistentHashRing<>(ImmutableList.of("node-a", "node-b", "node-c"), 16);
+        final ConsistentHashRing<String> sameRing = new ConsistentHashRing<>(ImmutableList.of("node-c", "node-a", "node-b"), 16);
+
+        // then
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertThat(ring.get("session-" + i)).isEqualTo(sameRing.get("session-" + i));
+        }
+    }
+
+    /**
+     * @verifies only move keys owned by a removed node
+     * @see ConsistentHashRing#get(String)
+     */
+    @Test
+    public void get_shouldOnlyMoveKeysOwnedByARemovedNode() throws Exception {
+        // given
+        final ConsistentHashRing<String> ring = new ConsistentHashRing<>(ImmutableList.of("node-a", "node-b", "node-c"), 64);
+        final ConsistentHashRing<String> shrunkRing = new ConsistentHashRing<>(ImmutableList.of("node-a", "node-b"), 64);
+
+        // then
+        for (int i = 0; i < 1000; i++) {
+            final String owner = ring.get("session-" + i);
+            if (!"node-c".equals(owner)) {
+                Assertions.assertThat(shrunkRing.get("session-" + i)).isEqualTo(owner);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.influans.sp.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+/**
+ * @author hazem
+ */
+public class CsvUtilsTest {
+    /**
+     * @verifies join values with commas
+     * @see CsvUtils#toLine(Object...)
+     */
+    @Test
+    public void toLine_shouldJoinValuesWithCommas() throws Exception {
+        Assertions.assertThat(CsvUtils.toLine("a", 1, null, true)).isEqualTo("a,1,,true");
+    }
+
+    /**
+     * @verifies quote values containing separators quotes or line breaks
+     * @see CsvUtils#toLine(Object...)
+     */
+    @Test
+    public void toLine_shouldQuoteValuesContainingSeparatorsQuotesOrLineBreaks() throws Exception {
+        Assertions.assertThat(CsvUtils.toLine("a,b", "say \"hi\"", "line\nbreak"))
+                .isEqualTo("\"a,b\",\"say \"\"hi\"\"\",\"line\nbreak\"");
+    }
+
+    /**
+     * @verifies split fields on commas
+     * @see CsvUtils#readRecord(java.io.BufferedReader, int)
+     */
+    @Test
+    public void readRecord_shouldSplitFieldsOnCommas() throws Exception {
+        // given
+        final BufferedReader reader = new BufferedReader(new StringReader("a,b,,c\r\nd"));
+
+        // then
+        Assertions.assertThat(CsvUtils.readRecord(reader, 100)).containsExactly("a", "b", "", "c");
+        Assertions.assertThat(CsvUtils.readRecord(reader, 100)).containsExactly("d");
+    }
+
+    /**
+     * @verifies read quoted fields spanning several lines
+     * @see CsvUtils#readRecord(java.io.BufferedReader, int)
+     */
+    @Test
+    public void readRecord_shouldReadQuotedFieldsSpanningSeveralLines() throws Exception {
+        // given
+        final BufferedReader reader = new BufferedReader(new StringReader("\"first\nline, \"\"quoted\"\"\",2\nnext"));
+
+        // then
+        Assertions.assertThat(CsvUtils.readRecord(reader, 100)).containsExactly("first\nline, \"quoted\"", "2");
+        Assertions.assertThat(CsvUtils.readRecord(reader, 100)).containsExactly("next");
+    }
+
+    /**
+     * @verifies return null at the end of the stream
+     * @see CsvUtils#readRecord(java.io.BufferedReader, int)
+     */
+    @Test
+    public void readRecord_shouldReturnNullAtTheEndOfTheStream() throws Exception {
+        Assertions.assertThat(CsvUtils.readRecord(new BufferedReader(new StringReader("")), 100)).isNull();
+    }
+}
@@ -0,0 +1,50 @@
+package com.influans.sp.utils;
+
+import com.influans.sp.exception.BusinessException;
+import com.influans.sp.exception.CustomErrorCode;
+import com.influans.sp.exception.CustomException;
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author hazem
+ */
+public class FutureUtilsTest {
+    /**
+     * @verifies return the future result
+     * @see FutureUtils#join(CompletableFuture)
+     */
+    @Test
+    public void join_shouldReturnTheFutureResult() throws Exception {
+        // when
+        final String result = FutureUtils.join(CompletableFuture.supplyAsync(() -> "result"));
+
+        // then
+        Assertions.assertThat(result).isEqualTo("result");
+    }
+
+    /**
+     * @verifies rethrow the runtime exception that failed the future
+     * @see FutureUtils#join(CompletableFuture)
+     */
+    @Test
+    public void join_shouldRethrowTheRuntimeExceptionThatFailedTheFuture() throws Exception {
+        // given
+        final CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> "result")
+                .thenApply(result -> {
+                    throw new BusinessException(CustomErrorCode.OBJECT_NOT_FOUND, "not found");
+                });
+
+        // when
+        try {
+            FutureUtils.join(future);
+            Assert.fail("shouldRethrowTheRuntimeExceptionThatFailedTheFuture");
+        } catch (CustomException e) {
+            // then
+            Assertions.assertThat(e.getCustomErrorCode()).isEqualTo(CustomErrorCode.OBJECT_NOT_FOUND);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.influans.sp.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+/**
+ * @author hazem
+ */
+public class HashedTimingWheelTest {
+    /**
+     * @verifies expire the timeout once its deadline is reached
+     * @see HashedTimingWheel#schedule(Object, long)
+     */
+    @Test
+    public void schedule_shouldExpireTheTimeoutOnceItsDeadlineIsReached() throws Exception {
+        // given
+        final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.schedule("story-1", 250);
+        wheel.schedule("story-2", 300);
+
+        // then
+        Assertions.assertThat(wheel.advance(299)).isEmpty();
+        Assertions.assertThat(wheel.advance(300)).containsOnly("story-1", "story-2");
+        Assertions.assertThat(wheel.size()).isEqualTo(0);
+    }
+
+    /**
+     * @verifies expire timeouts scheduled several turns ahead
+     * @see HashedTimingWheel#schedule(Object, long)
+     */
+    @Test
+    public void schedule_shouldExpireTimeoutsScheduledSeveralTurnsAhead() throws Exception {
+        // given
+        final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 0);
+        // same bucket as a timeout expiring during the first turn
+        wheel.schedule("story-1", 100);
+        wheel.schedule("story-2", 2500);
+
+        // then
+        Assertions.assertThat(wheel.advance(100)).containsExactly("story-1");
+        Assertions.assertThat(wheel.advance(2400)).isEmpty();
+        Assertions.assertThat(wheel.advance(2500)).containsExactly("story-2");
+    }
+
+    /**
+     * @verifies expire past deadlines on the next tick
+     * @see HashedTimingWheel#schedule(Object, long)
+     */
+    @Test
+    public void schedule_shouldExpirePastDeadlinesOnTheNextTick() throws Exception {
+        // given
+        final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 1000);
+        wheel.schedule("story-1", 10);
+
+        // then
+        Assertions.assertThat(wheel.advance(1050)).isEmpty();
+        Assertions.assertThat(wheel.advance(1100)).containsExactly("story-1");
+    }
+
+    /**
+     * @verifies not expire timeouts before their deadline
+     * @see HashedTimingWheel#advance(long)
+     */
+    @Test
+    public void advance_shouldNotExpireTimeoutsBeforeTheirDeadline() throws Exception {
+        // given
+        final HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(10, 16, 0);
+        for (long deadline = 1; deadline <= 1000; deadline++) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        // then
+        int expired = 0;
+        for (long now = 0; now <= 1000; now += 7) {
+            for (Long deadline : wheel.advance(now)) {
+                Assertions.assertThat(deadline).isLessThanOrEqualTo(now);
+                expired++;
+            }
+        }
+        expired += wheel.advance(1000).size();
+        Assertions.assertThat(expired).isEqualTo(1000);
+        Assertions.assertThat(wheel.size()).isEqualTo(0);
+    }
+
+    /**
+     * @verifies remove the timeout from the wheel
+     * @see HashedTimingWheel.Timeout#cancel()
+     */
+    @Test
+    public void cancel_shouldRemoveTheTimeoutFromTheWheel() throws Exception {
+        // given
+        final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 0);
+        final HashedTimingWheel.Timeout<String> timeout = wheel.schedule("story-1", 200);
+        wheel.schedule("story-2", 200);
+
+        // when
+        final boolean cancelled = timeout.cancel();
+
+        // then
+        Assertions.assertThat(cancelled).isTrue();
+        Assertions.assertThat(timeout.cancel()).isFalse();
+        Assertions.assertThat(wheel.size()).isEqualTo(1);
+        Assertions.assertThat(wheel.advance(200)).containsExactly("story-2");
+    }
+}
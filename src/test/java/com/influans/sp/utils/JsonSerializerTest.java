@@ -3,6 +3,8 @@ package com.influans.sp.utils;
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -59,6 +61,20 @@ public class JsonSerializerTest {
         });
     }
 
+    /**
+     * @verifies create List of objects for json stream
+     * @see JsonSerializer#toListObject(java.io.InputStream, Class)
+     */
+    @Test
+    public void toListObject_shouldCreateListOfObjectsForJsonStream() throws Exception {
+        // given
+        final String json = "[{\"name\":\"Leo\",\"age\":30,\"sex\":\"male\"}, {\"name\":\"Leonidas\",\"age\":50,\"sex\":\"male\"}]";
+        // when
+        final List<DummyPerson> dummyPeople = JsonSerializer.toListObject(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), DummyPerson.class);
+        // then
+        Assertions.assertThat(dummyPeople).extracting("name").containsExactly("Leo", "Leonidas");
+    }
+
     public static class DummyPerson {
         private String name;
         private Integer age;
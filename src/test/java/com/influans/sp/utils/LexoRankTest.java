@@ -0,0 +1,95 @@
+package com.influans.sp.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author hazem
+ */
+public class LexoRankTest {
+    /**
+     * @verifies return zero for an empty list
+     * @see LexoRank#between(String, String)
+     */
+    @Test
+    public void between_shouldReturnZeroForAnEmptyList() throws Exception {
+        Assertions.assertThat(LexoRank.between(null, null)).isEqualTo(LexoRank.ZERO);
+    }
+
+    /**
+     * @verifies increment the integer part when appending
+     * @see LexoRank#between(String, String)
+     */
+    @Test
+    public void between_shouldIncrementTheIntegerPartWhenAppending() throws Exception {
+        Assertions.assertThat(LexoRank.between("a0", null)).isEqualTo("a1");
+        Assertions.assertThat(LexoRank.between("az", null)).isEqualTo("b00");
+        Assertions.assertThat(LexoRank.between("a0V", null)).isEqualTo("a1");
+    }
+
+    /**
+     * @verifies generate keys before the first key
+     * @see LexoRank#between(String, String)
+     */
+    @Test
+    public void between_shouldGenerateKeysBeforeTheFirstKey() throws Exception {
+        Assertions.assertThat(LexoRank.between(null, "a1")).isEqualTo("a0");
+        Assertions.assertThat(LexoRank.between(null, "a0")).isEqualTo("Zz");
+        Assertions.assertThat(LexoRank.between(null, "a0V")).isEqualTo("a0");
+    }
+
+    /**
+     * @verifies generate keys between two keys
+     * @see LexoRank#between(String, String)
+     */
+    @Test
+    public void between_shouldGenerateKeysBetweenTwoKeys() throws Exception {
+        Assertions.assertThat(LexoRank.between("a0", "a2")).isEqualTo("a1");
+        Assertions.assertThat(LexoRank.between("a0", "a1")).isEqualTo("a0V");
+
+        // random inserts keep the list strictly sorted
+        final Random random = new Random(42);
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            final int position = random.nextInt(keys.size() + 1);
+            final String before = position > 0 ? keys.get(position - 1) : null;
+            final String after = position < keys.size() ? keys.get(position) : null;
+            keys.add(position, LexoRank.between(before, after));
+        }
+        for (int i = 1; i < keys.size(); i++) {
+            Assertions.assertThat(keys.get(i - 1).compareTo(keys.get(i))).isLessThan(0);
+        }
+    }
+
+    /**
+     * @verifies keep appended keys short
+     * @see LexoRank#between(String, String)
+     */
+    @Test
+    public void between_shouldKeepAppendedKeysShort() throws Exception {
+        String key = null;
+        for (int i = 0; i < 100000; i++) {
+            key = LexoRank.between(key, null);
+        }
+        Assertions.assertThat(key.length()).isLessThanOrEqualTo(4);
+    }
+
+    /**
+     * @verifies throw an exception if before is not lower than after
+     * @see LexoRank#between(String, String)
+     */
+    @Test
+    public void between_shouldThrowAnExceptionIfBeforeIsNotLowerThanAfter() throws Exception {
+        try {
+            LexoRank.between("a1", "a1");
+            Assert.fail("shouldThrowAnExceptionIfBeforeIsNotLowerThanAfter");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
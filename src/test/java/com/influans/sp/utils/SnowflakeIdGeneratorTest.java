@@ -0,0 +1,54 @@
+package com.influans.sp.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+/**
+ * @author hazem
+ */
+public class SnowflakeIdGeneratorTest {
+    /**
+     * @verifies generate strictly increasing ids
+     * @see SnowflakeIdGenerator#nextId()
+     */
+    @Test
+    public void nextId_shouldGenerateStrictlyIncreasingIds() throws Exception {
+        // given
+        final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        String previous = generator.nextId();
+
+        // then, more ids than the sequence of one millisecond
+        for (int i = 0; i < 10000; i++) {
+            final String id = generator.nextId();
+            Assertions.assertThat(id).hasSize(Base62.LONG_WIDTH);
+            Assertions.assertThat(id.compareTo(previous)).isGreaterThan(0);
+            previous = id;
+        }
+    }
+
+    /**
+     * @verifies encode the node in the id
+     * @see SnowflakeIdGenerator#nextId()
+     */
+    @Test
+    public void nextId_shouldEncodeTheNodeInTheId() throws Exception {
+        Assertions.assertThat(SnowflakeIdGenerator.getNode(new SnowflakeIdGenerator(1023).nextId())).isEqualTo(1023);
+        Assertions.assertThat(SnowflakeIdGenerator.getNode(new SnowflakeIdGenerator(42).nextId())).isEqualTo(42);
+    }
+
+    /**
+     * @verifies return the creation time of the id
+     * @see SnowflakeIdGenerator#getTimestamp(String)
+     */
+    @Test
+    public void getTimestamp_shouldReturnTheCreationTimeOfTheId() throws Exception {
+        // given
+        final long before = System.currentTimeMillis();
+
+        // when
+        final long timestamp = SnowflakeIdGenerator.getTimestamp(new SnowflakeIdGenerator(5).nextId());
+
+        // then
+        Assertions.assertThat(timestamp).isBetween(before, System.currentTimeMillis());
+    }
+}
@@ -34,4 +34,41 @@ public class StringUtilsTest {
     public void isEmpty_shouldReturnFalseIfValueContainsSpacesAndTrimIsFalse() throws Exception {
         Assertions.assertThat(StringUtils.isEmpty("    ", false)).isFalse();
     }
+
+    /**
+     * @verifies split the value on non alphanumeric characters
+     * @see StringUtils#keywords(String)
+     */
+    @Test
+    public void keywords_shouldSplitTheValueOnNonAlphanumericCharacters() throws Exception {
+        Assertions.assertThat(StringUtils.keywords("  Reset-password (step 2): é-mail!")).containsExactly("reset", "password", "step", "2", "é", "mail");
+    }
+
+    /**
+     * @verifies return distinct lower case keywords
+     * @see StringUtils#keywords(String)
+     */
+    @Test
+    public void keywords_shouldReturnDistinctLowerCaseKeywords() throws Exception {
+        Assertions.assertThat(StringUtils.keywords("Login LOGIN login page")).containsExactly("login", "page");
+    }
+
+    /**
+     * @verifies drop stopwords
+     * @see StringUtils#keywords(String)
+     */
+    @Test
+    public void keywords_shouldDropStopwords() throws Exception {
+        Assertions.assertThat(StringUtils.keywords("Export of the stories to a CSV file")).containsExactly("export", "stories", "csv", "file");
+    }
+
+    /**
+     * @verifies return an empty list if value is null
+     * @see StringUtils#keywords(String)
+     */
+    @Test
+    public void keywords_shouldReturnAnEmptyListIfValueIsNull() throws Exception {
+        Assertions.assertThat(StringUtils.keywords(null)).isEmpty();
+        Assertions.assertThat(StringUtils.keywords(" - ")).isEmpty();
+    }
 }
@@ -0,0 +1,61 @@
+package com.influans.sp.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @author hazem
+ */
+public class TimeOrderedIdGeneratorTest {
+    /**
+     * @verifies generate ids sorted by creation time
+     * @see TimeOrderedIdGenerator#nextId()
+     */
+    @Test
+    public void nextId_shouldGenerateIdsSortedByCreationTime() throws Exception {
+        // given
+        final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        final String first = generator.nextId();
+
+        // when
+        Thread.sleep(2);
+        final String second = generator.nextId();
+
+        // then
+        Assertions.assertThat(first).hasSize(17);
+        Assertions.assertThat(second.compareTo(first)).isGreaterThan(0);
+    }
+
+    /**
+     * @verifies generate unique ids
+     * @see TimeOrderedIdGenerator#nextId()
+     */
+    @Test
+    public void nextId_shouldGenerateUniqueIds() throws Exception {
+        final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        final Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            ids.add(generator.nextId());
+        }
+        Assertions.assertThat(ids).hasSize(10000);
+    }
+
+    /**
+     * @verifies return the creation time of the id
+     * @see TimeOrderedIdGenerator#getTimestamp(String)
+     */
+    @Test
+    public void getTimestamp_shouldReturnTheCreationTimeOfTheId() throws Exception {
+        // given
+        final long before = System.currentTimeMillis();
+
+        // when
+        final long timestamp = TimeOrderedIdGenerator.getTimestamp(new TimeOrderedIdGenerator().nextId());
+
+        // then
+        Assertions.assertThat(timestamp).isBetween(before, System.currentTimeMillis());
+    }
+}
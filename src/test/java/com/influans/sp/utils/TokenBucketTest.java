@@ -0,0 +1,66 @@
+package com.influans.sp.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author hazem
+ */
+public class TokenBucketTest {
+    /**
+     * @verifies allow bursts up to capacity
+     * @see TokenBucket#tryConsume(long)
+     */
+    @Test
+    public void tryConsume_shouldAllowBurstsUpToCapacity() throws Exception {
+        // given
+        final TokenBucket tokenBucket = new TokenBucket(3, 1, 0);
+
+        // then
+        Assertions.assertThat(tokenBucket.tryConsume(0)).isTrue();
+        Assertions.assertThat(tokenBucket.tryConsume(0)).isTrue();
+        Assertions.assertThat(tokenBucket.tryConsume(0)).isTrue();
+        Assertions.assertThat(tokenBucket.tryConsume(0)).isFalse();
+        Assertions.assertThat(tokenBucket.getRetryAfterSeconds()).isEqualTo(1);
+    }
+
+    /**
+     * @verifies refill tokens over time
+     * @see TokenBucket#tryConsume(long)
+     */
+    @Test
+    public void tryConsume_shouldRefillTokensOverTime() throws Exception {
+        // given
+        final TokenBucket tokenBucket = new TokenBucket(1, 2, 0);
+        tokenBucket.tryConsume(0);
+
+        // then
+        Assertions.assertThat(tokenBucket.tryConsume(TimeUnit.MILLISECONDS.toNanos(100))).isFalse();
+        Assertions.assertThat(tokenBucket.tryConsume(TimeUnit.MILLISECONDS.toNanos(500))).isTrue();
+        // capacity is never exceeded
+        Assertions.assertThat(tokenBucket.tryConsume(TimeUnit.SECONDS.toNanos(10))).isTrue();
+        Assertions.assertThat(tokenBucket.tryConsume(TimeUnit.SECONDS.toNanos(10))).isFalse();
+    }
+
+    /**
+     * @verifies not consume any token if one bucket is empty
+     * @see TokenBucket#tryConsumeAll(java.util.List, long)
+     */
+    @Test
+    public void tryConsumeAll_shouldNotConsumeAnyTokenIfOneBucketIsEmpty() throws Exception {
+        // given
+        final TokenBucket session = new TokenBucket(1, 1, 0);
+        final TokenBucket client = new TokenBucket(1, 1, 0);
+        client.tryConsume(0);
+
+        // when
+        final TokenBucket empty = TokenBucket.tryConsumeAll(Arrays.asList(session, client), 0);
+
+        // then
+        Assertions.assertThat(empty).isSameAs(client);
+        Assertions.assertThat(session.tryConsume(0)).isTrue();
+    }
+}
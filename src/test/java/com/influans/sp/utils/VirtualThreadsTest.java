@@ -0,0 +1,34 @@
+package com.influans.sp.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * @author hazem
+ */
+public class VirtualThreadsTest {
+    /**
+     * @verifies return true only if the running JDK provides virtual threads
+     * @see VirtualThreads#isSupported()
+     */
+    @Test
+    public void isSupported_shouldReturnTrueOnlyIfTheRunningJDKProvidesVirtualThreads() throws Exception {
+        // given
+        final boolean hasVirtualThreads = Arrays.stream(Thread.class.getMethods())
+                .anyMatch(method -> method.getName().equals("ofVirtual"));
+
+        // when
+        final boolean supported = VirtualThreads.isSupported();
+        final ExecutorService executor = VirtualThreads.newPerTaskExecutor();
+
+        // then
+        Assertions.assertThat(supported).isEqualTo(hasVirtualThreads);
+        Assertions.assertThat(executor != null).isEqualTo(hasVirtualThreads);
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.influans.sp.websocket;
+
+import com.google.common.collect.ImmutableList;
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.dto.VoteDto;
+import com.influans.sp.entity.ClusterEventEntity;
+import com.influans.sp.enums.WsTypes;
+import com.influans.sp.service.ResourceVersionService;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author hazem
+ */
+public class ClusterFanOutTest extends ApplicationTest {
+
+    @Autowired
+    private ClusterFanOut clusterFanOut;
+    @Autowired
+    private ClusterTransport clusterTransport;
+    @Autowired
+    private LocalSubscriptionRegistry subscriptionRegistry;
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @After
+    public void tearDown() {
+        subscriptionRegistry.disconnect("ws-session");
+    }
+
+    /**
+     * @verifies publish the notification on the cluster transport
+     * @see ClusterFanOut#publish(String, WsTypes, Object)
+     */
+    @Test
+    public void publish_shouldPublishTheNotificationOnTheClusterTransport() throws Exception {
+        // given
+        final List<ClusterEventEntity> events = new ArrayList<>();
+        clusterTransport.subscribe(events::add);
+
+        // when
+        final boolean published = clusterFanOut.publish("sessionId", WsTypes.STORY_REMOVED, "storyId");
+
+        // then
+        Assertions.assertThat(published).isTrue();
+        Assertions.assertThat(events).isNotEmpty();
+        final ClusterEventEntity event = events.get(events.size() - 1);
+        Assertions.assertThat(event.getOrigin()).isEqualTo(clusterFanOut.getNodeId());
+        Assertions.assertThat(event.getTopic()).isEqualTo("sessionId");
+        Assertions.assertThat(event.getType()).isEqualTo(WsTypes.STORY_REMOVED);
+        Assertions.assertThat(event.getPayload()).isEqualTo("\"storyId\"");
+    }
+
+    /**
+     * @verifies publish the stories whose votes changed
+     * @see ClusterFanOut#publish(String, WsTypes, Object)
+     */
+    @Test
+    public void publish_shouldPublishTheStoriesWhoseVotesChanged() throws Exception {
+        // given
+        final List<ClusterEventEntity> events = new ArrayList<>();
+        clusterTransport.subscribe(events::add);
+
+        // when
+        clusterFanOut.publish("sessionId", WsTypes.VOTE_ADDED, new VoteDto("vote-1", "sessionId", "story-1", "Leo", "fib-5"));
+        clusterFanOut.publish("sessionId", WsTypes.STORIES_ENDED, ImmutableList.of("story-2", "story-3"));
+        clusterFanOut.publish("sessionId", WsTypes.STORY_REMOVED, "story-4");
+
+        // then
+        Assertions.assertThat(events).extracting("storyIds").containsSequence(
+                ImmutableList.of("story-1"), ImmutableList.of("story-2", "story-3"), null);
+    }
+
+    /**
+     * @verifies not broadcast events published by the current node
+     * @see ClusterFanOut#onEvent(ClusterEventEntity)
+     */
+    @Test
+    public void onEvent_shouldNotBroadcastEventsPublishedByTheCurrentNode() throws Exception {
+        // given
+        subscriptionRegistry.subscribe("ws-session", "sub-0", "/topic/sessionId");
+        final ClusterEventEntity event = new ClusterEventEntity(clusterFanOut.getNodeId(), "sessionId", WsTypes.STORY_REMOVED, "\"storyId\"");
+
+        // then
+        Assertions.assertThat(clusterFanOut.onEvent(event)).isFalse();
+    }
+
+    /**
+     * @verifies not broadcast events if no local client subscribed to the topic
+     * @see ClusterFanOut#onEvent(ClusterEventEntity)
+     */
+    @Test
+    public void onEvent_shouldNotBroadcastEventsIfNoLocalClientSubscribedToTheTopic() throws Exception {
+        // given
+        final ClusterEventEntity event = new ClusterEventEntity("other-node", "sessionId", WsTypes.STORY_REMOVED, "\"storyId\"");
+
+        // then
+        Assertions.assertThat(clusterFanOut.onEvent(event)).isFalse();
+    }
+
+    /**
+     * @verifies broadcast events to local subscribers
+     * @see ClusterFanOut#onEvent(ClusterEventEntity)
+     */
+    @Test
+    public void onEvent_shouldBroadcastEventsToLocalSubscribers() throws Exception {
+        // given
+        subscriptionRegistry.subscribe("ws-session", "sub-0", "/topic/sessionId");
+        final ClusterEventEntity event = new ClusterEventEntity("other-node", "sessionId", WsTypes.STORY_REMOVED, "\"storyId\"");
+
+        // then
+        Assertions.assertThat(clusterFanOut.onEvent(event)).isTrue();
+    }
+
+    /**
+     * @verifies bump the version of the relayed stories
+     * @see ClusterFanOut#onEvent(ClusterEventEntity)
+     */
+    @Test
+    public void onEvent_shouldBumpTheVersionOfTheRelayedStories() throws Exception {
+        // given
+        final String eTag = resourceVersionService.getStoryETag("relayed-story");
+        final ClusterEventEntity event = new ClusterEventEntity("other-node", "sessionId", WsTypes.VOTE_REMOVED, "\"vote-1\"",
+                ImmutableList.of("relayed-story"));
+
+        // when
+        clusterFanOut.onEvent(event);
+
+        // then
+        Assertions.assertThat(resourceVersionService.getStoryETag("relayed-story")).isNotEqualTo(eTag);
+    }
+}
@@ -0,0 +1,168 @@
+package com.influans.sp.websocket;
+
+import com.google.common.collect.ImmutableList;
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.dto.VoteDictionaryDto;
+import com.influans.sp.dto.VoteDto;
+import com.influans.sp.enums.CardSetEnum;
+import com.influans.sp.enums.WsTypes;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.utils.JsonSerializer;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+/**
+ * Dictionaries outlive the test database cleanup, each test uses its own session.
+ *
+ * @author hazem
+ */
+public class CompactVoteBroadcasterTest extends ApplicationTest {
+
+    @Autowired
+    private CompactVoteBroadcaster compactVoteBroadcaster;
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    /**
+     * @verifies assign handles and send them with the first vote using them
+     * @see CompactVoteBroadcaster#onEvent(String, WsTypes, Object)
+     */
+    @Test
+    public void onEvent_shouldAssignHandlesAndSendThemWithTheFirstVoteUsingThem() throws Exception {
+        // given
+        final String sessionId = givenSession("compact-1");
+
+        // when
+        final List<Object[]> first = compactVoteBroadcaster.onEvent(sessionId, WsTypes.VOTE_ADDED,
+                new VoteDto("vote-1", sessionId, "story-1", "leo", "fib-5"));
+        final List<Object[]> second = compactVoteBroadcaster.onEvent(sessionId, WsTypes.VOTE_ADDED,
+                new VoteDto("vote-2", sessionId, "story-1", "leonidas", "fib-8"));
+
+        // then
+        Assertions.assertThat(JsonSerializer.serialize(first)).isEqualTo("[[2,0,\"leo\"],[3,0,\"story-1\"],[0,0,0,4]]");
+        Assertions.assertThat(JsonSerializer.serialize(second)).isEqualTo("[[2,1,\"leonidas\"],[0,1,0,5]]");
+    }
+
+    /**
+     * @verifies send the card index if the value belongs to the session deck
+     * @see CompactVoteBroadcaster#onEvent(String, WsTypes, Object)
+     */
+    @Test
+    public void onEvent_shouldSendTheCardIndexIfTheValueBelongsToTheSessionDeck() throws Exception {
+        // given
+        final String sessionId = givenSession("compact-2");
+        compactVoteBroadcaster.onEvent(sessionId, WsTypes.VOTE_ADDED, new VoteDto("vote-1", sessionId, "story-1", "leo", "fib-5"));
+
+        // when
+        final List<Object[]> inDeck = compactVoteBroadcaster.onEvent(sessionId, WsTypes.VOTE_ADDED,
+                new VoteDto("vote-1", sessionId, "story-1", "leo", "?"));
+        final List<Object[]> outOfDeck = compactVoteBroadcaster.onEvent(sessionId, WsTypes.VOTE_ADDED,
+                new VoteDto("vote-1", sessionId, "story-1", "leo", "time-1h"));
+
+        // then
+        Assertions.assertThat(JsonSerializer.serialize(inDeck)).isEqualTo("[[0,0,0,11]]");
+        Assertions.assertThat(JsonSerializer.serialize(outOfDeck)).isEqualTo("[[0,0,0,\"time-1h\"]]");
+    }
+
+    /**
+     * @verifies send the handles of the removed vote
+     * @see CompactVoteBroadcaster#onEvent(String, WsTypes, Object)
+     */
+    @Test
+    public void onEvent_shouldSendTheHandlesOfTheRemovedVote() throws Exception {
+        // given
+        final String sessionId = givenSession("compact-3");
+        compactVoteBroadcaster.onEvent(sessionId, WsTypes.VOTE_ADDED, new VoteDto("vote-1", sessionId, "story-1", "leo", "fib-5"));
+
+        // when
+        final List<Object[]> removed = compactVoteBroadcaster.onEvent(sessionId, WsTypes.VOTE_REMOVED, "vote-1");
+
+        // then
+        Assertions.assertThat(JsonSerializer.serialize(removed)).isEqualTo("[[1,0,0]]");
+        Assertions.assertThat(compactVoteBroadcaster.onEvent(sessionId, WsTypes.VOTE_REMOVED, "vote-1")).isNull();
+    }
+
+    /**
+     * @verifies encode a batch of votes in a single frame
+     * @see CompactVoteBroadcaster#onEvent(String, WsTypes, Object)
+     */
+    @Test
+    public void onEvent_shouldEncodeABatchOfVotesInASingleFrame() throws Exception {
+        // given
+        final String sessionId = givenSession("compact-6");
+
+        // when
+        final List<Object[]> frame = compactVoteBroadcaster.onEvent(sessionId, WsTypes.VOTES_ADDED, ImmutableList.of(
+                new VoteDto("vote-1", sessionId, "story-1", "leo", "fib-5"),
+                new VoteDto("vote-2", sessionId, "story-2", "leo", "fib-8")));
+
+        // then
+        Assertions.assertThat(JsonSerializer.serialize(frame))
+                .isEqualTo("[[2,0,\"leo\"],[3,0,\"story-1\"],[0,0,0,4],[3,1,\"story-2\"],[0,0,1,5]]");
+    }
+
+    /**
+     * @verifies ignore other events
+     * @see CompactVoteBroadcaster#onEvent(String, WsTypes, Object)
+     */
+    @Test
+    public void onEvent_shouldIgnoreOtherEvents() throws Exception {
+        // given
+        final String sessionId = givenSession("compact-4");
+
+        // then
+        Assertions.assertThat(compactVoteBroadcaster.onEvent(sessionId, WsTypes.STORY_ENDED, "story-1")).isNull();
+    }
+
+    /**
+     * @verifies return the deck and the assigned handles
+     * @see CompactVoteBroadcaster#getDictionary(String)
+     */
+    @Test
+    public void getDictionary_shouldReturnTheDeckAndTheAssignedHandles() throws Exception {
+        // given
+        final String sessionId = givenSession("compact-5");
+        compactVoteBroadcaster.onEvent(sessionId, WsTypes.VOTE_ADDED, new VoteDto("vote-1", sessionId, "story-1", "leo", "fib-5"));
+
+        // when
+        final VoteDictionaryDto dictionary = compactVoteBroadcaster.getDictionary(sessionId);
+
+        // then
+        Assertions.assertThat(dictionary.getCards()).isEqualTo(CardSetEnum.FIBONACCI.getCards());
+        Assertions.assertThat(dictionary.getUsers()).containsEntry("leo", 0);
+        Assertions.assertThat(dictionary.getStories()).containsEntry("story-1", 0);
+        Assertions.assertThat(compactVoteBroadcaster.getDictionary("unknown-session")).isNull();
+    }
+
+    /**
+     * @verifies declare the handles assigned so far
+     * @see CompactVoteBroadcaster#resendHandles(String)
+     */
+    @Test
+    public void resendHandles_shouldDeclareTheHandlesAssignedSoFar() throws Exception {
+        // given
+        final String sessionId = givenSession("compact-7");
+        compactVoteBroadcaster.onEvent(sessionId, WsTypes.VOTE_ADDED, new VoteDto("vote-1", sessionId, "story-1", "leo", "fib-5"));
+        compactVoteBroadcaster.onEvent(sessionId, WsTypes.VOTE_ADDED, new VoteDto("vote-2", sessionId, "story-2", "leonidas", "fib-8"));
+
+        // when
+        final List<Object[]> frame = compactVoteBroadcaster.resendHandles(sessionId);
+
+        // then
+        Assertions.assertThat(JsonSerializer.serialize(frame))
+                .isEqualTo("[[2,0,\"leo\"],[2,1,\"leonidas\"],[3,0,\"story-1\"],[3,1,\"story-2\"]]");
+        Assertions.assertThat(compactVoteBroadcaster.resendHandles("compact-unknown")).isNull();
+    }
+
+    private String givenSession(String sessionId) {
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId(sessionId)
+                .withCardSet(CardSetEnum.FIBONACCI)
+                .build());
+        return sessionId;
+    }
+}
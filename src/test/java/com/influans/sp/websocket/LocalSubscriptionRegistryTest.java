@@ -0,0 +1,92 @@
+package com.influans.sp.websocket;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+/**
+ * @author hazem
+ */
+public class LocalSubscriptionRegistryTest {
+
+    /**
+     * @verifies count subscriptions on the given destination
+     * @see LocalSubscriptionRegistry#subscribe(String, String, String)
+     */
+    @Test
+    public void subscribe_shouldCountSubscriptionsOnTheGivenDestination() throws Exception {
+        // given
+        final LocalSubscriptionRegistry registry = new LocalSubscriptionRegistry();
+        registry.subscribe("ws-1", "sub-0", "/topic/sessionId");
+        registry.subscribe("ws-2", "sub-0", "/topic/sessionId");
+
+        // when
+        registry.unsubscribe("ws-1", "sub-0");
+
+        // then
+        Assertions.assertThat(registry.hasSubscribers("/topic/sessionId")).isTrue();
+    }
+
+    /**
+     * @verifies remove the subscription
+     * @see LocalSubscriptionRegistry#unsubscribe(String, String)
+     */
+    @Test
+    public void unsubscribe_shouldRemoveTheSubscription() throws Exception {
+        // given
+        final LocalSubscriptionRegistry registry = new LocalSubscriptionRegistry();
+        registry.subscribe("ws-1", "sub-0", "/topic/sessionId");
+
+        // when
+        registry.unsubscribe("ws-1", "sub-0");
+
+        // then
+        Assertions.assertThat(registry.hasSubscribers("/topic/sessionId")).isFalse();
+    }
+
+    /**
+     * @verifies remove all subscriptions of the given session
+     * @see LocalSubscriptionRegistry#disconnect(String)
+     */
+    @Test
+    public void disconnect_shouldRemoveAllSubscriptionsOfTheGivenSession() throws Exception {
+        // given
+        final LocalSubscriptionRegistry registry = new LocalSubscriptionRegistry();
+        registry.subscribe("ws-1", "sub-0", "/topic/session-1");
+        registry.subscribe("ws-1", "sub-1", "/topic/session-2");
+
+        // when
+        registry.disconnect("ws-1");
+
+        // then
+        Assertions.assertThat(registry.hasSubscribers("/topic/session-1")).isFalse();
+        Assertions.assertThat(registry.hasSubscribers("/topic/session-2")).isFalse();
+    }
+
+    /**
+     * @verifies return true if a local client subscribed to the destination
+     * @see LocalSubscriptionRegistry#hasSubscribers(String)
+     */
+    @Test
+    public void hasSubscribers_shouldReturnTrueIfALocalClientSubscribedToTheDestination() throws Exception {
+        // given
+        final LocalSubscriptionRegistry registry = new LocalSubscriptionRegistry();
+        registry.subscribe("ws-1", "sub-0", "/topic/sessionId");
+
+        // then
+        Assertions.assertThat(registry.hasSubscribers("/topic/sessionId")).isTrue();
+    }
+
+    /**
+     * @verifies return false if no local client subscribed to the destination
+     * @see LocalSubscriptionRegistry#hasSubscribers(String)
+     */
+    @Test
+    public void hasSubscribers_shouldReturnFalseIfNoLocalClientSubscribedToTheDestination() throws Exception {
+        // given
+        final LocalSubscriptionRegistry registry = new LocalSubscriptionRegistry();
+        registry.subscribe("ws-1", "sub-0", "/topic/other-session");
+
+        // then
+        Assertions.assertThat(registry.hasSubscribers("/topic/sessionId")).isFalse();
+    }
+}
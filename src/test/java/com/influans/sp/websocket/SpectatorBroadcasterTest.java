@@ -0,0 +1,152 @@
+package com.influans.sp.websocket;
+
+import com.google.common.collect.ImmutableList;
+import com.influans.sp.ApplicationTest;
+import com.influans.sp.builders.SessionEntityBuilder;
+import com.influans.sp.builders.StoryEntityBuilder;
+import com.influans.sp.builders.VoteEntityBuilder;
+import com.influans.sp.dto.SessionStateDto;
+import com.influans.sp.entity.StoryEntity;
+import com.influans.sp.repository.SessionRepository;
+import com.influans.sp.repository.StoryRepository;
+import com.influans.sp.repository.VoteRepository;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.MapEntry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * @author hazem
+ */
+public class SpectatorBroadcasterTest extends ApplicationTest {
+
+    @Autowired
+    private SpectatorBroadcaster spectatorBroadcaster;
+    @Autowired
+    private LocalSubscriptionRegistry subscriptionRegistry;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private StoryRepository storyRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @After
+    public void tearDown() {
+        subscriptionRegistry.disconnect("ws-spectator");
+        spectatorBroadcaster.flush();
+    }
+
+    /**
+     * @verifies send a state frame to sessions having spectators
+     * @see SpectatorBroadcaster#flush()
+     */
+    @Test
+    public void flush_shouldSendAStateFrameToSessionsHavingSpectators() throws Exception {
+        // given
+        subscriptionRegistry.subscribe("ws-spectator", "sub-0", "/topic/sessionId/spectators");
+        spectatorBroadcaster.markDirty("sessionId");
+
+        // then
+        Assertions.assertThat(spectatorBroadcaster.flush()).isEqualTo(1);
+    }
+
+    /**
+     * @verifies not send anything to sessions without spectators
+     * @see SpectatorBroadcaster#flush()
+     */
+    @Test
+    public void flush_shouldNotSendAnythingToSessionsWithoutSpectators() throws Exception {
+        // given
+        subscriptionRegistry.subscribe("ws-spectator", "sub-0", "/topic/sessionId");
+        spectatorBroadcaster.markDirty("sessionId");
+
+        // then
+        Assertions.assertThat(spectatorBroadcaster.flush()).isEqualTo(0);
+    }
+
+    /**
+     * @verifies send only one frame for several modifications of the same session
+     * @see SpectatorBroadcaster#flush()
+     */
+    @Test
+    public void flush_shouldSendOnlyOneFrameForSeveralModificationsOfTheSameSession() throws Exception {
+        // given
+        subscriptionRegistry.subscribe("ws-spectator", "sub-0", "/topic/sessionId/spectators");
+        for (int i = 0; i < 10; i++) {
+            spectatorBroadcaster.markDirty("sessionId");
+        }
+
+        // then
+        Assertions.assertThat(spectatorBroadcaster.flush()).isEqualTo(1);
+        Assertions.assertThat(spectatorBroadcaster.flush()).isEqualTo(0);
+    }
+
+    /**
+     * @verifies return the vote histogram of the current story
+     * @see SpectatorBroadcaster#buildState(String)
+     */
+    @Test
+    public void buildState_shouldReturnTheVoteHistogramOfTheCurrentStory() throws Exception {
+        // given
+        final StoryEntity endedStory = StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("story-1")
+                .build();
+        endedStory.setEnded(true);
+        endedStory.setOrder(1);
+        final StoryEntity currentStory = StoryEntityBuilder.builder()
+                .withSessionId("sessionId")
+                .withStoryId("story-2")
+                .build();
+        currentStory.setOrder(2);
+        storyRepository.save(ImmutableList.of(endedStory, currentStory));
+
+        voteRepository.save(ImmutableList.of(
+                VoteEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-1").withUsername("Leo").withValue("8").build(),
+                VoteEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-2").withUsername("Leo").withValue("3").build(),
+                VoteEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-2").withUsername("Leander").withValue("3").build(),
+                VoteEntityBuilder.builder().withSessionId("sessionId").withStoryId("story-2").withUsername("Leonidas").withValue("5").build()));
+
+        // when
+        final SessionStateDto state = spectatorBroadcaster.buildState("sessionId");
+
+        // then
+        Assertions.assertThat(state.getStories()).hasSize(2);
+        Assertions.assertThat(state.getHistograms().keySet()).containsExactly("story-2");
+        Assertions.assertThat(state.getVoteCount()).isEqualTo(3);
+        Assertions.assertThat(state.getHistograms().get("story-2")).containsEntry("3", 2).containsEntry("5", 1);
+    }
+
+    /**
+     * @verifies return the vote histogram of each story of the open round
+     * @see SpectatorBroadcaster#buildState(String)
+     */
+    @Test
+    public void buildState_shouldReturnTheVoteHistogramOfEachStoryOfTheOpenRound() throws Exception {
+        // given
+        sessionRepository.save(SessionEntityBuilder.builder()
+                .withSessionId("session-round")
+                .build());
+        storyRepository.save(ImmutableList.of(
+                StoryEntityBuilder.builder().withSessionId("session-round").withStoryId("round-1").build(),
+                StoryEntityBuilder.builder().withSessionId("session-round").withStoryId("round-2").build(),
+                StoryEntityBuilder.builder().withSessionId("session-round").withStoryId("round-3").build()));
+        sessionRepository.openRound("session-round", ImmutableList.of("round-3", "round-2"));
+        voteRepository.save(ImmutableList.of(
+                VoteEntityBuilder.builder().withSessionId("session-round").withStoryId("round-1").withUsername("Leo").withValue("8").build(),
+                VoteEntityBuilder.builder().withSessionId("session-round").withStoryId("round-2").withUsername("Leo").withValue("3").build(),
+                VoteEntityBuilder.builder().withSessionId("session-round").withStoryId("round-3").withUsername("Leo").withValue("5").build(),
+                VoteEntityBuilder.builder().withSessionId("session-round").withStoryId("round-3").withUsername("Max").withValue("5").build()));
+
+        // when
+        final SessionStateDto state = spectatorBroadcaster.buildState("session-round");
+
+        // then
+        Assertions.assertThat(state.getHistograms().keySet()).containsExactly("round-3", "round-2");
+        Assertions.assertThat(state.getHistograms().get("round-3")).containsExactly(MapEntry.entry("5", 2));
+        Assertions.assertThat(state.getHistograms().get("round-2")).containsExactly(MapEntry.entry("3", 1));
+        Assertions.assertThat(state.getVoteCount()).isEqualTo(3);
+    }
+}
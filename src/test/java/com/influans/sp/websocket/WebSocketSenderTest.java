@@ -21,6 +21,7 @@ public class WebSocketSenderTest extends ApplicationTest {
     @Before
     public void setUp() {
         when(webSocketSender.sendNotification(any(), any(), any())).thenCallRealMethod();
+        when(webSocketSender.sendNotification(any(), any(), any(), any())).thenCallRealMethod();
     }
 
     /**